@@ -0,0 +1,55 @@
+package solarsystem.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SimulationClock;
+import solarsystem.objects.SpaceObjects;
+import solarsystem.view.BodyRenderer;
+import solarsystem.view.BodyView;
+
+/**
+ * Benchmark class for a single step of the planetMovement handler in the animated views, without
+ * the transition used to move the GUI object on screen
+ * @author Laura McGhie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimationTickBenchmark {
+
+    // Focus on the Sun shows the planets, focus on Saturn shows the largest set of moons
+    @Param({"Sun", "Saturn"})
+    String focus;
+
+    SimulationClock clock;
+    Map<String, BodyInSpace> childBodies;
+    double scale;
+    BodyRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        clock = new SimulationClock();
+        childBodies = focus.equals("Sun") ? SpaceObjects.getPlanets() : SpaceObjects.getChildren(focus);
+        scale = SpaceObjects.getScale(focus).get(0);
+
+        // Only the positions are tracked, so no GUI objects are created
+        renderer = new BodyRenderer();
+    }
+
+    @Benchmark
+    public void planetMovement() {
+        clock.step(1);
+
+        for (BodyInSpace current : childBodies.values()) {
+            current.setTime(clock.getTime());
+
+            BodyView parent = renderer.view(current.getParent());
+            double moveX = parent.getX() + (current.getOrbit() * scale) * Math.sin(current.getAngle());
+            double moveY = parent.getY() - (current.getOrbit() * scale) * Math.cos(current.getAngle());
+
+            renderer.view(current).setPosition(moveX, moveY);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package solarsystem.benchmark;
+
+import java.io.*;
+import java.util.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class used to run all of the benchmarks with the GC profiler, and compare the results against a
+ * saved baseline. Run with the path to the baseline file, and add --save to replace the baseline with the
+ * new results. Any other arguments are passed on to JMH, such as -wi 3 -i 5 -w 2s -r 2s for a shorter run.
+ * @author Laura McGhie
+ */
+public class BenchmarkRunner {
+
+    /* Name of the GC profiler result holding the bytes allocated per operation. Older versions of JMH start the
+     * name with a dot, so only the end of the name is matched. */
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        boolean named = args.length > 0 && !args[0].startsWith("-");
+        File baselineFile = new File(named ? args[0] : "src/solarsystem/benchmark/baseline.csv");
+        boolean save = false;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = named ? 1 : 0; i < args.length; i++) {
+            if (args[i].equals("--save")) {
+                save = true;
+            } else {
+                jmhArgs.add(args[i]);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                .include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        Map<String, double[]> baseline = readBaseline(baselineFile);
+
+        // Print each result alongside the baseline, if there is one
+        System.out.println(String.format("%-60s %14s %-8s %14s %14s %8s", "Benchmark", "score", "unit", "B/op",
+                "baseline", "change"));
+        for (RunResult result : results) {
+            String name = getName(result.getParams());
+            double score = result.getPrimaryResult().getScore();
+            double alloc = getAllocation(result);
+
+            String unit = result.getPrimaryResult().getScoreUnit();
+
+            double[] previous = baseline.get(name);
+            if (previous != null) {
+                System.out.println(String.format("%-60s %14.3f %-8s %14.1f %14.3f %+7.1f%%", name, score, unit,
+                        alloc, previous[0], 100 * (score - previous[0]) / previous[0]));
+            } else {
+                System.out.println(String.format("%-60s %14.3f %-8s %14.1f %14s %8s", name, score, unit, alloc,
+                        "-", "-"));
+            }
+        }
+
+        if (save) {
+            writeBaseline(baselineFile, results);
+        }
+    }
+
+    /**
+     * Internal method to get a name for a benchmark result including any parameters
+     * @param params parameters of the benchmark run
+     * @return name string
+     */
+    private static String getName(BenchmarkParams params) {
+        StringBuilder name = new StringBuilder(params.getBenchmark().replace("solarsystem.benchmark.", ""));
+        for (String key : params.getParamsKeys()) {
+            name.append(":").append(key).append("=").append(params.getParam(key));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Internal method to get the bytes allocated per operation from the GC profiler result
+     * @param result result of a benchmark run
+     * @return bytes per operation, or NaN if the profiler did not report it
+     */
+    private static double getAllocation(RunResult result) {
+        for (String name : result.getSecondaryResults().keySet()) {
+            if (name.endsWith(ALLOC_NORM)) {
+                Result<?> alloc = result.getSecondaryResults().get(name);
+                return alloc.getScore();
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Internal method to read the saved baseline. Lines starting with # are ignored.
+     * @param file baseline file
+     * @return map of benchmark name to score and allocation
+     * @throws IOException
+     */
+    private static Map<String, double[]> readBaseline(File file) throws IOException {
+        Map<String, double[]> baseline = new HashMap<>();
+        if (!file.exists()) {
+            return baseline;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("benchmark,")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                baseline.put(parts[0], new double[] {Double.parseDouble(parts[1]),
+                        Double.parseDouble(parts[parts.length - 1])});
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Internal method to save the results as the new baseline
+     * @param file baseline file
+     * @param results results of the benchmark runs
+     * @throws IOException
+     */
+    private static void writeBaseline(File file, Collection<RunResult> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println("# Benchmark baseline, recorded with BenchmarkRunner --save");
+            writer.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") +
+                    ", " + Runtime.getRuntime().availableProcessors() + " cores");
+            writer.println("benchmark,score,unit,bytes_per_op");
+            for (RunResult result : results) {
+                writer.println(String.format(Locale.ROOT, "%s,%.4f,%s,%.1f", getName(result.getParams()),
+                        result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit(),
+                        getAllocation(result)));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package solarsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Benchmark class for each type of transfer made by the Calculator
+ * @author Laura McGhie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalculatorBenchmark {
+
+    @Param({"launch", "orbit", "land", "sibling", "toChild", "fromChild"})
+    String type;
+
+    BodyInSpace from, to;
+    MathEllipse fromOrbit, toOrbit;
+
+    @Setup
+    public void setUp() {
+        // Logging from the Calculator would swamp the cost of the maths itself
+        Logger.getLogger(Calculator.class.getName()).setLevel(Level.OFF);
+
+        BodyInSpace earth = SpaceObjects.getBody("Earth");
+        MathEllipse low = new MathEllipse(earth.getMass(), earth.getRadius() + 3.0e5);
+        MathEllipse high = new MathEllipse(earth.getMass(), earth.getRadius() + 3.0e5, earth.getRadius() + 3.6e7);
+
+        switch (type) {
+            case "launch":
+                set(earth, null, earth, low);
+                break;
+            case "orbit":
+                set(earth, low, earth, high);
+                break;
+            case "land":
+                set(earth, low, earth, null);
+                break;
+            case "sibling":
+                BodyInSpace mars = SpaceObjects.getBody("Mars");
+                set(earth, low, mars, new MathEllipse(mars.getMass(), mars.getRadius() + 3.0e5));
+                break;
+            case "toChild":
+                BodyInSpace moon = SpaceObjects.getBody("Moon");
+                set(earth, low, moon, new MathEllipse(moon.getMass(), moon.getRadius() + 1.0e5));
+                break;
+            case "fromChild":
+                moon = SpaceObjects.getBody("Moon");
+                set(moon, new MathEllipse(moon.getMass(), moon.getRadius() + 1.0e5), earth, low);
+                break;
+        }
+    }
+
+    private void set(BodyInSpace from, MathEllipse fromOrbit, BodyInSpace to, MathEllipse toOrbit) {
+        this.from = from;
+        this.fromOrbit = fromOrbit;
+        this.to = to;
+        this.toOrbit = toOrbit;
+    }
+
+    @Benchmark
+    public double transfer_slow() {
+        Calculator calc = new Calculator(from, fromOrbit);
+        calc.transfer_slow(to, toOrbit);
+        return calc.getTime();
+    }
+
+    @Benchmark
+    public double compute() {
+        return Calculator.compute(from, fromOrbit, to, toOrbit).getTime();
+    }
+}
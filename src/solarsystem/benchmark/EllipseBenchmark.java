@@ -0,0 +1,55 @@
+package solarsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.math.Hyper;
+import solarsystem.math.MathEllipse;
+
+/**
+ * Benchmark class for the MathEllipse and Hyper objects
+ * @author Laura McGhie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EllipseBenchmark {
+
+    // Earth's mass and a low orbit around it, so the values are realistic
+    double mass = 5.9742e24;
+    double periapse = 6.678e6;
+    double apoapse = 4.2164e7;
+
+    MathEllipse ellipse;
+    Hyper hyper;
+
+    @Setup
+    public void setUp() {
+        ellipse = new MathEllipse(mass, periapse, apoapse);
+        hyper = new Hyper(mass, periapse, 3000);
+    }
+
+    @Benchmark
+    public MathEllipse construct() {
+        return new MathEllipse(mass, periapse, apoapse);
+    }
+
+    @Benchmark
+    public MathEllipse constructCircle() {
+        return new MathEllipse(mass, periapse);
+    }
+
+    @Benchmark
+    public double period() {
+        return ellipse.period();
+    }
+
+    @Benchmark
+    public double ellipseSpeed_p() {
+        return ellipse.speed_p();
+    }
+
+    @Benchmark
+    public double hyperSpeed_p() {
+        return hyper.speed_p();
+    }
+}
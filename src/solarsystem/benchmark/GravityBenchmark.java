@@ -0,0 +1,103 @@
+package solarsystem.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.simulation.BarnesHutGravity;
+import solarsystem.simulation.DirectGravity;
+import solarsystem.simulation.GravitySolver;
+import solarsystem.simulation.NBodySystem;
+
+/**
+ * Benchmark class for a single leapfrog step of an asteroid belt around the Sun, with the accelerations worked out
+ * by the direct sum and by the Barnes-Hut tree. Both are run at the same sizes to find where the tree becomes
+ * faster, and the tree is also run at sizes the direct sum cannot reach in a sensible time.
+ * @author Laura McGhie
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GravityBenchmark {
+
+    // Length of each step in seconds
+    private static final double STEP = 3600;
+
+    /**
+     * Belt sizes both solvers are run at
+     */
+    @State(Scope.Benchmark)
+    public static class Small {
+
+        @Param({"256", "512", "1024", "4096", "16384"})
+        int bodies;
+
+        NBodySystem direct, barnesHut;
+
+        @Setup
+        public void setUp() {
+            direct = makeBelt(bodies, new DirectGravity(ForkJoinPool.commonPool()));
+            barnesHut = makeBelt(bodies, new BarnesHutGravity(ForkJoinPool.commonPool()));
+        }
+    }
+
+    /**
+     * Belt sizes only the tree is run at
+     */
+    @State(Scope.Benchmark)
+    public static class Large {
+
+        @Param({"65536", "131072", "262144"})
+        int bodies;
+
+        NBodySystem barnesHut;
+
+        @Setup
+        public void setUp() {
+            barnesHut = makeBelt(bodies, new BarnesHutGravity(ForkJoinPool.commonPool()));
+        }
+    }
+
+    /**
+     * Internal method to make a belt of asteroids between 2 and 3.5 AU around the Sun, each on a circular orbit
+     * @param bodies number of bodies including the Sun
+     * @param solver way to work out the accelerations
+     * @return system of bodies
+     */
+    static NBodySystem makeBelt(int bodies, GravitySolver solver) {
+        Random random = new Random(42);
+        double[] mass = new double[bodies];
+        double[] x = new double[bodies], y = new double[bodies];
+        double[] vx = new double[bodies], vy = new double[bodies];
+        mass[0] = 1.989e30;
+
+        for (int i = 1; i < bodies; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = 3.0e11 + random.nextDouble() * 2.2e11;
+            double speed = Math.sqrt(NBodySystem.GRAVITATIONAL_C * mass[0] / radius);
+            mass[i] = 1e15 + random.nextDouble() * 1e18;
+            x[i] = radius * Math.sin(angle);
+            y[i] = -radius * Math.cos(angle);
+            vx[i] = speed * Math.cos(angle);
+            vy[i] = speed * Math.sin(angle);
+        }
+
+        NBodySystem system = new NBodySystem(mass, x, y, vx, vy, null);
+        system.setSolver(solver);
+        return system;
+    }
+
+    @Benchmark
+    public void direct(Small state) {
+        state.direct.step(STEP);
+    }
+
+    @Benchmark
+    public void barnesHut(Small state) {
+        state.barnesHut.step(STEP);
+    }
+
+    @Benchmark
+    public void barnesHutLarge(Large state) {
+        state.barnesHut.step(STEP);
+    }
+}
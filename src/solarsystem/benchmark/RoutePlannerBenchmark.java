@@ -0,0 +1,75 @@
+package solarsystem.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.math.Calculator;
+import solarsystem.math.RoutePlanner;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Benchmark class for planning a route from Earth to Io, over the solar system with a number of asteroids added
+ * around the Sun. The legs between parking orbits are worked out when the planner is created, so only the search
+ * itself is measured.
+ * @author Laura McGhie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RoutePlannerBenchmark {
+
+    // Height of the parking orbits in km
+    private static final double PARKING = 200;
+
+    @Param({"0", "10000", "20000", "100000"})
+    int asteroids;
+
+    @Param({"DELTA_V", "TIME"})
+    RoutePlanner.Cost cost;
+
+    RoutePlanner planner;
+    RouteStage start, end;
+
+    @Setup
+    public void setUp() {
+        // Logging from the Calculator would swamp the cost of the search itself
+        Logger.getLogger(Calculator.class.getName()).setLevel(Level.OFF);
+
+        planner = new RoutePlanner(withAsteroids(asteroids), PARKING);
+        start = new RouteStage("Earth", 300, 300);
+        end = new RouteStage("Io", 400, 400);
+    }
+
+    /**
+     * Internal method to add asteroids on circular orbits between 0.3 and 40.3 AU around the Sun to the catalog
+     * @param count number of asteroids
+     * @return index of the bodies in the solar system and the asteroids
+     */
+    static BodyIndex withAsteroids(int count) {
+        BodyIndex real = SpaceObjects.getIndex();
+        List<BodyInSpace> bodies = new ArrayList<>();
+        for (int i = 0; i < real.size(); i++) {
+            bodies.add(real.getBody(i));
+        }
+        Random random = new Random(3);
+        BodyInSpace sun = SpaceObjects.getSun();
+        for (int i = 0; i < count; i++) {
+            double orbit = (0.3 + random.nextDouble() * 40) * 149.6e6;
+            bodies.add(new BodyInSpace("Asteroid" + i, 1 + random.nextDouble() * 500, 1e15 + random.nextDouble() * 1e20,
+                    orbit, 365.25 * Math.pow(orbit / 149.6e6, 1.5), random.nextDouble() * 2 * Math.PI, sun));
+        }
+        return new BodyIndex(bodies);
+    }
+
+    @Benchmark
+    public RoutePlanner.PlannedRoute plan() {
+        return planner.plan(start, end, cost);
+    }
+}
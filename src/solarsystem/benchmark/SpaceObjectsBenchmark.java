@@ -0,0 +1,25 @@
+package solarsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Benchmark class for looking up bodies in SpaceObjects
+ * @author Laura McGhie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpaceObjectsBenchmark {
+
+    // A planet, a moon listed early and a moon listed late, to cover the different maps
+    @Param({"Earth", "Moon", "Charon"})
+    String name;
+
+    @Benchmark
+    public BodyInSpace getBody() {
+        return SpaceObjects.getBody(name);
+    }
+}
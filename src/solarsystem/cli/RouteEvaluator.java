@@ -0,0 +1,363 @@
+package solarsystem.cli;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Main class used to cost a batch of routes from the command line, without starting the display. Each line of the
+ * input is a route, made of stages separated by {@code >}. A stage is the name of a body, followed by the apoapsis
+ * and periapsis of the orbit around it in km, or just the name of the body to be on its surface:
+ * <pre>
+ *   Earth &gt; Earth 200 200 &gt; Mars 300 300 &gt; Mars
+ * </pre>
+ * Blank lines and lines starting with # are skipped. Routes are costed in parallel, and the result of each leg and
+ * the total for each route are written in the same order as the input as soon as they are ready, so only a fixed
+ * number of routes are held in memory however long the input is.
+ *
+ * Usage: {@code RouteEvaluator [--format csv|jsonl] [--threads n] [--output file] [input file]}. Routes are read
+ * from standard input if no input file is given, and written to standard output if no output file is given.
+ *
+ * @author Laura McGhie
+ */
+public class RouteEvaluator {
+
+	/**
+	 * Formats the results can be written in
+	 */
+	public enum Format {
+		CSV, JSONL
+	}
+
+	static final String CSV_HEADER = "route,leg,from,to,type,exit_dv,entry_dv,total_dv,time_s,error";
+
+	// Number of routes that can be waiting to be written for each thread
+	private static final int ROUTES_PER_THREAD = 64;
+
+	private final BodyIndex index;
+	private final Format format;
+	private final int threads;
+
+	private final static Logger LOGGER = Logger.getLogger(RouteEvaluator.class.getName());
+
+	/**
+	 * Constructor to create an evaluator over the bodies of an index
+	 * @param index index of the bodies routes can visit
+	 * @param format format to write the results in
+	 * @param threads number of routes to cost at once
+	 */
+	public RouteEvaluator(BodyIndex index, Format format, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Thread count must be at least 1");
+		}
+		this.index = index;
+		this.format = format;
+		this.threads = threads;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Format format = Format.CSV;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String input = null;
+		String output = null;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--format":
+						format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+						break;
+					case "--threads":
+						threads = Integer.parseInt(args[++i]);
+						break;
+					case "--output":
+						output = args[++i];
+						break;
+					default:
+						if (args[i].startsWith("--") || input != null) {
+							throw new IllegalArgumentException("Unknown argument " + args[i]);
+						}
+						input = args[i];
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Usage: RouteEvaluator [--format csv|jsonl] [--threads n] [--output file] [input file]");
+			System.exit(2);
+			return;
+		}
+
+		RouteEvaluator evaluator = new RouteEvaluator(SpaceObjects.getIndex(), format, threads);
+		try (Reader reader = input == null || input.equals("-")
+				? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+				: Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+			 Writer writer = output == null
+				? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+				: Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+
+			int failed = evaluator.evaluate(reader, writer);
+			if (failed > 0) {
+				LOGGER.warning(failed + " routes could not be costed");
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Cost every route read from the input, and write the results to the output in the same order
+	 * @param in routes, one per line
+	 * @param out destination for the results
+	 * @return number of routes which could not be costed
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public int evaluate(Reader in, Writer out) throws IOException {
+		BufferedReader reader = new BufferedReader(in);
+		BufferedWriter writer = new BufferedWriter(out);
+		if (format == Format.CSV) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "route-evaluator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		/* Results waiting to be written, in input order. Once the queue is full the oldest result is written
+		 * before another route is read, which stops a slow output from filling the memory. */
+		ArrayDeque<Future<CostedRoute>> pending = new ArrayDeque<>();
+		int limit = threads * ROUTES_PER_THREAD;
+		int failed = 0;
+
+		try {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				final String route = line.trim();
+				if (route.isEmpty() || route.startsWith("#")) {
+					continue;
+				}
+
+				final int id = lineNumber;
+				pending.add(pool.submit(new Callable<CostedRoute>() {
+					@Override
+					public CostedRoute call() {
+						return cost(id, route);
+					}
+				}));
+
+				if (pending.size() >= limit) {
+					failed += write(writer, pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) {
+				failed += write(writer, pending.poll());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		writer.flush();
+		return failed;
+	}
+
+	/**
+	 * Cost a single route, and format the result of each leg and the total
+	 * @param id number of the route, which is its line in the input
+	 * @param line route to cost
+	 * @return costed route
+	 */
+	CostedRoute cost(int id, String line) {
+		List<TransferResult> legs = new ArrayList<>();
+		List<BodyInSpace> bodies = new ArrayList<>();
+		try {
+			List<RouteStage> stages = parse(line);
+
+			MathEllipse previousOrbit = null;
+			for (int i = 0; i < stages.size(); i++) {
+				RouteStage stage = stages.get(i);
+				BodyInSpace body = index.getBody(stage.getBody());
+				if (body == null) {
+					throw new IllegalArgumentException("Unknown body " + stage.getBody());
+				}
+				MathEllipse orbit = MathEllipse.forStage(body, stage);
+
+				if (i > 0) {
+					legs.add(Calculator.compute(bodies.get(i - 1), previousOrbit, body, orbit));
+				}
+				bodies.add(body);
+				previousOrbit = orbit;
+			}
+		} catch (IllegalArgumentException e) {
+			return error(id, e.getMessage());
+		} catch (RuntimeException e) {
+			// Any other failure is a fault in the costing rather than the route, but only loses this route
+			LOGGER.log(Level.WARNING, "Could not cost route " + id, e);
+			return error(id, e.toString());
+		}
+
+		return new CostedRoute(format == Format.CSV ? csv(id, bodies, legs) : json(id, bodies, legs), false);
+	}
+
+	/**
+	 * Internal method to create the result of a route which could not be costed
+	 */
+	private CostedRoute error(int id, String message) {
+		return new CostedRoute(format == Format.CSV ? csvError(id, message) : jsonError(id, message), true);
+	}
+
+	/**
+	 * Read a route from a line of the input
+	 * @param line stages separated by &gt;
+	 * @return list of stages
+	 * @throws IllegalArgumentException if a stage cannot be understood, or the route has fewer than two stages
+	 */
+	static List<RouteStage> parse(String line) {
+		List<RouteStage> stages = new ArrayList<>();
+		for (String part : line.split(">")) {
+			String[] fields = part.trim().split("\\s+");
+			if (fields.length == 1 && !fields[0].isEmpty()) {
+				stages.add(new RouteStage(fields[0], 0, 0));
+			} else if (fields.length == 3) {
+				try {
+					stages.add(new RouteStage(fields[0], Double.parseDouble(fields[1]), Double.parseDouble(fields[2])));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid orbit in stage " + part.trim());
+				}
+			} else {
+				throw new IllegalArgumentException("Invalid stage " + part.trim());
+			}
+		}
+		if (stages.size() < 2) {
+			throw new IllegalArgumentException("Route needs at least two stages");
+		}
+		return stages;
+	}
+
+	/**
+	 * Internal method to wait for a result and write it to the output
+	 * @return 1 if the route could not be costed, otherwise 0
+	 */
+	private static int write(Writer writer, Future<CostedRoute> result) throws IOException {
+		CostedRoute route;
+		try {
+			route = result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while costing routes");
+		} catch (ExecutionException e) {
+			throw new IOException("Could not cost route", e.getCause());
+		}
+		writer.write(route.text);
+		return route.failed ? 1 : 0;
+	}
+
+	/**
+	 * Internal method to format the result of a route as comma separated values, with one line for each leg and
+	 * a line for the total
+	 */
+	private static String csv(int id, List<BodyInSpace> bodies, List<TransferResult> legs) {
+		StringBuilder text = new StringBuilder();
+		double exit = 0, entry = 0, time = 0;
+		for (int i = 0; i < legs.size(); i++) {
+			TransferResult leg = legs.get(i);
+			text.append(String.format(Locale.ROOT, "%d,%d,%s,%s,%s,%.3f,%.3f,%.3f,%.3f,\n", id, i + 1,
+					bodies.get(i).getName(), bodies.get(i + 1).getName(), leg.getType(), leg.getExitDeltaV(),
+					leg.getEntryDeltaV(), leg.getTotalDeltaV(), leg.getTime()));
+			exit += leg.getExitDeltaV();
+			entry += leg.getEntryDeltaV();
+			time += leg.getTime();
+		}
+		text.append(String.format(Locale.ROOT, "%d,total,%s,%s,,%.3f,%.3f,%.3f,%.3f,\n", id,
+				bodies.get(0).getName(), bodies.get(bodies.size() - 1).getName(), exit, entry, exit + entry, time));
+		return text.toString();
+	}
+
+	/**
+	 * Internal method to format a route which could not be costed as a line of comma separated values
+	 */
+	private static String csvError(int id, String message) {
+		return id + ",,,,,,,,,\"" + String.valueOf(message).replace("\"", "\"\"") + "\"\n";
+	}
+
+	/**
+	 * Internal method to format the result of a route as a single line of JSON
+	 */
+	private static String json(int id, List<BodyInSpace> bodies, List<TransferResult> legs) {
+		StringBuilder text = new StringBuilder();
+		text.append("{\"route\":").append(id).append(",\"legs\":[");
+		double deltaV = 0, time = 0;
+		for (int i = 0; i < legs.size(); i++) {
+			TransferResult leg = legs.get(i);
+			if (i > 0) {
+				text.append(',');
+			}
+			text.append(String.format(Locale.ROOT, "{\"from\":%s,\"to\":%s,\"type\":%s,\"exitDeltaV\":%.3f," +
+					"\"entryDeltaV\":%.3f,\"time\":%.3f}", quote(bodies.get(i).getName()),
+					quote(bodies.get(i + 1).getName()), quote(leg.getType()), leg.getExitDeltaV(),
+					leg.getEntryDeltaV(), leg.getTime()));
+			deltaV += leg.getTotalDeltaV();
+			time += leg.getTime();
+		}
+		text.append(String.format(Locale.ROOT, "],\"totalDeltaV\":%.3f,\"totalTime\":%.3f}\n", deltaV, time));
+		return text.toString();
+	}
+
+	/**
+	 * Internal method to format a route which could not be costed as a single line of JSON
+	 */
+	private static String jsonError(int id, String message) {
+		return "{\"route\":" + id + ",\"error\":" + quote(String.valueOf(message)) + "}\n";
+	}
+
+	/**
+	 * Internal method to write a string as a JSON string, escaping any characters which need it
+	 */
+	private static String quote(String value) {
+		StringBuilder text = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				text.append('\\').append(c);
+			} else if (c < 0x20) {
+				text.append(String.format("\\u%04x", (int) c));
+			} else {
+				text.append(c);
+			}
+		}
+		return text.append('"').toString();
+	}
+
+	/**
+	 * Object class holding the formatted result of a route, and whether it could be costed
+	 */
+	static final class CostedRoute {
+
+		final String text;
+		final boolean failed;
+
+		CostedRoute(String text, boolean failed) {
+			this.text = text;
+			this.failed = failed;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package solarsystem.controller;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Object to keep copies of the state of an animation, taken every so many steps, so the animation can be moved back
+ * to any earlier step by restoring the nearest copy before it and stepping forward from there. Only a fixed number
+ * of copies are kept: once there are too many, every other copy is dropped and the gap between copies is doubled.
+ * However long the animation runs, the history stays the same size, and the number of steps needed to reach any
+ * point from the nearest copy is never more than the current gap.
+ *
+ * @param <T> type of the saved state
+ * @author Laura McGhie
+ */
+public class CheckpointHistory<T> {
+
+	private final TreeMap<Long, T> checkpoints = new TreeMap<>();
+	private final int capacity;
+	private long interval;
+
+	/**
+	 * Constructor to create an empty history
+	 * @param interval number of steps between copies to begin with
+	 * @param capacity largest number of copies kept
+	 * @throws IllegalArgumentException if the interval is less than 1, or fewer than 2 copies would be kept
+	 */
+	public CheckpointHistory(long interval, int capacity) {
+		if (interval < 1) {
+			throw new IllegalArgumentException("Interval must be at least 1");
+		}
+		if (capacity < 2) {
+			throw new IllegalArgumentException("Capacity must be at least 2");
+		}
+		this.interval = interval;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Check if a copy should be taken at the given step
+	 * @param step step number
+	 * @return true if the step falls on the current gap between copies
+	 */
+	public boolean isDue(long step) {
+		return step % interval == 0;
+	}
+
+	/**
+	 * Add a copy of the state at the given step, replacing any copy already held for that step. Copies may also be
+	 * added between the usual steps, such as when the speed changes, but these are the first to be dropped.
+	 * @param step step number the state was copied at
+	 * @param state copy of the state
+	 */
+	public void put(long step, T state) {
+		checkpoints.put(step, state);
+
+		// Keep only the copies on a gap twice as long until there are few enough
+		while (checkpoints.size() > capacity) {
+			interval *= 2;
+			Iterator<Long> steps = checkpoints.keySet().iterator();
+			while (steps.hasNext()) {
+				if (steps.next() % interval != 0) {
+					steps.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop every copy taken after the given step, for when the animation takes a different path from that step and
+	 * the later copies no longer match it. The gap between copies is kept.
+	 * @param step step number of the last copy which may be kept
+	 */
+	public void dropAfter(long step) {
+		checkpoints.tailMap(step, false).clear();
+	}
+
+	/**
+	 * Get the latest copy taken at or before the given step
+	 * @param step step number
+	 * @return step number and copy, or null if there is no copy that early
+	 */
+	public Map.Entry<Long, T> floor(long step) {
+		return checkpoints.floorEntry(step);
+	}
+
+	/**
+	 * Get the current number of steps between copies
+	 * @return number of steps
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Get the number of copies held
+	 * @return number of copies
+	 */
+	public int size() {
+		return checkpoints.size();
+	}
+}
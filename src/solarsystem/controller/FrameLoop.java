@@ -0,0 +1,338 @@
+package solarsystem.controller;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import javafx.animation.AnimationTimer;
+import solarsystem.metrics.FrameStats;
+
+/**
+ * Object to run the animation of a view. The simulation is moved on in fixed steps, however long each frame takes
+ * to show, and the display is drawn once per frame. Time left over between the last step and the frame is passed
+ * to the view as a fraction of a step, so positions can be blended between the last two steps.
+ *
+ * Only one view is shown at a time, so the views share a single loop and replace its listener when they are shown.
+ * Every frame, step and draw is timed into the loop's frame statistics.
+ *
+ * A view whose steps do not touch the scene graph can be started threaded instead. Its steps then run on a separate
+ * simulation thread at the same fixed rate, and only the drawing is left on the JavaFX thread, so a slow step never
+ * holds up a frame or the handling of input. The view hands each step to the display through a TripleBuffer, and
+ * changes to the simulation asked for by the display are posted to run between steps.
+ *
+ * @author Laura McGhie
+ */
+public class FrameLoop {
+
+	/**
+	 * Interface for a view driven by the loop
+	 */
+	public interface Listener {
+
+		/**
+		 * Move the simulation on by a single fixed step
+		 */
+		void step();
+
+		/**
+		 * Draw the display
+		 * @param alpha fraction of a step since the last step, from 0 up to 1
+		 */
+		void render(double alpha);
+	}
+
+	/* Longest time that is caught up in a single frame. If the program stalls for longer, for example while the
+	 * window is dragged, the rest of the time is dropped instead of running hundreds of steps at once. */
+	static final long MAX_FRAME_NANOS = 250_000_000L;
+
+	private final long stepNanos;
+	private final FrameStats stats;
+	private AnimationTimer timer;
+	private volatile Listener listener;
+	private volatile boolean paused;
+	private long lastFrame = -1;
+	private long accumulator;
+	private volatile long steps;
+
+	// Thread running the steps of a threaded view, the time its last step was due, and changes waiting to be made
+	private Thread simulation;
+	private volatile long lastStep;
+	private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Constructor to create a loop with the given step length
+	 * @param stepMillis length of a single simulation step in milliseconds
+	 */
+	public FrameLoop(double stepMillis) {
+		this(stepMillis, new FrameStats());
+	}
+
+	/**
+	 * Constructor to create a loop with the given step length, which times its frames into the given statistics
+	 * @param stepMillis length of a single simulation step in milliseconds
+	 * @param stats statistics to add the times to
+	 */
+	public FrameLoop(double stepMillis, FrameStats stats) {
+		this.stepNanos = Math.round(stepMillis * 1e6);
+		this.stats = stats;
+	}
+
+	/**
+	 * Start running the loop for the given listener, replacing any listener that was running before
+	 * @param listener view to drive
+	 */
+	public void start(Listener listener) {
+		stopSimulation();
+		this.listener = listener;
+		this.paused = false;
+		this.lastFrame = -1;
+		this.accumulator = 0;
+		startTimer();
+	}
+
+	/**
+	 * Start running the loop for the given listener with its steps on a separate simulation thread, replacing any
+	 * listener that was running before. The listener's steps must not touch the scene graph, and should hand what
+	 * they work out to its render method through a TripleBuffer.
+	 * @param listener view to drive
+	 */
+	public void startThreaded(final Listener listener) {
+		stopSimulation();
+		this.listener = listener;
+		this.paused = false;
+		this.lastFrame = -1;
+		this.accumulator = 0;
+		this.lastStep = System.nanoTime();
+
+		simulation = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				simulate(listener);
+			}
+		}, "simulation");
+		simulation.setDaemon(true);
+		simulation.start();
+		startTimer();
+	}
+
+	/**
+	 * Make a change to the simulation between two steps. For a threaded view the change is run on the simulation
+	 * thread before its next step, and otherwise it is run straight away.
+	 * @param command change to make
+	 */
+	public void post(Runnable command) {
+		if (simulation != null) {
+			commands.add(command);
+			LockSupport.unpark(simulation);
+		} else {
+			command.run();
+		}
+	}
+
+	/**
+	 * Check if the steps of the current view run on a separate simulation thread
+	 * @return true if the view was started threaded
+	 */
+	public boolean isThreaded() {
+		return simulation != null;
+	}
+
+	/**
+	 * Internal method to create the timer the first time it is needed, and start it
+	 */
+	private void startTimer() {
+		if (timer == null) {
+			timer = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					frame(now);
+				}
+			};
+		}
+		timer.start();
+	}
+
+	/**
+	 * Stop the simulation from moving on. The display is still drawn each frame.
+	 */
+	public void pause() {
+		this.paused = true;
+	}
+
+	/**
+	 * Carry on moving the simulation on after a pause
+	 */
+	public void resume() {
+		this.paused = false;
+		this.lastFrame = -1;
+	}
+
+	/**
+	 * Stop the loop and drop the listener, for when a view is closed
+	 */
+	public void stop() {
+		if (timer != null) {
+			timer.stop();
+		}
+		this.listener = null;
+		stopSimulation();
+	}
+
+	/**
+	 * Internal method to stop the simulation thread, if there is one. It is waited for, which takes no longer than
+	 * the step it is part way through, so the next view never steps the shared clock at the same time.
+	 */
+	private void stopSimulation() {
+		Thread thread = simulation;
+		if (thread == null) {
+			return;
+		}
+		simulation = null;
+		Listener current = listener;
+		listener = null;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		listener = current;
+		commands.clear();
+	}
+
+	/**
+	 * Check if the simulation is currently moving on
+	 * @return true if the loop is running and not paused
+	 */
+	public boolean isRunning() {
+		return listener != null && !paused;
+	}
+
+	/**
+	 * Get the number of steps made since the loop was created
+	 * @return number of steps
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Get the statistics the frames are timed into
+	 * @return frame statistics
+	 */
+	public FrameStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Move the loop on to the given frame time, running as many whole steps as have passed since the last frame
+	 * and then drawing the display. Called by the timer once per frame.
+	 * @param now time of the frame in nanoseconds
+	 */
+	void frame(long now) {
+		Listener current = listener;
+		if (current == null) {
+			return;
+		}
+		if (simulation != null) {
+			renderThreaded(current, now);
+			return;
+		}
+
+		long start = System.nanoTime();
+		long allocated = stats.allocatedBytes();
+
+		if (lastFrame < 0 || paused) {
+			lastFrame = now;
+		} else {
+			stats.record(FrameStats.Section.PULSE, now - lastFrame);
+		}
+		accumulator += Math.min(now - lastFrame, MAX_FRAME_NANOS);
+		lastFrame = now;
+
+		/* Run whole steps until less than a step is left. The listener may pause or replace the loop part way
+		 * through, in which case the rest of the time is dropped. */
+		while (accumulator >= stepNanos && listener == current && !paused) {
+			long stepStart = System.nanoTime();
+			current.step();
+			stats.record(FrameStats.Section.STEP, System.nanoTime() - stepStart);
+			steps++;
+			accumulator -= stepNanos;
+		}
+		if (paused) {
+			accumulator = 0;
+		}
+
+		long renderStart = System.nanoTime();
+		current.render((double) accumulator / stepNanos);
+		long end = System.nanoTime();
+
+		stats.record(FrameStats.Section.RENDER, end - renderStart);
+		stats.record(FrameStats.Section.TICK, end - start);
+		stats.recordAllocation(allocated);
+	}
+
+	/**
+	 * Internal method to draw a frame of a threaded view. The steps are left to the simulation thread, and the
+	 * fraction of a step passed to the view is the time since its last step was due.
+	 */
+	private void renderThreaded(Listener current, long now) {
+		long start = System.nanoTime();
+		long allocated = stats.allocatedBytes();
+		if (lastFrame >= 0) {
+			stats.record(FrameStats.Section.PULSE, now - lastFrame);
+		}
+		lastFrame = now;
+
+		double alpha = paused ? 0 : Math.min(1, Math.max(0, (double) (start - lastStep) / stepNanos));
+		current.render(alpha);
+		long end = System.nanoTime();
+
+		stats.record(FrameStats.Section.RENDER, end - start);
+		stats.record(FrameStats.Section.TICK, end - start);
+		stats.recordAllocation(allocated);
+	}
+
+	/**
+	 * Internal method run by the simulation thread, which makes each step when it is due until the listener is
+	 * replaced or the loop is stopped, and sleeps in between. Changes posted by the display are made before each
+	 * batch of steps, and are still made while the loop is paused.
+	 */
+	private void simulate(Listener current) {
+		long next = System.nanoTime();
+		while (listener == current) {
+			Runnable command;
+			while ((command = commands.poll()) != null) {
+				command.run();
+			}
+
+			long now = System.nanoTime();
+			if (paused) {
+				next = now;
+				LockSupport.parkNanos(stepNanos);
+				continue;
+			}
+
+			// Drop time beyond the longest catch up, as the frames do if the program stalls
+			if (now - next > MAX_FRAME_NANOS) {
+				next = now - MAX_FRAME_NANOS;
+			}
+
+			// Count the memory allocated by each batch of steps, as the frames only count the JavaFX thread
+			long allocated = stats.allocatedBytes();
+			boolean stepped = false;
+			while (next <= now && listener == current && !paused) {
+				long stepStart = System.nanoTime();
+				current.step();
+				stats.record(FrameStats.Section.STEP, System.nanoTime() - stepStart);
+				steps++;
+				lastStep = next;
+				next += stepNanos;
+				stepped = true;
+			}
+			if (stepped) {
+				stats.recordSimAllocation(allocated);
+			}
+			LockSupport.parkNanos(next - System.nanoTime());
+		}
+	}
+}
@@ -4,16 +4,19 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -21,6 +24,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
@@ -29,16 +33,32 @@ import javafx.scene.shape.Line;
 import javafx.scene.shape.Shape;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import solarsystem.objects.BodyInSpace;
 import solarsystem.objects.RouteStage;
 import solarsystem.objects.SpaceObjects;
 import solarsystem.objects.Spaceship;
-import solarsystem.math.Calculator;
+import solarsystem.objects.TimeWarp;
+import solarsystem.simulation.BodySnapshot;
+import solarsystem.simulation.JourneyLog;
+import solarsystem.simulation.JourneyReport;
+import solarsystem.simulation.JourneySimulator;
+import solarsystem.simulation.TripleBuffer;
+import solarsystem.telemetry.TelemetryRecorder;
 import solarsystem.math.MathEllipse;
+import solarsystem.math.TransferResult;
+import solarsystem.metrics.FrameStats;
+import solarsystem.view.BodyRenderer;
+import solarsystem.view.BodyView;
+import solarsystem.view.CanvasRenderer;
+import solarsystem.view.RenderMode;
+import solarsystem.view.SpaceshipView;
+import solarsystem.view.StatsOverlay;
 
 /**
- * Controller class for showing an animation of a journey through space
+ * Controller class for showing an animation of a journey through space. The journey is stepped on the simulation
+ * thread of the frame loop, which owns the clock, the simulation of the journey and both spacecraft. After each step
+ * everything the display needs is handed to the JavaFX thread through a triple buffer, and the JavaFX thread only
+ * draws it and updates the panes and labels to match.
  * @author Laura McGhie
  */
 public class JourneyController extends SuperController implements Initializable {
@@ -51,32 +71,93 @@ public class JourneyController extends SuperController implements Initializable
     @FXML private TextArea journeyInfo;
     @FXML private Button speedButton;
     @FXML private Button slowButton;
+    @FXML private Slider journeySlider;
 
-    private Timeline timeline;
+    // Canvas to draw the main view onto, only used when drawing onto a canvas
+    private CanvasRenderer canvas;
 
-    // Track the current step in the animation and whether or not this has been set up on the display
-    private int steps = 0;
-    private boolean newStepMain = true, newStepFocus = true;
+    // Frame statistics shown over the main view, only used if the overlay is turned on
+    private StatsOverlay overlay;
+
+    /* Simulation of the journey, which decides when each phase of the journey starts and ends. The handlers only
+     * draw the phase it is in, and let it move on once the focus view has caught up. */
+    private JourneySimulator simulator;
 
-    private boolean transferWindow = false;
-    private double startAngle, endAngle, transAngle, drawAngle;
+    // Track the stage and phase of the journey shown, and whether or not this has been set up on the display
+    private int shownStage = -1;
+    private JourneySimulator.Phase shownPhase;
+    private boolean newStepMain = true, newStepFocus = true;
+    private double startAngle, endAngle;
 
     // Variables for managing the focus view
-    private double orbitsSearch;
     private double focusScale;
     private double yPositionOut = 100;
     private double yPositionIn = 200;
     private static double DEFAULT_FALCON_PERIOD = 30;
+
+    /* Shortest period of the focus spacecraft, so it never moves more than 2 degrees a step and cannot jump over
+     * the 1 degree either side of the angles its transfers start at, however fast the journey is played. */
+    private static final double MIN_FALCON_PERIOD = 4;
     private double transOrb1, transOrb2;
     private boolean transferringOrbits, newMove, transferComplete;
 
-    // Store data about the journey taken as a whole
-    private final StringBuilder completeJourneyData = new StringBuilder();
-    private double totalJourneyTime;
+    // Store data about the journey taken as a whole, which is also written to a log file as the journey goes
+    private JourneyReport completeJourneyData;
+
+    /* Recorder for the position of each body and spacecraft at every step, only used if telemetry is turned on.
+     * By default it keeps the last two hours at the full step rate, set by solarsystem.telemetry.hours. */
+    private static final double TELEMETRY_HOURS = 2;
+    private TelemetryRecorder telemetry;
+    private BodyInSpace[] telemetryBodies;
+
+    // Spacecraft for the main view and the focus view, and the GUI objects which draw them
+    private final Spaceship enterprise = new Spaceship();
+    private final Spaceship falcon = new Spaceship();
+    private final SpaceshipView enterpriseView = new SpaceshipView();
+    private final SpaceshipView falconView = new SpaceshipView();
+
+    // Planet and transfer line shown in the focus view
+    private static final double FOCUS_RADIUS = 5;
+    private Circle planetFocus;
+    private Line entryLine;
+
+    /* Text of the side panel, the body the focus planet is styled as and the position of the transfer line, as
+     * worked out by the steps. The display copies them onto the labels and shapes. */
+    private String stageText = "", dataText = "", focusBody = "";
+    private double entryX;
+    private boolean entryShown;
+    private String reportText;
+
+    // Centre of the main view and the focus view, which are fixed once the panes are laid out
+    private double centreX, centreY, focusWidth, focusHeight;
+
+    /* Copies of the journey taken every so many steps, so the journey can be moved back and forth to any step it
+     * has reached by restoring the nearest copy and stepping on from there. */
+    private static final long CHECKPOINT_INTERVAL = 256;
+    private static final int MAX_CHECKPOINTS = 1024;
+    private final CheckpointHistory<Checkpoint> checkpoints =
+            new CheckpointHistory<>(CHECKPOINT_INTERVAL, MAX_CHECKPOINTS);
+    private FrameLoop.Listener journey;
+    private long journeyStep, furthestStep;
+    private boolean seeking, updatingSlider;
 
     // Store the displayed parent and its children
     private BodyInSpace currentParent = SpaceObjects.getSun();
-    private Map<String, BodyInSpace> childBodies = SpaceObjects.getPlanets();
+    private List<BodyInSpace> childBodies = new ArrayList<>(SpaceObjects.getPlanets().values());
+
+    /* Offset of each child body from the parent after the latest step and the step published before it, and the
+     * steps handed to the display. The bodies jump rather than move when the frame changes or the journey is
+     * moved to another step, so there is then nothing to blend from. */
+    private double[] posX, posY, lastX, lastY;
+    private TripleBuffer<StepState> states;
+    private boolean jumped = true;
+
+    // Views of the bodies shown in the current frame, and the step of the journey they were last set up for
+    private final BodyRenderer renderer = new BodyRenderer();
+    private BodyInSpace drawnFrame;
+    private double drawnScale, drawnSpeed = Double.NaN;
+    private String drawnFocus = "";
+    private boolean drawnFinished;
 
     private final static Logger LOGGER = Logger.getLogger(JourneyController.class.getName());
 
@@ -87,53 +168,60 @@ public class JourneyController extends SuperController implements Initializable
 
     private void setUp() {
 
-        // Redraw the planet set at 0,0 to counteract object displacement
-        for (BodyInSpace current : childBodies.values()) {
-            current.resetPlanet();
+        // Open a log to write the journey to as it is made. If it cannot be opened, only keep the journey in memory
+        JourneyLog log = null;
+        try {
+            log = JourneyLog.open();
+        } catch (IOException e) {
+            LOGGER.warning("Could not open journey log: " + e.getMessage());
+        }
+        completeJourneyData = new JourneyReport(log);
+
+        // Record telemetry if a file to record into has been given
+        String telemetryFile = System.getProperty("solarsystem.telemetry");
+        if (telemetryFile != null) {
+            openTelemetry(Paths.get(telemetryFile));
         }
 
         // Set the parent position to the middle of the available window space
-        currentParent.moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
+        centreX = systemPane.getPrefWidth() / 2;
+        centreY = systemPane.getPrefHeight() / 2;
 
         // Set up a planet to show at the centre of the focus pane
-        final Circle planetFocus = new Circle(sourcePane.getPrefWidth() / 2, sourcePane.getPrefHeight() / 2, 5);
-
-        /* Event handler to move the planets around their orbits. For each planet shown on the screen, we
-		 * increment their current angle by the speed factor, work out the x and y co-ordinates on their orbit circle
-		 * that correspond to this angle, and then move the planet to this location. */
-        EventHandler<ActionEvent> planetMovement = new EventHandler<ActionEvent>() {
+        focusWidth = sourcePane.getPrefWidth() / 2;
+        focusHeight = sourcePane.getPrefHeight() / 2;
+        planetFocus = new Circle(focusWidth, focusHeight, FOCUS_RADIUS);
+
+        /* Event handler to move the planets around their orbits. For each step the simulation clock has been moved on,
+		 * and for each planet in the frame we work out its angle at this time, and the x and y co-ordinates on
+		 * their orbit circle that correspond to this angle. */
+        final Runnable planetMovement = new Runnable() {
             @Override
-            public void handle(ActionEvent event) {
-                for (BodyInSpace current : childBodies.values()) {
-
-                    // Increment the angle of the planet by the speed factor
-                    current.incrementAngle(SPEED_FACTOR);
-
-                    /* Work out the x & y co-ordinates that correspond to the new angle. Multiply by the screen scale
-					 * to ensure x & y apply to the current display ratio. */
-                    double moveX = current.getParent().getX() + (current.getOrbit() * SCREEN_SCALE) *
-                            Math.sin(current.getAngle());
-
-                    double moveY = current.getParent().getY() - (current.getOrbit() * SCREEN_SCALE) *
-                            Math.cos(current.getAngle());
-
-                    // Update the planet position and move the planet
-                    current.setPosition(moveX, moveY);
-                    moveBall(current.getGUIObject(), moveX, moveY);
+            public void run() {
+
+                /* Move into the frame the simulation has moved the journey into, and fit the scale to each transfer
+                 * as it starts */
+                if (simulator.getFrame() != currentParent) {
+                    changeFrame(simulator.getFrame().getName());
+                    fitScale();
+                } else if (newStepMain && simulator.getPhase() == JourneySimulator.Phase.TRANSFER) {
+                    fitScale();
                 }
+                placeBodies();
             }
         };
 
-        // Set up a calculator object for working out the transfer data
-        final Calculator calc = new Calculator(SpaceObjects.getBody(planetsOnPath.get(0).getBody()));
-
-        // Set up two spaceship instances - one for the main planet view and one for the focus view
-        final Spaceship enterprise = new Spaceship();
-        final Spaceship falcon = new Spaceship();
+        /* Set up the simulation of the journey, which works out the transfers and adds them to the journey data.
+         * The orbit of each stage, and each move between orbits of the same body, is held until the focus view has
+         * played through it. */
+        simulator = new JourneySimulator(planetsOnPath, SpaceObjects.getIndex(), CLOCK.getTime(),
+                completeJourneyData);
+        simulator.setHeld(true);
+        fitScale();
 
         /* Using the Falcon for the focus view, so set the centre point of this spaceship to
          * the centre of the focus pane and the radius to 0, as we always start from a land. */
-        falcon.setCenterPoint(planetFocus.getCenterX(), planetFocus.getCenterY());
+        falcon.setCenterPoint(focusWidth, focusHeight);
         falcon.setRadius(0, 0);
 
         // Find the largest orbit distance in the route list
@@ -151,67 +239,46 @@ public class JourneyController extends SuperController implements Initializable
         focusScale = ((sourcePane.getPrefWidth() / 2) - 4) / maxOrbit;
 
         // Add a line to the focus pane to be used for showing transition onto and off of orbits around planets
-        Line entryLine = new Line(0, 0, 0, sourcePane.getPrefHeight());
+        entryLine = new Line(0, 0, 0, sourcePane.getPrefHeight());
         entryLine.setStroke(Color.TRANSPARENT);
         entryLine.setStrokeWidth(1);
 
         // Event Handler to control the movement of the spaceship in the main planet view pane.
-        EventHandler<ActionEvent> spaceshipMove = new EventHandler<ActionEvent>() {
+        final Runnable spaceshipMove = new Runnable() {
             @Override
-            public void handle(ActionEvent event) {
+            public void run() {
 
-                // Intermediate step for every item in the list, so divide by two to get the planet references
-                int planetIndex = steps / 2;
+                // Get the stage the simulation has reached and the phase it is in
+                int planetIndex = simulator.getStage();
+                JourneySimulator.Phase phase = simulator.getPhase();
 
                 // Get information about the starting planet in the current journey stage
-                BodyInSpace startPlanet, endPlanet;
-
-                String phaseStart = planetsOnPath.get(planetIndex).getBody();
                 RouteStage startStage = planetsOnPath.get(planetIndex);
-                startPlanet = SpaceObjects.getBody(phaseStart);
+                BodyInSpace startPlanet = bodyAt(planetIndex);
 
                 /* Attempt to get information about the destination planet in the journey stage, as long as
                  * we are not at the end of the journey.  */
-                boolean outwardMovement = true;
-                String phaseEnd;
-                RouteStage endStage;
+                BodyInSpace endPlanet = startPlanet;
                 if (planetsOnPath.size() > planetIndex + 1) {
-                    phaseEnd = planetsOnPath.get(planetIndex + 1).getBody();
-                    endPlanet = SpaceObjects.getBody(phaseEnd);
-                    endStage = planetsOnPath.get(planetIndex + 1);
-
-                    // Work out the direction of movement and set the scale of the view based on the most distant planet
-                    if ((startPlanet.isSibling(endPlanet) && startPlanet.getOrbit() > endPlanet.getOrbit())
-                            || (startPlanet.isChild(endPlanet))) {
-                        outwardMovement = false;
-                        setScale(285 / startPlanet.getOrbit());
-                    } else {
-                        setScale(285 / endPlanet.getOrbit());
-                    }
-                } else {
-                    phaseEnd = "";
-                    endPlanet = startPlanet;
-                    endStage = new RouteStage("null", 0, 0);
+                    endPlanet = bodyAt(planetIndex + 1);
                 }
 
-                // Reset the currently displayed frame based on the next transition in the journey
-                if (newStepMain && !phaseEnd.isEmpty()) {
-                    if (startPlanet.isSibling(endPlanet)) {
-                        changeFrame(startPlanet.getParent().getName(), enterprise);
-                    } else if (startPlanet.isParent(endPlanet)) {
-                        changeFrame(startPlanet.getName(), enterprise);
-                    } else if (startPlanet.isChild(endPlanet)) {
-                        changeFrame(endPlanet.getName(), enterprise);
-                    }
+                // Work out the direction of movement, which decides the half of the path the spacecraft takes
+                boolean outwardMovement = true;
+                if ((startPlanet.isSibling(endPlanet) && startPlanet.getOrbit() > endPlanet.getOrbit())
+                        || (startPlanet.isChild(endPlanet))) {
+                    outwardMovement = false;
                 }
 
-                /* Odd steps are for transferring between two bodies/orbits */
-                if (steps % 2 == 1) {
+                /* Transferring between two bodies/orbits */
+                if (phase == JourneySimulator.Phase.TRANSFER) {
 
                     // If we are on a new step, then we need to set up the spacecraft for the new path
                     if (newStepMain) {
+                        TransferResult transfer = simulator.getTransfer();
+
                         // For a sibling transfer to a new body
-                        if (!phaseStart.equals(phaseEnd) && startPlanet.isSibling(endPlanet)) {
+                        if (startPlanet != endPlanet && startPlanet.isSibling(endPlanet)) {
 
                             /* Set the parent of the spacecraft to be the parent of the siblings, and get references
                              * dependent on which point of the journey is closer to the parent body. */
@@ -237,35 +304,41 @@ public class JourneyController extends SuperController implements Initializable
                              * angle of the journey to work out the required centre point of the spacecraft's path. */
                             double radiusJourney = (transferPath.semiMajor() - endPlanet.getOrbit()) * SCREEN_SCALE;
 
-                            double journeyMoveX = enterprise.getParent().getX() + ((radiusJourney) *
-                                    Math.sin(startPlanet.getAngle()));
-                            double journeyMoveY = enterprise.getParent().getY() - ((radiusJourney) *
-                                    Math.cos(startPlanet.getAngle()));
+                            double planetAngle = startPlanet.angleAt(CLOCK.getTime());
+                            double journeyMoveX = screenX(enterprise.getParent()) + ((radiusJourney) *
+                                    Math.sin(planetAngle));
+                            double journeyMoveY = screenY(enterprise.getParent()) - ((radiusJourney) *
+                                    Math.cos(planetAngle));
 
                             enterprise.setCenterPoint(journeyMoveX, journeyMoveY);
 
                             // Rotate the path according the angle at which the path is triggered to be displayed
-                            enterprise.setPathRotation(Math.toDegrees(startPlanet.getAngle()));
+                            enterprise.setPathRotation(Math.toDegrees(planetAngle));
 
-                            /* Get the angular velocity of the destination body and use this to calculate the
-                             * period required so that the spacecraft will meet the destination body at the end of
-                             * its orbit. */
-                            double period = 360 / ((endPlanet.getAngularV() * Math.PI) / (transAngle));
-                            enterprise.setPeriod(period);
+                            /* Journey is always made from 0 to 180 degrees around the transfer orbit. The window
+                             * was opened at the phase angle worked out by the calculator, so the destination body
+                             * reaches the far side of the path just as the spacecraft does. */
+                            startAngle = 0;
+                            endAngle = Math.PI;
                         }
                         // For a parent/child transfer
-                        else if (!phaseStart.equals(phaseEnd)) {
+                        else if (startPlanet != endPlanet) {
 
                             /* Work out which of the bodies is the child body, and then establish the
-                             * journey distance as the orbit of the child body. */
-                            double distance;
+                             * journey distance as the orbit of the child body. If we are going to the child body,
+                             * then work out how far the body will have moved in the time it takes for the
+                             * spacecraft to make the transfer. */
+                            BodyInSpace childPlanet;
+                            double angleCovered = 0;
                             if (startPlanet.isChild(endPlanet)) {
                                 enterprise.setParent(startPlanet.getParent());
-                                distance = startPlanet.getOrbit();
+                                childPlanet = startPlanet;
                             } else {
                                 enterprise.setParent(endPlanet.getParent());
-                                distance = endPlanet.getOrbit();
+                                childPlanet = endPlanet;
+                                angleCovered = Math.toRadians(childPlanet.getAngularV() * (transfer.getTime() / 86400));
                             }
+                            double distance = childPlanet.getOrbit();
 
                             // Create a new Ellipse to get the data for the path between the bodies
                             MathEllipse transferPath = new MathEllipse(currentParent.getMass(), 0, distance);
@@ -274,17 +347,24 @@ public class JourneyController extends SuperController implements Initializable
                              * for reasonable accuracy with a real journey */
                             double pathWidth = transferPath.semiMinor();
                             if (transferPath.semiMinor() == 0) {
-                                pathWidth = currentParent.getGUIObject().getRadius() * 2 / SCREEN_SCALE;
+                                pathWidth = BodyView.RADIUS * 2 / SCREEN_SCALE;
                             }
 
                             // Set up the spacecraft's path to match the distance between bodies
                             enterprise.setRadius(pathWidth * SCREEN_SCALE, transferPath.semiMajor() * SCREEN_SCALE);
 
+                            /* The angle at which the transfer orbit should be drawn. Accounts for the movement
+                             * of the body and ensures the spacecraft will meet it if appropriate. */
+                            double drawAngle = childPlanet.angleAt(CLOCK.getTime()) + angleCovered;
+                            while (drawAngle < 0) {
+                                drawAngle += 2 * Math.PI;
+                            }
+
                             /* Work out the mid point between the parent and the child body at the starting
                              * angle of the journey, and set the journey path to centre at this point */
-                            double journeyMoveX = enterprise.getParent().getX() + (enterprise.getRadiusY() *
+                            double journeyMoveX = screenX(enterprise.getParent()) + (enterprise.getRadiusY() *
                                     Math.sin(drawAngle));
-                            double journeyMoveY = enterprise.getParent().getY() - (enterprise.getRadiusY() *
+                            double journeyMoveY = screenY(enterprise.getParent()) - (enterprise.getRadiusY() *
                                     Math.cos(drawAngle));
 
                             enterprise.setCenterPoint(journeyMoveX, journeyMoveY);
@@ -292,70 +372,47 @@ public class JourneyController extends SuperController implements Initializable
                             // Rotate the path according the angle at which the path is triggered to be displayed
                             enterprise.setPathRotation(Math.toDegrees(drawAngle));
 
-                            /* Use the calculated transfer time to set the period that the spacecraft should take
-                             * to make one full orbit of it's path. Ensures the spacecraft meets it's destination at
-                             * the end of the path.  */
-                            enterprise.setPeriod(2 * (calc.getTime() / 86400));
-
+                            /* Spacecraft always moves around half of the orbit circle. Work out which half based
+                             * on the direction of the transfer. */
+                            if (!outwardMovement || childPlanet.equals(startPlanet)) {
+                                startAngle = 0;
+                                endAngle = Math.PI;
+                            } else {
+                                startAngle = Math.PI;
+                                endAngle = 0;
+                            }
                         }
 
+                        /* The spacecraft goes half way around its path in the transfer time, so it would take twice
+                         * the transfer time to make one full orbit of it. */
+                        enterprise.setPeriod(2 * (transfer.getTime() / 86400));
+
                         // Set the angle of the spacecraft to match the starting angle of the journey
                         enterprise.setAngle(startAngle);
 
                         // Set the title of the route display to match the current transition
-                        routeStage.setText(startPlanet.getName() + " > " + endPlanet.getName());
-
-                        // Get the transfer data string from the Calculator
-                        String data = calc.getTransferData();
-
-                        // Format the data string for display in the side panel and then add it to this panel
-                        String newData = data.replace("\t", "\n");
-                        routeData.setText(newData.replace("days ", "days\n"));
-
-                        // Add information about the start point of this transition to the journey data string
-                        completeJourneyData.append(startPlanet.getName()).append(" ");
-                        if (startStage.isLanded()) {
-                            completeJourneyData.append("Surface");
-                        } else {
-                            completeJourneyData.append(String.format("%.0fkm/%.0fkm", startStage.getApoapsis(),
-                                    startStage.getPeriapsis()));
-                        }
+                        stageText = startPlanet.getName() + " > " + endPlanet.getName();
 
-                        // Add information about the end point of this transition to the journey data string
-                        completeJourneyData.append(" > ").append(endPlanet.getName()).append(" ");
-                        if (endStage.isLanded()) {
-                            completeJourneyData.append("Surface");
-                        } else {
-                            completeJourneyData.append(String.format("%.0fkm/%.0fkm", endStage.getApoapsis(),
-                                    endStage.getPeriapsis()));
-                        }
-
-                        // Add the transition data to the journey data string
-                        completeJourneyData.append("\n\t").append(calc.getTransferData());
-
-                        // Add the transition time to the total journey time
-                        totalJourneyTime += calc.getTime();
+                        // Format the transfer data string for display in the side panel
+                        String newData = transfer.getTransferData().replace("\t", "\n");
+                        dataText = newData.replace("days ", "days\n");
 
                         // Finished processing a new step, so indicate this in the boolean
                         newStepMain = false;
-
-                    } else {
-                        /* Currently making a transition, so simply increment the angle of the spacecraft
-                         * along it's path by the current speed factor. */
-                        enterprise.incrementAngle(SPEED_FACTOR);
                     }
 
-                    /* If we are moving to a new body, check if we have reached the end point of the transition. If
-                     * not, then move the spacecraft so it mirrors the current body's position. */
-                    if (!phaseStart.equals(phaseEnd)) {
-                        if (Math.abs(Math.toDegrees(enterprise.getAngle() - endAngle)) < 1) {
-                            nextPhase();
-                        }
+                    /* If we are moving to a new body, move the spacecraft along its path as far as the simulation is
+                     * through the transfer, so it meets the destination as the transfer ends. If not, then move the
+                     * spacecraft so it mirrors the current body's position. */
+                    if (startPlanet != endPlanet) {
+                        double progress = (CLOCK.getTime() - simulator.getPhaseStart())
+                                / (simulator.getPhaseEnd() - simulator.getPhaseStart());
+                        enterprise.setAngle((startAngle + Math.PI * progress) % (2 * Math.PI));
                     } else {
-                        enterprise.setCenterPoint(startPlanet.getX(), startPlanet.getY());
+                        enterprise.setCenterPoint(screenX(startPlanet), screenY(startPlanet));
                     }
                 }
-                // Even step thus we are currently orbiting a single body
+                // Otherwise we are currently orbiting a single body, or the journey is over
                 else {
 
                     // If we are on a new step, then set up the display with data about the new orbit
@@ -363,149 +420,25 @@ public class JourneyController extends SuperController implements Initializable
 
                         /* Set the text on the sidebar to display the name of the current planet, as well as
                          * data regarding the current orbit. */
-                        routeStage.setText(startPlanet.getName() + " Orbit");
-                        routeData.setText("Apoapsis = " + startStage.getApoapsis() + "km\nPeriapsis = "
-                                + startStage.getPeriapsis() + "km");
-
-                        /* As long as there is another planet on the journey to move to, then set up the calculator
-                         * with information about the transfer, and set a variable to indicate we are waiting for a
-                         * window to make the transfer. */
-                        if (!(phaseEnd.isEmpty())) {
-
-                            MathEllipse transfer = null;
-                            if (!(endStage.isLanded())) {
-                                /* As long as we are not landing on the planet, convert the inputted distances
-                                 * into metres and create an ellipse */
-                                double r1 = endPlanet.getRadius() + 1.0e3 * endStage.getApoapsis();
-                                double r2 = endPlanet.getRadius() + 1.0e3 * endStage.getPeriapsis();
-
-                                transfer = new MathEllipse(endPlanet.getMass(), r2, r1);
-                            }
-
-                            /* If we are moving to a new planet then we need to search for the correct phase
-                             * angle so that the spacecraft will meet the planet. */
-                            if (!startPlanet.getName().equals(endPlanet.getName())) {
-                                transferWindow = true;
-                                orbitsSearch = 0;
-                            } else {
-                                transferWindow = false;
-                            }
-
-                            // Get the calculator to make the transfer to the new orbit
-                            calc.transfer_slow(endPlanet, transfer);
-                        }
+                        stageText = startPlanet.getName() + " Orbit";
+                        dataText = "Apoapsis = " + startStage.getApoapsis() + "km\nPeriapsis = "
+                                + startStage.getPeriapsis() + "km";
 
                         // Orbiting a planet, so in this view just display the spacecraft at the same point.
                         enterprise.setRadius(0, 0);
 
+                        // Once the simulation has finished the journey, show the completion dialog
+                        if (phase == JourneySimulator.Phase.COMPLETE) {
+                            finishJourney();
+                        }
+
                         // Finished processing information about the stage, so set to false
                         newStepMain = false;
                     }
 
-                    if (transferWindow && !(phaseEnd.isEmpty())) {
-
-                        if (startPlanet.isSibling(endPlanet)) {
-
-                            /* For a sibling transfer, increment the counter of how long we have been searching for a
-                             * transfer window by the speed factor. This is so we can track the effective distance
-                             * travelled in this time. */
-                            orbitsSearch += SPEED_FACTOR;
-
-                            /* Work out the phase angle between the start and end planet. This should always be positive,
-                             * so add a full circle if it is negative.*/
-                            double phase = Math.toDegrees(endPlanet.getAngle() - startPlanet.getAngle());
-                            if (phase < 0) {
-                                phase += 360.0;
-                            }
-
-                            /* If the current phase angle matches the desired phase worked out by the calculator,
-                             * then we can begin the transfer. */
-                            if (Math.abs(phase - calc.getStartPhaseAngle()) < 1) {
-
-                                /* Use the orbit search counter to work out approximately how long the spacecraft
-                                 * waited to make a transfer, and then add this to the final journey data string. */
-                                double angleTravelled = orbitsSearch * Math.toRadians(startPlanet.getAngularV());
-                                double timeTaken = startPlanet.getPeriodAsSeconds() * (angleTravelled / 360);
-
-                                completeJourneyData.append(startPlanet.getName()).append("\n\t");
-                                completeJourneyData.append("Time In Orbit = ").append(timeToString(timeTaken));
-
-                                totalJourneyTime += timeTaken;
-
-                                // Journey is always made from 0 to 180 degrees around the transfer orbit
-                                startAngle = 0;
-                                endAngle = Math.PI;
-
-                                /* Get the angle at which the orbit needs to be drawn on the view. Centre point
-                                 * should be directly opposite the start planet, so subtract 180 degrees and increment
-                                 * to ensure the angle is positive. */
-                                drawAngle = startPlanet.getAngle() - Math.PI;
-                                if (drawAngle < 0) {
-                                    drawAngle += 2 * Math.PI;
-                                }
-
-                                /* Get the angle that the destination body will move through whilst waiting for the
-                                 * spacecraft to arrive. Get the difference between the current position and the end
-                                 * point of the spacecraft's path, and add a number of full orbits based on the
-                                 * calculated journey time. */
-                                transAngle = drawAngle - endPlanet.getAngle();
-                                if (transAngle < 0) {
-                                    transAngle += 2 * Math.PI;
-                                }
-                                double completedOrbits = Math.floor(calc.getTime() / endPlanet.getPeriodAsSeconds());
-                                transAngle += completedOrbits * 2 * Math.PI;
-
-                                /* Have all the necessary information to make the transfer, so move to the next
-                                 * phase of the journey */
-                                nextPhase();
-                            }
-                        } else {
-                            /* For parent/child transfers, wait until the focus view spacecraft has reached an angle
-                             * of 90 degrees. This ensures the animation for the focus view runs smoothly, as all
-                             * transitions from previous stages must be completed. */
-                            if (Math.abs(Math.toDegrees(falcon.getAngle()) - 90) < 1) {
-
-                                /* Work out if we are going to or from a child body. If we are going to the
-                                 * child body, then work out how far the body will have moved in the time it takes for
-                                 * the spacecraft to make the transfer. */
-                                BodyInSpace childPlanet;
-                                double angleCovered = 0;
-                                if (startPlanet.isChild(endPlanet)) {
-                                    childPlanet = startPlanet;
-                                } else {
-                                    childPlanet = endPlanet;
-
-                                    // Get the transfer time in days and work out the angle covered in this time
-                                    double transferTime = (calc.getTime() / 86400);
-                                    angleCovered = Math.toRadians(childPlanet.getAngularV() * transferTime);
-                                }
-
-                                /* The angle at which the transfer orbit should be drawn. Accounts for the movement
-                                 * of the body and ensures the spacecraft will meet it if appropriate. */
-                                drawAngle = childPlanet.getAngle() + angleCovered;
-                                while (drawAngle < 0) {
-                                    drawAngle += 2 * Math.PI;
-                                }
-
-                                /* Spacecraft always moves around half of the orbit circle. Work out which half based
-                                 * on the direction of the transfer. */
-                                if (!outwardMovement || childPlanet.equals(startPlanet)) {
-                                    startAngle = 0;
-                                    endAngle = Math.PI;
-                                } else {
-                                    startAngle = Math.PI;
-                                    endAngle = 0;
-                                }
-
-                                // We have all the information to make the transfer, so move to next stage of the journey
-                                nextPhase();
-                            }
-                        }
-                    }
-
                     /* Need to move the spacecraft so that it matches the body it is orbiting, so relocate
                      * its centre point so that it mirrors the body */
-                    enterprise.setCenterPoint(startPlanet.getX(), startPlanet.getY());
+                    enterprise.setCenterPoint(screenX(startPlanet), screenY(startPlanet));
 
                 }
 
@@ -527,23 +460,24 @@ public class JourneyController extends SuperController implements Initializable
                 double rotatedY = (moveX - centreX) * Math.sin(enterprise.getPathRotation())
                         + (moveY - centreY) * Math.cos(enterprise.getPathRotation()) + centreY;
 
-                // Move the spacecraft to the new position
-                moveBall(enterprise.getGUIShip(), rotatedX, rotatedY);
+                // Update the spacecraft position
+                enterprise.setPosition(rotatedX, rotatedY);
             }
         };
 
 
-        EventHandler<ActionEvent> focusMovement = new EventHandler<ActionEvent>() {
+        final Runnable focusMovement = new Runnable() {
             @Override
-            public void handle(ActionEvent event) {
-                // Intermediate step for every item in the list, so divide by two to get the planet references
-                int planetIndex = steps / 2;
+            public void run() {
+                // Get the stage the simulation has reached, and whether a transfer is being made from it
+                int planetIndex = simulator.getStage();
+                boolean transferring = simulator.getPhase() == JourneySimulator.Phase.TRANSFER;
 
                 // Retrieve the starting planet of this stage and style the body in the focus pane for the start point
                 String phaseStart = planetsOnPath.get(planetIndex).getBody();
                 RouteStage startStage = planetsOnPath.get(planetIndex);
                 BodyInSpace startPlanet = SpaceObjects.getBody(phaseStart);
-                planetFocus.getStyleClass().add("body-" + phaseStart);
+                styleFocus(phaseStart);
 
                 // If we are not at the end of the journey, get the destination planet of this journey stage
                 String phaseEnd;
@@ -556,12 +490,8 @@ public class JourneyController extends SuperController implements Initializable
                     endStage = new RouteStage("null", 0, 0);
                 }
 
-                // Reference to the width of the focus panel
-                double focusWidth = sourcePane.getPrefWidth() / 2;
-                double focusHeight = sourcePane.getPrefHeight() / 2;
-
                 // If we are transferring between two different orbits of the same body
-                if (phaseStart.equals(phaseEnd) && steps % 2 == 1) {
+                if (phaseStart.equals(phaseEnd) && transferring) {
                     // For a new step which has not been processed
                     if (newStepFocus) {
                         // Set the parent of the falcon to the new body
@@ -575,7 +505,7 @@ public class JourneyController extends SuperController implements Initializable
                          * the size of the GUI object representing the body. */
                         double pathWidth = transferPath.semiMinor();
                         if (transferPath.semiMinor() == 0) {
-                            pathWidth = planetFocus.getRadius() * 2;
+                            pathWidth = FOCUS_RADIUS * 2;
                         }
                         falcon.setRadius(transferPath.semiMajor() * focusScale, pathWidth * focusScale);
 
@@ -601,15 +531,15 @@ public class JourneyController extends SuperController implements Initializable
                     double moveY = falcon.getCenterY() - falcon.getRadiusY() * Math.cos(falcon.getAngle());
 
                     // Move the spacecraft to its new position
-                    moveBall(falcon.getGUIShip(), moveX, moveY);
+                    falcon.setPosition(moveX, moveY);
 
-                    // When the spacecraft has reached 270 degrees, the transfer is complete, so move to the next phase
+                    // When the spacecraft has reached 270 degrees, the transfer is complete, so let the simulation move on
                     if (Math.abs(Math.toDegrees(falcon.getAngle()) - 270) < 1) {
-                        nextPhase();
+                        simulator.release();
                     }
                 }
                 // If we are making a transfer between two different bodies, or currently transitioning between orbits
-                else if (steps % 2 == 1 || transferringOrbits) {
+                else if (transferring || transferringOrbits) {
 
                     /* If we have an unhandled new step, the journey is not complete, and the last transfer is
                      * finished then update the end orbit and mark the route for transfer. */
@@ -618,20 +548,19 @@ public class JourneyController extends SuperController implements Initializable
                         transOrb1 = endStage.getApoapsis();
                         transOrb2 = endStage.getPeriapsis();
 
-                        /* As long as the new step has been processed in the main view, use the transfer period to
-                         * change the speed of the focus spacecraft. This ensures the departure and arrival animations
-                         * have time to play if the transfer is fast. */
-                        if (!newStepMain) {
-                            double angleToTravel = Math.toDegrees(falcon.getAngle()) - 90;
-                            if (angleToTravel < 360) { angleToTravel += 360; }
+                        /* The new step has been processed in the main view, so use the transfer period to change the
+                         * speed of the focus spacecraft. This ensures the departure and arrival animations have time
+                         * to play if the transfer is fast. */
+                        double angleToTravel = Math.toDegrees(falcon.getAngle()) - 90;
+                        if (angleToTravel < 360) { angleToTravel += 360; }
 
-                            double period = ( angleToTravel / 360) * (enterprise.getPeriod() / 8 / SPEED_FACTOR);
-                            if (period > DEFAULT_FALCON_PERIOD) { period = DEFAULT_FALCON_PERIOD; }
-                            falcon.setPeriod(period);
+                        double period = ( angleToTravel / 360) * (enterprise.getPeriod() / 8 / SPEED_FACTOR);
+                        if (period > DEFAULT_FALCON_PERIOD) { period = DEFAULT_FALCON_PERIOD; }
+                        if (period < MIN_FALCON_PERIOD) { period = MIN_FALCON_PERIOD; }
+                        falcon.setPeriod(period);
 
-                            //LOGGER.info("FALCON PERIOD: " + period);
-                            newStepFocus = false;
-                        }
+                        //LOGGER.info("FALCON PERIOD: " + period);
+                        newStepFocus = false;
                     }
 
                     /* If the counter for the inward motion is below the midpoint, then the transfer is complete, so
@@ -639,7 +568,7 @@ public class JourneyController extends SuperController implements Initializable
                     if (yPositionIn < 100) {
                         transferringOrbits = false;
                         transferComplete = true;
-                        entryLine.setStroke(Color.TRANSPARENT);
+                        entryShown = false;
                         yPositionIn = 200;
                         yPositionOut = 100;
                         falcon.setPeriod(DEFAULT_FALCON_PERIOD);
@@ -649,19 +578,18 @@ public class JourneyController extends SuperController implements Initializable
                      * spacecraft along the line to make it leave its current orbit. */
                     if (Math.abs(Math.toDegrees(falcon.getAngle()) - 90) < 1 && yPositionOut < 205 && !transferComplete) {
                         // Make the transfer line visible
-                        entryLine.setStroke(Color.ORANGE);
+                        entryShown = true;
 
                         // Indicate we need to handle the move on re-entry and that we are currently making a transfer
                         newMove = true;
                         transferringOrbits = true;
 
                         // Move the line to the right edge of the starting orbit
-                        entryLine.setStartX(startStage.getApoapsis() * focusScale + focusWidth);
-                        entryLine.setEndX(startStage.getApoapsis() * focusScale + focusWidth);
+                        entryX = startStage.getApoapsis() * focusScale + focusWidth;
 
                         // Increment the spacecraft along the exit line, and move to its new position
                         yPositionOut += 0.5;
-                        moveBall(falcon.getGUIShip(), entryLine.getStartX(), yPositionOut);
+                        falcon.setPosition(entryX, yPositionOut);
 
                     } else if (((Math.abs(Math.toDegrees(enterprise.getAngle() - endAngle)) < 10 && yPositionIn > 100 && !transferComplete)
                             || yPositionIn != 200) && transferringOrbits) {
@@ -680,11 +608,10 @@ public class JourneyController extends SuperController implements Initializable
                             falcon.setAngle(Math.toRadians(270));
 
                             // Restyle the planet in the focus pane to match the destination
-                            planetFocus.getStyleClass().add("body-" + phaseEnd);
+                            styleFocus(phaseEnd);
 
                             // Move the line entering the new orbit to the left edge of the orbit
-                            entryLine.setStartX(transOrb2 * -1 * focusScale + focusWidth);
-                            entryLine.setEndX(transOrb2 * -1 * focusScale + focusWidth);
+                            entryX = transOrb2 * -1 * focusScale + focusWidth;
 
                             // Finished processing the new orbit data, so mark this in the boolean
                             newMove = false;
@@ -693,7 +620,7 @@ public class JourneyController extends SuperController implements Initializable
                         /* Decrement the counter to move the spacecraft up the entry line, and move the
                          * spacecraft to the new position */
                         yPositionIn -= 0.5;
-                        moveBall(falcon.getGUIShip(), entryLine.getStartX(), yPositionIn);
+                        falcon.setPosition(entryX, yPositionIn);
                     }
                     /* If we are not currently transferring between orbits, then we need to move the spacecraft
                      * around the orbit as previously, so that it will eventually reach a transfer point. */
@@ -707,7 +634,7 @@ public class JourneyController extends SuperController implements Initializable
                         double moveY = falcon.getCenterY() - falcon.getRadiusY() * Math.cos(falcon.getAngle());
 
                         // Move the spacecraft to its new position
-                        moveBall(falcon.getGUIShip(), moveX, moveY);
+                        falcon.setPosition(moveX, moveY);
                     }
                 }
                 // We therefore must be in an orbit stage of the journey
@@ -722,21 +649,21 @@ public class JourneyController extends SuperController implements Initializable
                         falcon.setRadius(orbit.semiMajor() * focusScale, orbit.semiMinor() * focusScale);
 
                         double offset = ((startStage.getApoapsis() - startStage.getPeriapsis()) / 2) * focusScale;
-                        falcon.setCenterPoint((sourcePane.getPrefWidth() / 2) + offset, sourcePane.getPrefHeight() / 2);
+                        falcon.setCenterPoint(focusWidth + offset, focusHeight);
 
                     } else {
                         /* If we are landed on the planet, then set the radius of the spacecraft's path to 0 and
                          * center it on the planet. */
                         falcon.setRadius(0, 0);
-                        falcon.setCenterPoint(planetFocus.getCenterX(), planetFocus.getCenterY());
+                        falcon.setCenterPoint(focusWidth, focusHeight);
                     }
 
-                    /* If the next transition moves to a new orbit around the same body, then trigger this when
-                     * the spacecraft reaches an angle of 90 degrees around the body in the focus panel. Also use this
-                     * position to finish the journey if we are at the end of the journey. */
-                    if (Math.abs(Math.toDegrees(falcon.getAngle()) - 90) < 1 &&
-                            (phaseStart.equals(phaseEnd) || phaseEnd.isEmpty())) {
-                        nextPhase();
+                    /* The spacecraft leaves the orbit when it reaches an angle of 90 degrees around the body in the focus
+                     * panel, whether to a new orbit around the same body or between a parent and child, so the
+                     * animation for the focus view runs smoothly. Also use this position to finish the journey if we
+                     * are at the end of the journey. Transfers between siblings have already been let go. */
+                    if (Math.abs(Math.toDegrees(falcon.getAngle()) - 90) < 1) {
+                        simulator.release();
                     }
 
                     // Ensure period is set to the default
@@ -751,60 +678,442 @@ public class JourneyController extends SuperController implements Initializable
                     double moveY = falcon.getCenterY() - falcon.getRadiusY() * Math.cos(falcon.getAngle());
 
                     // Move the spacecraft to this new location
-                    moveBall(falcon.getGUIShip(), moveX, moveY);
+                    falcon.setPosition(moveX, moveY);
                 }
             }
         };
 
 
-        // Set up a timeline with the various event handles to display the animation
-        timeline = new Timeline(new KeyFrame(Duration.ZERO, planetMovement),
-                new KeyFrame(Duration.ZERO, spaceshipMove),
-                new KeyFrame(Duration.ZERO, focusMovement),
-                new KeyFrame(Duration.millis(STEP_DURATION)));
-        timeline.setCycleCount(Timeline.INDEFINITE);
-
-        // Add the parent object to the display
-        systemPane.getChildren().add(currentParent.getGUIObject());
+        if (RENDER_MODE == RenderMode.CANVAS) {
 
-        // Add all the bodies and their orbits to the display
-        for (BodyInSpace current : childBodies.values()) {
-            current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-            systemPane.getChildren().add(current.getGUIOrbit());
-            systemPane.getChildren().add(current.getGUIObject());
+            // Draw the main view onto a single canvas
+            canvas = new CanvasRenderer(systemPane.getPrefWidth(), systemPane.getPrefHeight());
+            systemPane.getChildren().add(canvas.getCanvas());
         }
 
-        // Add the spaceship for the main view to the display
-        systemPane.getChildren().add(enterprise.getGUITrail());
-        systemPane.getChildren().add(enterprise.getGUIShip());
+        // Show the frame statistics over the main view if the overlay is turned on
+        if (SHOW_STATS) {
+            overlay = new StatsOverlay(STATS);
+            systemPane.getChildren().add(overlay.getGUIObject());
+        }
 
         // Add the spaceship, transition line and central planet to the focus window
-        sourcePane.getChildren().add(falcon.getGUITrail());
-        sourcePane.getChildren().add(falcon.getGUIShip());
+        sourcePane.getChildren().add(falconView.getGUITrail());
+        sourcePane.getChildren().add(falconView.getGUIShip());
         sourcePane.getChildren().add(entryLine);
         sourcePane.getChildren().add(planetFocus);
 
-        // Run the animation
-        timeline.play();
+        /* Start from the frame the journey starts in, with room in each step handed to the display for the most
+         * bodies any frame of the route can show */
+        int count = frameBodies("Sun").size();
+        for (RouteStage stage : planetsOnPath) {
+            BodyInSpace body = SpaceObjects.getBody(stage.getBody());
+            count = Math.max(count, frameBodies(body.getName()).size());
+            count = Math.max(count, frameBodies(body.getParent().getName()).size());
+        }
+        posX = new double[count];
+        posY = new double[count];
+        lastX = new double[count];
+        lastY = new double[count];
+        states = new TripleBuffer<>(new StepState(count), new StepState(count), new StepState(count));
+        changeFrame(simulator.getFrame().getName());
+        fitScale();
+        placeBodies();
+        publish();
+
+        /* Run the animation on the shared frame loop, with the steps on its simulation thread. Each step moves the
+         * planets, the spacecraft in the main view and the spacecraft in the focus view in turn, and publishes the
+         * result. Once per frame the latest step published is drawn. */
+        journey = new FrameLoop.Listener() {
+            @Override
+            public void step() {
+                // Copy the journey before the step is made, so a seek can start from exactly this point
+                if (checkpoints.isDue(journeyStep)) {
+                    checkpoints.put(journeyStep, new Checkpoint());
+                }
+
+                // Time each handler, so a slow step can be traced to the part of the journey that caused it
+                long start = System.nanoTime();
+                moveJourney();
+                planetMovement.run();
+                long planetsMoved = System.nanoTime();
+                spaceshipMove.run();
+                long spaceshipMoved = System.nanoTime();
+                focusMovement.run();
+                long focusMoved = System.nanoTime();
+                STATS.record(FrameStats.Section.PLANET_MOVEMENT, planetsMoved - start);
+                STATS.record(FrameStats.Section.SPACESHIP_MOVE, spaceshipMoved - planetsMoved);
+                STATS.record(FrameStats.Section.FOCUS_MOVEMENT, focusMoved - spaceshipMoved);
+
+                journeyStep++;
+                furthestStep = Math.max(furthestStep, journeyStep);
+
+                // Steps replayed during a seek have already been recorded, and only the last of them is drawn
+                if (!seeking) {
+                    if (telemetry != null) {
+                        recordTelemetry(enterprise, falcon);
+                    }
+                    publish();
+                }
+            }
+
+            @Override
+            public void render(double alpha) {
+                StepState state = states.acquire();
+                showStep(state);
+
+                // Place each body at its offset from the parent, scaled to the display, for the last two steps
+                BodySnapshot snapshot = state.bodies;
+                for (int i = 0; i < state.frameBodies.size(); i++) {
+                    renderer.view(state.frameBodies.get(i)).setPosition(
+                            centreX + snapshot.getX(i, 0) * state.scale,
+                            centreY + snapshot.getY(i, 0) * state.scale,
+                            centreX + snapshot.getX(i, 1) * state.scale,
+                            centreY + snapshot.getY(i, 1) * state.scale);
+                }
+
+                if (canvas != null) {
+                    canvas.draw(renderer, state.frame, state.frameBodies, state.scale, alpha, state.enterprise);
+                } else {
+                    // Move each planet and the spacecraft to their positions, part way between the last two steps
+                    for (BodyInSpace current : state.frameBodies) {
+                        BodyView view = renderer.view(current);
+                        moveBall(view.getGUIObject(), view.getX(alpha), view.getY(alpha));
+                    }
+                    enterpriseView.update(state.enterprise, alpha);
+                }
+                falconView.update(state.falcon, alpha);
+
+                // A few times a second, count the nodes on the display and update the overlay
+                if (STATS.isSampleDue()) {
+                    STATS.setNodeCounts(countNodes(systemPane), countNodes(sourcePane));
+                    if (overlay != null) {
+                        overlay.update();
+                    }
+                }
+            }
+        };
+        LOOP.startThreaded(journey);
+
+        // Move the journey to the step picked on the slider, whether it is dragged or clicked
+        journeySlider.setMin(0);
+        journeySlider.valueProperty().addListener(new ChangeListener<Number>() {
+            public void changed(ObservableValue<? extends Number> ov, Number old_val, Number new_val) {
+                if (!updatingSlider) {
+                    final long target = Math.round(new_val.doubleValue());
+                    postChange(new Runnable() {
+                        @Override
+                        public void run() {
+                            seek(target);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Internal method to update the panes and labels of the display to match a step of the journey, where they
+     * differ from the step drawn before. Runs on the JavaFX thread.
+     * @param state step of the journey to show
+     */
+    private void showStep(StepState state) {
+        if (state.frame != drawnFrame) {
+            showFrame(state);
+        } else if (state.scale != drawnScale && canvas == null) {
+            for (BodyInSpace current : state.frameBodies) {
+                renderer.adjustGUIOrbit(current, current.getOrbit() * state.scale);
+            }
+        }
+        drawnScale = state.scale;
+
+        if (!state.stageText.equals(routeStage.getText())) {
+            routeStage.setText(state.stageText);
+        }
+        if (!state.dataText.equals(routeData.getText())) {
+            routeData.setText(state.dataText);
+        }
+
+        // Style the planet in the focus view as the body, replacing the style of any body it was styled as before
+        if (!state.focusBody.equals(drawnFocus)) {
+            planetFocus.getStyleClass().setAll("body-" + state.focusBody);
+            drawnFocus = state.focusBody;
+        }
+        entryLine.setStartX(state.entryX);
+        entryLine.setEndX(state.entryX);
+        entryLine.setStroke(state.entryShown ? Color.ORANGE : Color.TRANSPARENT);
+
+        if (state.speedFactor != drawnSpeed) {
+            updateSpeedButtons(state.speedFactor);
+            drawnSpeed = state.speedFactor;
+        }
+
+        // Show the completion dialog with the journey data once the journey is finished, and hide it if moved back
+        if (state.finished != drawnFinished) {
+            if (state.finished) {
+                completionPane.toFront();
+                journeyInfo.setText(state.report);
+            } else {
+                completionPane.toBack();
+            }
+            drawnFinished = state.finished;
+        }
+
+        // Show how far through the journey we are, unless the slider is being dragged
+        if (!journeySlider.isValueChanging()) {
+            updatingSlider = true;
+            journeySlider.setMax(state.furthestStep);
+            journeySlider.setValue(state.journeyStep);
+            updatingSlider = false;
+        }
+    }
+
+    /**
+     * Internal method to hand everything the display needs from the latest step to the JavaFX thread. Runs on the
+     * simulation thread.
+     */
+    private void publish() {
+        if (jumped) {
+            System.arraycopy(posX, 0, lastX, 0, posX.length);
+            System.arraycopy(posY, 0, lastY, 0, posY.length);
+            jumped = false;
+        }
+
+        StepState state = states.getBack();
+        state.bodies.set(journeyStep, CLOCK.getTime(), lastX, lastY, posX, posY);
+        state.frame = currentParent;
+        state.frameBodies = childBodies;
+        state.scale = SCREEN_SCALE;
+        state.speedFactor = SPEED_FACTOR;
+        state.journeyStep = journeyStep;
+        state.furthestStep = furthestStep;
+        state.enterprise.restoreState(enterprise.saveState());
+        state.falcon.restoreState(falcon.saveState());
+        state.stageText = stageText;
+        state.dataText = dataText;
+        state.focusBody = focusBody;
+        state.entryX = entryX;
+        state.entryShown = entryShown;
+        state.finished = completeJourneyData.isFinished();
+        state.report = reportText;
+        states.publish();
+
+        System.arraycopy(posX, 0, lastX, 0, posX.length);
+        System.arraycopy(posY, 0, lastY, 0, posY.length);
     }
 
     /**
-     * Internal method to animate the movement of a body from one location to the next.
+     * Internal method to make a change to the journey asked for by the display between two steps on the simulation
+     * thread, and publish the journey straight after, so the change is shown even while the journey is paused
+     * @param change change to make
+     */
+    private void postChange(final Runnable change) {
+        LOOP.post(new Runnable() {
+            @Override
+            public void run() {
+                change.run();
+                publish();
+            }
+        });
+    }
+
+    /**
+     * Move the journey to the given step, which may be before or after the current step. The nearest copy of the
+     * journey taken at or before the step is restored, and the journey is stepped on from there without being
+     * drawn, so a seek never takes more steps than the gap between copies unless it goes beyond the furthest step
+     * reached so far. Runs on the simulation thread.
+     * @param target number of steps from the start of the journey
+     */
+    private void seek(long target) {
+        if (target < 0 || target == journeyStep) {
+            return;
+        }
+
+        // Only go back to a copy if the target is behind us, or the copy is closer than the current step
+        Map.Entry<Long, Checkpoint> nearest = checkpoints.floor(target);
+        if (nearest != null && (target < journeyStep || nearest.getKey() > journeyStep)) {
+            nearest.getValue().restore();
+        }
+
+        seeking = true;
+        try {
+            while (journeyStep < target && !completeJourneyData.isFinished()) {
+                journey.step();
+            }
+        } finally {
+            seeking = false;
+        }
+    }
+
+    /**
+     * Skip the journey on to its next event on button press, which is the end of the phase the simulation is in.
+     * The time of the event is already known, so the clock is moved straight to it and a single step is made from
+     * there, however long the phase had left to run. A held phase is let go straight away.
+     */
+    @FXML protected void skipToNextEvent() {
+        postChange(new Runnable() {
+            @Override
+            public void run() {
+                skip();
+            }
+        });
+    }
+
+    /**
+     * Internal method to skip the journey on to its next event. Runs on the simulation thread.
+     */
+    private void skip() {
+        if (completeJourneyData.isFinished()) {
+            return;
+        }
+
+        if (simulator.isHolding()) {
+            simulator.release();
+        } else if (!Double.isInfinite(simulator.getPhaseEnd())) {
+            CLOCK.setTime(simulator.getPhaseEnd());
+        } else {
+            // The window being waited for never opens, so there is no event to skip to
+            return;
+        }
+        branch();
+        jumped = true;
+        journey.step();
+
+        // Copy the journey after the jump, as steps replayed by a seek would not make it
+        checkpoints.put(journeyStep, new Checkpoint());
+    }
+
+    /**
+     * Internal method to move the simulation clock on by a step, and bring the simulation of the journey up to the
+     * new time. The step is shortened if it would carry the clock past the end of the current phase, so every
+     * arrival is caught exactly at any speed, and a phase let go by the focus view ends without the clock moving.
+     * Transfer windows are jumped to straight away rather than waited for, and a transfer between siblings leaves
+     * as soon as the orbit is reached, as neither has anything to show in the focus view.
+     */
+    private void moveJourney() {
+        double stepFactor = TimeWarp.clampToTime(SPEED_FACTOR, CLOCK.getTime(), simulator.getPhaseEnd());
+        if (stepFactor < SPEED_FACTOR) {
+            // Land exactly on the end of the phase, so rounding cannot leave its event for a later step
+            CLOCK.setTime(simulator.getPhaseEnd());
+        } else {
+            CLOCK.step(stepFactor);
+        }
+
+        boolean moved;
+        do {
+            moved = false;
+            if (simulator.getPhase() == JourneySimulator.Phase.WINDOW_WAIT
+                    && !Double.isInfinite(simulator.getPhaseEnd())) {
+                CLOCK.setTime(simulator.getPhaseEnd());
+                moved = true;
+            } else if (simulator.isHolding() && simulator.getPhase() == JourneySimulator.Phase.ORBIT
+                    && isSiblingTransfer(simulator.getStage())) {
+                simulator.release();
+                moved = true;
+            }
+            simulator.advance(CLOCK.getTime() - simulator.getTime());
+        } while (moved);
+
+        // Set up the display again whenever the simulation has moved into a new phase
+        if (simulator.getStage() != shownStage || simulator.getPhase() != shownPhase) {
+            shownStage = simulator.getStage();
+            shownPhase = simulator.getPhase();
+            newStepMain = true;
+            newStepFocus = true;
+        }
+    }
+
+    /**
+     * Internal method to get the body of a stage of the route
+     * @param stage position of the stage in the route
+     * @return body
+     */
+    private BodyInSpace bodyAt(int stage) {
+        return SpaceObjects.getBody(planetsOnPath.get(stage).getBody());
+    }
+
+    /**
+     * Internal method to check if the transfer leaving a stage goes to a different body with the same parent
+     * @param stage position of the stage in the route
+     * @return true for a transfer between siblings
+     */
+    private boolean isSiblingTransfer(int stage) {
+        if (stage + 1 >= planetsOnPath.size()) {
+            return false;
+        }
+        BodyInSpace startPlanet = bodyAt(stage);
+        BodyInSpace endPlanet = bodyAt(stage + 1);
+        return startPlanet != endPlanet && startPlanet.isSibling(endPlanet);
+    }
+
+    /**
+     * Internal method to set the scale of the view based on the most distant planet of the transfer leaving the
+     * current stage
+     */
+    private void fitScale() {
+        int stage = simulator.getStage();
+        if (stage + 1 >= planetsOnPath.size()) {
+            return;
+        }
+        BodyInSpace startPlanet = bodyAt(stage);
+        BodyInSpace endPlanet = bodyAt(stage + 1);
+        if ((startPlanet.isSibling(endPlanet) && startPlanet.getOrbit() > endPlanet.getOrbit())
+                || (startPlanet.isChild(endPlanet))) {
+            setScale(285 / startPlanet.getOrbit());
+        } else {
+            setScale(285 / endPlanet.getOrbit());
+        }
+    }
+
+    /**
+     * Internal method to style the planet in the focus view as the given body
+     * @param body name of the body
+     */
+    private void styleFocus(String body) {
+        focusBody = body;
+    }
+
+    /**
+     * Internal method to get the x co-ordinate of a body in the current frame on the display, at the current
+     * simulation time
+     * @param body parent of the frame or one of its children
+     * @return x co-ordinate in pixels
+     */
+    private double screenX(BodyInSpace body) {
+        if (body == currentParent) {
+            return centreX;
+        }
+        return centreX + (body.getOrbit() * SCREEN_SCALE) * Math.sin(body.angleAt(CLOCK.getTime()));
+    }
+
+    /**
+     * Internal method to get the y co-ordinate of a body in the current frame on the display, at the current
+     * simulation time
+     * @param body parent of the frame or one of its children
+     * @return y co-ordinate in pixels
+     */
+    private double screenY(BodyInSpace body) {
+        if (body == currentParent) {
+            return centreY;
+        }
+        return centreY - (body.getOrbit() * SCREEN_SCALE) * Math.cos(body.angleAt(CLOCK.getTime()));
+    }
+
+    /**
+     * Internal method to move a body to a new location on the display.
      * @param ball The GUI object to be moved
      * @param x The x position to move this object to
      * @param y The y position to move this object to
      */
     private void moveBall(Shape ball, double x, double y) {
-        TranslateTransition move = new TranslateTransition(
-                Duration.millis(STEP_DURATION), ball);
-        move.setToX(x);
-        move.setToY(y);
-        move.playFromStart();
+        ball.setTranslateX(x);
+        ball.setTranslateY(y);
     }
 
     /**
      * Set the current display scale to the given value. Checks the
-     * scale is within the bounds for the current planet scale.
+     * scale is within the bounds for the current planet scale. The orbits shown are fitted to it when the step is
+     * drawn.
      * @param new_val scale value
      */
     private void setScale(double new_val) {
@@ -822,37 +1131,19 @@ public class JourneyController extends SuperController implements Initializable
             val = new_val;
         }
 
-        // Set the scale to the value, and reset all the displayed orbits to match this new scale
         SCREEN_SCALE = val;
-        for (BodyInSpace current : childBodies.values()) {
-            current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-        }
     }
 
     /**
-     * Method to move the animation on to the next stage of the journey - also handles displaying the completion dialog
-     * when the journey is finished
+     * Method to handle the end of the journey once the simulation has finished it, which has already added the
+     * total journey time to the journey data
      */
-    private void nextPhase() {
-        /* If there is a new stage to move on to, then increment the
-         * counter and indicate that we are on a new stage */
-        if (steps / 2 < planetsOnPath.size() - 1) {
-            steps++;
-            newStepMain = true;
-            newStepFocus = true;
-        } else {
-            /* When there are no stages left, pause the animation, show the completion
-             * dialog and show the journey data in the dialog. */
-            timeline.pause();
-            completionPane.toFront();
-
-            // Add the total journey time to the data string
-            completeJourneyData.append("\r\nTotal Journey Time\n\t");
-            completeJourneyData.append(timeToString(totalJourneyTime));
-
-            journeyInfo.setText(completeJourneyData.toString());
-            LOGGER.info("Journey complete");
-        }
+    private void finishJourney() {
+        /* There are no stages left, so pause the animation and keep the journey data to show in the completion
+         * dialog when the step is drawn. */
+        LOOP.pause();
+        reportText = completeJourneyData.toString();
+        LOGGER.info("Journey complete");
     }
 
     /**
@@ -860,6 +1151,9 @@ public class JourneyController extends SuperController implements Initializable
      * @throws IOException
      */
     @FXML protected void quitProgram() throws IOException {
+        // Stop the simulation thread first, so nothing is written to the files as they are closed
+        LOOP.stop();
+        closeJourneyFiles();
         Platform.exit();
     }
 
@@ -881,11 +1175,22 @@ public class JourneyController extends SuperController implements Initializable
         Stage stage = (Stage) routeStage.getScene().getWindow();
         File file = fileChooser.showSaveDialog(stage);
 
-        // As long as the file specified can be opened, write the journey data string to the file
-        if (file != null) {
+        /* The journey is already written to the log, so copy the log file on its writer thread, and report it if
+         * the copy fails. Otherwise, as long as the file specified can be opened, write the journey data string to
+         * the file. */
+        if (file != null && completeJourneyData.getLog() != null) {
+            completeJourneyData.getLog().saveTextTo(file.toPath()).whenComplete(new BiConsumer<Void, Throwable>() {
+                @Override
+                public void accept(Void result, Throwable error) {
+                    if (error != null) {
+                        System.err.println("Could not save journey information");
+                    }
+                }
+            });
+        } else if (file != null) {
             try {
                 FileWriter fileWriter = new FileWriter(file);
-                fileWriter.write(completeJourneyData.toString());
+                fileWriter.write(journeyInfo.getText());
                 fileWriter.close();
             } catch (IOException ex) {
                 System.err.println("Could not save journey information");
@@ -897,14 +1202,56 @@ public class JourneyController extends SuperController implements Initializable
      * Decreases the current movement speed of the system, caps speed at x1/64 and disables button if at cap
      */
     @FXML protected void slowMovement() {
-        if (SPEED_FACTOR > 0.015625) {
-            SPEED_FACTOR = SPEED_FACTOR / 2;
-        }
+        postChange(new Runnable() {
+            @Override
+            public void run() {
+                SPEED_FACTOR = TimeWarp.slower(SPEED_FACTOR);
+                checkpointSpeed();
+            }
+        });
+    }
+
+    /**
+     * Increases the current movement speed of the system, caps speed at about x10^6 and disables button if at cap.
+     * Each step still costs the same, as the steps only get longer.
+     */
+    @FXML protected void speedUpMovement() {
+        postChange(new Runnable() {
+            @Override
+            public void run() {
+                SPEED_FACTOR = TimeWarp.faster(SPEED_FACTOR);
+                checkpointSpeed();
+            }
+        });
+    }
 
-        if (SPEED_FACTOR == 0.015625) {
+    /**
+     * Reset the speed factor to its original value, enable both buttons
+     */
+    @FXML protected void resetMovement() {
+        postChange(new Runnable() {
+            @Override
+            public void run() {
+                // Adjust the speed back to its initial for the given frame
+                if (currentParent.getName().equals("Sun")) {
+                    SPEED_FACTOR = 1;
+                } else {
+                    SPEED_FACTOR = 0.25;
+                }
+                checkpointSpeed();
+            }
+        });
+    }
+
+    /**
+     * Internal method to disable the speed buttons if the speed factor is at one of its caps
+     * @param speedFactor speed factor shown
+     */
+    private void updateSpeedButtons(double speedFactor) {
+        if (TimeWarp.isSlowest(speedFactor)) {
             slowButton.setDisable(true);
             speedButton.setDisable(false);
-        } else if (SPEED_FACTOR == 512) {
+        } else if (TimeWarp.isFastest(speedFactor)) {
             slowButton.setDisable(false);
             speedButton.setDisable(true);
         } else {
@@ -914,60 +1261,112 @@ public class JourneyController extends SuperController implements Initializable
     }
 
     /**
-     * Increases the current movement speed of the system, caps speed at x512 and disables button if at cap
+     * Internal method to copy the journey when the speed changes, so steps replayed from a copy move on at the
+     * speed they were first made at
      */
-    @FXML protected void speedUpMovement() {
-        if (SPEED_FACTOR < 512) {
-            SPEED_FACTOR = SPEED_FACTOR * 2;
+    private void checkpointSpeed() {
+        if (journey != null) {
+            branch();
+            checkpoints.put(journeyStep, new Checkpoint());
         }
+    }
 
-        if (SPEED_FACTOR == 0.015625) {
-            slowButton.setDisable(true);
-            speedButton.setDisable(false);
-        } else if (SPEED_FACTOR == 512) {
-            slowButton.setDisable(false);
-            speedButton.setDisable(true);
-        } else {
-            slowButton.setDisable(false);
-            speedButton.setDisable(false);
-        }
+    /**
+     * Internal method to start a new path for the journey from the current step, after a change which means the
+     * steps ahead no longer match those made before, such as a change of speed or a skip. Copies taken further
+     * along the old path are dropped, so a seek can never restore one, and the slider only reaches the current step.
+     */
+    private void branch() {
+        checkpoints.dropAfter(journeyStep);
+        furthestStep = journeyStep;
     }
 
     /**
-     * Reset the speed factor to its original value, enable both buttons
+     * Internal method to open the telemetry recorder, with a channel for each body on the route and for each of
+     * the spacecraft. Bodies are recorded in km from the Sun, and the spacecraft in pixels on their display pane.
+     * @param file file to record into
      */
-    @FXML protected void resetMovement() {
-        // Adjust the speed back to its initial for the given frame
-        if (currentParent.getName().equals("Sun")) {
-            SPEED_FACTOR = 1;
-        } else {
-            SPEED_FACTOR = 0.25;
+    private void openTelemetry(Path file) {
+        Map<String, BodyInSpace> routeBodies = new LinkedHashMap<>();
+        for (RouteStage stage : planetsOnPath) {
+            routeBodies.put(stage.getBody(), SpaceObjects.getBody(stage.getBody()));
+        }
+        telemetryBodies = routeBodies.values().toArray(new BodyInSpace[0]);
+
+        int channels = telemetryBodies.length + 2;
+        String[] names = new String[channels];
+        TelemetryRecorder.Unit[] units = new TelemetryRecorder.Unit[channels];
+        for (int i = 0; i < telemetryBodies.length; i++) {
+            names[i] = telemetryBodies[i].getName();
+            units[i] = TelemetryRecorder.Unit.KM;
+        }
+        names[channels - 2] = "enterprise";
+        names[channels - 1] = "falcon";
+        units[channels - 2] = TelemetryRecorder.Unit.PIXELS;
+        units[channels - 1] = TelemetryRecorder.Unit.PIXELS;
+
+        /* Keep the number of hours asked for at the full step rate, or as many records as a single mapped file
+         * can hold. A capacity given outright is used as it is. */
+        double hours = Double.parseDouble(System.getProperty("solarsystem.telemetry.hours",
+                Double.toString(TELEMETRY_HOURS)));
+        long records = (long) Math.ceil(hours * 3600 * 1000 / STEP_DURATION);
+        int maxRecords = TelemetryRecorder.maxCapacity(names);
+        if (records > maxRecords) {
+            LOGGER.warning("Telemetry file can only hold " + maxRecords + " records, not " + records);
+            records = maxRecords;
         }
 
-        speedButton.setDisable(false);
-        slowButton.setDisable(false);
+        try {
+            int capacity = Integer.getInteger("solarsystem.telemetry.capacity", (int) records);
+            telemetry = new TelemetryRecorder(file, names, units, capacity);
+            LOGGER.info("Recording telemetry to " + file + ", keeping the newest " + capacity + " records");
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warning("Could not record telemetry to " + file + ": " + e.getMessage());
+        }
     }
 
     /**
-     * Converts a time in seconds into a string which represents the time in days, hours, minutes and seconds
-     * @param t time in seconds
-     * @return time string
+     * Internal method to record the position of each body and spacecraft after a step
+     * @param enterprise spacecraft shown in the main view
+     * @param falcon spacecraft shown in the focus view
      */
-    private String timeToString(double t) {
-        double days = Math.floor(t / 86400);
-        double hours = Math.floor((t % 86400) / 3600);
-        double minutes = Math.floor(((t % 86400) % 3600) / 60);
-        double seconds = Math.floor(((t % 86400) % 3600) % 60);
+    private void recordTelemetry(Spaceship enterprise, Spaceship falcon) {
+        double time = CLOCK.getTime();
+        // Orbits are recorded as even stages and transfers as odd ones, two for each stage of the route
+        int stage = 2 * simulator.getStage() + (simulator.getPhase() == JourneySimulator.Phase.TRANSFER ? 1 : 0);
+        telemetry.begin(LOOP.getSteps(), time, stage);
+        for (int i = 0; i < telemetryBodies.length; i++) {
+            telemetry.put(i, telemetryBodies[i].xAt(time), telemetryBodies[i].yAt(time));
+        }
+        telemetry.put(telemetryBodies.length, enterprise.getX(), enterprise.getY());
+        telemetry.put(telemetryBodies.length + 1, falcon.getX(), falcon.getY());
+        telemetry.commit();
+    }
 
-        return String.format("%6.0f days %6.0f hours %6.0f mins %6.0f s\n", days, hours, minutes, seconds);
+    /**
+     * Internal method to close the journey log and the telemetry recorder, once everything waiting to be written
+     * has been written
+     */
+    private void closeJourneyFiles() {
+        if (completeJourneyData.getLog() != null) {
+            completeJourneyData.getLog().close();
+        }
+        if (telemetry != null) {
+            try {
+                telemetry.close();
+            } catch (IOException e) {
+                LOGGER.warning("Could not close telemetry: " + e.getMessage());
+            }
+            telemetry = null;
+        }
     }
 
     /**
-     * Method to update the current display frame to the one specified.
+     * Method to update the current display frame to the one specified. The display is set up for the new frame when
+     * the step is drawn.
      * @param parent Name of the body at the centre of the frame
-     * @param spaceship Spaceship to readd to the main display
      */
-    private void changeFrame(String parent, Spaceship spaceship) {
+    private void changeFrame(String parent) {
 
         // If the current parent is the one specified, return as no changes needed
         if (parent.equals(currentParent.getName())) {
@@ -979,42 +1378,84 @@ public class JourneyController extends SuperController implements Initializable
          * of the satellites. */
         if (parent.equals("Sun")) {
             currentParent = SpaceObjects.getSun();
-            childBodies = SpaceObjects.getPlanets();
             SPEED_FACTOR = 1;
         } else {
             currentParent = SpaceObjects.getPlanets().get(parent);
-            childBodies = SpaceObjects.getChildren(parent);
             SPEED_FACTOR = 0.25;
         }
+        childBodies = frameBodies(parent);
 
+        /* Place each body at its current angle straight away, so the spacecraft can be positioned
+         * against it before the next animation step. */
+        placeBodies();
+        jumped = true;
+    }
 
-        // Clear all objects from the display
-        systemPane.getChildren().clear();
+    /**
+     * Internal method to get the bodies shown around the given parent
+     * @param parent name of the body at the centre of the frame
+     * @return the planets for the Sun, otherwise the children of the body
+     */
+    private static List<BodyInSpace> frameBodies(String parent) {
+        if (parent.equals("Sun")) {
+            return new ArrayList<>(SpaceObjects.getPlanets().values());
+        }
+        return new ArrayList<>(SpaceObjects.getChildren(parent).values());
+    }
+
+    /**
+     * Internal method to work out the offset of each body in the current frame from the parent at the current
+     * simulation time
+     */
+    private void placeBodies() {
+        double time = CLOCK.getTime();
+        for (int i = 0; i < childBodies.size(); i++) {
+            BodyInSpace current = childBodies.get(i);
+            double angle = current.angleAt(time);
+            posX[i] = current.getOrbit() * Math.sin(angle);
+            posY[i] = -current.getOrbit() * Math.cos(angle);
+        }
+    }
 
-        // Reset the current parent body and then redraw it at the centre of the available space
-        currentParent.resetPlanet();
-        systemPane.getChildren().add(currentParent.getGUIObject());
-        currentParent.moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
+    /**
+     * Internal method to set up the main view for the frame of a step of the journey. Runs on the JavaFX thread.
+     * @param state step of the journey to show
+     */
+    private void showFrame(StepState state) {
+
+        // Drop the views of the bodies in the old frame
+        renderer.clear();
+        drawnFrame = state.frame;
+
+        // Place the current parent body at the centre of the available space
+        BodyView parentView = renderer.view(state.frame);
+        if (canvas == null) {
+            // Clear all objects from the display and redraw the parent
+            systemPane.getChildren().clear();
+            systemPane.getChildren().add(parentView.getGUIObject());
+            parentView.moveGUIObject(centreX, centreY);
+        } else {
+            parentView.setPosition(centreX, centreY);
+            return;
+        }
 
         /* For the child bodies, adjust their orbits to the screen scale, add the orbit to the
-         * display, and then reset the planets and draw them. Two seperate loops used to ensure the planets
+         * display, and then add the planets. Two seperate loops used to ensure the planets
          * always display on top of the orbit circles. */
-        if (!childBodies.isEmpty()) {
-            for (BodyInSpace current : childBodies.values()) {
-                current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-                systemPane.getChildren().add(current.getGUIOrbit());
-            }
-
-            for (BodyInSpace current : childBodies.values()) {
-                current.resetPlanet();
-                systemPane.getChildren().add(current.getGUIObject());
-            }
-
+        for (BodyInSpace current : state.frameBodies) {
+            renderer.adjustGUIOrbit(current, current.getOrbit() * state.scale);
+            systemPane.getChildren().add(renderer.view(current).getGUIOrbit());
+        }
+        for (BodyInSpace current : state.frameBodies) {
+            systemPane.getChildren().add(renderer.view(current).getGUIObject());
         }
 
-        /* Readd the spaceship and the spaceship path to the display. */
-        systemPane.getChildren().add(spaceship.getGUITrail());
-        systemPane.getChildren().add(spaceship.getGUIShip());
+        /* Readd the spaceship and the spaceship path to the display, and the statistics overlay on top. */
+        systemPane.getChildren().add(enterpriseView.getGUITrail());
+        systemPane.getChildren().add(enterpriseView.getGUIShip());
+        if (overlay != null) {
+            systemPane.getChildren().add(overlay.getGUIObject());
+        }
     }
 
     /**
@@ -1027,6 +1468,10 @@ public class JourneyController extends SuperController implements Initializable
         Parent root;
         stage = (Stage) routeStage.getScene().getWindow();
 
+        // Stop the animation and close the journey log and telemetry, as this view is being replaced
+        LOOP.stop();
+        closeJourneyFiles();
+
         // Empty the route list and reset the screen scale for displaying the path
         planetsOnPath.clear();
         SCREEN_SCALE = SpaceObjects.getScale("Sun").get(0);
@@ -1050,8 +1495,13 @@ public class JourneyController extends SuperController implements Initializable
         Parent root;
         stage = (Stage) routeStage.getScene().getWindow();
 
-        // Empty the route list as the journey is now complete
+        // Stop the animation and close the journey log and telemetry, as this view is being replaced
+        LOOP.stop();
+        closeJourneyFiles();
+
+        // Empty the route list as the journey is now complete, and return to the normal speed
         planetsOnPath.clear();
+        SPEED_FACTOR = 1;
 
         // Load the XML file for the System Animation into a scene
         root = FXMLLoader.load(getClass().getResource("/solarsystem/resources/xml/system.fxml"));
@@ -1061,4 +1511,140 @@ public class JourneyController extends SuperController implements Initializable
         stage.setScene(scene);
         stage.show();
     }
+
+    /**
+     * Copy of everything that changes as the journey is made: the simulation of the journey and the progress of
+     * the display through its phase, the simulation time and speed, the displayed frame, both spacecraft, the
+     * journey data and the text shown in the side panel. Body angles are not copied, as they follow from the
+     * simulation time. Taken and restored on the simulation thread.
+     */
+    private final class Checkpoint {
+
+        private final long journeyStep;
+        private final JourneySimulator simulator;
+        private final int shownStage;
+        private final JourneySimulator.Phase shownPhase;
+        private final boolean newStepMain, newStepFocus;
+        private final double startAngle, endAngle;
+        private final double yPositionOut, yPositionIn, transOrb1, transOrb2;
+        private final boolean transferringOrbits, newMove, transferComplete;
+
+        private final double time, speedFactor, screenScale;
+        private final String parent;
+        private final Spaceship.State enterpriseState, falconState;
+        private final JourneyReport.Mark report;
+
+        private final String stageText, dataText, focus;
+        private final double entryX;
+        private final boolean entryShown;
+
+        /**
+         * Constructor to copy the journey as it is now
+         */
+        Checkpoint() {
+            journeyStep = JourneyController.this.journeyStep;
+            simulator = new JourneySimulator(JourneyController.this.simulator);
+            shownStage = JourneyController.this.shownStage;
+            shownPhase = JourneyController.this.shownPhase;
+            newStepMain = JourneyController.this.newStepMain;
+            newStepFocus = JourneyController.this.newStepFocus;
+            startAngle = JourneyController.this.startAngle;
+            endAngle = JourneyController.this.endAngle;
+            yPositionOut = JourneyController.this.yPositionOut;
+            yPositionIn = JourneyController.this.yPositionIn;
+            transOrb1 = JourneyController.this.transOrb1;
+            transOrb2 = JourneyController.this.transOrb2;
+            transferringOrbits = JourneyController.this.transferringOrbits;
+            newMove = JourneyController.this.newMove;
+            transferComplete = JourneyController.this.transferComplete;
+
+            time = CLOCK.getTime();
+            speedFactor = SPEED_FACTOR;
+            screenScale = SCREEN_SCALE;
+            parent = currentParent.getName();
+            enterpriseState = enterprise.saveState();
+            falconState = falcon.saveState();
+            report = completeJourneyData.mark();
+
+            stageText = JourneyController.this.stageText;
+            dataText = JourneyController.this.dataText;
+            focus = focusBody;
+            entryX = JourneyController.this.entryX;
+            entryShown = JourneyController.this.entryShown;
+        }
+
+        /**
+         * Put the journey back as it was when the copy was taken, ready to be shown when it is next published
+         */
+        void restore() {
+            JourneyController.this.journeyStep = journeyStep;
+            JourneyController.this.simulator = new JourneySimulator(simulator);
+            JourneyController.this.shownStage = shownStage;
+            JourneyController.this.shownPhase = shownPhase;
+            JourneyController.this.newStepMain = newStepMain;
+            JourneyController.this.newStepFocus = newStepFocus;
+            JourneyController.this.startAngle = startAngle;
+            JourneyController.this.endAngle = endAngle;
+            JourneyController.this.yPositionOut = yPositionOut;
+            JourneyController.this.yPositionIn = yPositionIn;
+            JourneyController.this.transOrb1 = transOrb1;
+            JourneyController.this.transOrb2 = transOrb2;
+            JourneyController.this.transferringOrbits = transferringOrbits;
+            JourneyController.this.newMove = newMove;
+            JourneyController.this.transferComplete = transferComplete;
+
+            // Change frame first, as this resets the speed, then put the scale and the bodies back
+            CLOCK.setTime(time);
+            changeFrame(parent);
+            SPEED_FACTOR = speedFactor;
+            setScale(screenScale);
+            placeBodies();
+            jumped = true;
+
+            enterprise.restoreState(enterpriseState);
+            falcon.restoreState(falconState);
+
+            JourneyController.this.stageText = stageText;
+            JourneyController.this.dataText = dataText;
+            styleFocus(focus);
+            JourneyController.this.entryX = entryX;
+            JourneyController.this.entryShown = entryShown;
+
+            // If the journey had finished, carry on from the restored step
+            boolean wasFinished = completeJourneyData.isFinished();
+            completeJourneyData.reset(report);
+            if (wasFinished && !completeJourneyData.isFinished()) {
+                LOOP.resume();
+            } else if (completeJourneyData.isFinished()) {
+                reportText = completeJourneyData.toString();
+            }
+        }
+    }
+
+    /**
+     * Everything the display needs to draw a step of the journey, filled in on the simulation thread and handed to
+     * the JavaFX thread through a triple buffer. The frame and its bodies are only replaced, never changed, so they
+     * are shared rather than copied.
+     */
+    private static final class StepState {
+
+        private final BodySnapshot bodies;
+        private final Spaceship enterprise = new Spaceship();
+        private final Spaceship falcon = new Spaceship();
+        private BodyInSpace frame;
+        private List<BodyInSpace> frameBodies;
+        private double scale, speedFactor;
+        private long journeyStep, furthestStep;
+        private String stageText, dataText, focusBody, report;
+        private double entryX;
+        private boolean entryShown, finished;
+
+        /**
+         * Constructor to create an empty step with room for the given number of bodies
+         * @param count most bodies shown in a frame
+         */
+        StepState(int count) {
+            bodies = new BodySnapshot(count);
+        }
+    }
 }
@@ -27,6 +27,9 @@ import javafx.stage.Stage;
 import solarsystem.objects.BodyInSpace;
 import solarsystem.objects.RouteStage;
 import solarsystem.objects.SpaceObjects;
+import solarsystem.view.BodyRenderer;
+import solarsystem.view.BodyView;
+import solarsystem.view.ViewportCuller;
 
 /**
  * Controller class for selecting a journey path to be animated
@@ -50,6 +53,14 @@ public class PathSelectionController extends SuperController implements Initiali
 	private BodyInSpace currentParent = SpaceObjects.getSun();
 	private Map<String, BodyInSpace> childBodies = SpaceObjects.getPlanets();
 
+	// Views of the bodies shown in the current frame
+	private final BodyRenderer renderer = new BodyRenderer();
+
+	/* Bodies of the current frame worth drawing at the current zoom and pan. Bodies on orbits outside the display,
+	 * or on orbits too small to pick out from the parent, are hidden and left where they are until they are next
+	 * drawn, so zooming and panning only move the bodies which can be seen. */
+	private ViewportCuller culler;
+
 	// Variable to save the scale of the display between changes
 	private double scaleSave;
 
@@ -60,6 +71,9 @@ public class PathSelectionController extends SuperController implements Initiali
 	@Override
 	public void initialize(URL arg0, ResourceBundle arg1) {
 
+		// Nothing moves while the route is chosen, so stop any animation left running by the previous view
+		LOOP.stop();
+
 		// Initialise the slider to the Sun scale values
 		zoomSlide.setValue(SCREEN_SCALE);
 		zoomSlide.setMin(SpaceObjects.getScale("Sun").get(0));
@@ -71,20 +85,7 @@ public class PathSelectionController extends SuperController implements Initiali
 			public void changed(ObservableValue<? extends Number> ov,
 					Number old_val, Number new_val) {
 				SCREEN_SCALE = (double) new_val;
-
-				for (BodyInSpace current: childBodies.values()) {
-					current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-
-					// Calculate the x & y positions of the planet at the new scale and move it to there
-					current.moveGUIObject(
-							(current.getParent().getX() +
-							(current.getOrbit() * SCREEN_SCALE) *
-							Math.sin(current.getAngle())),
-
-							(current.getParent().getY() -
-							(current.getOrbit() * SCREEN_SCALE) *
-							Math.cos(current.getAngle())));
-				}
+				cullBodies();
 			}
 		});
 
@@ -124,6 +125,9 @@ public class PathSelectionController extends SuperController implements Initiali
 					// At the end of the drag, move the system the distance and the direction of the drag
 					systemPane.setTranslateX(systemPane.getTranslateX() + (event.getX() - startX));
 					systemPane.setTranslateY(systemPane.getTranslateY() + (event.getY() - startY));
+
+					// Show the bodies panned into view, and hide those panned out of it
+					cullBodies();
 				}
 
 				event.consume();
@@ -177,7 +181,7 @@ public class PathSelectionController extends SuperController implements Initiali
 				/* If the current target is an object corresponding to a body, set the name of the planet
 				 * in the dialog and disable buttons as required. */
 				for (BodyInSpace current: childBodies.values()) {
-					if (event.getTarget().equals(current.getGUIObject())){
+					if (event.getTarget().equals(renderer.view(current).getGUIObject())){
 
 						planetFound = true;
 
@@ -191,7 +195,8 @@ public class PathSelectionController extends SuperController implements Initiali
 
 				/* If the current target is the current system parent, and this parent is not the sun, then
 				 * set up the dialog for displaying information about the parent */
-				if (event.getTarget().equals(currentParent.getGUIObject()) && !currentParent.getName().equals("Sun")){
+				if (event.getTarget().equals(renderer.view(currentParent).getGUIObject()) &&
+						!currentParent.getName().equals("Sun")){
 
 					planetFound = true;
 
@@ -224,42 +229,38 @@ public class PathSelectionController extends SuperController implements Initiali
 	private void displaySystem() {
 
 		// If the current parent is the sun, add this first as we do not want this to be selectable.
+		BodyView parent = renderer.view(currentParent);
 		if(currentParent.getName().equals("Sun")) {
-			systemPane.getChildren().add(currentParent.getGUIObject());
+			systemPane.getChildren().add(parent.getGUIObject());
 		}
 
 		// Place the current parent in the center of the available space
-		currentParent.moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
+		parent.moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
 
 		// As long as the current parent has child bodies to display
 		if (!childBodies.isEmpty()) {
 
 			/* Iterate through the body list and add all planet orbit circles to the display first
-			 * This is so they are at the bottom of the stack and do not cover the planet objects. */
+			 * This is so they are at the bottom of the stack and do not cover the planet objects.
+			 * They are hidden until they are found to be worth drawing. */
 			for (BodyInSpace current : childBodies.values()) {
-				current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-				systemPane.getChildren().add(current.getGUIOrbit());
+				renderer.view(current).getGUIOrbit().setVisible(false);
+				systemPane.getChildren().add(renderer.view(current).getGUIOrbit());
 			}
 
 			/* Iterate through the body list and add all planet objects at the appropriate locations.*/
 			for (BodyInSpace current : childBodies.values()) {
 
 				// Reset the body so that it is drawn at the origin point, counteracting any displacement issues
-				current.resetPlanet();
-
-				/* Move the body to the appropriate location by calculating it based on the angle
-				 * and current screen scale	 */
-				current.moveGUIObject(
-						(current.getParent().getX() +
-								(current.getOrbit() * SCREEN_SCALE) *
-										Math.sin(current.getAngle())),
+				BodyView view = renderer.view(current);
+				view.reset();
 
-						(current.getParent().getY() -
-								(current.getOrbit() * SCREEN_SCALE) *
-										Math.cos(current.getAngle())));
+				// Place the body at its angle for the current simulation time
+				current.setTime(CLOCK.getTime());
 
-				// Add the planet object to the display
-				systemPane.getChildren().add(current.getGUIObject());
+				// Add the planet object to the display, hidden until it is found to be worth drawing
+				view.getGUIObject().setVisible(false);
+				systemPane.getChildren().add(view.getGUIObject());
 
 				// If the body is on the current route, mark it to show this
 				for (RouteStage stage: planetsOnPath) {
@@ -272,9 +273,60 @@ public class PathSelectionController extends SuperController implements Initiali
 
 			// If the current parent is not the sun, then add this last so that it can be selected to add to the route
 			if(!currentParent.getName().equals("Sun")) {
-				systemPane.getChildren().add(currentParent.getGUIObject());
+				systemPane.getChildren().add(parent.getGUIObject());
+			}
+		}
+
+		// Work out which of the bodies can be seen, and move those to their place at the current scale
+		culler = new ViewportCuller(childBodies.values());
+		cullBodies();
+	}
+
+	/**
+	 * Internal method to show the bodies of the current frame which are worth drawing at the current scale and
+	 * pan, and hide the rest. Only the bodies drawn have their orbit and position fitted to the scale.
+	 */
+	private void cullBodies() {
+		// Nothing is shown while the display changes between frames
+		if (culler == null) {
+			return;
+		}
+
+		// The area of the pane which can be seen moves the opposite way to the pane when it is panned
+		double minX = -systemPane.getTranslateX();
+		double minY = -systemPane.getTranslateY();
+		culler.setViewport(minX, minY, minX + systemPane.getPrefWidth(), minY + systemPane.getPrefHeight());
+
+		BodyView parent = renderer.view(currentParent);
+		culler.cull(parent.getX(), parent.getY(), SCREEN_SCALE);
+
+		for (int i = culler.getLastFirst(); i < culler.getLastEnd(); i++) {
+			if (!culler.isVisible(i)) {
+				BodyView view = renderer.view(culler.getBody(i));
+				view.getGUIOrbit().setVisible(false);
+				view.getGUIObject().setVisible(false);
 			}
 		}
+
+		for (int i = culler.getFirst(); i < culler.getEnd(); i++) {
+			BodyInSpace current = culler.getBody(i);
+			BodyView view = renderer.view(current);
+			renderer.adjustGUIOrbit(current, current.getOrbit() * SCREEN_SCALE);
+
+			/* Move the body to the appropriate location by calculating it based on the angle
+			 * and current screen scale	 */
+			view.moveGUIObject(
+					(parent.getX() +
+							(current.getOrbit() * SCREEN_SCALE) *
+									Math.sin(current.getAngle())),
+
+					(parent.getY() -
+							(current.getOrbit() * SCREEN_SCALE) *
+									Math.cos(current.getAngle())));
+
+			view.getGUIOrbit().setVisible(true);
+			view.getGUIObject().setVisible(true);
+		}
 	}
 
 	/**
@@ -338,11 +390,16 @@ public class PathSelectionController extends SuperController implements Initiali
 	}
 
 	/**
-	 * Mark the GUI object of the given body to show the body is a part of the current route
+	 * Mark the GUI object of the given body to show the body is a part of the current route. Bodies which are not
+	 * shown in the current frame are marked when they are next displayed.
 	 * @param body Name of body
      */
 	private void markForRoute(String body) {
-		Circle planetObj = SpaceObjects.getBody(body).getGUIObject();
+		BodyInSpace marked = SpaceObjects.getBody(body);
+		if (!renderer.isShown(marked)) {
+			return;
+		}
+		Circle planetObj = renderer.view(marked).getGUIObject();
 
 		// Add a white stroke around the body
 		planetObj.setStrokeWidth(2);
@@ -354,7 +411,11 @@ public class PathSelectionController extends SuperController implements Initiali
 	 * @param body Name of body
      */
 	private void unmarkForRoute(String body) {
-		Circle planetObj = SpaceObjects.getBody(body).getGUIObject();
+		BodyInSpace marked = SpaceObjects.getBody(body);
+		if (!renderer.isShown(marked)) {
+			return;
+		}
+		Circle planetObj = renderer.view(marked).getGUIObject();
 		planetObj.setStrokeWidth(0);
 	}
 
@@ -364,6 +425,7 @@ public class PathSelectionController extends SuperController implements Initiali
 	@FXML protected void centerPlanets(){
 		systemPane.setTranslateX(0);
 		systemPane.setTranslateY(0);
+		cullBodies();
 	}
 
 	/**
@@ -532,8 +594,10 @@ public class PathSelectionController extends SuperController implements Initiali
 		currentParent = SpaceObjects.getPlanets().get(planet);
 		childBodies = SpaceObjects.getChildren(planet);
 
-		// Clear all bodies on the screen so the new ones can be added
+		// Clear all bodies on the screen so the new ones can be added, and drop their views
 		systemPane.getChildren().clear();
+		renderer.clear();
+		culler = null;
 
 		// Save the current scale on the main solar system view, and set the scale for the new frame
 		scaleSave = SCREEN_SCALE;
@@ -567,8 +631,10 @@ public class PathSelectionController extends SuperController implements Initiali
 		currentParent = SpaceObjects.getSun();
 		childBodies = SpaceObjects.getPlanets();
 
-		// Empty the display of the current frame
+		// Empty the display of the current frame, and drop the views of its bodies
 		systemPane.getChildren().clear();
+		renderer.clear();
+		culler = null;
 
 		// Reactivate the zoom slider and set the scale to that of the sun
 		zoomSlide.setVisible(true);
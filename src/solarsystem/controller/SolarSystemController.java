@@ -2,17 +2,16 @@ package solarsystem.controller;
  
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.animation.TranslateTransition;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -20,12 +19,25 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Slider;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SimulationClock;
 import solarsystem.objects.SpaceObjects;
+import solarsystem.simulation.BodySnapshot;
+import solarsystem.simulation.Fleet;
+import solarsystem.simulation.NBodySystem;
+import solarsystem.simulation.TripleBuffer;
+import solarsystem.view.BodyRenderer;
+import solarsystem.view.BodyView;
+import solarsystem.view.CanvasRenderer;
+import solarsystem.view.FleetRenderer;
+import solarsystem.view.RenderMode;
+import solarsystem.view.StatsOverlay;
+import solarsystem.view.ViewportCuller;
 
 /**
  * Controller class used to animate the solar system view of the program.
@@ -39,18 +51,73 @@ public class SolarSystemController extends SuperController implements Initializa
 	@FXML private Button resetButton;
 	@FXML private Button speedButton;
 	@FXML private Button slowButton;
+	@FXML private ToggleButton nbodyButton;
 
-	private Timeline timeline;
+	// Slowest and fastest speed factors the buttons can reach in this view
+	private static final double MIN_SPEED = 0.015625;
+	private static final double MAX_SPEED = 512;
+
+	// Canvas to draw onto, only used when drawing onto a canvas
+	private CanvasRenderer canvas;
 	private Map<String, BodyInSpace> childBodies = SpaceObjects.getPlanets();
 
+	// Views of the bodies shown on the display
+	private final BodyRenderer renderer = new BodyRenderer();
+
+	// Frame statistics shown over the display, only used if the overlay is turned on
+	private StatsOverlay overlay;
+
+	/* Planets worth drawing at the current zoom, worked out again only when the zoom changes. Planets on orbits
+	 * outside the display, or on orbits too small to pick out from the Sun, are neither moved nor drawn. */
+	private ViewportCuller culler;
+
+	/* Bodies moved under their mutual gravity, only used in the N-body mode. Each animation step takes no more
+	 * than a fixed number of gravity steps, so the simulation keeps up at high speeds. */
+	private static final int MAX_NBODY_STEPS = 32;
+	private NBodySystem nbody;
+
+	/* The bodies are moved on the simulation thread, which hands the position of each body after every step to
+	 * the display through a triple buffer. The positions are only used on the simulation thread. */
+	private BodyInSpace[] bodies;
+	private double[] posX, posY, lastX, lastY;
+	private TripleBuffer<BodySnapshot> snapshots;
+	private long stepCount;
+
+	/* Fleet of spacecraft travelling between the planets, only used if a number of ships is given with
+	 * solarsystem.fleet. The fleet is built and moved on the simulation thread, and its positions are only worked
+	 * out again once the display has taken the last ones, so a large fleet costs at most one placing per frame. */
+	private static final double FLEET_SPACING = 0.25;
+	private static final double FLEET_ORBIT = 200;
+	private Fleet fleet;
+	private double[] fleetX, fleetY;
+	private TripleBuffer<BodySnapshot> fleetSnapshots;
+	private FleetRenderer fleetRenderer;
+
 	// Set up logger for console messages
 	private final static Logger LOGGER = Logger.getLogger(PathSelectionController.class.getName());
     
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
+		/* The journey view can run far faster than this view, so bring a speed left over from it back within the
+		 * range of the buttons before anything moves */
+		SPEED_FACTOR = Math.min(Math.max(SPEED_FACTOR, MIN_SPEED), MAX_SPEED);
+		showSpeedLimits();
+
 		setUpPlanets();
 
+		// Start with the bodies moving under gravity if the N-body mode has been asked for
+		if (Boolean.getBoolean("solarsystem.nbody")) {
+			nbodyButton.setSelected(true);
+			toggleNBody();
+		}
+
+		// Add a fleet of spacecraft if one has been asked for
+		int ships = Integer.getInteger("solarsystem.fleet", 0);
+		if (ships > 0) {
+			setUpFleet(ships);
+		}
+
 		// Initialise the slider to the Sun scale values
 		zoomSlide.setValue(SCREEN_SCALE);
 		zoomSlide.setMin(SpaceObjects.getScale("Sun").get(0));
@@ -60,110 +127,315 @@ public class SolarSystemController extends SuperController implements Initializa
 		zoomSlide.valueProperty().addListener(new ChangeListener<Number>() {
 			public void changed(ObservableValue<? extends Number> ov, Number old_val, Number new_val) {
 				SCREEN_SCALE = (double) new_val;
-				for (BodyInSpace current: childBodies.values()) {
-					current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-				}
+				cullBodies();
 			}
 		});
     }
 
 
     /**
-	 * Sets up the planets on the display and adds them to a timeline for animation
+	 * Sets up the planets on the display and starts the frame loop to animate them
 	 */
 	private void setUpPlanets() {
 
-		// Redraw the planet set at 0,0 to counteract object displacement
-    	for (BodyInSpace current : childBodies.values()) {
-            current.resetPlanet();
-        }
+		// Set scale to end of the scale for the sun
+		SCREEN_SCALE = SpaceObjects.getScale("Sun").get(0);
+
+		final BodyInSpace sun = SpaceObjects.getSun();
+		bodies = childBodies.values().toArray(new BodyInSpace[0]);
+		if (RENDER_MODE == RenderMode.CANVAS) {
 
-		/* Event handler to move the planets around their orbits. For each planet shown on the screen, we
-		 * increment their current angle by the speed factor, work out the x and y co-ords on their orbit circle
-		 * that correspond to this angle, and then move the planet to this location. */
-		EventHandler<ActionEvent> planetMovement = new EventHandler<ActionEvent>() { 
+			// Draw the whole system onto a single canvas
+			canvas = new CanvasRenderer(systemPane.getPrefWidth(), systemPane.getPrefHeight());
+			renderer.view(sun).setPosition(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
+			systemPane.getChildren().add(canvas.getCanvas());
+		} else {
+
+			// Add the sun at the centre of the display
+			renderer.view(sun).moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
+			systemPane.getChildren().add(renderer.view(sun).getGUIObject());
+
+			// Add the orbit path and the planet to the screen, hidden until they are found to be worth drawing
+			for (BodyInSpace current: childBodies.values()) {
+				BodyView view = renderer.view(current);
+				view.getGUIOrbit().setVisible(false);
+				view.getGUIObject().setVisible(false);
+				systemPane.getChildren().add(view.getGUIOrbit());
+				systemPane.getChildren().add(view.getGUIObject());
+			}
+		}
+
+		// Work out which planets can be seen at the starting scale
+		culler = new ViewportCuller(bodies);
+		culler.setViewport(0, 0, systemPane.getPrefWidth(), systemPane.getPrefHeight());
+		cullBodies();
+
+		// Show the frame statistics over the display if the overlay is turned on
+		if (SHOW_STATS) {
+			overlay = new StatsOverlay(STATS);
+			systemPane.getChildren().add(overlay.getGUIObject());
+		}
+
+		// Start from the position of every planet at the current time
+		posX = new double[bodies.length];
+		posY = new double[bodies.length];
+		lastX = new double[bodies.length];
+		lastY = new double[bodies.length];
+		snapshots = new TripleBuffer<>(new BodySnapshot(bodies.length), new BodySnapshot(bodies.length),
+				new BodySnapshot(bodies.length));
+		moveCircular();
+		publish();
+
+		/* Run the animation on the shared frame loop, with the steps on its simulation thread. For each step we
+		 * move the simulation clock on by the speed factor, work out where each planet is at this time, and
+		 * publish the positions. Once per frame the planets are then drawn at the latest positions published,
+		 * scaled to the current zoom. */
+		LOOP.startThreaded(new FrameLoop.Listener() {
 			@Override
-			public void handle(ActionEvent event) {
+			public void step() {
+
+				// In the N-body mode, move the bodies under gravity, otherwise along their circular orbits
+				if (nbody != null) {
+					moveNBody();
+				} else {
+					CLOCK.step(SPEED_FACTOR);
+					moveCircular();
+				}
+				publish();
 
-				for (BodyInSpace current: childBodies.values()) {
+				// Only place the fleet again once the display has drawn the last positions
+				if (fleet != null && !fleetSnapshots.isFresh()) {
+					publishFleet();
+				}
+			}
 
-					// Increment the angle of the planet by the speed factor
-					current.incrementAngle(SPEED_FACTOR);
+			@Override
+			public void render(double alpha) {
+				/* Take the latest positions published, and scale the last two steps of each planet drawn to the
+				 * display. Both steps are set at once, so a planet which comes back into view has no stale
+				 * position to blend from. */
+				BodySnapshot snapshot = snapshots.acquire();
+				for (int k = culler.getFirst(); k < culler.getEnd(); k++) {
+					int i = culler.getIndex(k);
+					BodyView parent = renderer.view(bodies[i].getParent());
+					renderer.view(bodies[i]).setPosition(
+							parent.getX() + snapshot.getX(i, 0) * SCREEN_SCALE,
+							parent.getY() + snapshot.getY(i, 0) * SCREEN_SCALE,
+							parent.getX() + snapshot.getX(i, 1) * SCREEN_SCALE,
+							parent.getY() + snapshot.getY(i, 1) * SCREEN_SCALE);
+				}
+
+				if (canvas != null) {
+					canvas.draw(renderer, sun, culler.getVisible(), SCREEN_SCALE, alpha);
+				} else {
+					// Move each planet drawn to its position, part way between the last two steps
+					for (BodyInSpace current: culler.getVisible()) {
+						BodyView view = renderer.view(current);
+						moveBall(view.getGUIObject(), view.getX(alpha), view.getY(alpha));
+					}
+				}
 
-					/* Work out the x & y co-ords that correspond to the new angle. Multiply by the screen scale
-					 * to ensure x & y apply to the current display ratio. */
-					double moveX = current.getParent().getX() + (current.getOrbit() * SCREEN_SCALE) * 
-							Math.sin(current.getAngle());
-					
-					double moveY = current.getParent().getY() - (current.getOrbit() * SCREEN_SCALE) * 
-							Math.cos(current.getAngle());
+				// Draw the whole fleet in one pass, once it has been built
+				if (fleetRenderer != null) {
+					BodySnapshot ships = fleetSnapshots.acquire();
+					if (ships.getStep() > 0) {
+						BodyView centre = renderer.view(sun);
+						fleetRenderer.draw(ships, centre.getX(), centre.getY(), SCREEN_SCALE);
+					}
+				}
 
-					// Update the planet position and move the planet
-					current.setPosition(moveX, moveY);
-					moveBall(current.getGUIObject(), moveX, moveY);
+				// A few times a second, count the nodes on the display and update the overlay
+				if (STATS.isSampleDue()) {
+					STATS.setNodeCounts(countNodes(systemPane), 0);
+					if (overlay != null) {
+						overlay.update();
+					}
 				}
+			}
+		});
+    }
+
+	/**
+	 * Internal method to work out which planets are worth drawing at the current scale. When drawing with nodes,
+	 * the planets which can no longer be seen are hidden, and only the orbits of those drawn are fitted to the
+	 * scale, so zooming costs nothing for planets out of view.
+	 */
+	private void cullBodies() {
+		BodyView sun = renderer.view(SpaceObjects.getSun());
+		culler.cull(sun.getX(), sun.getY(), SCREEN_SCALE);
+		if (canvas != null) {
+			return;
+		}
 
+		for (int i = culler.getLastFirst(); i < culler.getLastEnd(); i++) {
+			if (!culler.isVisible(i)) {
+				BodyView view = renderer.view(culler.getBody(i));
+				view.getGUIOrbit().setVisible(false);
+				view.getGUIObject().setVisible(false);
 			}
-		};
+		}
+		for (int i = culler.getFirst(); i < culler.getEnd(); i++) {
+			BodyInSpace current = culler.getBody(i);
+			BodyView view = renderer.view(current);
+			renderer.adjustGUIOrbit(current, current.getOrbit() * SCREEN_SCALE);
+			view.getGUIOrbit().setVisible(true);
+			view.getGUIObject().setVisible(true);
+		}
+	}
+
+	/**
+	 * Internal method to place each planet on its circular orbit at the current simulation time. Runs on the
+	 * simulation thread.
+	 */
+	private void moveCircular() {
+		double time = CLOCK.getTime();
+		for (int i = 0; i < bodies.length; i++) {
+			double angle = bodies[i].angleAt(time);
+			posX[i] = bodies[i].getOrbit() * Math.sin(angle);
+			posY[i] = -bodies[i].getOrbit() * Math.cos(angle);
+		}
+	}
 
+	/**
+	 * Internal method to hand the positions of the latest step to the display, along with those of the step
+	 * before. Runs on the simulation thread.
+	 */
+	private void publish() {
+		if (stepCount == 0) {
+			// The first positions have nothing to blend from, so start from the same point
+			System.arraycopy(posX, 0, lastX, 0, posX.length);
+			System.arraycopy(posY, 0, lastY, 0, posY.length);
+		}
+		snapshots.getBack().set(++stepCount, CLOCK.getTime(), lastX, lastY, posX, posY);
+		snapshots.publish();
 
-		// Set up a timeline to display the animation
-		timeline = new Timeline(new KeyFrame(Duration.ZERO, planetMovement),
-				new KeyFrame(Duration.millis(STEP_DURATION)));
+		System.arraycopy(posX, 0, lastX, 0, posX.length);
+		System.arraycopy(posY, 0, lastY, 0, posY.length);
+	}
 
-		timeline.setCycleCount(Timeline.INDEFINITE);
+	/**
+	 * Internal method to add a fleet of ships travelling between the planets to the display. Each ship flies from
+	 * one planet to another, with every pair of planets used in turn, and the ships leave one after another a
+	 * fixed time apart. Planning every route takes a while for a large fleet, so the fleet is built on the
+	 * simulation thread and appears once it is ready.
+	 * @param ships number of ships
+	 */
+	private void setUpFleet(final int ships) {
+		fleetSnapshots = new TripleBuffer<>(new BodySnapshot(ships), new BodySnapshot(ships),
+				new BodySnapshot(ships));
+		fleetRenderer = new FleetRenderer(systemPane.getPrefWidth(), systemPane.getPrefHeight());
+		systemPane.getChildren().add(fleetRenderer.getCanvas());
 
-		// Add the sun at the centre of the display
-		BodyInSpace sun = SpaceObjects.getSun();
-		sun.moveGUIObject(systemPane.getPrefWidth() / 2, systemPane.getPrefHeight() / 2);
-		systemPane.getChildren().add(sun.getGUIObject());
+		LOOP.post(new Runnable() {
+			@Override
+			public void run() {
+				// Share one route between every ship flying between the same two planets
+				List<BodyInSpace> planets = new ArrayList<>(SpaceObjects.getPlanets().values());
+				int n = planets.size();
+				List<List<RouteStage>> pairs = new ArrayList<>();
+				for (BodyInSpace from : planets) {
+					for (BodyInSpace to : planets) {
+						if (from != to) {
+							pairs.add(Arrays.asList(new RouteStage(from.getName(), FLEET_ORBIT, FLEET_ORBIT),
+									new RouteStage(to.getName(), FLEET_ORBIT, FLEET_ORBIT)));
+						}
+					}
+				}
 
-		// Set scale to end of the scale for the sun
-		SCREEN_SCALE = SpaceObjects.getScale("Sun").get(0);
+				List<List<RouteStage>> routes = new ArrayList<>(ships);
+				double[] departures = new double[ships];
+				for (int i = 0; i < ships; i++) {
+					routes.add(pairs.get((i % n) * (n - 1) + (i / n) % (n - 1)));
+					departures[i] = CLOCK.getTime() + i * FLEET_SPACING;
+				}
+
+				long start = System.nanoTime();
+				fleet = new Fleet(routes, departures, SpaceObjects.getIndex(), ForkJoinPool.commonPool());
+				fleetX = new double[ships];
+				fleetY = new double[ships];
+				LOGGER.info(String.format("Fleet of %d ships on %d transfers planned in %.0f ms, mean delta-v %.0f m/s",
+						ships, fleet.getLegCount(), (System.nanoTime() - start) / 1e6,
+						fleet.getTotalDeltaV() / ships));
+				publishFleet();
+			}
+		});
+	}
 
-		// Draw the orbit at the scale indicated and add the orbit path and the planet to the screen
-		for (BodyInSpace current: childBodies.values()) {
-			current.adjustGUIOrbit(current.getOrbit() * SCREEN_SCALE);
-			systemPane.getChildren().add(current.getGUIOrbit());
-			systemPane.getChildren().add(current.getGUIObject());
+	/**
+	 * Internal method to place the fleet at the current time and hand the positions to the display. Runs on the
+	 * simulation thread.
+	 */
+	private void publishFleet() {
+		fleet.moveTo(CLOCK.getTime());
+
+		// Positions are in km from the Sun, and the snapshot holds millions of km
+		double[] x = fleet.getX();
+		double[] y = fleet.getY();
+		for (int i = 0; i < fleetX.length; i++) {
+			fleetX[i] = x[i] / 1e6;
+			fleetY[i] = y[i] / 1e6;
 		}
+		fleetSnapshots.getBack().set(stepCount, CLOCK.getTime(), fleetX, fleetY, fleetX, fleetY);
+		fleetSnapshots.publish();
+	}
 
-		timeline.play();
-    }
+	/**
+	 * Switch between moving the bodies along their circular orbits and moving them under their mutual gravity.
+	 * The gravity model starts from where every planet and moon is on its circular orbit at the current time.
+	 */
+	@FXML protected void toggleNBody() {
+		// Make the switch between two steps on the simulation thread, which owns the bodies and the clock
+		final boolean selected = nbodyButton.isSelected();
+		LOOP.post(new Runnable() {
+			@Override
+			public void run() {
+				if (selected) {
+					nbody = new NBodySystem(CLOCK.getTime());
+					LOGGER.info("Moving " + nbody.size() + " bodies under gravity");
+				} else {
+					nbody = null;
+				}
+			}
+		});
+	}
 
+	/**
+	 * Internal method to move the bodies on by a step under gravity. The clock follows the time the bodies have
+	 * reached, which falls behind the speed factor if the step would take too many gravity steps. Runs on the
+	 * simulation thread.
+	 */
+	private void moveNBody() {
+		nbody.advance(SPEED_FACTOR * SimulationClock.DAYS_PER_STEP, MAX_NBODY_STEPS);
+		CLOCK.setTime(nbody.getTime());
+
+		// Positions are in km, and the snapshot holds offsets from the parent in millions of km
+		for (int i = 0; i < bodies.length; i++) {
+			int body = nbody.indexOf(bodies[i]);
+			int parent = nbody.indexOf(bodies[i].getParent());
+			posX[i] = (nbody.getX(body) - nbody.getX(parent)) / 1e6;
+			posY[i] = (nbody.getY(body) - nbody.getY(parent)) / 1e6;
+		}
+	}
 
     /**
-	 * Internal method to animate the movement of a body from one location to the next.
+	 * Internal method to move a body to a new location on the display.
 	 * @param ball The GUI object to be moved
 	 * @param x The x position to move this object to
 	 * @param y The y position to move this object to
      */
     private void moveBall(Circle ball, double x, double y) {
-		TranslateTransition move = new TranslateTransition(
-				Duration.millis(STEP_DURATION), ball);
-		move.setToX(x);
-		move.setToY(y);
-		move.playFromStart();
+		ball.setTranslateX(x);
+		ball.setTranslateY(y);
 	}
 
     /**
 	 * Decreases the current movement speed of the system, caps speed at x1/64 and disables button if at cap
 	 */
     @FXML protected void slowMovement() {
-		if (SPEED_FACTOR > 0.015625) {
+		if (SPEED_FACTOR > MIN_SPEED) {
 			SPEED_FACTOR = SPEED_FACTOR / 2;
 		}
-
-		if (SPEED_FACTOR == 0.015625) {
-			slowButton.setDisable(true);
-			speedButton.setDisable(false);
-		} else if (SPEED_FACTOR == 512) {
-			slowButton.setDisable(false);
-			speedButton.setDisable(true);
-		} else {
-			slowButton.setDisable(false);
-			speedButton.setDisable(false);
-		}
+		showSpeedLimits();
 
 		//LOGGER.info("CURRENT SPEED FACTOR: " + SPEED_FACTOR);
     }
@@ -172,24 +444,22 @@ public class SolarSystemController extends SuperController implements Initializa
 	 * Increases the current movement speed of the system, caps speed at x512 and disables button if at cap
 	 */
     @FXML protected void speedUpMovement() {
-		if (SPEED_FACTOR < 512) {
+		if (SPEED_FACTOR < MAX_SPEED) {
 			SPEED_FACTOR = SPEED_FACTOR * 2;
 		}
-
-		if (SPEED_FACTOR == 0.015625) {
-			slowButton.setDisable(true);
-			speedButton.setDisable(false);
-		} else if (SPEED_FACTOR == 512) {
-			slowButton.setDisable(false);
-			speedButton.setDisable(true);
-		} else {
-			slowButton.setDisable(false);
-			speedButton.setDisable(false);
-		}
+		showSpeedLimits();
 
 		//LOGGER.info("CURRENT SPEED FACTOR: " + SPEED_FACTOR);
     }
 
+	/**
+	 * Internal method to disable the speed button at the fastest speed and the slow button at the slowest
+	 */
+	private void showSpeedLimits() {
+		slowButton.setDisable(SPEED_FACTOR <= MIN_SPEED);
+		speedButton.setDisable(SPEED_FACTOR >= MAX_SPEED);
+	}
+
 	/**
 	 * Reset the speed factor to its original value, enable both buttons
 	 */
@@ -207,8 +477,8 @@ public class SolarSystemController extends SuperController implements Initializa
 	 * @throws IOException
      */
     @FXML protected void mapJourney() throws IOException {
-		// Pause the current animation
-    	timeline.pause();
+		// Stop the current animation
+		LOOP.stop();
 
 		// Use the button clicked on to get a reference to the window
     	Stage stage; 
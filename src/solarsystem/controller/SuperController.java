@@ -1,6 +1,11 @@
 package solarsystem.controller;
 
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import solarsystem.metrics.FrameStats;
 import solarsystem.objects.RouteStage;
+import solarsystem.objects.SimulationClock;
+import solarsystem.view.RenderMode;
 
 import java.util.ArrayList;
 
@@ -13,7 +18,27 @@ class SuperController {
 
  	static double SCREEN_SCALE;
  	static final double STEP_DURATION = 2; //milliseconds
-	static double SPEED_FACTOR = 1;
+	static volatile double SPEED_FACTOR = 1;
 	static final ArrayList<RouteStage> planetsOnPath = new ArrayList<>();
+	static final SimulationClock CLOCK = new SimulationClock();
+	static final FrameStats STATS = FrameStats.register();
+	static final FrameLoop LOOP = new FrameLoop(STEP_DURATION, STATS);
+	static final RenderMode RENDER_MODE = RenderMode.parse(System.getProperty("solarsystem.render"));
+	static final boolean SHOW_STATS = Boolean.getBoolean("solarsystem.stats.overlay");
+
+	/**
+	 * Count the nodes in the scene graph below the given node, including the node itself
+	 * @param node node to count from
+	 * @return number of nodes
+	 */
+	static int countNodes(Node node) {
+		int count = 1;
+		if (node instanceof Parent) {
+			for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
 
 }
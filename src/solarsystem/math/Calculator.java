@@ -4,13 +4,14 @@ import java.util.logging.Logger;
 import solarsystem.objects.BodyInSpace;
 
 /**
- * Object to work out the transfer times and speeds between bodies in a solar system.
+ * Object to work out the transfer times and speeds between bodies in a solar system. The static compute method
+ * holds no state and can be called from any number of threads, while a Calculator object follows a journey
+ * from body to body and keeps the result of the latest transfer.
  * @author Laura McGhie
  */
 public class Calculator {
 
-	private double dv1, dv2, t, startPhase;
-	private String type;
+	private TransferResult result = TransferResult.NONE;
 	private BodyInSpace current_p;
 	private MathEllipse current_e;
 
@@ -25,12 +26,44 @@ public class Calculator {
 		this.current_e = null;
 	}
 
+	/**
+	 * Constructor for the Calculator class which initialises the calculator with a planet to begin from, and
+	 * the orbit the spacecraft is in around that planet
+	 * @param initialPlanet - body the journey begins from
+	 * @param initialOrbit - orbit around the body the journey begins from, or null if landed
+	 */
+	public Calculator(BodyInSpace initialPlanet, MathEllipse initialOrbit){
+		this.current_p = initialPlanet;
+		this.current_e = initialOrbit;
+	}
+
+	/**
+	 * Constructor to create a copy of another calculator, at the same point in the journey and with the same
+	 * latest transfer
+	 * @param other - calculator to copy
+	 */
+	public Calculator(Calculator other){
+		this.current_p = other.current_p;
+		this.current_e = other.current_e;
+		this.result = other.result;
+	}
+
+	/**
+	 * Method to move the calculator back to the point in the journey of a copy taken earlier
+	 * @param saved - copy of this calculator
+	 */
+	public void restore(Calculator saved) {
+		this.current_p = saved.current_p;
+		this.current_e = saved.current_e;
+		this.result = saved.result;
+	}
+
 	/**
 	 * Method to return the phase angle needed between the two bodies to start the current transfer
 	 * @return phase angle in degrees
      */
 	public double getStartPhaseAngle() {
-		return startPhase;
+		return result.getStartPhaseAngle();
 	}
 
 	/**
@@ -38,7 +71,31 @@ public class Calculator {
 	 * @return time in seconds
      */
 	public double getTime() {
-		return t;
+		return result.getTime();
+	}
+
+	/**
+	 * Method to return the change in speed needed to start the current transfer
+	 * @return delta v in m/s
+	 */
+	public double getExitDeltaV() {
+		return result.getExitDeltaV();
+	}
+
+	/**
+	 * Method to return the change in speed needed to finish the current transfer
+	 * @return delta v in m/s
+	 */
+	public double getEntryDeltaV() {
+		return result.getEntryDeltaV();
+	}
+
+	/**
+	 * Method to return the full result of the current transfer
+	 * @return transfer result
+	 */
+	public TransferResult getResult() {
+		return result;
 	}
 
 	/**
@@ -47,14 +104,7 @@ public class Calculator {
 	 * @return data string
      */
 	public String getTransferData() {
-		
-		double days = Math.floor(t / 86400);
-		double hours = Math.floor((t % 86400) / 3600);
-		double minutes = Math.floor(((t % 86400) % 3600) / 60);
-		double seconds = Math.floor(((t % 86400) % 3600) % 60);
-		
-		return String.format("Δv Exit = %6.0fm/s\tΔv Entry = %6.0fm/s\r\n\tTransfer Time = %6.0f days " +
-				"%6.0f hours %6.0f mins %6.0f s\n", dv1, dv2, days, hours, minutes, seconds);
+		return result.getTransferData();
 	}
 
 	/**
@@ -64,75 +114,109 @@ public class Calculator {
 	 * @param target - target orbit around p
      */
 	public void transfer_slow(BodyInSpace p, MathEllipse target){
-		// Transferring between orbits
+		try {
+			result = compute(current_p, current_e, p, target);
+		} catch (IllegalArgumentException e) {
+			// If the transfer does not meet any of the conditions, it is invalid
+			LOGGER.severe("You cannot make this transfer");
+			return;
+		}
+
+		// Log out the result of the transfer
 		if (current_p.equals(p)) {
 			if (current_e == null) {
-
 				LOGGER.info("Landed on planet.");
-				MathEllipse landedOrbit = new MathEllipse(current_p.getMass(), current_p.getRadius());
-				transfer(current_p, landedOrbit, target, true);
-				dv1 += landedOrbit.speed_p();
-
 			} else if (target == null) {
-
 				LOGGER.info("Landing on destination");
-				MathEllipse landedOrbit = new MathEllipse(p.getMass(), p.getRadius());
-				transfer(current_p, current_e, landedOrbit, false);
-				dv2 += landedOrbit.speed_p();
+			}
+			LOGGER.info(String.format("%6.0f %6.0f %6.0f (%s)", result.getExitDeltaV(), result.getEntryDeltaV(),
+					result.getTime(), result.getType()));
+		} else if (current_p.isSibling(p)) {
+			LOGGER.info(String.format("%s-%s phase angle before %1.0f after %1.0f", current_p.getName(),
+					p.getName(), result.getStartPhaseAngle(), result.getEndPhaseAngle()));
+		}
+
+		// Once transfer is complete, update current planet to the target
+		current_p = p;
+		current_e = target;
+	}
+
+	/**
+	 * Work out the transfer from an orbit around one body to an orbit around another. If the start orbit is null,
+	 * we are launching from the surface, and if the target orbit is null we are landing on the target. Holds no
+	 * state, so it is safe to call from any thread.
+	 * @param from - body the transfer starts from
+	 * @param fromOrbit - orbit around the starting body, or null if landed
+	 * @param to - body the transfer ends at
+	 * @param toOrbit - orbit around the destination body, or null if landing
+	 * @return result of the transfer
+	 * @throws IllegalArgumentException if the bodies are not the same, siblings, or parent and child
+	 */
+	public static TransferResult compute(BodyInSpace from, MathEllipse fromOrbit, BodyInSpace to,
+										 MathEllipse toOrbit) {
+		// Transferring between orbits
+		if (from.equals(to)) {
+			if (fromOrbit == null) {
+
+				// Launching from the planet
+				MathEllipse landedOrbit = new MathEllipse(from.getMass(), from.getRadius());
+				TransferResult r = transfer(from, landedOrbit, toOrbit, true);
+				return r.withDeltaV(r.getExitDeltaV() + landedOrbit.speed_p(), r.getEntryDeltaV());
+
+			} else if (toOrbit == null) {
+
+				// Landing on destination
+				MathEllipse landedOrbit = new MathEllipse(to.getMass(), to.getRadius());
+				TransferResult r = transfer(from, fromOrbit, landedOrbit, false);
+				return r.withDeltaV(r.getExitDeltaV(), r.getEntryDeltaV() + landedOrbit.speed_p());
 
 			} else {
 
 				/* As we are transferring between two orbits, we are transferring between two ellipses - thus transfer
 				must always be a->p, and outward journey flag is true regardless. */
-				transfer(current_p, current_e, target, true);
+				return transfer(from, fromOrbit, toOrbit, true);
 
 			}
-			LOGGER.info(String.format("%6.0f %6.0f %6.0f (%s)", dv1, dv2, t, type));
 		}
-		
+
+		// Transfers between two different bodies are made from one orbit to another
+		else if (fromOrbit == null || toOrbit == null) {
+			throw new IllegalArgumentException("Cannot transfer from " + from.getName() + " to " + to.getName()
+					+ " without being in orbit around both");
+		}
+
 		// Sibling Transfer
-		else if (current_p.getParent().equals(p.getParent())) {
-			transferToSibling(current_p, p, current_e, target);
+		else if (from.getParent().equals(to.getParent())) {
+			return transferToSibling(from, to, fromOrbit, toOrbit);
 		}
-		
+
 		// Transfer From Child
-		else if (current_p.getParent().equals(p)) {
+		else if (from.getParent().equals(to)) {
 			// Use the same method as transferring to a child, and simply swap the direction and the end points.
-			transferToChild(p, current_p, target, current_e, false);
+			return transferToChild(to, from, toOrbit, fromOrbit, false);
 		}
-		
+
 		// Transfer To Child
-		else if (current_p.equals(p.getParent())) {
-			transferToChild(current_p, p, current_e, target, true);
+		else if (from.equals(to.getParent())) {
+			return transferToChild(from, to, fromOrbit, toOrbit, true);
 		}
 
 		// If the transfer does not meet any of the previous conditions, it is invalid
-		else {
-			LOGGER.severe("You cannot make this transfer");
-			return;
-		}
-
-		// Once transfer is complete, update current planet to the target
-		current_p = p;
-		current_e = target;
+		throw new IllegalArgumentException("Cannot transfer from " + from.getName() + " to " + to.getName());
 	}
 
 
 	/**
-	 * Helper internal method to make transfers between two sibling bodies (bodies who share a parent). Takes parameters
-	 * about the start and end points and updates the object variables instead of making a return.
+	 * Helper internal method to make transfers between two sibling bodies (bodies who share a parent). Takes
+	 * parameters about the start and end points and returns the result of the transfer.
 	 * @param startPlanet body the transfer starts from
 	 * @param endPlanet body the transfer ends at
 	 * @param startOrbit the orbit around the starting body
 	 * @param endOrbit the orbit around the destination body
+	 * @return result of the transfer
      */
-	private void transferToSibling(BodyInSpace startPlanet, BodyInSpace endPlanet, MathEllipse startOrbit,
-								   MathEllipse endOrbit) {
-
-		// Check that the two planets are siblings before proceeding
-		if (!startPlanet.getParent().equals(endPlanet.getParent())) {
-			return;
-		}
+	private static TransferResult transferToSibling(BodyInSpace startPlanet, BodyInSpace endPlanet,
+													MathEllipse startOrbit, MathEllipse endOrbit) {
 
 		/* Get the parent body of the transfer planets, and set up two ellipses for the start
 		 * and end points of the journey */
@@ -144,74 +228,56 @@ public class Calculator {
 		boolean outward_journey = startPlanet.getOrbitInM() < endPlanet.getOrbitInM();
 
 		// Make the transfer
-		transfer(parent, stage1, stage2, outward_journey);
+		TransferResult r = transfer(parent, stage1, stage2, outward_journey);
+		double t = r.getTime();
 
 		/* Establish hyperbolas at the start and end points of the journey to patch conics
 		 * and use the speed to amend the delta v required for the journey. */
-		Hyper h1 = new Hyper(startPlanet.getMass(), startOrbit.periapse(), dv1);
-		Hyper h2 = new Hyper(endPlanet.getMass(), endOrbit.periapse(), dv2);
-		dv1 = h1.speed_p() - startOrbit.speed_p();
-		dv2 = h2.speed_p() - endOrbit.speed_p();
-
-		/* Calculate the phase angle between the two bodies at the start and end of the transfer journey */
-		double endPhase;
-		if (startPlanet.getAngularV() > endPlanet.getAngularV()) {
-
-			// Get the phase angle needed to launch the spacecraft
-			startPhase = 180.0 + endPlanet.getAngularV() * t;
-			while (startPhase > 360.0)
-				startPhase -= 360.0;
-
-			// Get the phase angle after the journey has been completed
-			endPhase = 180.0 + startPlanet.getAngularV() * t;
-			while (endPhase > 360.0)
-				endPhase -= 360.0;
-		}
-		else {
-			// Get the phase angle needed to launch the spacecraft
-			startPhase = 180.0 - endPlanet.getAngularV() * t;
-			while (startPhase < 0.0)
-				startPhase += 360.0;
-
-			// Get the phase angle after the journey has been completed
-			endPhase = 180.0 - startPlanet.getAngularV() * t;
-			while (endPhase < 0.0)
-				endPhase += 360.0;
-		}
-
-		// Log out phase angles
-		LOGGER.info(String.format("%s-%s phase angle before %1.0f after %1.0f", startPlanet.getName(),
-				endPlanet.getName(), startPhase, endPhase));
-	
+		Hyper h1 = new Hyper(startPlanet.getMass(), startOrbit.periapse(), r.getExitDeltaV());
+		Hyper h2 = new Hyper(endPlanet.getMass(), endOrbit.periapse(), r.getEntryDeltaV());
+		r = r.withDeltaV(h1.speed_p() - startOrbit.speed_p(), h2.speed_p() - endOrbit.speed_p());
+
+		/* Calculate the phase angle between the two bodies at the start and end of the transfer journey. The
+		 * destination must be half a turn ahead of the start by the time the spacecraft arrives, whichever way the
+		 * transfer goes, and the angular velocities are in degrees per day. */
+		double days = t / 86400;
+
+		// Get the phase angle needed to launch the spacecraft
+		double startPhase = (180.0 - endPlanet.getAngularV() * days) % 360.0;
+		if (startPhase < 0.0)
+			startPhase += 360.0;
+
+		// Get the phase angle after the journey has been completed
+		double endPhase = (180.0 - startPlanet.getAngularV() * days) % 360.0;
+		if (endPhase < 0.0)
+			endPhase += 360.0;
+
+		return r.withPhase(startPhase, endPhase);
 	}
 
 	/**
 	 * Helper internal method to make transfers from a parent body to a child body. Takes parameters
-	 * about the start and end points and updates the object variables instead of making a return.
+	 * about the start and end points and returns the result of the transfer.
 	 * @param parent parent/start point body in the transfer
 	 * @param child child/end point body in the transfer
 	 * @param parentOrbit orbit the spacecraft is in around the parent body
 	 * @param childOrbit orbit the spacecraft is aiming for around the body
 	 * @param outward_journey indication of the direction of the journey
+	 * @return result of the transfer
      */
-	private void transferToChild(BodyInSpace parent, BodyInSpace child, MathEllipse parentOrbit, MathEllipse childOrbit,
-								 boolean outward_journey) {
-
-		// Check that the given parent body is actually the parent of the child
-		if (!parent.equals(child.getParent())) {
-			return;
-		}
+	private static TransferResult transferToChild(BodyInSpace parent, BodyInSpace child, MathEllipse parentOrbit,
+												  MathEllipse childOrbit, boolean outward_journey) {
 
 		// Set up the orbit ellipse to transfer the spacecraft to
 		MathEllipse transfer = new MathEllipse (parent.getMass(), child.getOrbitInM());
 
 		// Make the transfer
-		transfer(parent, parentOrbit, transfer, outward_journey);
+		TransferResult r = transfer(parent, parentOrbit, transfer, outward_journey);
 
 		/* Create a hyperbola to patch the conic between the new orbit and the transfer path, and use the
 		 * speed from this to adjust the delta v. */
-		Hyper h2 = new Hyper(child.getMass(), childOrbit.periapse(), dv2);
-		dv2 = h2.speed_p() - childOrbit.speed_p();
+		Hyper h2 = new Hyper(child.getMass(), childOrbit.periapse(), r.getEntryDeltaV());
+		return r.withDeltaV(r.getExitDeltaV(), h2.speed_p() - childOrbit.speed_p());
 	}
 
 	/**
@@ -221,16 +287,20 @@ public class Calculator {
 	 * @param current current orbit around a body
 	 * @param target target orbit around a body
 	 * @param outward_journey indication of the journey direction
+	 * @return result of the transfer
      */
-	private void transfer(BodyInSpace p, MathEllipse current, MathEllipse target, boolean outward_journey) {
+	private static TransferResult transfer(BodyInSpace p, MathEllipse current, MathEllipse target,
+										   boolean outward_journey) {
 		// Max value for change in velocity
 		double tot = 1.0e20;
 
 		if (outward_journey) {
-			horiz_trans("ap", tot, p.getMass(), current.apoapse(), current.speed_a(), target.periapse(), target.speed_p());
+			return horiz_trans("ap", tot, p.getMass(), current.apoapse(), current.speed_a(), target.periapse(),
+					target.speed_p());
 		}
 		else {
-			horiz_trans("pa", tot, p.getMass(), current.periapse(), current.speed_p(), target.apoapse(), target.speed_a());
+			return horiz_trans("pa", tot, p.getMass(), current.periapse(), current.speed_p(), target.apoapse(),
+					target.speed_a());
 		}
 	}
 
@@ -244,8 +314,10 @@ public class Calculator {
 	 * @param v1 velocity of the starting point of the orbit
      * @param r2 radius of the end point of the orbit
      * @param v2 velocity at the end point of the orbit
+	 * @return result of the transfer
      */
-	private void horiz_trans(String ty, double tot, double mass, double r1, double v1, double r2, double v2)
+	private static TransferResult horiz_trans(String ty, double tot, double mass, double r1, double v1, double r2,
+											  double v2)
 	{
 		// Create an ellipse to represent the transfer path itself
 		MathEllipse e = new MathEllipse(mass, r1, r2);
@@ -265,14 +337,12 @@ public class Calculator {
 		double d1 = t1 - v1;
 		double d2 = v2 - t2;
 
-		// If the speeds are acceptable, set the object variables and get the transfer time
+		// If the speeds are acceptable, return them along with the transfer time
 		if (Math.abs(d1) + Math.abs(d2) < tot)
 		{
-			dv1 = d1;
-			dv2 = d2;
-			t = 0.5 * e.period();
-			type = ty;
+			return new TransferResult(d1, d2, 0.5 * e.period(), 0, 0, ty);
 		}
+		return TransferResult.NONE;
 	}
 
 }
@@ -1,5 +1,8 @@
 package solarsystem.math;
 
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.RouteStage;
+
 /**
  * Class used to keep information about an elliptical orbit around a given mass
  * for mathematical calculations.
@@ -41,6 +44,22 @@ public class MathEllipse {
 	}
 
 
+	/**
+	 * Create the orbit of a route stage as an Ellipse around its body. The apoapsis and periapsis of the stage are
+	 * heights above the surface in km, so are converted into distances from the centre of the body in m.
+	 * @param body body the stage is at
+	 * @param stage stage of a route
+	 * @return ellipse, or null if the stage is landed on the body
+	 */
+	public static MathEllipse forStage(BodyInSpace body, RouteStage stage) {
+		if (stage.isLanded()) {
+			return null;
+		}
+		double r1 = body.getRadius() + 1.0e3 * stage.getApoapsis();
+		double r2 = body.getRadius() + 1.0e3 * stage.getPeriapsis();
+		return new MathEllipse(body.getMass(), r2, r1);
+	}
+
 	/**
 	 * Get a string with all the data about this ellipse
 	 * @return data string
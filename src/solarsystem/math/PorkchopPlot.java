@@ -0,0 +1,235 @@
+package solarsystem.math;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to work out the cost of leaving a body for every destination that can be reached from it, over a range of
+ * departure times. The results are held in a single flat array, with a cell for each destination and departure time
+ * holding the change in speed to start and end the transfer, the transfer time and the time spent waiting in orbit
+ * for the transfer window.
+ *
+ * @author Laura McGhie
+ */
+public class PorkchopPlot {
+
+	// Positions of each value within a cell of the results
+	public static final int DV_EXIT = 0;
+	public static final int DV_ENTRY = 1;
+	public static final int TRANSFER_TIME = 2;
+	public static final int WAIT_TIME = 3;
+	public static final int FIELDS = 4;
+
+	// Number of cells worked out by a single task before the work is no longer split
+	private static final int THRESHOLD = 256;
+
+	private final BodyInSpace origin;
+	private final MathEllipse startOrbit;
+	private final double apoapsis, periapsis;
+	private final double startTime, timeStep;
+	private final int departures;
+	private final List<BodyInSpace> destinations;
+	private final double[] results;
+
+	/**
+	 * Constructor to set up a plot for every body reachable from the given origin. Each destination is
+	 * reached in an orbit with the given apoapsis and periapsis above its surface.
+	 * @param origin body the transfers start from
+	 * @param startOrbit orbit the spacecraft is in around the origin
+	 * @param apoapsis furthest distance above the surface of the destination in km
+	 * @param periapsis closest distance above the surface of the destination in km
+	 * @param startTime simulation time of the first departure in days
+	 * @param timeStep time between each departure in days
+	 * @param departures number of departure times to work out
+	 */
+	public PorkchopPlot(BodyInSpace origin, MathEllipse startOrbit, double apoapsis, double periapsis,
+						double startTime, double timeStep, int departures) {
+		this(origin, startOrbit, apoapsis, periapsis, startTime, timeStep, departures,
+				SpaceObjects.getNeighbours(origin.getName()));
+	}
+
+	/**
+	 * Constructor to set up a plot for a chosen list of destinations
+	 * @param origin body the transfers start from
+	 * @param startOrbit orbit the spacecraft is in around the origin
+	 * @param apoapsis furthest distance above the surface of the destination in km
+	 * @param periapsis closest distance above the surface of the destination in km
+	 * @param startTime simulation time of the first departure in days
+	 * @param timeStep time between each departure in days
+	 * @param departures number of departure times to work out
+	 * @param destinations bodies to work out transfers to
+	 * @throws IllegalArgumentException if the spacecraft is not in orbit around the origin
+	 */
+	public PorkchopPlot(BodyInSpace origin, MathEllipse startOrbit, double apoapsis, double periapsis,
+						double startTime, double timeStep, int departures, List<BodyInSpace> destinations) {
+		// Transfers to other bodies can only be made from an orbit, not the surface
+		if (startOrbit == null) {
+			throw new IllegalArgumentException("Transfers must start from an orbit around " + origin.getName());
+		}
+
+		this.origin = origin;
+		this.startOrbit = startOrbit;
+		this.apoapsis = apoapsis;
+		this.periapsis = periapsis;
+		this.startTime = startTime;
+		this.timeStep = timeStep;
+		this.departures = departures;
+		this.destinations = new ArrayList<>(destinations);
+		this.results = new double[this.destinations.size() * departures * FIELDS];
+	}
+
+	/**
+	 * Work out every cell of the plot using the common fork/join pool
+	 * @return array of results
+	 */
+	public double[] compute() {
+		return compute(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Work out every cell of the plot using the given pool
+	 * @param pool fork/join pool to run the work on
+	 * @return array of results, see getIndex for the layout
+	 */
+	public double[] compute(ForkJoinPool pool) {
+		/* The transfer itself does not depend on when it starts, as all bodies move in circles, so only work out the
+		 * cost once per destination. Only the wait for the window changes with the departure time. */
+		double[][] transfers = new double[destinations.size()][];
+		for (int i = 0; i < destinations.size(); i++) {
+			transfers[i] = costTransfer(destinations.get(i));
+		}
+
+		pool.invoke(new PlotTask(transfers, 0, destinations.size() * departures));
+		return results;
+	}
+
+	/**
+	 * Get the position of the first value of a cell in the results array
+	 * @param destination index of the destination in the destination list
+	 * @param departure index of the departure time
+	 * @return position in the array
+	 */
+	public int getIndex(int destination, int departure) {
+		return (destination * departures + departure) * FIELDS;
+	}
+
+	/**
+	 * Return the array of results
+	 * @return flat array of results
+	 */
+	public double[] getResults() {
+		return results;
+	}
+
+	/**
+	 * Return the list of destinations, in the order they appear in the results
+	 * @return list of bodies
+	 */
+	public List<BodyInSpace> getDestinations() {
+		return destinations;
+	}
+
+	/**
+	 * Return the number of departure times in the plot
+	 * @return number of departures
+	 */
+	public int getDepartures() {
+		return departures;
+	}
+
+	/**
+	 * Return the simulation time of the given departure
+	 * @param departure index of the departure time
+	 * @return time in days
+	 */
+	public double getDepartureTime(int departure) {
+		return startTime + departure * timeStep;
+	}
+
+	/**
+	 * Write the results out as comma separated values, with one line per cell
+	 * @param writer destination of the data
+	 * @throws IOException
+	 */
+	public void writeCsv(Writer writer) throws IOException {
+		writer.write("destination,departure,dv_exit,dv_entry,transfer_time,wait_time\n");
+		for (int d = 0; d < destinations.size(); d++) {
+			for (int t = 0; t < departures; t++) {
+				int i = getIndex(d, t);
+				writer.write(String.format("%s,%.4f,%.1f,%.1f,%.0f,%.0f\n", destinations.get(d).getName(),
+						getDepartureTime(t), results[i + DV_EXIT], results[i + DV_ENTRY],
+						results[i + TRANSFER_TIME], results[i + WAIT_TIME]));
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Internal method to cost the transfer from the origin to a destination with the Calculator
+	 * @param destination body to transfer to
+	 * @return array holding delta v exit, delta v entry, transfer time and start phase angle
+	 */
+	private double[] costTransfer(BodyInSpace destination) {
+		// Convert the orbit distances into metres from the centre of the body
+		double r1 = destination.getRadius() + 1.0e3 * apoapsis;
+		double r2 = destination.getRadius() + 1.0e3 * periapsis;
+		MathEllipse target = new MathEllipse(destination.getMass(), r2, r1);
+
+		TransferResult r = Calculator.compute(origin, startOrbit, destination, target);
+
+		return new double[] {r.getExitDeltaV(), r.getEntryDeltaV(), r.getTime(), r.getStartPhaseAngle()};
+	}
+
+	/**
+	 * Task to fill in a range of cells of the plot, splitting the range in two until it is small enough
+	 */
+	private class PlotTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[][] transfers;
+		private final int from, to;
+
+		PlotTask(double[][] transfers, int from, int to) {
+			this.transfers = transfers;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new PlotTask(transfers, from, middle), new PlotTask(transfers, middle, to));
+				return;
+			}
+
+			for (int cell = from; cell < to; cell++) {
+				int d = cell / departures;
+				int t = cell % departures;
+				BodyInSpace destination = destinations.get(d);
+				double[] transfer = transfers[d];
+
+				// Only sibling transfers need to wait for the phase angle between the bodies to line up
+				double wait = 0;
+				if (origin.isSibling(destination)) {
+					double time = getDepartureTime(t);
+					TransferWindowSolver solver = new TransferWindowSolver(origin, destination, transfer[3]);
+					wait = solver.timeToWindow(origin.angleAt(time), destination.angleAt(time)) * 86400;
+				}
+
+				int i = cell * FIELDS;
+				results[i + DV_EXIT] = transfer[0];
+				results[i + DV_ENTRY] = transfer[1];
+				results[i + TRANSFER_TIME] = transfer[2];
+				results[i + WAIT_TIME] = wait;
+			}
+		}
+	}
+}
@@ -0,0 +1,603 @@
+package solarsystem.math;
+
+import java.util.*;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to find the cheapest route between two stages of a journey. Every body is treated as a point on a graph,
+ * joined to its siblings, its children and its parent, with each leg priced by the Calculator. Between the start
+ * and the destination the spacecraft waits in a circular parking orbit around each body it visits.
+ *
+ * The search is A*, guided by a lower bound on what is left to pay: a route can only move into the system of a body
+ * on the way down to the destination by arriving at that body from outside, which costs at least the capture into
+ * orbit from a standing start, and takes at least half an orbit of an ellipse reaching out to the body. Groups of up
+ * to 33 siblings are joined in full, which covers every system in the solar system. In larger groups, such as a belt
+ * of asteroids, each body is only joined to the siblings nearest to it in orbit size, as transfers further out cost
+ * more and can be made in hops, and the start is joined to the sibling on the way to the destination.
+ *
+ * The legs between parking orbits are the same for every route, so they are worked out once when the planner is
+ * created and held in arrays alongside the body index, with a fixed number of legs for each body. Only the legs
+ * leaving the start orbit or arriving in the destination orbit are worked out during a search.
+ *
+ * @author Laura McGhie
+ */
+public class RoutePlanner {
+
+	/**
+	 * Options for what the planner should keep as small as possible
+	 */
+	public enum Cost {
+		DELTA_V, TIME
+	}
+
+	// Largest group of siblings which are all joined to each other, and to their parent
+	private static final int FULL_GROUP = 33;
+
+	// Number of siblings joined to a body on each side in a larger group, and of children joined to their parent
+	private static final int NEAREST = 4;
+
+	// Share of each lower bound used by the search, so rounding never lets a bound pass the real cost
+	private static final double BOUND_MARGIN = 1 - 1e-9;
+
+	private final BodyIndex index;
+	private final double parkingAltitude;
+
+	/* Bodies grouped by parent and sorted by orbit size within each group, with the roots as the first group. The
+	 * group of a body is the id of its parent plus one, and its rank is its place within the group. */
+	private final int[] groupOffsets;
+	private final int[] groupIds;
+	private final int[] ranks;
+	private final int[] depths;
+
+	// Legs between parking orbits leaving each body, as offsets into the bodies they reach and the cost of each
+	private final int[] legOffsets;
+	private final int[] legTargets;
+	private final double[] legDeltaV;
+	private final double[] legTime;
+
+	/**
+	 * Constructor to create a planner over every body in the solar system, other than the Sun
+	 * @param parkingAltitude height of the parking orbit above the surface of each body in km
+	 */
+	public RoutePlanner(double parkingAltitude) {
+		this(SpaceObjects.getIndex(), parkingAltitude);
+	}
+
+	/**
+	 * Constructor to create a planner over the given bodies. Bodies whose parent is not in the collection
+	 * are treated as siblings of each other, but cannot transfer to their parent.
+	 * @param catalog bodies that can be visited
+	 * @param parkingAltitude height of the parking orbit above the surface of each body in km
+	 */
+	public RoutePlanner(Collection<BodyInSpace> catalog, double parkingAltitude) {
+		this(new BodyIndex(catalog), parkingAltitude);
+	}
+
+	/**
+	 * Constructor to create a planner over the bodies in an index
+	 * @param index index of the bodies that can be visited
+	 * @param parkingAltitude height of the parking orbit above the surface of each body in km
+	 */
+	public RoutePlanner(BodyIndex index, double parkingAltitude) {
+		this.index = index;
+		this.parkingAltitude = parkingAltitude;
+
+		// Sort the bodies by group, and by orbit size within each group
+		int n = index.size();
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		final BodyIndex bodies = index;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int group = Integer.compare(bodies.getParentId(a), bodies.getParentId(b));
+				return group != 0 ? group
+						: Double.compare(bodies.getBody(a).getOrbitInM(), bodies.getBody(b).getOrbitInM());
+			}
+		});
+
+		groupOffsets = new int[n + 2];
+		groupIds = new int[n];
+		ranks = new int[n];
+		depths = new int[n];
+		for (int i = 0; i < n; i++) {
+			groupIds[i] = order[i];
+			groupOffsets[index.getParentId(order[i]) + 2]++;
+		}
+		for (int g = 1; g < groupOffsets.length; g++) {
+			groupOffsets[g] += groupOffsets[g - 1];
+		}
+		for (int i = 0; i < n; i++) {
+			ranks[groupIds[i]] = i - groupOffsets[index.getParentId(groupIds[i]) + 1];
+			for (int parent = index.getParentId(groupIds[i]); parent != -1; parent = index.getParentId(parent)) {
+				depths[groupIds[i]]++;
+			}
+		}
+
+		// Work out the legs between parking orbits from each body to the siblings, children and parent joined to it
+		legOffsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			legOffsets[i + 1] = legOffsets[i] + siblingEnd(i) - siblingStart(i) - 1 + childEnd(i) - childStart(i)
+					+ (index.getParentId(i) == -1 ? 0 : 1);
+		}
+		legTargets = new int[legOffsets[n]];
+		legDeltaV = new double[legTargets.length];
+		legTime = new double[legTargets.length];
+		for (int i = 0; i < n; i++) {
+			int k = legOffsets[i];
+			for (int j = siblingStart(i); j < siblingEnd(i); j++) {
+				if (groupIds[j] != i) {
+					legTargets[k++] = groupIds[j];
+				}
+			}
+			for (int j = childStart(i); j < childEnd(i); j++) {
+				legTargets[k++] = groupIds[j];
+			}
+			if (index.getParentId(i) != -1) {
+				legTargets[k++] = index.getParentId(i);
+			}
+
+			BodyInSpace from = index.getBody(i);
+			MathEllipse fromOrbit = parkingOrbit(from);
+			for (k = legOffsets[i]; k < legOffsets[i + 1]; k++) {
+				BodyInSpace to = index.getBody(legTargets[k]);
+				TransferResult leg = Calculator.compute(from, fromOrbit, to, parkingOrbit(to));
+				legDeltaV[k] = leg.getTotalDeltaV();
+				legTime[k] = leg.getTime();
+			}
+		}
+	}
+
+	/**
+	 * Internal method to get the place in the grouped order of the first sibling joined to a body
+	 */
+	private int siblingStart(int body) {
+		int group = index.getParentId(body) + 1;
+		int first = groupOffsets[group];
+		if (groupOffsets[group + 1] - first <= FULL_GROUP) {
+			return first;
+		}
+		return Math.max(first, first + ranks[body] - NEAREST);
+	}
+
+	/**
+	 * Internal method to get the place in the grouped order after the last sibling joined to a body
+	 */
+	private int siblingEnd(int body) {
+		int group = index.getParentId(body) + 1;
+		int end = groupOffsets[group + 1];
+		if (end - groupOffsets[group] <= FULL_GROUP) {
+			return end;
+		}
+		return Math.min(end, groupOffsets[group] + ranks[body] + NEAREST + 1);
+	}
+
+	/**
+	 * Internal method to get the place in the grouped order of the first child joined to a body
+	 */
+	private int childStart(int body) {
+		return groupOffsets[body + 1];
+	}
+
+	/**
+	 * Internal method to get the place in the grouped order after the last child joined to a body
+	 */
+	private int childEnd(int body) {
+		int first = groupOffsets[body + 1];
+		int end = groupOffsets[body + 2];
+		return end - first <= FULL_GROUP ? end : Math.min(end, first + 2 * NEAREST);
+	}
+
+	/**
+	 * Find the route between the two stages which needs the smallest total change in speed
+	 * @param start stage the journey starts from
+	 * @param end stage the journey should finish at
+	 * @return the planned route, or null if the destination cannot be reached
+	 */
+	public PlannedRoute plan(RouteStage start, RouteStage end) {
+		return plan(start, end, Cost.DELTA_V);
+	}
+
+	/**
+	 * Find the route between the two stages which keeps the given cost as small as possible. Time only counts the
+	 * transfers themselves, as the wait for each window depends on when the journey starts.
+	 * @param start stage the journey starts from
+	 * @param end stage the journey should finish at
+	 * @param cost the cost to keep as small as possible
+	 * @return the planned route, or null if the destination cannot be reached
+	 * @throws IllegalArgumentException if either stage is at a body the planner does not know about
+	 */
+	public PlannedRoute plan(RouteStage start, RouteStage end, Cost cost) {
+		int source = index.getId(start.getBody());
+		int target = index.getId(end.getBody());
+		if (source == -1 || target == -1) {
+			throw new IllegalArgumentException("Unknown body in route " + start.getBody() + " > " + end.getBody());
+		}
+
+		MathEllipse startOrbit = MathEllipse.forStage(index.getBody(source), start);
+		MathEllipse endOrbit = MathEllipse.forStage(index.getBody(target), end);
+
+		// Search for the cheapest path between the two bodies
+		Search search = new Search(source, target, startOrbit, endOrbit, cost);
+		int[] previous = search.run();
+		if (source != target && previous[target] == -1) {
+			return null;
+		}
+
+		// Walk back through the path to build the list of stages
+		LinkedList<Integer> path = new LinkedList<>();
+		for (int i = target; i != -1; i = previous[i]) {
+			path.addFirst(i);
+		}
+
+		return buildRoute(path, start, end, startOrbit, endOrbit);
+	}
+
+	/**
+	 * Internal method to turn a path of bodies into a list of stages, and work out the cost of each leg
+	 * @param path bodies visited in order
+	 * @param start stage the journey starts from
+	 * @param end stage the journey finishes at
+	 * @param startOrbit orbit around the starting body
+	 * @param endOrbit orbit around the destination body
+	 * @return planned route
+	 */
+	private PlannedRoute buildRoute(List<Integer> path, RouteStage start, RouteStage end, MathEllipse startOrbit,
+									MathEllipse endOrbit) {
+		List<RouteStage> stages = new ArrayList<>();
+		List<TransferResult> legs = new ArrayList<>();
+		stages.add(start);
+
+		BodyInSpace previousBody = index.getBody(path.get(0));
+		MathEllipse previousOrbit = startOrbit;
+
+		// If we start on the surface, launch into the parking orbit before leaving
+		if (start.isLanded() && path.size() > 1) {
+			MathEllipse parking = parkingOrbit(previousBody);
+			legs.add(Calculator.compute(previousBody, null, previousBody, parking));
+			stages.add(parkingStage(previousBody));
+			previousOrbit = parking;
+		}
+
+		for (int i = 1; i < path.size(); i++) {
+			BodyInSpace body = index.getBody(path.get(i));
+			boolean last = i == path.size() - 1;
+
+			// Arrive directly in the requested orbit at the destination, unless we are landing
+			MathEllipse orbit = last && endOrbit != null ? endOrbit : parkingOrbit(body);
+			legs.add(Calculator.compute(previousBody, previousOrbit, body, orbit));
+			stages.add(last && endOrbit != null ? end : parkingStage(body));
+
+			previousBody = body;
+			previousOrbit = orbit;
+		}
+
+		/* Finish off with a landing, or an orbit change if the destination is the starting body. If we are already
+		 * on the surface of the destination there is nothing left to do. */
+		boolean arrived = stages.get(stages.size() - 1) == end || (previousOrbit == null && endOrbit == null);
+		if (!arrived) {
+			legs.add(Calculator.compute(previousBody, previousOrbit, previousBody, endOrbit));
+			stages.add(end);
+		}
+
+		return new PlannedRoute(stages, legs);
+	}
+
+	/**
+	 * Internal method to get the least a route can pay to arrive at a body from outside its system, from its
+	 * siblings or its parent, and end up in the given orbit around it
+	 */
+	private static double arrivalBound(BodyInSpace body, MathEllipse orbit, Cost cost) {
+		if (cost == Cost.TIME) {
+			// The transfer ellipse reaches from somewhere inside the orbit of the body, out to the body
+			BodyInSpace parent = body.getParent();
+			if (parent == null) {
+				return 0;
+			}
+			MathEllipse shortest = new MathEllipse(parent.getMass(), body.getOrbitInM() / 2);
+			return BOUND_MARGIN * 0.5 * shortest.period();
+		}
+
+		// The capture into orbit is at least the difference between the escape speed and the orbit speed
+		Hyper standing = new Hyper(body.getMass(), orbit.periapse(), 0);
+		return BOUND_MARGIN * Math.max(0, standing.speed_p() - orbit.speed_p());
+	}
+
+	/**
+	 * Object to hold the state of a single search through the graph of bodies
+	 */
+	private final class Search {
+
+		private final int source, target;
+		private final MathEllipse startOrbit, endOrbit;
+		private final Cost cost;
+
+		// Cost of the cheapest path found to each body, the body before it on that path, and the bodies settled
+		private final double[] distance;
+		private final int[] previous;
+		private final boolean[] settled;
+
+		/* The destination and each body above it, the group each of these sits in, and the least left to pay once
+		 * a route is within the system of each */
+		private final int[] chain;
+		private final int[] chainGroups;
+		private final double[] remaining;
+
+		// Queue of bodies to visit, as a binary heap ordered by the cost so far plus the bound on what is left
+		private double[] keys = new double[64];
+		private int[] ids = new int[64];
+		private int size;
+
+		Search(int source, int target, MathEllipse startOrbit, MathEllipse endOrbit, Cost cost) {
+			this.source = source;
+			this.target = target;
+			this.startOrbit = startOrbit;
+			this.endOrbit = endOrbit;
+			this.cost = cost;
+
+			int n = index.size();
+			distance = new double[n];
+			previous = new int[n];
+			settled = new boolean[n];
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			Arrays.fill(previous, -1);
+
+			// A route into the system of each body above the destination must arrive at that body from outside
+			chain = new int[depths[target] + 1];
+			chainGroups = new int[chain.length];
+			remaining = new double[chain.length + 1];
+			int body = target;
+			for (int j = 0; j < chain.length; j++) {
+				chain[j] = body;
+				chainGroups[j] = index.getParentId(body) + 1;
+				BodyInSpace b = index.getBody(body);
+				MathEllipse orbit = j == 0 && endOrbit != null ? endOrbit : parkingOrbit(b);
+				remaining[j + 1] = remaining[j] + arrivalBound(b, orbit, cost);
+				body = index.getParentId(body);
+			}
+		}
+
+		/**
+		 * Run the search from the source until the destination is settled
+		 * @return the body before each body on the cheapest path to it
+		 */
+		int[] run() {
+			distance[source] = 0;
+			push(source, bound(source));
+
+			while (size > 0) {
+				int current = pop();
+				if (settled[current]) {
+					continue;
+				}
+				settled[current] = true;
+				if (current == target) {
+					break;
+				}
+
+				// Legs from the start orbit are worked out here, and the rest are looked up unless they arrive
+				boolean live = current == source && startOrbit != null;
+				for (int k = legOffsets[current]; k < legOffsets[current + 1]; k++) {
+					int next = legTargets[k];
+					if (live || (next == target && endOrbit != null)) {
+						relax(current, next, leg(current, next));
+					} else {
+						relax(current, next, cost == Cost.TIME ? legTime[k] : legDeltaV[k]);
+					}
+				}
+
+				// The start and each body above it are also joined to the sibling on the way to the destination
+				int goal = goalIn(index.getParentId(current) + 1);
+				if (goal != -1 && goal != current && isAbove(current, source)
+						&& !joined(current, goal)) {
+					relax(current, goal, leg(current, goal));
+				}
+
+				// As is every body to the child on the way to the destination
+				goal = goalIn(current + 1);
+				if (goal != -1 && ranks[goal] >= childEnd(current) - childStart(current)) {
+					relax(current, goal, leg(current, goal));
+				}
+			}
+			return previous;
+		}
+
+		/**
+		 * Internal method to find the body in a group which is on the way to the destination
+		 * @return body id, or -1 if the destination is not within the group
+		 */
+		private int goalIn(int group) {
+			for (int j = 0; j < chain.length; j++) {
+				if (chainGroups[j] == group) {
+					return chain[j];
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Internal method to check if a body is the given body or one of the bodies above it
+		 */
+		private boolean isAbove(int body, int below) {
+			for (int b = below; b != -1 && depths[b] >= depths[body]; b = index.getParentId(b)) {
+				if (b == body) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Internal method to check if a sibling is already joined to a body by a leg looked up by the search
+		 */
+		private boolean joined(int body, int sibling) {
+			int place = groupOffsets[index.getParentId(sibling) + 1] + ranks[sibling];
+			return place >= siblingStart(body) && place < siblingEnd(body);
+		}
+
+		/**
+		 * Internal method to get the least left to pay from a body to the destination. The deepest body above the
+		 * destination which the body is within tells how many arrivals are still to be made.
+		 */
+		private double bound(int body) {
+			for (int b = body; b != -1; b = index.getParentId(b)) {
+				int j = depths[target] - depths[b];
+				if (j >= 0 && chain[j] == b) {
+					return remaining[j];
+				}
+			}
+			return remaining[chain.length];
+		}
+
+		/**
+		 * Internal method to try reaching a body by a leg of the given cost from the current body
+		 */
+		private void relax(int current, int next, double legCost) {
+			if (settled[next]) {
+				return;
+			}
+			double total = distance[current] + legCost;
+			if (total < distance[next]) {
+				distance[next] = total;
+				previous[next] = current;
+				push(next, total + bound(next));
+			}
+		}
+
+		/**
+		 * Internal method to work out the cost of a leg between two bodies in the search. Legs leaving the start
+		 * orbit or arriving in the destination orbit use those orbits, and all others use the parking orbits.
+		 */
+		private double leg(int from, int to) {
+			BodyInSpace fromBody = index.getBody(from);
+			BodyInSpace toBody = index.getBody(to);
+			MathEllipse fromOrbit = from == source && startOrbit != null ? startOrbit : parkingOrbit(fromBody);
+			MathEllipse toOrbit = to == target && endOrbit != null ? endOrbit : parkingOrbit(toBody);
+			TransferResult leg = Calculator.compute(fromBody, fromOrbit, toBody, toOrbit);
+			return cost == Cost.TIME ? leg.getTime() : leg.getTotalDeltaV();
+		}
+
+		/**
+		 * Internal method to add a body to the heap
+		 */
+		private void push(int id, double key) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int up = (i - 1) >>> 1;
+				if (keys[up] <= key) {
+					break;
+				}
+				keys[i] = keys[up];
+				ids[i] = ids[up];
+				i = up;
+			}
+			keys[i] = key;
+			ids[i] = id;
+		}
+
+		/**
+		 * Internal method to take the body with the smallest key off the heap
+		 */
+		private int pop() {
+			int top = ids[0];
+			double key = keys[--size];
+			int id = ids[size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (keys[child] >= key) {
+					break;
+				}
+				keys[i] = keys[child];
+				ids[i] = ids[child];
+				i = child;
+			}
+			keys[i] = key;
+			ids[i] = id;
+			return top;
+		}
+	}
+
+	/**
+	 * Internal method to get the circular parking orbit around a body
+	 */
+	private MathEllipse parkingOrbit(BodyInSpace body) {
+		return new MathEllipse(body.getMass(), body.getRadius() + 1.0e3 * parkingAltitude);
+	}
+
+	/**
+	 * Internal method to get the route stage for the parking orbit around a body
+	 */
+	private RouteStage parkingStage(BodyInSpace body) {
+		return new RouteStage(body.getName(), parkingAltitude, parkingAltitude);
+	}
+
+	/**
+	 * Object class holding a route found by the planner, and the result of each leg along it
+	 */
+	public static final class PlannedRoute {
+
+		private final List<RouteStage> stages;
+		private final List<TransferResult> legs;
+
+		PlannedRoute(List<RouteStage> stages, List<TransferResult> legs) {
+			this.stages = Collections.unmodifiableList(stages);
+			this.legs = Collections.unmodifiableList(legs);
+		}
+
+		/**
+		 * Return the stages of the route, starting with the start stage and ending with the destination
+		 * @return list of stages
+		 */
+		public List<RouteStage> getStages() {
+			return stages;
+		}
+
+		/**
+		 * Return the result of each transfer between the stages
+		 * @return list of transfer results
+		 */
+		public List<TransferResult> getLegs() {
+			return legs;
+		}
+
+		/**
+		 * Return the total change in speed needed to complete the route
+		 * @return delta v in m/s
+		 */
+		public double getTotalDeltaV() {
+			double total = 0;
+			for (TransferResult leg : legs) {
+				total += leg.getTotalDeltaV();
+			}
+			return total;
+		}
+
+		/**
+		 * Return the total time spent making transfers along the route
+		 * @return time in seconds
+		 */
+		public double getTotalTime() {
+			double total = 0;
+			for (TransferResult leg : legs) {
+				total += leg.getTime();
+			}
+			return total;
+		}
+	}
+}
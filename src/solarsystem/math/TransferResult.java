@@ -0,0 +1,132 @@
+package solarsystem.math;
+
+/**
+ * Object class holding the result of a single transfer worked out by the Calculator. Objects of this
+ * class cannot be changed once created, so they can be shared freely between threads.
+ *
+ * @author Laura McGhie
+ */
+public final class TransferResult {
+
+	// Result used before any transfer has been made
+	static final TransferResult NONE = new TransferResult(0, 0, 0, 0, 0, null);
+
+	private final double dvExit;
+	private final double dvEntry;
+	private final double time;
+	private final double startPhase;
+	private final double endPhase;
+	private final String type;
+
+	/**
+	 * Constructor to create a result with all the data about a transfer
+	 * @param dvExit change in speed to start the transfer in m/s
+	 * @param dvEntry change in speed to end the transfer in m/s
+	 * @param time time taken to complete the transfer in seconds
+	 * @param startPhase phase angle between the two bodies needed to start the transfer in degrees
+	 * @param endPhase phase angle between the two bodies once the transfer is complete in degrees
+	 * @param type string to represent the type of transfer
+	 */
+	public TransferResult(double dvExit, double dvEntry, double time, double startPhase, double endPhase,
+						  String type) {
+		this.dvExit = dvExit;
+		this.dvEntry = dvEntry;
+		this.time = time;
+		this.startPhase = startPhase;
+		this.endPhase = endPhase;
+		this.type = type;
+	}
+
+	/**
+	 * Return the change in speed needed to start the transfer
+	 * @return delta v in m/s
+	 */
+	public double getExitDeltaV() {
+		return dvExit;
+	}
+
+	/**
+	 * Return the change in speed needed to finish the transfer
+	 * @return delta v in m/s
+	 */
+	public double getEntryDeltaV() {
+		return dvEntry;
+	}
+
+	/**
+	 * Return the total change in speed needed to make the transfer
+	 * @return delta v in m/s
+	 */
+	public double getTotalDeltaV() {
+		return Math.abs(dvExit) + Math.abs(dvEntry);
+	}
+
+	/**
+	 * Return the time needed to complete the transfer
+	 * @return time in seconds
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Return the phase angle needed between the two bodies to start the transfer. Only set for sibling transfers.
+	 * @return phase angle in degrees
+	 */
+	public double getStartPhaseAngle() {
+		return startPhase;
+	}
+
+	/**
+	 * Return the phase angle between the two bodies once the transfer has been completed. Only set for
+	 * sibling transfers.
+	 * @return phase angle in degrees
+	 */
+	public double getEndPhaseAngle() {
+		return endPhase;
+	}
+
+	/**
+	 * Return the type of the transfer - "ap" for a transfer from apoapsis to periapsis, or "pa" for the reverse
+	 * @return type string
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Create a copy of this result with the given changes in speed
+	 * @param newExit change in speed to start the transfer in m/s
+	 * @param newEntry change in speed to end the transfer in m/s
+	 * @return new result
+	 */
+	TransferResult withDeltaV(double newExit, double newEntry) {
+		return new TransferResult(newExit, newEntry, time, startPhase, endPhase, type);
+	}
+
+	/**
+	 * Create a copy of this result with the given phase angles
+	 * @param newStart phase angle needed to start the transfer in degrees
+	 * @param newEnd phase angle after the transfer in degrees
+	 * @return new result
+	 */
+	TransferResult withPhase(double newStart, double newEnd) {
+		return new TransferResult(dvExit, dvEntry, time, newStart, newEnd, type);
+	}
+
+	/**
+	 * Returns string with the data about the transfer - the change in speed to start the journey, end the journey
+	 * and the time taken displayed in days, hours, minutes and seconds
+	 * @return data string
+	 */
+	public String getTransferData() {
+
+		double days = Math.floor(time / 86400);
+		double hours = Math.floor((time % 86400) / 3600);
+		double minutes = Math.floor(((time % 86400) % 3600) / 60);
+		double seconds = Math.floor(((time % 86400) % 3600) % 60);
+
+		return String.format("Δv Exit = %6.0fm/s\tΔv Entry = %6.0fm/s\r\n\tTransfer Time = %6.0f days " +
+				"%6.0f hours %6.0f mins %6.0f s\n", dvExit, dvEntry, days, hours, minutes, seconds);
+	}
+}
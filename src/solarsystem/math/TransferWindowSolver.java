@@ -0,0 +1,136 @@
+package solarsystem.math;
+
+import solarsystem.objects.BodyInSpace;
+
+/**
+ * Class used to work out when the transfer windows between two sibling bodies open. As both bodies move around
+ * their circular orbits at a constant rate, the phase angle between them also changes at a constant rate, so the
+ * time until it reaches the phase angle required by the Calculator can be found directly.
+ *
+ * @author Laura McGhie
+ */
+public class TransferWindowSolver {
+
+	private final double startAngularV;
+	private final double endAngularV;
+	private final double targetPhase;
+
+	/**
+	 * Constructor to create a solver for a transfer between two sibling bodies
+	 * @param startPlanet body the transfer starts from
+	 * @param endPlanet body the transfer ends at
+	 * @param targetPhase phase angle needed to launch the transfer in degrees, from the Calculator
+	 */
+	public TransferWindowSolver(BodyInSpace startPlanet, BodyInSpace endPlanet, double targetPhase) {
+		this(startPlanet.getAngularV(), endPlanet.getAngularV(), targetPhase);
+	}
+
+	/**
+	 * Constructor to create a solver from the angular velocities of the two bodies
+	 * @param startAngularV angular velocity of the starting body in degrees per day
+	 * @param endAngularV angular velocity of the destination body in degrees per day
+	 * @param targetPhase phase angle needed to launch the transfer in degrees
+	 */
+	public TransferWindowSolver(double startAngularV, double endAngularV, double targetPhase) {
+		this.startAngularV = startAngularV;
+		this.endAngularV = endAngularV;
+		this.targetPhase = targetPhase;
+	}
+
+	/**
+	 * Return the rate at which the phase angle between the two bodies changes
+	 * @return rate of change of the phase angle in degrees per day
+	 */
+	public double getPhaseRate() {
+		return endAngularV - startAngularV;
+	}
+
+	/**
+	 * Return the synodic period of the two bodies, which is the time between two successive transfer windows
+	 * @return synodic period in days, or infinity if the bodies never change phase
+	 */
+	public double getSynodicPeriod() {
+		return 360.0 / Math.abs(getPhaseRate());
+	}
+
+	/**
+	 * Work out the phase angle between the two bodies given their current angles. This is always positive.
+	 * @param startAngle current angle of the starting body in Radians
+	 * @param endAngle current angle of the destination body in Radians
+	 * @return phase angle in degrees between 0 and 360
+	 */
+	public static double phaseAngle(double startAngle, double endAngle) {
+		return wrapDegrees(Math.toDegrees(endAngle - startAngle));
+	}
+
+	/**
+	 * Work out the time until the next transfer window opens, given the current angles of the two bodies. If the
+	 * window is open right now, then the result is 0.
+	 * @param startAngle current angle of the starting body in Radians
+	 * @param endAngle current angle of the destination body in Radians
+	 * @return time in days, or infinity if the bodies never reach the phase angle
+	 */
+	public double timeToWindow(double startAngle, double endAngle) {
+		double phase = phaseAngle(startAngle, endAngle);
+		double rate = getPhaseRate();
+
+		// If the phase never changes, we can only launch if we are already at the correct angle
+		if (rate == 0) {
+			return phase == wrapDegrees(targetPhase) ? 0 : Double.POSITIVE_INFINITY;
+		}
+
+		/* The angle still to be covered depends on the direction the phase angle is moving in - if the destination
+		 * is the faster body, the phase grows towards the target, otherwise it shrinks towards it. */
+		double remaining;
+		if (rate > 0) {
+			remaining = wrapDegrees(targetPhase - phase);
+		} else {
+			remaining = wrapDegrees(phase - targetPhase);
+		}
+
+		return remaining / Math.abs(rate);
+	}
+
+	/**
+	 * Work out the time until the next transfer window opens, using the current angles of the given bodies
+	 * @param startPlanet body the transfer starts from
+	 * @param endPlanet body the transfer ends at
+	 * @return time in days
+	 */
+	public double timeToNextWindow(BodyInSpace startPlanet, BodyInSpace endPlanet) {
+		return timeToWindow(startPlanet.getAngle(), endPlanet.getAngle());
+	}
+
+	/**
+	 * Work out the times until each of the next few transfer windows open. Each window after the first
+	 * follows one synodic period after the previous.
+	 * @param startAngle current angle of the starting body in Radians
+	 * @param endAngle current angle of the destination body in Radians
+	 * @param count number of windows to find
+	 * @return array of times in days
+	 */
+	public double[] nextWindows(double startAngle, double endAngle, int count) {
+		double[] windows = new double[count];
+		double first = timeToWindow(startAngle, endAngle);
+		double synodic = getSynodicPeriod();
+
+		for (int i = 0; i < count; i++) {
+			windows[i] = first + i * synodic;
+		}
+
+		return windows;
+	}
+
+	/**
+	 * Internal helper to bring an angle into the range 0 to 360 degrees
+	 * @param degrees angle in degrees
+	 * @return equivalent angle between 0 and 360
+	 */
+	private static double wrapDegrees(double degrees) {
+		double wrapped = degrees % 360.0;
+		if (wrapped < 0) {
+			wrapped += 360.0;
+		}
+		return wrapped;
+	}
+}
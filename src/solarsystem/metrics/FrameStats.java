@@ -0,0 +1,341 @@
+package solarsystem.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Object to time each part of the animation, so a stutter can be traced to the part of the frame that caused it.
+ * Times go into a histogram for each section of a frame, along with the memory allocated on the animation thread
+ * in each frame, the memory allocated on the simulation thread in each batch of steps of a threaded view, and the
+ * number of nodes in the scene graph. The statistics can be read over JMX, or shown on an
+ * overlay in the views.
+ *
+ * Timing a section only reads the clock and increments a counter, so the statistics are always collected.
+ *
+ * @author Laura McGhie
+ */
+public class FrameStats implements FrameStatsMXBean {
+
+	/**
+	 * Timed sections of a frame
+	 */
+	public enum Section {
+
+		/** Time from the start of one frame to the start of the next, which grows if the JavaFX pulse is late */
+		PULSE("pulse"),
+
+		/** Time spent handling a whole frame, including every step and drawing the display */
+		TICK("tick"),
+
+		/** Time spent on a single step */
+		STEP("step"),
+
+		/** Time spent drawing the display */
+		RENDER("render"),
+
+		/** Time spent moving the planets in a step of the journey view */
+		PLANET_MOVEMENT("planetMovement"),
+
+		/** Time spent moving the spacecraft in the main view in a step of the journey view */
+		SPACESHIP_MOVE("spaceshipMove"),
+
+		/** Time spent moving the spacecraft in the focus view in a step of the journey view */
+		FOCUS_MOVEMENT("focusMovement");
+
+		private final String label;
+
+		Section(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Get the name shown for the section
+		 * @return name
+		 */
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	// Longest time and largest allocation tracked, anything larger is counted as these
+	private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final long HIGHEST_BYTES = 1L << 32;
+
+	// Shortest time between samples of the node counts and the overlay
+	private static final long SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+	private final Histogram[] sections = new Histogram[Section.values().length];
+	private final Histogram allocations = new Histogram(HIGHEST_BYTES);
+	private final Histogram simAllocations = new Histogram(HIGHEST_BYTES);
+	private final com.sun.management.ThreadMXBean threads;
+	private final long allocationOverhead;
+
+	private volatile int systemNodes, focusNodes;
+	private long lastSample;
+
+	private final static Logger LOGGER = Logger.getLogger(FrameStats.class.getName());
+
+	/**
+	 * Default constructor to create empty statistics
+	 */
+	public FrameStats() {
+		for (int i = 0; i < sections.length; i++) {
+			sections[i] = new Histogram(HIGHEST_NANOS);
+		}
+
+		// Allocations can only be measured on JVMs which count the memory allocated by each thread
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+			threads = (com.sun.management.ThreadMXBean) bean;
+
+			// Reading the count can allocate a little itself, so measure this to take it off each frame
+			long first = allocatedBytes();
+			allocationOverhead = allocatedBytes() - first;
+		} else {
+			threads = null;
+			allocationOverhead = 0;
+		}
+	}
+
+	/**
+	 * Create statistics and register them with the platform MBean server, so they can be read over JMX as
+	 * solarsystem:type=FrameStats
+	 * @return statistics, which are still collected if they cannot be registered
+	 */
+	public static FrameStats register() {
+		FrameStats stats = new FrameStats();
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+					new ObjectName("solarsystem:type=FrameStats"));
+		} catch (JMException | SecurityException e) {
+			LOGGER.warning("Could not register frame statistics: " + e.getMessage());
+		}
+		return stats;
+	}
+
+	/**
+	 * Add the time taken by a section of a frame
+	 * @param section section timed
+	 * @param nanos time taken in nanoseconds
+	 */
+	public void record(Section section, long nanos) {
+		sections[section.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Get the number of bytes allocated so far by the current thread, to be passed back to recordAllocation
+	 * once the frame is done
+	 * @return number of bytes, or -1 if allocations cannot be measured
+	 */
+	public long allocatedBytes() {
+		return threads == null ? -1 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Add the memory allocated by the current thread during a frame
+	 * @param start number of bytes allocated at the start of the frame, from allocatedBytes
+	 */
+	public void recordAllocation(long start) {
+		if (start >= 0) {
+			allocations.record(allocatedBytes() - start - allocationOverhead);
+		}
+	}
+
+	/**
+	 * Add the memory allocated by the current thread during a batch of steps on the simulation thread
+	 * @param start number of bytes allocated at the start of the batch, from allocatedBytes
+	 */
+	public void recordSimAllocation(long start) {
+		if (start >= 0) {
+			simAllocations.record(allocatedBytes() - start - allocationOverhead);
+		}
+	}
+
+	/**
+	 * Check if enough time has passed to sample the node counts and update the overlay again. Each call which
+	 * returns true starts a new wait.
+	 * @return true if a sample is due
+	 */
+	public boolean isSampleDue() {
+		long now = System.nanoTime();
+		if (now - lastSample < SAMPLE_NANOS) {
+			return false;
+		}
+		lastSample = now;
+		return true;
+	}
+
+	/**
+	 * Set the number of scene graph nodes in each display pane of the current view
+	 * @param system number of nodes in the main display pane
+	 * @param focus number of nodes in the focus pane, or 0 if the view has none
+	 */
+	public void setNodeCounts(int system, int focus) {
+		this.systemNodes = system;
+		this.focusNodes = focus;
+	}
+
+	/**
+	 * Get the histogram of times for a section
+	 * @param section section timed
+	 * @return histogram in nanoseconds
+	 */
+	public Histogram getHistogram(Section section) {
+		return sections[section.ordinal()];
+	}
+
+	@Override
+	public Map<String, Summary> getSections() {
+		Map<String, Summary> summaries = new LinkedHashMap<>();
+		for (Section section : Section.values()) {
+			summaries.put(section.getLabel(), new Summary(getHistogram(section), 1e-3));
+		}
+		return summaries;
+	}
+
+	@Override
+	public Summary getAllocations() {
+		return new Summary(allocations, 1);
+	}
+
+	@Override
+	public Summary getSimAllocations() {
+		return new Summary(simAllocations, 1);
+	}
+
+	@Override
+	public long getFrames() {
+		return getHistogram(Section.TICK).getCount();
+	}
+
+	@Override
+	public int getSystemNodes() {
+		return systemNodes;
+	}
+
+	@Override
+	public int getFocusNodes() {
+		return focusNodes;
+	}
+
+	@Override
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(Locale.ROOT, "%-14s %8s %8s %8s %8s%n", "us", "p50", "p99", "p99.9", "max"));
+		for (Section section : Section.values()) {
+			Histogram histogram = getHistogram(section);
+			report.append(String.format(Locale.ROOT, "%-14s %8.0f %8.0f %8.0f %8.0f%n", section.getLabel(),
+					histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3,
+					histogram.getPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+		}
+		if (threads != null) {
+			report.append(String.format(Locale.ROOT, "alloc/frame    %8d %8d bytes%n", allocations.getPercentile(50),
+					allocations.getPercentile(99)));
+			if (simAllocations.getCount() > 0) {
+				report.append(String.format(Locale.ROOT, "alloc/steps    %8d %8d bytes%n",
+						simAllocations.getPercentile(50), simAllocations.getPercentile(99)));
+			}
+		}
+		report.append("nodes ").append(systemNodes).append(" + ").append(focusNodes);
+		report.append(", frames ").append(getFrames());
+		return report.toString();
+	}
+
+	@Override
+	public void reset() {
+		for (Histogram histogram : sections) {
+			histogram.reset();
+		}
+		allocations.reset();
+		simAllocations.reset();
+	}
+
+	/**
+	 * Object to hold a summary of a histogram, which is shown as a table over JMX
+	 */
+	public static final class Summary {
+
+		private final long count;
+		private final double mean, p50, p90, p99, p999, max;
+
+		/**
+		 * Constructor to summarise a histogram, scaling each value by the given factor
+		 * @param histogram histogram to summarise
+		 * @param scale factor to multiply each value by, such as 1e-3 for nanoseconds to microseconds
+		 */
+		public Summary(Histogram histogram, double scale) {
+			this.count = histogram.getCount();
+			this.mean = histogram.getMean() * scale;
+			this.p50 = histogram.getPercentile(50) * scale;
+			this.p90 = histogram.getPercentile(90) * scale;
+			this.p99 = histogram.getPercentile(99) * scale;
+			this.p999 = histogram.getPercentile(99.9) * scale;
+			this.max = histogram.getMax() * scale;
+		}
+
+		/**
+		 * Get the number of values summarised
+		 * @return number of values
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Get the average value
+		 * @return mean
+		 */
+		public double getMean() {
+			return mean;
+		}
+
+		/**
+		 * Get the median value
+		 * @return 50th percentile
+		 */
+		public double getP50() {
+			return p50;
+		}
+
+		/**
+		 * Get the value 90% of values are at or below
+		 * @return 90th percentile
+		 */
+		public double getP90() {
+			return p90;
+		}
+
+		/**
+		 * Get the value 99% of values are at or below
+		 * @return 99th percentile
+		 */
+		public double getP99() {
+			return p99;
+		}
+
+		/**
+		 * Get the value 99.9% of values are at or below
+		 * @return 99.9th percentile
+		 */
+		public double getP999() {
+			return p999;
+		}
+
+		/**
+		 * Get the largest value
+		 * @return largest value
+		 */
+		public double getMax() {
+			return max;
+		}
+	}
+}
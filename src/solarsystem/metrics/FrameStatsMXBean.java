@@ -0,0 +1,59 @@
+package solarsystem.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface for the frame statistics, so they can be read over JMX with a tool such as JConsole or
+ * VisualVM while the program is running
+ * @author Laura McGhie
+ */
+public interface FrameStatsMXBean {
+
+	/**
+	 * Get the statistics for each timed section of a frame, by section name
+	 * @return statistics in microseconds
+	 */
+	Map<String, FrameStats.Summary> getSections();
+
+	/**
+	 * Get the statistics for the memory allocated on the animation thread in each frame
+	 * @return statistics in bytes, or an empty summary if allocations cannot be measured
+	 */
+	FrameStats.Summary getAllocations();
+
+	/**
+	 * Get the statistics for the memory allocated on the simulation thread in each batch of steps, for views whose
+	 * steps run on their own thread
+	 * @return statistics in bytes, or an empty summary if allocations cannot be measured or no view has been threaded
+	 */
+	FrameStats.Summary getSimAllocations();
+
+	/**
+	 * Get the number of frames counted
+	 * @return number of frames
+	 */
+	long getFrames();
+
+	/**
+	 * Get the number of scene graph nodes last counted in the main display pane
+	 * @return number of nodes
+	 */
+	int getSystemNodes();
+
+	/**
+	 * Get the number of scene graph nodes last counted in the focus pane
+	 * @return number of nodes, or 0 if the current view has no focus pane
+	 */
+	int getFocusNodes();
+
+	/**
+	 * Get the statistics as text, as shown on the overlay
+	 * @return summary text
+	 */
+	String getReport();
+
+	/**
+	 * Clear all the statistics
+	 */
+	void reset();
+}
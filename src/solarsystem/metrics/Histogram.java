@@ -0,0 +1,152 @@
+package solarsystem.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Object to count how often values of each size are recorded, such as the time taken by a step in nanoseconds.
+ * Values are counted in buckets whose width grows with the value, in the same way as an HDR histogram: below 128
+ * each value has its own bucket, and above that every power of two is split into 64 buckets, so any value is
+ * reported to within about 1.6% however large it is. Recording a value only increments a counter, so it is cheap
+ * enough to do on every step and does not create any new objects.
+ *
+ * Values are expected to be recorded from a single thread, such as the JavaFX thread, and can be read from any
+ * thread, such as a JMX connection, while they are being recorded.
+ *
+ * @author Laura McGhie
+ */
+public class Histogram {
+
+	// Number of buckets each power of two is split into, as a power of two itself
+	private static final int SUB_BITS = 6;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+
+	private final long highest;
+	private final AtomicLongArray counts;
+	private volatile long count;
+	private volatile long total;
+	private volatile long min = Long.MAX_VALUE;
+	private volatile long max;
+
+	/**
+	 * Constructor to create a histogram for values from 0 up to the given value. Larger values are counted as the
+	 * highest value.
+	 * @param highest largest value tracked
+	 * @throws IllegalArgumentException if the highest value is less than 1
+	 */
+	public Histogram(long highest) {
+		if (highest < 1) {
+			throw new IllegalArgumentException("Highest value must be at least 1");
+		}
+		this.highest = highest;
+		this.counts = new AtomicLongArray(bucket(highest) + 1);
+	}
+
+	/**
+	 * Count a value. Negative values are counted as 0.
+	 * @param value value to count
+	 */
+	public void record(long value) {
+		long clamped = Math.max(0, Math.min(value, highest));
+		counts.incrementAndGet(bucket(clamped));
+		total += clamped;
+		if (clamped < min) {
+			min = clamped;
+		}
+		if (clamped > max) {
+			max = clamped;
+		}
+		count++;
+	}
+
+	/**
+	 * Get the number of values counted
+	 * @return number of values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the smallest value counted
+	 * @return smallest value, or 0 if nothing has been counted
+	 */
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * Get the largest value counted
+	 * @return largest value, or 0 if nothing has been counted
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Get the average of the values counted
+	 * @return mean, or 0 if nothing has been counted
+	 */
+	public double getMean() {
+		long n = count;
+		return n == 0 ? 0 : (double) total / n;
+	}
+
+	/**
+	 * Get the value that the given percentage of counted values are at or below. The result is the top of the
+	 * bucket the value falls in, so it is never less than the true value.
+	 * @param percentile percentage from 0 to 100
+	 * @return value, or 0 if nothing has been counted
+	 */
+	public long getPercentile(double percentile) {
+		long n = count;
+		if (n == 0) {
+			return 0;
+		}
+		long wanted = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= wanted) {
+				return Math.min(upper(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Clear all the counted values. Values recorded while the histogram is being cleared may be partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count = 0;
+		total = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * Internal method to get the bucket a value is counted in
+	 */
+	static int bucket(long value) {
+		if (value < 2 * SUB_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift << SUB_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * Internal method to get the largest value counted in a bucket
+	 */
+	static long upper(int bucket) {
+		if (bucket < 2 * SUB_COUNT) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BITS) - 1;
+		long lower = (long) (bucket - (shift << SUB_BITS)) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,278 @@
+package solarsystem.objects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read only view over a compiled catalog of bodies. The data is held in a single buffer, normally a memory
+ * mapped cache file, with each property stored as its own column so the catalog can be read without parsing.
+ * Bodies are identified by their position in the catalog, and every body comes after its parent.
+ *
+ * Layout of the buffer:
+ * <pre>
+ *   int magic, int version, long stamp, int count, int name bytes
+ *   double[count] for each of diameter, mass, orbit, period, angle, min scale, max scale
+ *   int[count] parent ids, -1 for the root body
+ *   int[count] flags, such as whether the body is one of the planets
+ *   int[count + 1] offsets of each name in the name bytes
+ *   byte[] names in UTF-8
+ * </pre>
+ *
+ * @author Laura McGhie
+ */
+public final class BodyCatalog {
+
+	static final int MAGIC = 0x53504342;
+	static final int VERSION = 2;
+	static final int HEADER = 24;
+
+	// Positions of each double column in the buffer
+	static final int DIAMETER = 0;
+	static final int MASS = 1;
+	static final int ORBIT = 2;
+	static final int PERIOD = 3;
+	static final int ANGLE = 4;
+	static final int MIN_SCALE = 5;
+	static final int MAX_SCALE = 6;
+	static final int COLUMNS = 7;
+
+	// Flag set for the planets, which are listed on their own in the views
+	static final int MAJOR = 1;
+
+	private final ByteBuffer data;
+	private final int count;
+	private final int parentsStart;
+	private final int flagsStart;
+	private final int offsetsStart;
+	private final int namesStart;
+
+	// Table of ids by the hash of their name, built the first time a name is looked up
+	private volatile int[] nameTable;
+
+	/**
+	 * Constructor to create a view over a compiled catalog
+	 * @param data buffer holding the catalog
+	 * @throws IllegalArgumentException if the buffer does not hold a catalog of this version
+	 */
+	BodyCatalog(ByteBuffer data) {
+		if (data.capacity() < HEADER || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+			throw new IllegalArgumentException("Not a body catalog of version " + VERSION);
+		}
+		this.data = data;
+		this.count = data.getInt(16);
+		this.parentsStart = HEADER + COLUMNS * count * 8;
+		this.flagsStart = parentsStart + count * 4;
+		this.offsetsStart = flagsStart + count * 4;
+		this.namesStart = offsetsStart + (count + 1) * 4;
+	}
+
+	/**
+	 * Get the stamp of the source the catalog was compiled from, used to tell if the cache is out of date
+	 * @return source stamp
+	 */
+	long getStamp() {
+		return data.getLong(8);
+	}
+
+	/**
+	 * Get the number of bodies in the catalog
+	 * @return number of bodies
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Get the name of a body
+	 * @param id position of the body in the catalog
+	 * @return name
+	 */
+	public String getName(int id) {
+		int start = data.getInt(offsetsStart + id * 4);
+		int end = data.getInt(offsetsStart + (id + 1) * 4);
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = data.get(namesStart + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Find a body by name. The names are looked up through a table of ids built the first time this is called,
+	 * so no names need to be read from the catalog to find one.
+	 * @param name name of the body
+	 * @return position of the body in the catalog, or -1 if there is no body with that name
+	 */
+	public int find(String name) {
+		int[] table = nameTable;
+		if (table == null) {
+			table = buildNameTable();
+			nameTable = table;
+		}
+
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		int mask = table.length - 1;
+		for (int slot = hash(bytes) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int id = table[slot] - 1;
+			if (nameEquals(id, bytes)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Internal method to build an open addressed table of ids plus one by the hash of their name, at most half full
+	 */
+	private int[] buildNameTable() {
+		int[] table = new int[Math.max(2, Integer.highestOneBit(count * 2 + 1) << 1)];
+		int mask = table.length - 1;
+		for (int id = 0; id < count; id++) {
+			int start = namesStart + data.getInt(offsetsStart + id * 4);
+			int end = namesStart + data.getInt(offsetsStart + (id + 1) * 4);
+			int slot = hashAt(start, end) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+		return table;
+	}
+
+	/**
+	 * Internal method to check if the name of a body matches the given bytes
+	 */
+	private boolean nameEquals(int id, byte[] bytes) {
+		int start = namesStart + data.getInt(offsetsStart + id * 4);
+		int end = namesStart + data.getInt(offsetsStart + (id + 1) * 4);
+		if (end - start != bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (data.get(start + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Internal method to hash a run of name bytes in the buffer, matching the hash of the same bytes in an array
+	 */
+	private int hashAt(int start, int end) {
+		int hash = 0x811c9dc5;
+		for (int i = start; i < end; i++) {
+			hash = (hash ^ (data.get(i) & 0xff)) * 0x01000193;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Internal method to hash the bytes of a name
+	 */
+	private static int hash(byte[] bytes) {
+		int hash = 0x811c9dc5;
+		for (int i = 0; i < bytes.length; i++) {
+			hash = (hash ^ (bytes[i] & 0xff)) * 0x01000193;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Get the diameter of a body
+	 * @param id position of the body in the catalog
+	 * @return diameter in km
+	 */
+	public double getDiameter(int id) {
+		return column(DIAMETER, id);
+	}
+
+	/**
+	 * Get the mass of a body
+	 * @param id position of the body in the catalog
+	 * @return mass in kg
+	 */
+	public double getMass(int id) {
+		return column(MASS, id);
+	}
+
+	/**
+	 * Get the distance of a body from its parent
+	 * @param id position of the body in the catalog
+	 * @return orbit radius in km
+	 */
+	public double getOrbit(int id) {
+		return column(ORBIT, id);
+	}
+
+	/**
+	 * Get the time a body takes to complete one orbit
+	 * @param id position of the body in the catalog
+	 * @return period in days
+	 */
+	public double getPeriod(int id) {
+		return column(PERIOD, id);
+	}
+
+	/**
+	 * Get the angle of a body along its orbit at the start of the simulation
+	 * @param id position of the body in the catalog
+	 * @return angle in radians
+	 */
+	public double getAngle(int id) {
+		return column(ANGLE, id);
+	}
+
+	/**
+	 * Get the position of the parent of a body in the catalog
+	 * @param id position of the body in the catalog
+	 * @return parent id, or -1 for the root body
+	 */
+	public int getParent(int id) {
+		return data.getInt(parentsStart + id * 4);
+	}
+
+	/**
+	 * Check if a body is one of the planets, which are listed on their own rather than with the other bodies
+	 * around the Sun
+	 * @param id position of the body in the catalog
+	 * @return true if the body is a planet
+	 */
+	public boolean isMajor(int id) {
+		return (data.getInt(flagsStart + id * 4) & MAJOR) != 0;
+	}
+
+	/**
+	 * Check if a body has display scales, so it can be focused on
+	 * @param id position of the body in the catalog
+	 * @return true if the body has scales
+	 */
+	public boolean hasScale(int id) {
+		return !Double.isNaN(column(MIN_SCALE, id));
+	}
+
+	/**
+	 * Get the smallest display scale for a body
+	 * @param id position of the body in the catalog
+	 * @return minimum scale, or NaN if the body has no scales
+	 */
+	public double getMinScale(int id) {
+		return column(MIN_SCALE, id);
+	}
+
+	/**
+	 * Get the largest display scale for a body
+	 * @param id position of the body in the catalog
+	 * @return maximum scale, or NaN if the body has no scales
+	 */
+	public double getMaxScale(int id) {
+		return column(MAX_SCALE, id);
+	}
+
+	/**
+	 * Internal method to read a value from one of the double columns
+	 */
+	private double column(int column, int id) {
+		return data.getDouble(HEADER + (column * count + id) * 8);
+	}
+}
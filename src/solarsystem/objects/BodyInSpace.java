@@ -1,10 +1,9 @@
 package solarsystem.objects;
 
-import javafx.scene.shape.Circle;
-
 /**
  * BodyInSpace class used to represent a planet or moon and all associated properties
- * for both calculation and GUI purposes.
+ * for calculation purposes. The GUI objects used to draw a body are held separately by
+ * a BodyView, so the model can be used without any display.
  *
  * @author Laura McGhie
  */
@@ -14,13 +13,10 @@ public class BodyInSpace {
 	private final String name;
 	private final double diameter;
 	private final double mass;
-	private Circle gui_object;
-	private double pos_x;
-	private double pos_y;
 	private final double orbit;
 	private final double period;
+	private final double startAngle;
 	private double angle;
-	private final Circle gui_orbit;
 	private final BodyInSpace center;
 	
 	/**
@@ -31,7 +27,7 @@ public class BodyInSpace {
 	 * @param mass Mass of the body in kg
 	 * @param orbit Distance from the Body's parent in km
 	 * @param period Number of days body takes to complete one full orbit
-	 * @param angle Current angle of the body along its orbital path
+	 * @param angle Angle of the body along its orbital path at the start of the simulation
 	 * @param center Parent object of the body
 	 */
 	public BodyInSpace(String name, double diameter, double mass, double orbit, double period,
@@ -42,80 +38,63 @@ public class BodyInSpace {
 		this.mass = mass;
 		this.orbit = orbit;
 		this.period = period;
+		this.startAngle = angle;
 		this.angle = angle;
 		this.center = center;
-
-		/* Create default body object, add at origin point of 
-		* canvas (top left) for calculation purposes, and add css style to object. */
-		this.gui_object = new Circle(0, 0, 4);
-		this.gui_object.getStyleClass().add(this.getStyle());
-		
-		/* Establish GUI object for the orbit of the planet, centred at the
-		 * the middle of the window. Add style class so only border of the 
-		 * object is displayed on screen. */
-		this.gui_orbit = new Circle(295, 295, orbit/1e6);
-		this.gui_orbit.getStyleClass().add("planet-orbit-path");
 	}
 
 	/**
-	 * Resets the body object by replacing it with a new object 
-	 * centred at the origin, and adding styles. Necessary when 
-	 * moving to new scene due to displacement of existing objects.
+	 * Move the body to the point on its orbit it occupies at the given simulation time. The position is
+	 * worked out directly from the starting angle and the period of the body, so it does not depend on
+	 * how many steps the animation has taken to reach this time.
+	 * @param time - simulation time in days
 	 */
-	public void resetPlanet() {
-		this.gui_object = new Circle(0, 0, 4);
-		this.gui_object.getStyleClass().add(this.getStyle());
+	public void setTime(double time) {
+		this.angle = angleAt(time);
 	}
-	
-	/**
-	 * Set current position of body.
-	 * @param x co-ordinate of the body
-	 * @param y co-ordinate of the body
-	 */
-	public void setPosition(double x, double y) {
-		pos_x = x;
-		pos_y = y;
-	}
-	
+
 	/**
-	 * Increment the current angle of the body by a number of degrees.
-	 * This number is calculated from the period of the object so that
-	 * speeds of planet objects are relative in the GUI animation.
-	 * @param factor - the distance to move the planet in this increment
+	 * Get the angle of the body along its orbital path at the given simulation time
+	 * @param time - simulation time in days
+	 * @return angle in Radians between 0 and 2 PI
 	 */
-	public void incrementAngle(double factor) {
-		//
-		this.angle += factor * Math.toRadians( (2 * Math.PI) / (this.period));
-		
-		if (this.angle >= (2 * Math.PI)) {
-			this.angle -= 2 * Math.PI;
-        }
+	public double angleAt(double time) {
+		// A body with no period (the Sun) does not move
+		if (this.period == 0) {
+			return this.startAngle;
+		}
+
+		double result = (this.startAngle + 2 * Math.PI * time / this.period) % (2 * Math.PI);
+		if (result < 0) {
+			result += 2 * Math.PI;
+		}
+		return result;
 	}
-	
+
 	/**
-	 * Reposition the GUI orbit object with the given radius, and
-	 * re-centre it given the position of the parent body.
-	 * @param radius orbital distance from parent body in km
+	 * Get the x co-ordinate of the body relative to the centre of the whole system at the given simulation
+	 * time. Walks up through the parent bodies so that moons are placed around their moving planet.
+	 * @param time - simulation time in days
+	 * @return x co-ordinate in km
 	 */
-	public void adjustGUIOrbit(double radius) {
-		this.gui_orbit.setRadius(radius);
-		this.gui_orbit.setCenterX(this.center.getX());
-		this.gui_orbit.setCenterY(this.center.getY());
+	public double xAt(double time) {
+		if (this.center == null) {
+			return 0;
+		}
+		return this.center.xAt(time) + this.orbit * Math.sin(angleAt(time));
 	}
-	
+
 	/**
-	 * Readjusts planet for a new center point, by relocating GUI 
-	 * object and updating the position x & y attributes of the object.
-	 * 
-	 * @param point_x new x co-ordinate of planet
-	 * @param point_y new y co-ordinate of planet
+	 * Get the y co-ordinate of the body relative to the centre of the whole system at the given simulation
+	 * time. Uses the same orientation as the display, so y increases downwards.
+	 * @param time - simulation time in days
+	 * @return y co-ordinate in km
 	 */
-	public void moveGUIObject(double point_x, double point_y){
-		this.gui_object.setCenterX(point_x);
-		this.gui_object.setCenterY(point_y);
-		
-		this.pos_x = point_x;
-		this.pos_y = point_y;
+	public double yAt(double time) {
+		if (this.center == null) {
+			return 0;
+		}
+		return this.center.yAt(time) - this.orbit * Math.cos(angleAt(time));
 	}
 	
 	/**
@@ -142,46 +121,6 @@ public class BodyInSpace {
 		return this.mass;
 	}
 	
-	/**
-	 * Get GUI object which represents the body
-	 * @return GUI object to represent planet
-	 */
-	public Circle getGUIObject() {
-		return this.gui_object;
-	}
-	
-	/** 
-	 * Get x co-ordinate of body's current position
-	 * @return x co-ordinate
-	 */
-	public double getX() {
-		return pos_x;
-	}
-	
-	/** 
-	 * Get y co-ordinate of body's current position
-	 * @return y co-ordinate
-	 */
-	public double getY() {
-		return pos_y;
-	}
-	
-	/**
-	 * Get GUI object which represents orbital path of body
-	 * @return gui object to display orbital path
-	 */
-	public Circle getGUIOrbit() {
-		return this.gui_orbit;
-	}
-	
-	/**
-	 * Get the name of the css style to be applied to this body.
-	 * @return name of the css class
-	 */
-	private String getStyle() {
-		return "body-" + this.name;
-	}
-	
 	/**
 	 * Get orbital radius of body from its parent
 	 * @return orbital distance from parent in 1e6km
@@ -0,0 +1,171 @@
+package solarsystem.objects;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index over a fixed set of bodies, built once and never changed. Each body is given an integer id, and the
+ * parent and children of every body are stored as ids in flat arrays, so looking up a body or walking the
+ * hierarchy does not create any new objects.
+ *
+ * @author Laura McGhie
+ */
+public final class BodyIndex {
+
+	private final BodyInSpace[] bodies;
+	private final Map<String, Integer> ids;
+	private final int[] parents;
+
+	// Children of body i are childIds[childOffsets[i]] up to childIds[childOffsets[i + 1]]
+	private final int[] childOffsets;
+	private final int[] childIds;
+
+	// Bodies whose parent is not in the index
+	private final int[] rootIds;
+
+	/**
+	 * Constructor to build an index over the given bodies. Each body must have a unique name. Bodies whose parent
+	 * is not in the collection are treated as roots of the hierarchy.
+	 * @param catalog bodies to index
+	 * @throws IllegalArgumentException if two bodies share a name
+	 */
+	public BodyIndex(Collection<BodyInSpace> catalog) {
+		bodies = catalog.toArray(new BodyInSpace[0]);
+		ids = new HashMap<>(bodies.length * 2);
+
+		for (int i = 0; i < bodies.length; i++) {
+			if (ids.put(bodies[i].getName(), i) != null) {
+				throw new IllegalArgumentException("Duplicate body name " + bodies[i].getName());
+			}
+		}
+
+		// Find the parent of each body, and count the children of each parent
+		parents = new int[bodies.length];
+		int[] childCounts = new int[bodies.length];
+		int roots = 0;
+		for (int i = 0; i < bodies.length; i++) {
+			parents[i] = getId(bodies[i].getParent());
+			if (parents[i] == -1) {
+				roots++;
+			} else {
+				childCounts[parents[i]]++;
+			}
+		}
+
+		// Work out where the children of each body start in the flat array of children
+		childOffsets = new int[bodies.length + 1];
+		for (int i = 0; i < bodies.length; i++) {
+			childOffsets[i + 1] = childOffsets[i] + childCounts[i];
+		}
+
+		// Fill in the children and roots, keeping them in the same order as the catalog
+		childIds = new int[childOffsets[bodies.length]];
+		rootIds = new int[roots];
+		int[] filled = new int[bodies.length];
+		int root = 0;
+		for (int i = 0; i < bodies.length; i++) {
+			int parent = parents[i];
+			if (parent == -1) {
+				rootIds[root++] = i;
+			} else {
+				childIds[childOffsets[parent] + filled[parent]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of bodies in the index
+	 * @return number of bodies
+	 */
+	public int size() {
+		return bodies.length;
+	}
+
+	/**
+	 * Get the id of the body with the given name
+	 * @param name name of the body
+	 * @return id of the body, or -1 if it is not in the index
+	 */
+	public int getId(String name) {
+		Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Get the id of the given body
+	 * @param body body to find
+	 * @return id of the body, or -1 if it is not in the index
+	 */
+	public int getId(BodyInSpace body) {
+		if (body == null) {
+			return -1;
+		}
+		int id = getId(body.getName());
+		return id != -1 && bodies[id] == body ? id : -1;
+	}
+
+	/**
+	 * Get the body with the given id
+	 * @param id id of the body
+	 * @return BodyInSpace element
+	 */
+	public BodyInSpace getBody(int id) {
+		return bodies[id];
+	}
+
+	/**
+	 * Get the body with the given name
+	 * @param name name of the body
+	 * @return BodyInSpace element, or null if it is not in the index
+	 */
+	public BodyInSpace getBody(String name) {
+		Integer id = ids.get(name);
+		return id == null ? null : bodies[id];
+	}
+
+	/**
+	 * Get the id of the parent of a body
+	 * @param id id of the body
+	 * @return id of the parent, or -1 if the parent is not in the index
+	 */
+	public int getParentId(int id) {
+		return parents[id];
+	}
+
+	/**
+	 * Get the number of children of a body
+	 * @param id id of the body
+	 * @return number of children
+	 */
+	public int getChildCount(int id) {
+		return childOffsets[id + 1] - childOffsets[id];
+	}
+
+	/**
+	 * Get the id of one of the children of a body
+	 * @param id id of the body
+	 * @param n position of the child, from 0 up to the number of children
+	 * @return id of the child
+	 */
+	public int getChildId(int id, int n) {
+		return childIds[childOffsets[id] + n];
+	}
+
+	/**
+	 * Get the number of bodies without a parent in the index
+	 * @return number of root bodies
+	 */
+	public int getRootCount() {
+		return rootIds.length;
+	}
+
+	/**
+	 * Get the id of one of the bodies without a parent in the index
+	 * @param n position of the root, from 0 up to the number of roots
+	 * @return id of the root body
+	 */
+	public int getRootId(int n) {
+		return rootIds[n];
+	}
+}
@@ -0,0 +1,271 @@
+package solarsystem.objects;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Static class to load the catalog of bodies. The catalog is written as comma separated values with the columns
+ * name, diameter, mass, orbit, period, angle, parent, min_scale, max_scale and type, where the two scales and the
+ * type may be left empty. A type of planet marks the bodies listed as planets, and any other type is only for the
+ * reader of the file. The first time a catalog is loaded it is compiled to a binary cache file, and on later loads the cache
+ * is memory mapped instead of reading the text again.
+ *
+ * The bundled catalog is used unless the system property solarsystem.catalog names another file. The cache is
+ * kept in the temporary directory, unless the system property solarsystem.catalog.cache names another location.
+ *
+ * @author Laura McGhie
+ */
+public class CatalogLoader {
+
+	private static final String RESOURCE = "/solarsystem/resources/data/bodies.csv";
+
+	private final static Logger LOGGER = Logger.getLogger(CatalogLoader.class.getName());
+
+	/**
+	 * Load the catalog chosen by the system properties, or the bundled catalog if none is chosen
+	 * @return loaded catalog
+	 * @throws IOException if the catalog cannot be read
+	 */
+	public static BodyCatalog load() throws IOException {
+		String source = System.getProperty("solarsystem.catalog");
+		String cache = System.getProperty("solarsystem.catalog.cache");
+
+		if (source != null) {
+			Path csv = Paths.get(source);
+			Path cacheFile = cache != null ? Paths.get(cache) : defaultCache(csv.toAbsolutePath().toString());
+			return load(csv, cacheFile);
+		}
+
+		// The bundled catalog is small, so its stamp is a checksum of its contents
+		byte[] bytes = readResource();
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		Path cacheFile = cache != null ? Paths.get(cache) : defaultCache(RESOURCE);
+		return load(new ByteArrayInputStream(bytes), crc.getValue(), cacheFile);
+	}
+
+	/**
+	 * Load a catalog from a file, using the cache if it was compiled from the same version of the file
+	 * @param csv catalog file
+	 * @param cache location of the binary cache
+	 * @return loaded catalog
+	 * @throws IOException if the catalog cannot be read
+	 */
+	public static BodyCatalog load(Path csv, Path cache) throws IOException {
+		// Large catalogs are not read to check them, so their stamp comes from the size and time of last change
+		long stamp = Files.size(csv) * 31 + Files.getLastModifiedTime(csv).toMillis();
+
+		BodyCatalog cached = openCache(cache, stamp);
+		if (cached != null) {
+			return cached;
+		}
+		try (InputStream in = Files.newInputStream(csv)) {
+			return compileToCache(in, stamp, cache);
+		}
+	}
+
+	/**
+	 * Internal method to load a catalog from a stream, using the cache if it has the same stamp
+	 */
+	private static BodyCatalog load(InputStream in, long stamp, Path cache) throws IOException {
+		BodyCatalog cached = openCache(cache, stamp);
+		if (cached != null) {
+			return cached;
+		}
+		return compileToCache(in, stamp, cache);
+	}
+
+	/**
+	 * Compile a catalog from comma separated values into the binary layout read by BodyCatalog
+	 * @param in stream of comma separated values
+	 * @param stamp stamp of the source, stored so the cache can be checked later
+	 * @return buffer holding the compiled catalog
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if a line cannot be understood, or a parent is not listed before its child
+	 */
+	public static ByteBuffer compile(InputStream in, long stamp) throws IOException {
+		List<String> names = new ArrayList<>();
+		List<double[]> rows = new ArrayList<>();
+		List<Integer> parents = new ArrayList<>();
+		List<Integer> flags = new ArrayList<>();
+		Map<String, Integer> ids = new HashMap<>();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String line;
+		int lineNumber = 0;
+		boolean header = true;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+
+			// Skip comments, blank lines and the line of column names
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			if (header) {
+				header = false;
+				continue;
+			}
+
+			String[] fields = Arrays.copyOf(line.split(",", -1), 10);
+			try {
+				double[] row = new double[BodyCatalog.COLUMNS];
+				row[BodyCatalog.DIAMETER] = Double.parseDouble(fields[1].trim());
+				row[BodyCatalog.MASS] = Double.parseDouble(fields[2].trim());
+				row[BodyCatalog.ORBIT] = Double.parseDouble(fields[3].trim());
+				row[BodyCatalog.PERIOD] = Double.parseDouble(fields[4].trim());
+				row[BodyCatalog.ANGLE] = Double.parseDouble(fields[5].trim());
+				row[BodyCatalog.MIN_SCALE] = optional(fields[7]);
+				row[BodyCatalog.MAX_SCALE] = optional(fields[8]);
+
+				String name = fields[0].trim();
+				String parentName = fields[6] == null ? "" : fields[6].trim();
+				Integer parent = parentName.isEmpty() ? Integer.valueOf(-1) : ids.get(parentName);
+				if (parent == null) {
+					throw new IllegalArgumentException("parent " + parentName + " must be listed before " + name);
+				}
+				if (ids.put(name, names.size()) != null) {
+					throw new IllegalArgumentException("duplicate body " + name);
+				}
+
+				names.add(name);
+				rows.add(row);
+				parents.add(parent);
+				flags.add(fields[9] != null && fields[9].trim().equals("planet") ? BodyCatalog.MAJOR : 0);
+			} catch (NumberFormatException | NullPointerException e) {
+				throw new IllegalArgumentException("Invalid catalog line " + lineNumber + ": " + line, e);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Invalid catalog line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+
+		// Encode the names, and work out where each one starts
+		int count = names.size();
+		ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+		int[] offsets = new int[count + 1];
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = names.get(i).getBytes(StandardCharsets.UTF_8);
+			nameBytes.write(bytes, 0, bytes.length);
+			offsets[i + 1] = nameBytes.size();
+		}
+
+		int size = BodyCatalog.HEADER + BodyCatalog.COLUMNS * count * 8 + 2 * count * 4 + (count + 1) * 4
+				+ nameBytes.size();
+		ByteBuffer data = ByteBuffer.allocate(size);
+		data.putInt(BodyCatalog.MAGIC).putInt(BodyCatalog.VERSION).putLong(stamp).putInt(count)
+				.putInt(nameBytes.size());
+
+		for (int column = 0; column < BodyCatalog.COLUMNS; column++) {
+			for (double[] row : rows) {
+				data.putDouble(row[column]);
+			}
+		}
+		for (int parent : parents) {
+			data.putInt(parent);
+		}
+		for (int flag : flags) {
+			data.putInt(flag);
+		}
+		for (int offset : offsets) {
+			data.putInt(offset);
+		}
+		data.put(nameBytes.toByteArray());
+
+		data.flip();
+		return data;
+	}
+
+	/**
+	 * Internal method to compile a catalog and write it to the cache. If the cache cannot be written, the catalog
+	 * is still returned from memory.
+	 */
+	private static BodyCatalog compileToCache(InputStream in, long stamp, Path cache) throws IOException {
+		ByteBuffer data = compile(in, stamp);
+
+		try {
+			// Write to a temporary file first, so another instance never maps a half written cache
+			Path parent = cache.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+			Path temp = Files.createTempFile(parent, "catalog", ".tmp");
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer copy = data.duplicate();
+				while (copy.hasRemaining()) {
+					channel.write(copy);
+				}
+			}
+			Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			LOGGER.warning("Could not write catalog cache " + cache + ": " + e.getMessage());
+		}
+
+		return new BodyCatalog(data);
+	}
+
+	/**
+	 * Internal method to map the cache file, if it exists and was compiled from the same source
+	 * @return catalog, or null if the cache cannot be used
+	 */
+	private static BodyCatalog openCache(Path cache, long stamp) {
+		if (!Files.isRegularFile(cache)) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+			// The mapping stays valid once the channel is closed
+			ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			BodyCatalog catalog = new BodyCatalog(data);
+			return catalog.getStamp() == stamp ? catalog : null;
+		} catch (IOException | IllegalArgumentException e) {
+			LOGGER.info("Ignoring catalog cache " + cache + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Internal method to read the bundled catalog
+	 */
+	private static byte[] readResource() throws IOException {
+		try (InputStream in = CatalogLoader.class.getResourceAsStream(RESOURCE)) {
+			if (in == null) {
+				throw new FileNotFoundException(RESOURCE);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Internal method to get the default cache location for a catalog source
+	 */
+	private static Path defaultCache(String source) {
+		String name = "solarsystem-catalog-" + Integer.toHexString(source.hashCode()) + ".bin";
+		return Paths.get(System.getProperty("java.io.tmpdir"), name);
+	}
+
+	/**
+	 * Internal method to read a column which may be left empty
+	 * @return value, or NaN if empty
+	 */
+	private static double optional(String field) {
+		return field == null || field.trim().isEmpty() ? Double.NaN : Double.parseDouble(field.trim());
+	}
+}
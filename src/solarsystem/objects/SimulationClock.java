@@ -0,0 +1,55 @@
+package solarsystem.objects;
+
+/**
+ * Object class for keeping track of the current time in the simulation. All of the views read the position of the
+ * bodies from this single clock, so that moving forwards, backwards or jumping to a new time is the same operation.
+ *
+ * @author Laura McGhie
+ */
+public class SimulationClock {
+
+	/* Number of days covered by a single animation step at a speed factor of 1. Matches the rate at which the
+	 * bodies were originally moved around their orbits on each step. */
+	public static final double DAYS_PER_STEP = Math.PI / 180;
+
+	private double time;
+
+	/**
+	 * Default constructor to create a clock starting at time 0
+	 */
+	public SimulationClock() {
+		this.time = 0;
+	}
+
+	/**
+	 * Get the current simulation time
+	 * @return time in days
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Set the current simulation time to the given value
+	 * @param time new time in days
+	 */
+	public void setTime(double time) {
+		this.time = time;
+	}
+
+	/**
+	 * Move the clock forward by a single animation step
+	 * @param factor - the speed factor to scale the step by
+	 */
+	public void step(double factor) {
+		time += factor * DAYS_PER_STEP;
+	}
+
+	/**
+	 * Move the clock forward (or backwards for a negative value) by the given number of days
+	 * @param days time to move the clock by in days
+	 */
+	public void advance(double days) {
+		time += days;
+	}
+}
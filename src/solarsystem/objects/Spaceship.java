@@ -1,23 +1,24 @@
 package solarsystem.objects;
 
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Ellipse;
-
 /**
  * Spaceship class used to represent a spacecraft and all associated properties
- * for GUI display purposes.
+ * for GUI display purposes. The path and position are kept in display co-ordinates, but the GUI objects which
+ * draw them are held separately by a SpaceshipView, so a spacecraft can be moved on the simulation thread.
  *
  * @author Laura McGhie
  */
 public class Spaceship {
 	
-	private final Circle gui_object;
-	private final Ellipse gui_trail;
 	private double angle;
 	private double radius_x;
 	private double radius_y;
 	private double center_x;
 	private double center_y;
+	private double pos_x;
+	private double pos_y;
+	private double prev_x;
+	private double prev_y;
+	private double rotation;
 	private BodyInSpace parent;
 	private double period;
 
@@ -37,32 +38,54 @@ public class Spaceship {
 		/* Give the spaceship an arbitrary period of 30 days to complete 1 orbit. This isn't really accurate
 		 * but it used for display purposes, as a true period would be too fast to see properly*/
 		this.period = 30;
+	}
 
-		/* Create an object to represent the spacecraft itself, add at origin point of
-		* canvas (top left) for calculation purposes and use the spacecraft css style to colour this. */
-		this.gui_object = new Circle(0, 0, 4);
-		this.gui_object.getStyleClass().add("spacecraft");
+	/**
+	 * Set the current position of the spacecraft on the display, keeping the previous position so the
+	 * spacecraft can be drawn part way between the two
+	 * @param x co-ordinate of the spacecraft
+	 * @param y co-ordinate of the spacecraft
+	 */
+	public void setPosition(double x, double y) {
+		this.prev_x = this.pos_x;
+		this.prev_y = this.pos_y;
+		this.pos_x = x;
+		this.pos_y = y;
+	}
 
-		/* Establish GUI object for the orbit path of the spacecraft, centred at the
-		 * origin point of the canvas (top left) for calculation purposes. Add style
-		 * class so only border of the object is displayed on screen. */
-		this.gui_trail = new Ellipse(0, 0);
-		this.gui_trail.getStyleClass().add("spacecraft-path");
+	/**
+	 * Get x co-ordinate of the spacecraft's current position on the display
+	 * @return x co-ordinate
+	 */
+	public double getX() {
+		return this.pos_x;
 	}
 
 	/**
-	 * Get the GUI object which represents the orbit path of the spacecraft
-	 * @return Ellipse for spacecraft orbit
-     */
-	public Ellipse getGUITrail(){
-		return this.gui_trail;
+	 * Get y co-ordinate of the spacecraft's current position on the display
+	 * @return y co-ordinate
+	 */
+	public double getY() {
+		return this.pos_y;
 	}
 
 	/**
-	 * Get the GUI object which represents the spacecraft itself
-	 * @return Ellipse representing spacecraft
-     */
-	public Circle getGUIShip() { return this.gui_object; }
+	 * Get x co-ordinate of the spacecraft part way between its previous and current position
+	 * @param alpha fraction of the way from the previous position, from 0 up to 1
+	 * @return x co-ordinate
+	 */
+	public double getX(double alpha) {
+		return this.prev_x + (this.pos_x - this.prev_x) * alpha;
+	}
+
+	/**
+	 * Get y co-ordinate of the spacecraft part way between its previous and current position
+	 * @param alpha fraction of the way from the previous position, from 0 up to 1
+	 * @return y co-ordinate
+	 */
+	public double getY(double alpha) {
+		return this.prev_y + (this.pos_y - this.prev_y) * alpha;
+	}
 
 	/**
 	 * Set the rotational period of the spacecraft to the provided parameter
@@ -81,13 +104,13 @@ public class Spaceship {
 	 * horizontal and vertical
 	 * @param rotate the angle to rotate the path by
      */
-	public void setPathRotation(double rotate) { this.gui_trail.setRotate(rotate);}
+	public void setPathRotation(double rotate) { this.rotation = rotate; }
 
 	/**
 	 * Retrieve the current angle of rotation for the orbital path of the spacecraft.
 	 * @return angle of rotation in Radians
      */
-	public double getPathRotation() { return Math.toRadians(this.gui_trail.getRotate()); }
+	public double getPathRotation() { return Math.toRadians(this.rotation); }
 
 	/**
 	 * Set the current angle of the spacecraft around its orbit to the parameter value
@@ -120,16 +143,13 @@ public class Spaceship {
 	}
 
 	/**
-	 * Set the radius of the path the spacecraft is currently on to the given parameters. Also adjusts
-	 * the GUI path object to match this new radius
+	 * Set the radius of the path the spacecraft is currently on to the given parameters
 	 * @param radius_x the radius of the orbit along the x-axis
 	 * @param radius_y the radius of the orbit along the y-axis
      */
 	public void setRadius(double radius_x, double radius_y) {
 		this.radius_x = radius_x;
 		this.radius_y = radius_y;
-		this.gui_trail.setRadiusX(radius_x);
-		this.gui_trail.setRadiusY(radius_y);
 	}
 
 	/**
@@ -156,8 +176,6 @@ public class Spaceship {
 	public void setCenterPoint(double x, double y) {
 		this.center_x = x;
 		this.center_y = y;
-		this.gui_trail.setCenterX(x);
-		this.gui_trail.setCenterY(y);
 	}
 
 	/**
@@ -191,4 +209,64 @@ public class Spaceship {
 	public BodyInSpace getParent() {
 		return this.parent;
 	}
+
+	/**
+	 * Take a copy of the path and position of the spacecraft
+	 * @return copy of the state
+	 */
+	public State saveState() {
+		return new State(this);
+	}
+
+	/**
+	 * Put the spacecraft back on the path and at the position it had when the state was copied. A state copied
+	 * from another spacecraft can be given too, to make this one a copy of it.
+	 * @param state copy of the state taken from a spacecraft
+	 */
+	public void restoreState(State state) {
+		this.angle = state.angle;
+		this.period = state.period;
+		this.parent = state.parent;
+		this.pos_x = state.pos_x;
+		this.pos_y = state.pos_y;
+		this.prev_x = state.prev_x;
+		this.prev_y = state.prev_y;
+		this.rotation = state.rotation;
+		setRadius(state.radius_x, state.radius_y);
+		setCenterPoint(state.center_x, state.center_y);
+	}
+
+	/**
+	 * Object to hold a copy of the state of a spacecraft, which cannot be changed once taken
+	 */
+	public static final class State {
+
+		private final double angle;
+		private final double radius_x;
+		private final double radius_y;
+		private final double center_x;
+		private final double center_y;
+		private final double pos_x;
+		private final double pos_y;
+		private final double prev_x;
+		private final double prev_y;
+		private final double rotation;
+		private final BodyInSpace parent;
+		private final double period;
+
+		private State(Spaceship ship) {
+			this.angle = ship.angle;
+			this.radius_x = ship.radius_x;
+			this.radius_y = ship.radius_y;
+			this.center_x = ship.center_x;
+			this.center_y = ship.center_y;
+			this.pos_x = ship.pos_x;
+			this.pos_y = ship.pos_y;
+			this.prev_x = ship.prev_x;
+			this.prev_y = ship.prev_y;
+			this.rotation = ship.rotation;
+			this.parent = ship.parent;
+			this.period = ship.period;
+		}
+	}
 }
\ No newline at end of file
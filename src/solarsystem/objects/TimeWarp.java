@@ -0,0 +1,104 @@
+package solarsystem.objects;
+
+/**
+ * Object class for the range of speed factors the journey can be played at, and for keeping each step of a fast
+ * journey from jumping over an event. The speed factor is halved or doubled between x1/64 and about x10^6, and
+ * every animation step costs the same at any factor: a step moves the clock and the spacecraft on by the whole
+ * factor at once, unless that would carry the spacecraft past the end of its transfer, in which case the step is
+ * shortened to end exactly there.
+ *
+ * @author Laura McGhie
+ */
+public class TimeWarp {
+
+	// Slowest speed factor, x1/64
+	public static final double MIN_FACTOR = 0.015625;
+
+	// Fastest speed factor, x2^20, just over a million
+	public static final double MAX_FACTOR = 1048576;
+
+	/**
+	 * Get the next speed factor up from the given factor
+	 * @param factor current speed factor
+	 * @return twice the factor, up to the fastest factor
+	 */
+	public static double faster(double factor) {
+		return Math.min(factor * 2, MAX_FACTOR);
+	}
+
+	/**
+	 * Get the next speed factor down from the given factor
+	 * @param factor current speed factor
+	 * @return half the factor, down to the slowest factor
+	 */
+	public static double slower(double factor) {
+		return Math.max(factor / 2, MIN_FACTOR);
+	}
+
+	/**
+	 * Check if the given speed factor is the fastest allowed
+	 * @param factor speed factor
+	 * @return true if the factor cannot be made any faster
+	 */
+	public static boolean isFastest(double factor) {
+		return factor >= MAX_FACTOR;
+	}
+
+	/**
+	 * Check if the given speed factor is the slowest allowed
+	 * @param factor speed factor
+	 * @return true if the factor cannot be made any slower
+	 */
+	public static boolean isSlowest(double factor) {
+		return factor <= MIN_FACTOR;
+	}
+
+	/**
+	 * Work out the speed factor for the next step of a spacecraft moving around a path towards a target angle, as
+	 * Spaceship.incrementAngle moves it. The factor is only lowered if the whole step would carry the spacecraft
+	 * past the target, and then the step ends exactly at the target, so the arrival is never skipped.
+	 * @param factor speed factor the journey is being played at
+	 * @param period time the spacecraft takes to go once around its path in days
+	 * @param angle current angle of the spacecraft in radians
+	 * @param target angle the spacecraft is moving towards in radians
+	 * @return speed factor for the step, no greater than the given factor
+	 */
+	public static double clampToAngle(double factor, double period, double angle, double target) {
+		// Angle the spacecraft moves through on a step at a speed factor of 1, as in Spaceship.incrementAngle
+		double perFactor = Math.toRadians((2 * Math.PI) / period);
+		if (!(perFactor > 0)) {
+			return factor;
+		}
+
+		// Angle still to travel, always forwards around the path
+		double remaining = (target - angle) % (2 * Math.PI);
+		if (remaining < 0) {
+			remaining += 2 * Math.PI;
+		}
+		return Math.min(factor, remaining / perFactor);
+	}
+
+	/**
+	 * Work out the speed factor for the next step of the simulation clock towards the time of an event, as
+	 * SimulationClock.step moves it. The factor is only lowered if the whole step would carry the clock past the
+	 * event, and then the step ends exactly at the event.
+	 * @param factor speed factor the journey is being played at
+	 * @param time current simulation time in days
+	 * @param end simulation time of the event in days, which may be infinite
+	 * @return speed factor for the step, no greater than the given factor and never negative
+	 */
+	public static double clampToTime(double factor, double time, double end) {
+		double remaining = (end - time) / SimulationClock.DAYS_PER_STEP;
+		return Math.max(0, Math.min(factor, remaining));
+	}
+
+	/**
+	 * Get the distance between two angles around a circle, however many turns apart they are written
+	 * @param a first angle in radians
+	 * @param b second angle in radians
+	 * @return distance in radians, between 0 and pi
+	 */
+	public static double angleBetween(double a, double b) {
+		return Math.abs(Math.IEEEremainder(a - b, 2 * Math.PI));
+	}
+}
@@ -0,0 +1,486 @@
+package solarsystem.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Object to work out the accelerations of a large population of bodies, such as an asteroid belt or ring
+ * particles, with a Barnes-Hut quadtree. Bodies are grouped into square cells, each split into four smaller cells
+ * until only a few bodies are left in each. A group of bodies far enough away pulls like a single body at their
+ * centre of mass, so each body only visits about log N cells rather than every other body.
+ *
+ * How far away a cell must be is set by the opening angle: a cell is used whole when its width divided by its
+ * distance is less than the angle. An angle of 0 opens every cell and gives the exact result, and larger angles
+ * are faster and less accurate. The default of 0.5 keeps the error in each acceleration to around 1%, and much
+ * less when a single heavy body such as the Sun pulls on every other body.
+ *
+ * The tree is built again at every step. The bodies are sorted along a Z-order curve through the cells, so every
+ * cell holds a run of neighbouring bodies in the sorted order, and the cells are built from these runs in parallel.
+ * The cells are held in flat arrays of primitives which are kept between steps and only grown when a larger tree is
+ * needed, so a step does not create the tree again as objects.
+ *
+ * @author Laura McGhie
+ */
+public class BarnesHutGravity implements GravitySolver {
+
+	// Opening angle used by default
+	public static final double DEFAULT_OPENING_ANGLE = 0.5;
+
+	// Most bodies held in a cell before it is split
+	private static final int LEAF_SIZE = 8;
+
+	// Number of times the root cell can be split, which is the number of bits of each co-ordinate in a sort key
+	private static final int LEVELS = 20;
+
+	// Bits of a sort key holding the body, below the bits of the position on the curve
+	private static final int INDEX_BITS = 23;
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	// Largest number of bodies that fit in the sort keys
+	public static final int MAX_BODIES = 1 << INDEX_BITS;
+
+	// Number of bodies before the tree is built and used in parallel, and the bodies handled by each task
+	private static final int PARALLEL_THRESHOLD = 4096;
+	private static final int TASK_SIZE = 1024;
+
+	private final ForkJoinPool pool;
+	private double openingAngle;
+
+	// Sort keys and the bodies in sorted order, kept between steps
+	private long[] keys = new long[0];
+	private int[] order = new int[0];
+	private double[] sortedMass = new double[0];
+	private double[] sortedX = new double[0];
+	private double[] sortedY = new double[0];
+
+	// Cells of the tree, kept between steps. Cell 0 is the root, and the four children of a cell are next to each
+	// other starting at its first child, which is -1 if the cell is not split. Each cell covers a run of the
+	// sorted bodies.
+	private int capacity;
+	private double[] cellMass = new double[0];
+	private double[] cellX = new double[0];
+	private double[] cellY = new double[0];
+	private double[] cellWidth = new double[0];
+	private int[] firstChild = new int[0];
+	private int[] cellFrom = new int[0];
+	private int[] cellTo = new int[0];
+	private final AtomicInteger cells = new AtomicInteger();
+	private volatile boolean full;
+
+	// Input and output arrays for the current call
+	private double[] mass, x, y, ax, ay;
+	private double minX, minY, keyScale, rootWidth;
+
+	/**
+	 * Constructor to create a solver with the default opening angle which works out large systems on the given pool
+	 * @param pool pool to work out the accelerations of large systems on, or null to always work in the calling
+	 * thread
+	 */
+	public BarnesHutGravity(ForkJoinPool pool) {
+		this(DEFAULT_OPENING_ANGLE, pool);
+	}
+
+	/**
+	 * Constructor to create a solver with the given opening angle which works out large systems on the given pool
+	 * @param openingAngle largest width of a cell divided by its distance for it to be used whole
+	 * @param pool pool to work out the accelerations of large systems on, or null to always work in the calling
+	 * thread
+	 * @throws IllegalArgumentException if the opening angle is negative
+	 */
+	public BarnesHutGravity(double openingAngle, ForkJoinPool pool) {
+		setOpeningAngle(openingAngle);
+		this.pool = pool;
+	}
+
+	/**
+	 * Set the opening angle used from the next call
+	 * @param openingAngle largest width of a cell divided by its distance for it to be used whole
+	 * @throws IllegalArgumentException if the opening angle is negative
+	 */
+	public void setOpeningAngle(double openingAngle) {
+		if (!(openingAngle >= 0)) {
+			throw new IllegalArgumentException("Opening angle must not be negative");
+		}
+		this.openingAngle = openingAngle;
+	}
+
+	/**
+	 * Get the opening angle
+	 * @return largest width of a cell divided by its distance for it to be used whole
+	 */
+	public double getOpeningAngle() {
+		return openingAngle;
+	}
+
+	/**
+	 * Get the number of cells in the tree built by the last call
+	 * @return number of cells
+	 */
+	public int getCellCount() {
+		return Math.min(cells.get(), capacity);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException if there are more bodies than fit in the sort keys
+	 */
+	@Override
+	public void accelerate(int count, double[] mass, double[] x, double[] y, double[] ax, double[] ay) {
+		if (count > MAX_BODIES) {
+			throw new IllegalArgumentException("At most " + MAX_BODIES + " bodies can be held in the tree");
+		}
+		if (count == 0) {
+			return;
+		}
+		this.mass = mass;
+		this.x = x;
+		this.y = y;
+		this.ax = ax;
+		this.ay = ay;
+		boolean parallel = pool != null && count >= PARALLEL_THRESHOLD;
+
+		try {
+			sort(count, parallel);
+			build(count, parallel);
+
+			if (parallel) {
+				pool.invoke(new BodyTask(BodyTask.FORCES, 0, count));
+			} else {
+				forces(0, count);
+			}
+		} finally {
+			// Do not hold on to the arrays of the system between calls
+			this.mass = this.x = this.y = this.ax = this.ay = null;
+		}
+	}
+
+	/**
+	 * Internal method to sort the bodies along the curve through the cells, and copy their masses and positions
+	 * into sorted order
+	 */
+	private void sort(int count, boolean parallel) {
+		if (keys.length < count) {
+			int size = Math.max(count, keys.length * 2);
+			keys = new long[size];
+			order = new int[size];
+			sortedMass = new double[size];
+			sortedX = new double[size];
+			sortedY = new double[size];
+		}
+
+		// The root cell is the smallest square around every body
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		minX = Double.POSITIVE_INFINITY;
+		minY = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double width = Math.max(maxX - minX, maxY - minY);
+		if (!(width > 0)) {
+			width = 1;
+		}
+		keyScale = (1 << LEVELS) / width;
+
+		if (parallel) {
+			pool.invoke(new BodyTask(BodyTask.KEYS, 0, count));
+			Arrays.parallelSort(keys, 0, count);
+			pool.invoke(new BodyTask(BodyTask.GATHER, 0, count));
+		} else {
+			keys(0, count);
+			Arrays.sort(keys, 0, count);
+			gather(0, count);
+		}
+		rootWidth = width;
+	}
+
+	/**
+	 * Internal method to work out the sort key of a range of bodies, from the position of the body on the curve
+	 * followed by the body itself
+	 */
+	private void keys(int from, int to) {
+		int last = (1 << LEVELS) - 1;
+		for (int i = from; i < to; i++) {
+			int cx = Math.min(last, (int) ((x[i] - minX) * keyScale));
+			int cy = Math.min(last, (int) ((y[i] - minY) * keyScale));
+			keys[i] = (interleave(cx) | interleave(cy) << 1) << INDEX_BITS | i;
+		}
+	}
+
+	/**
+	 * Internal method to copy a range of the bodies into sorted order
+	 */
+	private void gather(int from, int to) {
+		for (int k = from; k < to; k++) {
+			int i = (int) (keys[k] & INDEX_MASK);
+			order[k] = i;
+			sortedMass[k] = mass[i];
+			sortedX[k] = x[i];
+			sortedY[k] = y[i];
+		}
+	}
+
+	/**
+	 * Internal method to spread the bits of a co-ordinate out to every other bit, so the bits of x and y can be
+	 * woven together into a position on the curve
+	 */
+	static long interleave(int value) {
+		long bits = value & 0xFFFFFFFFL;
+		bits = (bits | bits << 16) & 0x0000FFFF0000FFFFL;
+		bits = (bits | bits << 8) & 0x00FF00FF00FF00FFL;
+		bits = (bits | bits << 4) & 0x0F0F0F0F0F0F0F0FL;
+		bits = (bits | bits << 2) & 0x3333333333333333L;
+		bits = (bits | bits << 1) & 0x5555555555555555L;
+		return bits;
+	}
+
+	/**
+	 * Internal method to build the tree from the sorted bodies. If the tree needs more cells than are held, the
+	 * arrays of cells are grown and the tree is built again.
+	 */
+	private void build(int count, boolean parallel) {
+		if (capacity == 0) {
+			grow(Math.max(64, count));
+		}
+		while (true) {
+			cells.set(1);
+			full = false;
+			if (parallel) {
+				pool.invoke(new BuildTask(0, 0, count, 0, rootWidth));
+			} else {
+				build(0, 0, count, 0, rootWidth, false);
+			}
+			if (!full) {
+				return;
+			}
+			grow(Math.max(capacity * 2, cells.get()));
+		}
+	}
+
+	/**
+	 * Internal method to make the arrays of cells large enough for the given number of cells
+	 */
+	private void grow(int size) {
+		capacity = size;
+		cellMass = new double[size];
+		cellX = new double[size];
+		cellY = new double[size];
+		cellWidth = new double[size];
+		firstChild = new int[size];
+		cellFrom = new int[size];
+		cellTo = new int[size];
+	}
+
+	/**
+	 * Internal method to fill in a cell covering a run of the sorted bodies, splitting it into four children if it
+	 * holds too many bodies. Children holding many bodies are built in parallel when the parallel flag is set.
+	 */
+	private void build(int cell, int from, int to, int level, double width, boolean parallel) {
+		cellWidth[cell] = width;
+		cellFrom[cell] = from;
+		cellTo[cell] = to;
+
+		int first = -1;
+		if (to - from > LEAF_SIZE && level < LEVELS) {
+			first = cells.getAndAdd(4);
+			if (first + 4 > capacity) {
+				// Out of room, so the whole tree is built again once the arrays have grown
+				full = true;
+				first = -1;
+			}
+		}
+		firstChild[cell] = first;
+
+		if (first < 0) {
+			double m = 0, mx = 0, my = 0;
+			for (int k = from; k < to; k++) {
+				m += sortedMass[k];
+				mx += sortedMass[k] * sortedX[k];
+				my += sortedMass[k] * sortedY[k];
+			}
+			setCentre(cell, m, mx, my);
+			return;
+		}
+
+		// Every body in the cell shares the bits above this level, so the next two bits pick the child
+		int shift = INDEX_BITS + 2 * (LEVELS - 1 - level);
+		int one = search(from, to, shift, 1);
+		int two = search(one, to, shift, 2);
+		int three = search(two, to, shift, 3);
+
+		if (parallel && to - from > TASK_SIZE) {
+			BuildTask.invokeAll(new BuildTask(first, from, one, level + 1, width / 2),
+					new BuildTask(first + 1, one, two, level + 1, width / 2),
+					new BuildTask(first + 2, two, three, level + 1, width / 2),
+					new BuildTask(first + 3, three, to, level + 1, width / 2));
+		} else {
+			build(first, from, one, level + 1, width / 2, false);
+			build(first + 1, one, two, level + 1, width / 2, false);
+			build(first + 2, two, three, level + 1, width / 2, false);
+			build(first + 3, three, to, level + 1, width / 2, false);
+		}
+
+		double m = 0, mx = 0, my = 0;
+		for (int child = first; child < first + 4; child++) {
+			m += cellMass[child];
+			mx += cellMass[child] * cellX[child];
+			my += cellMass[child] * cellY[child];
+		}
+		setCentre(cell, m, mx, my);
+	}
+
+	/**
+	 * Internal method to set the mass and centre of mass of a cell from the total mass and moments of its bodies
+	 */
+	private void setCentre(int cell, double m, double mx, double my) {
+		cellMass[cell] = m;
+		cellX[cell] = m > 0 ? mx / m : 0;
+		cellY[cell] = m > 0 ? my / m : 0;
+	}
+
+	/**
+	 * Internal method to find the first sorted body in a run whose two bits at the given shift are at least the
+	 * given quadrant
+	 */
+	private int search(int from, int to, int shift, int quadrant) {
+		int low = from, high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if ((int) (keys[middle] >>> shift & 3) < quadrant) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Internal method to work out the acceleration of a range of the sorted bodies by walking down the tree. A
+	 * cell is opened if it is too close for its width, or if it holds the body itself, and its bodies are visited
+	 * one by one if it is not split.
+	 */
+	private void forces(int from, int to) {
+		double soft = NBodySystem.SOFTENING * NBodySystem.SOFTENING;
+		double angle2 = openingAngle * openingAngle;
+		int[] stack = new int[3 * LEVELS + 4];
+
+		for (int k = from; k < to; k++) {
+			double xk = sortedX[k], yk = sortedY[k];
+			double axk = 0, ayk = 0;
+
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				double m = cellMass[cell];
+				if (m == 0) {
+					continue;
+				}
+
+				double dx = cellX[cell] - xk;
+				double dy = cellY[cell] - yk;
+				double d2 = dx * dx + dy * dy;
+				boolean holds = k >= cellFrom[cell] && k < cellTo[cell];
+				double width = cellWidth[cell];
+
+				if (!holds && width * width < angle2 * d2) {
+					double r2 = d2 + soft;
+					double inv = NBodySystem.GRAVITATIONAL_C * m / (r2 * Math.sqrt(r2));
+					axk += inv * dx;
+					ayk += inv * dy;
+				} else if (firstChild[cell] < 0) {
+					for (int j = cellFrom[cell]; j < cellTo[cell]; j++) {
+						if (j == k) {
+							continue;
+						}
+						double bx = sortedX[j] - xk;
+						double by = sortedY[j] - yk;
+						double r2 = bx * bx + by * by + soft;
+						double inv = NBodySystem.GRAVITATIONAL_C * sortedMass[j] / (r2 * Math.sqrt(r2));
+						axk += inv * bx;
+						ayk += inv * by;
+					}
+				} else {
+					int first = firstChild[cell];
+					stack[top++] = first;
+					stack[top++] = first + 1;
+					stack[top++] = first + 2;
+					stack[top++] = first + 3;
+				}
+			}
+
+			int i = order[k];
+			ax[i] = axk;
+			ay[i] = ayk;
+		}
+	}
+
+	/**
+	 * Task to build a cell of the tree and its children
+	 */
+	private class BuildTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int cell, from, to, level;
+		private final double width;
+
+		BuildTask(int cell, int from, int to, int level, double width) {
+			this.cell = cell;
+			this.from = from;
+			this.to = to;
+			this.level = level;
+			this.width = width;
+		}
+
+		@Override
+		protected void compute() {
+			build(cell, from, to, level, width, true);
+		}
+	}
+
+	/**
+	 * Task to carry out one stage of a call on a range of bodies, splitting the range in two until it is small
+	 * enough
+	 */
+	private class BodyTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int KEYS = 0;
+		static final int GATHER = 1;
+		static final int FORCES = 2;
+
+		private final int stage, from, to;
+
+		BodyTask(int stage, int from, int to) {
+			this.stage = stage;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > TASK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new BodyTask(stage, from, middle), new BodyTask(stage, middle, to));
+				return;
+			}
+			switch (stage) {
+				case KEYS:
+					keys(from, to);
+					break;
+				case GATHER:
+					gather(from, to);
+					break;
+				default:
+					forces(from, to);
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package solarsystem.simulation;
+
+/**
+ * Object to hold the positions of a set of bodies at one step of a simulation, for handing from the simulation
+ * thread to the display through a TripleBuffer. Each body is held as its offset from the body it orbits, in millions
+ * of km, so the display can apply its own scale and centre without the simulation knowing about either. The
+ * positions at the step before are kept alongside, so the display can blend between the two steps.
+ *
+ * A snapshot is only filled in by the simulation thread before it is published, and is not changed again until the
+ * display has finished with it, so the display reads it without locking.
+ *
+ * @author Laura McGhie
+ */
+public class BodySnapshot {
+
+	private final double[] x, y;
+	private final double[] prevX, prevY;
+	private double time;
+	private long step;
+
+	/**
+	 * Constructor to create an empty snapshot for the given number of bodies
+	 * @param count number of bodies
+	 */
+	public BodySnapshot(int count) {
+		this.x = new double[count];
+		this.y = new double[count];
+		this.prevX = new double[count];
+		this.prevY = new double[count];
+	}
+
+	/**
+	 * Fill in the snapshot from the given positions, which are copied
+	 * @param step number of the step the positions are at
+	 * @param time simulation time of the step in days
+	 * @param prevX x offset of each body from its parent at the step before, in millions of km
+	 * @param prevY y offset of each body from its parent at the step before, in millions of km
+	 * @param x x offset of each body from its parent, in millions of km
+	 * @param y y offset of each body from its parent, in millions of km, increasing downwards
+	 */
+	public void set(long step, double time, double[] prevX, double[] prevY, double[] x, double[] y) {
+		this.step = step;
+		this.time = time;
+		System.arraycopy(prevX, 0, this.prevX, 0, this.prevX.length);
+		System.arraycopy(prevY, 0, this.prevY, 0, this.prevY.length);
+		System.arraycopy(x, 0, this.x, 0, this.x.length);
+		System.arraycopy(y, 0, this.y, 0, this.y.length);
+	}
+
+	/**
+	 * Get the number of bodies in the snapshot
+	 * @return number of bodies
+	 */
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * Get the number of the step the snapshot was taken at
+	 * @return step number, 0 if the snapshot has not been filled in
+	 */
+	public long getStep() {
+		return step;
+	}
+
+	/**
+	 * Get the simulation time the snapshot was taken at
+	 * @return time in days
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Get the x offset of a body from its parent, part way between the step before and the step of the snapshot
+	 * @param i index of the body
+	 * @param alpha fraction of the way from the step before, from 0 up to 1
+	 * @return x offset in millions of km
+	 */
+	public double getX(int i, double alpha) {
+		return prevX[i] + (x[i] - prevX[i]) * alpha;
+	}
+
+	/**
+	 * Get the y offset of a body from its parent, part way between the step before and the step of the snapshot
+	 * @param i index of the body
+	 * @param alpha fraction of the way from the step before, from 0 up to 1
+	 * @return y offset in millions of km, increasing downwards
+	 */
+	public double getY(int i, double alpha) {
+		return prevY[i] + (y[i] - prevY[i]) * alpha;
+	}
+}
@@ -0,0 +1,112 @@
+package solarsystem.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Object to work out the accelerations of a set of bodies exactly, by adding up the pull of every other body on
+ * each one. The cost grows with the square of the number of bodies, so this is the best choice for the catalog of
+ * planets and moons, but not for thousands of bodies.
+ *
+ * Small systems visit each pair once and apply the pull to both bodies. Large systems are split into ranges of
+ * bodies worked out in parallel, where each task visits every pair for its own bodies so no two tasks write to the
+ * same body.
+ *
+ * @author Laura McGhie
+ */
+public class DirectGravity implements GravitySolver {
+
+	// Number of bodies before the accelerations are worked out in parallel, and the bodies handled by each task
+	private static final int PARALLEL_THRESHOLD = 512;
+	private static final int TASK_SIZE = 64;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor to create a solver which works out large systems on the given pool
+	 * @param pool pool to work out the accelerations of large systems on, or null to always work in the calling
+	 * thread
+	 */
+	public DirectGravity(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public void accelerate(int count, double[] mass, double[] x, double[] y, double[] ax, double[] ay) {
+		if (count >= PARALLEL_THRESHOLD && pool != null) {
+			pool.invoke(new AccelerationTask(0, count, count, mass, x, y, ax, ay));
+			return;
+		}
+
+		for (int i = 0; i < count; i++) {
+			ax[i] = 0;
+			ay[i] = 0;
+		}
+		double soft = NBodySystem.SOFTENING * NBodySystem.SOFTENING;
+		for (int i = 0; i < count; i++) {
+			double xi = x[i], yi = y[i];
+			double axi = 0, ayi = 0;
+			for (int j = i + 1; j < count; j++) {
+				double dx = x[j] - xi;
+				double dy = y[j] - yi;
+				double r2 = dx * dx + dy * dy + soft;
+				double inv = NBodySystem.GRAVITATIONAL_C / (r2 * Math.sqrt(r2));
+				axi += mass[j] * inv * dx;
+				ayi += mass[j] * inv * dy;
+				ax[j] -= mass[i] * inv * dx;
+				ay[j] -= mass[i] * inv * dy;
+			}
+			ax[i] += axi;
+			ay[i] += ayi;
+		}
+	}
+
+	/**
+	 * Task to work out the accelerations of a range of bodies, splitting the range in two until it is small enough
+	 */
+	private static class AccelerationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to, count;
+		private final double[] mass, x, y, ax, ay;
+
+		AccelerationTask(int from, int to, int count, double[] mass, double[] x, double[] y, double[] ax,
+				double[] ay) {
+			this.from = from;
+			this.to = to;
+			this.count = count;
+			this.mass = mass;
+			this.x = x;
+			this.y = y;
+			this.ax = ax;
+			this.ay = ay;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > TASK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new AccelerationTask(from, middle, count, mass, x, y, ax, ay),
+						new AccelerationTask(middle, to, count, mass, x, y, ax, ay));
+				return;
+			}
+
+			double soft = NBodySystem.SOFTENING * NBodySystem.SOFTENING;
+			for (int i = from; i < to; i++) {
+				double xi = x[i], yi = y[i];
+				double axi = 0, ayi = 0;
+				for (int j = 0; j < count; j++) {
+					double dx = x[j] - xi;
+					double dy = y[j] - yi;
+					double r2 = dx * dx + dy * dy + soft;
+					double inv = NBodySystem.GRAVITATIONAL_C * mass[j] / (r2 * Math.sqrt(r2));
+					axi += inv * dx;
+					ayi += inv * dy;
+				}
+				ax[i] = axi;
+				ay[i] = ayi;
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package solarsystem.simulation;
+
+import java.util.PriorityQueue;
+
+/**
+ * Object to run a simulation from one event to the next, rather than in fixed ticks. Events are held in a priority
+ * queue ordered by the simulation time they happen at, and events at the same time run in the order they were
+ * scheduled. Running an event moves the clock straight to its time and hands it to its handler, which can schedule
+ * further events, so nothing is worked out for the idle time between events.
+ *
+ * The same scheduler can be shared by several simulations, such as a number of journeys, to run them all on one
+ * timeline. A scheduler is not safe to use from more than one thread at once.
+ *
+ * @param <T> type of the events, such as an enum of the kinds of event in a journey
+ * @author Laura McGhie
+ */
+public class EventScheduler<T> {
+
+	/**
+	 * Interface for the objects which react to events when they run
+	 * @param <T> type of the events
+	 */
+	public interface Handler<T> {
+
+		/**
+		 * React to an event, which is already removed from the queue. The clock of the scheduler is at the time
+		 * of the event.
+		 * @param event event which has happened
+		 * @param time simulation time of the event in days
+		 */
+		void handle(T event, double time);
+	}
+
+	private final PriorityQueue<Entry<T>> queue = new PriorityQueue<>();
+	private double time;
+	private long sequence;
+
+	/**
+	 * Constructor to create an empty scheduler with its clock at the given time
+	 * @param startTime simulation time in days
+	 */
+	public EventScheduler(double startTime) {
+		this.time = startTime;
+	}
+
+	/**
+	 * Add an event to the queue
+	 * @param at simulation time the event happens at in days
+	 * @param event event to pass to the handler
+	 * @param handler object to react to the event
+	 * @return entry for the event, which can be used to cancel it
+	 * @throws IllegalArgumentException if the time is before the clock of the scheduler, or not a number
+	 */
+	public Entry<T> schedule(double at, T event, Handler<T> handler) {
+		if (!(at >= time)) {
+			throw new IllegalArgumentException("Cannot schedule an event at " + at + " before the current time "
+					+ time);
+		}
+		Entry<T> entry = new Entry<>(at, sequence++, event, handler);
+		queue.add(entry);
+		return entry;
+	}
+
+	/**
+	 * Remove an event from the queue before it runs
+	 * @param entry entry returned when the event was scheduled
+	 * @return true if the event was still waiting to run
+	 */
+	public boolean cancel(Entry<T> entry) {
+		if (entry == null || !queue.remove(entry)) {
+			return false;
+		}
+		entry.queued = false;
+		return true;
+	}
+
+	/**
+	 * Check if an event is still waiting to run
+	 * @param entry entry returned when the event was scheduled
+	 * @return true if the event is in the queue
+	 */
+	public boolean isScheduled(Entry<T> entry) {
+		return entry != null && entry.queued;
+	}
+
+	/**
+	 * Move the clock to the next event and run it
+	 * @return true if an event was run, or false if the queue was empty
+	 */
+	public boolean runNext() {
+		Entry<T> entry = queue.poll();
+		if (entry == null) {
+			return false;
+		}
+		entry.queued = false;
+		time = entry.time;
+		entry.handler.handle(entry.event, time);
+		return true;
+	}
+
+	/**
+	 * Run every event up to and including the given time, including any scheduled by the events themselves, and
+	 * then move the clock to that time
+	 * @param until simulation time to run to in days
+	 * @return number of events run
+	 */
+	public int runUntil(double until) {
+		int count = 0;
+		while (!queue.isEmpty() && queue.peek().time <= until) {
+			runNext();
+			count++;
+		}
+		time = Math.max(time, until);
+		return count;
+	}
+
+	/**
+	 * Get the current time of the clock, which is the time of the latest event run unless the clock has been
+	 * moved on past it
+	 * @return simulation time in days
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Get the time of the next event
+	 * @return simulation time in days, or infinity if the queue is empty
+	 */
+	public double getNextTime() {
+		Entry<T> next = queue.peek();
+		return next == null ? Double.POSITIVE_INFINITY : next.time;
+	}
+
+	/**
+	 * Get the next event without running it
+	 * @return event, or null if the queue is empty
+	 */
+	public T peek() {
+		Entry<T> next = queue.peek();
+		return next == null ? null : next.event;
+	}
+
+	/**
+	 * Get the number of events waiting to run
+	 * @return number of events
+	 */
+	public int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Object to hold an event in the queue, along with its time and handler
+	 * @param <T> type of the event
+	 */
+	public static final class Entry<T> implements Comparable<Entry<T>> {
+
+		private final double time;
+		private final long sequence;
+		private final T event;
+		private final Handler<T> handler;
+		private boolean queued = true;
+
+		Entry(double time, long sequence, T event, Handler<T> handler) {
+			this.time = time;
+			this.sequence = sequence;
+			this.event = event;
+			this.handler = handler;
+		}
+
+		/**
+		 * Get the simulation time the event happens at
+		 * @return time in days
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * Get the event passed to the handler
+		 * @return event
+		 */
+		public T getEvent() {
+			return event;
+		}
+
+		@Override
+		public int compareTo(Entry<T> other) {
+			int order = Double.compare(time, other.time);
+			return order != 0 ? order : Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package solarsystem.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+
+/**
+ * Object to follow a large number of spacecraft, each on its own route and leaving at its own time, such as a study
+ * of the traffic between the planets. Each route is planned once when the fleet is created, with a JourneySimulator
+ * running from event to event, and every transfer is kept as a leg: the times it starts and ends, and the ellipse
+ * it follows around the body at the centre of its frame. Moving the fleet to a time then only places each ship,
+ * either at the body it is waiting at or along the ellipse of its current leg.
+ *
+ * Ships and legs are held in flat arrays of primitives, one array per quantity, so placing the fleet does not
+ * create any objects. Large fleets are placed in parallel, in ranges of ships which only write their own positions.
+ * The total delta-v and journey time of every ship are kept for the study.
+ *
+ * @author Laura McGhie
+ */
+public class Fleet {
+
+	// Number of ships before the fleet is placed in parallel, and the ships placed by each task
+	private static final int PARALLEL_THRESHOLD = 1024;
+	private static final int TASK_SIZE = 256;
+
+	// Newton iterations used to solve Kepler's equation for the position of a ship along its ellipse
+	private static final int KEPLER_ITERATIONS = 8;
+
+	private final int count;
+	private final ForkJoinPool pool;
+
+	// Every body ships can be placed at, with the root at index 0 and each body in the index at its id plus 1
+	private final BodyInSpace[] bodies;
+	private final double[] bodyX, bodyY;
+
+	// Per ship: its legs, the leg it reached last, where it starts, and its totals
+	private final int[] legOffset;
+	private final int[] cursor;
+	private final int[] home;
+	private final double[] departure, arrival;
+	private final double[] deltaV, journeyTime;
+
+	// Per leg: times, bodies, and the ellipse around the frame body in km
+	private int legs;
+	private double[] legStart, legEnd;
+	private int[] legFrom, legTo, legFrame;
+	private double[] legA, legE, legM0, legSin, legCos;
+
+	// Position of each ship in km from the root, y increasing downwards
+	private final double[] x, y;
+	private double time = Double.NaN;
+
+	/**
+	 * Constructor to create a fleet of ships, each following a route from its own departure time. The routes
+	 * can be shared between ships.
+	 * @param routes route of each ship
+	 * @param departures simulation time each ship starts its route at in days
+	 * @param index index of the bodies the routes visit
+	 * @param pool pool to place large fleets on, or null to always work in the calling thread
+	 * @throws IllegalArgumentException if there is not one departure for each route, or a route is empty, visits a
+	 * body not in the index, or includes a transfer between bodies which are not the same, siblings, or parent and
+	 * child
+	 */
+	public Fleet(List<List<RouteStage>> routes, double[] departures, BodyIndex index, ForkJoinPool pool) {
+		if (routes.size() != departures.length) {
+			throw new IllegalArgumentException("Every ship needs a route and a departure time");
+		}
+		this.count = departures.length;
+		this.pool = pool;
+
+		bodies = new BodyInSpace[index.size() + 1];
+		for (int id = 0; id < index.size(); id++) {
+			bodies[id + 1] = index.getBody(id);
+		}
+		bodyX = new double[bodies.length];
+		bodyY = new double[bodies.length];
+
+		legOffset = new int[count + 1];
+		cursor = new int[count];
+		home = new int[count];
+		departure = departures.clone();
+		arrival = new double[count];
+		deltaV = new double[count];
+		journeyTime = new double[count];
+		x = new double[count];
+		y = new double[count];
+		allocateLegs(Math.max(16, count * 2));
+
+		for (int s = 0; s < count; s++) {
+			plan(s, routes.get(s), index);
+			cursor[s] = legOffset[s];
+		}
+	}
+
+	/**
+	 * Place every ship where it is at the given simulation time. Each ship carries on from the leg it reached
+	 * last, so moving forwards a step at a time only looks at the legs it passes.
+	 * @param time simulation time in days
+	 */
+	public void moveTo(double time) {
+		this.time = time;
+
+		// Place each body once, so the ships only read its position
+		for (int i = 1; i < bodies.length; i++) {
+			bodyX[i] = bodies[i].xAt(time);
+			bodyY[i] = bodies[i].yAt(time);
+		}
+
+		if (count >= PARALLEL_THRESHOLD && pool != null) {
+			pool.invoke(new MoveTask(0, count));
+		} else {
+			move(0, count);
+		}
+	}
+
+	/**
+	 * Get the number of ships in the fleet
+	 * @return number of ships
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Get the number of transfers planned across the whole fleet
+	 * @return number of legs
+	 */
+	public int getLegCount() {
+		return legs;
+	}
+
+	/**
+	 * Get the simulation time the fleet was last placed at
+	 * @return time in days, or NaN if it has not been placed
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Get the x co-ordinate of a ship
+	 * @param s index of the ship
+	 * @return x co-ordinate in km from the root
+	 */
+	public double getX(int s) {
+		return x[s];
+	}
+
+	/**
+	 * Get the y co-ordinate of a ship
+	 * @param s index of the ship
+	 * @return y co-ordinate in km from the root, increasing downwards
+	 */
+	public double getY(int s) {
+		return y[s];
+	}
+
+	/**
+	 * Get the x co-ordinates of every ship. The array is updated in place each time the fleet is moved.
+	 * @return x co-ordinates in km from the root
+	 */
+	public double[] getX() {
+		return x;
+	}
+
+	/**
+	 * Get the y co-ordinates of every ship. The array is updated in place each time the fleet is moved.
+	 * @return y co-ordinates in km from the root, increasing downwards
+	 */
+	public double[] getY() {
+		return y;
+	}
+
+	/**
+	 * Get the total delta-v of every transfer on the route of a ship
+	 * @param s index of the ship
+	 * @return delta-v in m/s
+	 */
+	public double getDeltaV(int s) {
+		return deltaV[s];
+	}
+
+	/**
+	 * Get the time a ship takes over its whole route, including waits for transfer windows
+	 * @param s index of the ship
+	 * @return time in seconds, or infinity if a window never opens
+	 */
+	public double getJourneyTime(int s) {
+		return journeyTime[s];
+	}
+
+	/**
+	 * Get the simulation time a ship starts its route
+	 * @param s index of the ship
+	 * @return time in days
+	 */
+	public double getDeparture(int s) {
+		return departure[s];
+	}
+
+	/**
+	 * Get the simulation time a ship reaches the end of its route
+	 * @param s index of the ship
+	 * @return time in days, or infinity if a window never opens
+	 */
+	public double getArrival(int s) {
+		return arrival[s];
+	}
+
+	/**
+	 * Get the number of ships which had reached the end of their route at the time the fleet was last placed
+	 * @return number of ships
+	 */
+	public int getArrivedCount() {
+		int arrived = 0;
+		for (int s = 0; s < count; s++) {
+			if (arrival[s] <= time) {
+				arrived++;
+			}
+		}
+		return arrived;
+	}
+
+	/**
+	 * Get the total delta-v of every ship in the fleet
+	 * @return delta-v in m/s
+	 */
+	public double getTotalDeltaV() {
+		double total = 0;
+		for (int s = 0; s < count; s++) {
+			total += deltaV[s];
+		}
+		return total;
+	}
+
+	/**
+	 * Internal method to plan the route of a ship, adding a leg for each transfer
+	 */
+	private void plan(int s, List<RouteStage> route, BodyIndex index) {
+		JourneySimulator journey = new JourneySimulator(route, index, departure[s]);
+		home[s] = slot(index, index.getBody(route.get(0).getBody()));
+		legOffset[s] = legs;
+
+		while (journey.getPhase() != JourneySimulator.Phase.COMPLETE) {
+			if (journey.getPhase() == JourneySimulator.Phase.TRANSFER) {
+				int stage = journey.getStage();
+				TransferResult transfer = journey.getTransfer();
+				deltaV[s] += transfer.getTotalDeltaV();
+
+				// A ship waiting for a window which never opens stays where it is
+				if (!Double.isInfinite(journey.getTime())) {
+					addLeg(index, route.get(stage), route.get(stage + 1), journey.getTime(), journey.getPhaseEnd());
+				}
+			}
+			journey.nextEvent();
+		}
+
+		journeyTime[s] = journey.getReport().getTotalTime();
+		arrival[s] = journey.getTime();
+		legOffset[s + 1] = legs;
+	}
+
+	/**
+	 * Internal method to add the leg of a transfer between two stages, on the same half ellipse the Calculator
+	 * uses, starting at the point on the first orbit the transfer leaves from
+	 */
+	private void addLeg(BodyIndex index, RouteStage fromStage, RouteStage toStage, double start, double end) {
+		BodyInSpace from = index.getBody(fromStage.getBody());
+		BodyInSpace to = index.getBody(toStage.getBody());
+
+		BodyInSpace frame;
+		double r1, r2, angle;
+		if (from == to) {
+			frame = from;
+			r1 = fromStage.isLanded() ? from.getRadius() / 1e3 : apoapse(from, fromStage);
+			r2 = toStage.isLanded() ? to.getRadius() / 1e3 : periapse(to, toStage);
+			angle = 0;
+		} else if (from.isSibling(to)) {
+			frame = from.getParent();
+			r1 = from.getOrbit() * 1e6;
+			r2 = to.getOrbit() * 1e6;
+			angle = from.angleAt(start);
+		} else if (to.getParent() == from) {
+			// Leave from the point on the parking orbit opposite where the moon will be on arrival
+			frame = from;
+			r1 = apoapse(from, fromStage);
+			r2 = to.getOrbit() * 1e6;
+			angle = to.angleAt(end) - Math.PI;
+		} else {
+			frame = to;
+			r1 = from.getOrbit() * 1e6;
+			r2 = toStage.isLanded() ? to.getRadius() / 1e3 : periapse(to, toStage);
+			angle = from.angleAt(start);
+		}
+
+		if (legs == legStart.length) {
+			allocateLegs(legs * 2);
+		}
+
+		// Ships going inwards start at the apoapsis, half way round from the periapsis
+		double m0 = r1 > r2 ? Math.PI : 0;
+		legStart[legs] = start;
+		legEnd[legs] = end;
+		legFrom[legs] = slot(index, from);
+		legTo[legs] = slot(index, to);
+		legFrame[legs] = slot(index, frame);
+		legA[legs] = (r1 + r2) / 2;
+		legE[legs] = Math.abs(r2 - r1) / (r1 + r2);
+		legM0[legs] = m0;
+		legSin[legs] = Math.sin(angle - m0);
+		legCos[legs] = Math.cos(angle - m0);
+		legs++;
+	}
+
+	/**
+	 * Internal method to place a range of ships at the current time
+	 */
+	private void move(int from, int to) {
+		double now = time;
+		for (int s = from; s < to; s++) {
+			int first = legOffset[s];
+			int last = legOffset[s + 1];
+
+			// Move the cursor on past the legs which have ended, or back if the time has gone backwards
+			int leg = cursor[s];
+			while (leg < last && now >= legEnd[leg]) {
+				leg++;
+			}
+			while (leg > first && now < legEnd[leg - 1]) {
+				leg--;
+			}
+			cursor[s] = leg;
+
+			if (leg < last && now >= legStart[leg]) {
+				placeOnLeg(s, leg, (now - legStart[leg]) / (legEnd[leg] - legStart[leg]));
+			} else {
+				// Between legs the ship waits at the body it last reached, or at the start of its route
+				int body = leg > first ? legTo[leg - 1] : home[s];
+				x[s] = bodyX[body];
+				y[s] = bodyY[body];
+			}
+		}
+	}
+
+	/**
+	 * Internal method to place a ship the given fraction of the way through the time of a leg, solving Kepler's
+	 * equation for the point it has reached on its ellipse
+	 */
+	private void placeOnLeg(int s, int leg, double fraction) {
+		double a = legA[leg];
+		double e = legE[leg];
+		double m = legM0[leg] + Math.PI * fraction;
+
+		// Newton's method from a start which converges for every eccentricity below 1
+		double ecc = e > 0.8 ? Math.PI : m;
+		for (int i = 0; i < KEPLER_ITERATIONS; i++) {
+			ecc -= (ecc - e * Math.sin(ecc) - m) / (1 - e * Math.cos(ecc));
+		}
+
+		// Distance and true anomaly from the eccentric anomaly
+		double cosE = Math.cos(ecc);
+		double sinE = Math.sin(ecc);
+		double r = a * (1 - e * cosE);
+		double cosNu = (cosE - e) / (1 - e * cosE);
+		double sinNu = Math.sqrt(1 - e * e) * sinE / (1 - e * cosE);
+
+		// Turn the anomaly into a direction from the frame body, measured from the periapsis of the leg
+		double sinTheta = legSin[leg] * cosNu + legCos[leg] * sinNu;
+		double cosTheta = legCos[leg] * cosNu - legSin[leg] * sinNu;
+		int frame = legFrame[leg];
+		x[s] = bodyX[frame] + r * sinTheta;
+		y[s] = bodyY[frame] - r * cosTheta;
+	}
+
+	/**
+	 * Internal method to grow the leg arrays to hold the given number of legs
+	 */
+	private void allocateLegs(int capacity) {
+		legStart = legStart == null ? new double[capacity] : Arrays.copyOf(legStart, capacity);
+		legEnd = legEnd == null ? new double[capacity] : Arrays.copyOf(legEnd, capacity);
+		legFrom = legFrom == null ? new int[capacity] : Arrays.copyOf(legFrom, capacity);
+		legTo = legTo == null ? new int[capacity] : Arrays.copyOf(legTo, capacity);
+		legFrame = legFrame == null ? new int[capacity] : Arrays.copyOf(legFrame, capacity);
+		legA = legA == null ? new double[capacity] : Arrays.copyOf(legA, capacity);
+		legE = legE == null ? new double[capacity] : Arrays.copyOf(legE, capacity);
+		legM0 = legM0 == null ? new double[capacity] : Arrays.copyOf(legM0, capacity);
+		legSin = legSin == null ? new double[capacity] : Arrays.copyOf(legSin, capacity);
+		legCos = legCos == null ? new double[capacity] : Arrays.copyOf(legCos, capacity);
+	}
+
+	/**
+	 * Internal method to get the position of a body in the body arrays, with the root at 0
+	 */
+	private static int slot(BodyIndex index, BodyInSpace body) {
+		return body.getParent() == null ? 0 : index.getId(body) + 1;
+	}
+
+	/**
+	 * Internal method to get the furthest distance from a body on the orbit of a stage
+	 * @return distance in km
+	 */
+	private static double apoapse(BodyInSpace body, RouteStage stage) {
+		return body.getRadius() / 1e3 + Math.max(stage.getApoapsis(), stage.getPeriapsis());
+	}
+
+	/**
+	 * Internal method to get the closest distance to a body on the orbit of a stage
+	 * @return distance in km
+	 */
+	private static double periapse(BodyInSpace body, RouteStage stage) {
+		return body.getRadius() / 1e3 + Math.min(stage.getApoapsis(), stage.getPeriapsis());
+	}
+
+	/**
+	 * Task to place a range of ships, splitting the range in two until it is small enough
+	 */
+	private class MoveTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to;
+
+		MoveTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > TASK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new MoveTask(from, middle), new MoveTask(middle, to));
+				return;
+			}
+			move(from, to);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package solarsystem.simulation;
+
+/**
+ * Interface for the ways of working out the acceleration of every body in an NBodySystem from the pull of all the
+ * others. The state of the bodies is passed in as flat arrays, in SI units, and the solver fills in the arrays of
+ * accelerations.
+ * @author Laura McGhie
+ */
+public interface GravitySolver {
+
+	/**
+	 * Work out the acceleration of each body from the pull of every other body, using the gravitational constant
+	 * and softening of NBodySystem
+	 * @param count number of bodies, which may be less than the length of the arrays
+	 * @param mass mass of each body in kg
+	 * @param x x co-ordinate of each body in m
+	 * @param y y co-ordinate of each body in m
+	 * @param ax array to fill with the x acceleration of each body in m/s^2
+	 * @param ay array to fill with the y acceleration of each body in m/s^2
+	 */
+	void accelerate(int count, double[] mass, double[] x, double[] y, double[] ax, double[] ay);
+}
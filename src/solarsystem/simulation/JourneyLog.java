@@ -0,0 +1,538 @@
+package solarsystem.simulation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.RouteStage;
+
+/**
+ * Object to write the events of a journey to disk as they happen, rather than only when the journey is saved. Each
+ * event is written twice: as the text shown in the journey summary, and as a compact binary record which can be
+ * replayed later. Events are handed to a background thread through a bounded queue, so adding an event only waits
+ * for the disk if the queue is full, and the files are written through fixed size buffers, so a long journey does
+ * not use more memory. No event is ever dropped, since a replay missing a transfer or the end of the journey would
+ * not match the summary.
+ *
+ * The binary file starts with the int magic number, a short version and the long time the log was opened, followed
+ * by one record per event. Each record starts with a byte giving its type:
+ * <pre>
+ *   NAME      short id, short length, UTF-8 bytes      (written the first time a body or transfer type is used)
+ *   WAIT      short body, double time in seconds
+ *   TRANSFER  short start body, double apoapsis, double periapsis, short end body, double apoapsis,
+ *             double periapsis, short type, double exit delta v, double entry delta v, double time in seconds
+ *   FINISH    double total time in seconds
+ * </pre>
+ *
+ * Logs are kept in the directory named by the system property solarsystem.journeylog.dir, or a folder in the
+ * temporary directory by default. How often the files are forced to disk is set by solarsystem.journeylog.sync.
+ *
+ * @author Laura McGhie
+ */
+public class JourneyLog implements Closeable {
+
+	/**
+	 * Options for how often the log files are forced to the disk. Events are always passed to the operating system
+	 * as soon as they are written, so are only lost without a sync if the machine itself stops.
+	 */
+	public enum Sync {
+		NONE, CLOSE, EVENT
+	}
+
+	static final int MAGIC = 0x534A4C47;
+	static final short VERSION = 1;
+
+	// Types of binary record
+	static final byte NAME = 0;
+	static final byte WAIT = 1;
+	static final byte TRANSFER = 2;
+	static final byte FINISH = 3;
+
+	// Types of queued event which only affect the writer
+	private static final byte SAVE = 4;
+	private static final byte CLOSE = 5;
+
+	// Number of events which can be waiting to be written, and the size of each file buffer
+	private static final int QUEUE_SIZE = 256;
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	// Longest time to wait for room in the queue before checking the writer is still running
+	private static final long OFFER_WAIT_MILLIS = 100;
+
+	private final Path textFile;
+	private final Path binaryFile;
+	private final Sync sync;
+
+	private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+	private final Thread writer;
+	private final Thread shutdownHook;
+	private volatile boolean closed;
+	private boolean waited;
+
+	// Only used by the writer thread
+	private final FileChannel textChannel;
+	private final FileChannel binaryChannel;
+	private final ByteBuffer textBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final ByteBuffer binaryBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final Map<String, Short> names = new HashMap<>();
+	private final JourneyReport formatter = new JourneyReport();
+
+	private final static Logger LOGGER = Logger.getLogger(JourneyLog.class.getName());
+
+	/**
+	 * Open a new log in the directory chosen by the system properties, named after the current time
+	 * @return new log
+	 * @throws IOException if the log files cannot be created
+	 */
+	public static JourneyLog open() throws IOException {
+		String dir = System.getProperty("solarsystem.journeylog.dir");
+		Path folder = dir != null ? Paths.get(dir)
+				: Paths.get(System.getProperty("java.io.tmpdir"), "solarsystem-journeys");
+		Files.createDirectories(folder);
+
+		String name = "journey-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS", Locale.ROOT).format(new Date());
+		Sync sync = Sync.valueOf(System.getProperty("solarsystem.journeylog.sync", "EVENT").toUpperCase(Locale.ROOT));
+		return new JourneyLog(folder.resolve(name + ".txt"), folder.resolve(name + ".bin"), sync);
+	}
+
+	/**
+	 * Constructor to create a log writing to the given files, replacing them if they exist
+	 * @param textFile file to write the journey summary to
+	 * @param binaryFile file to write the binary records to
+	 * @param sync how often the files are forced to disk
+	 * @throws IOException if either file cannot be created
+	 */
+	public JourneyLog(Path textFile, Path binaryFile, Sync sync) throws IOException {
+		this.textFile = textFile;
+		this.binaryFile = binaryFile;
+		this.sync = sync;
+
+		textChannel = FileChannel.open(textFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			binaryChannel = FileChannel.open(binaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			textChannel.close();
+			throw e;
+		}
+		binaryBuffer.putInt(MAGIC).putShort(VERSION).putLong(System.currentTimeMillis());
+
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeEvents();
+			}
+		}, "journey-log");
+		writer.setDaemon(true);
+		writer.start();
+
+		// If the program exits without closing the log, write anything still waiting before it goes
+		shutdownHook = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				closeAndWait();
+			}
+		});
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Add the time spent in orbit around a body waiting for a transfer window to open
+	 * @param body name of the body the spacecraft is waiting at
+	 * @param time time spent waiting in seconds
+	 */
+	public void addWait(String body, double time) {
+		Event event = new Event(WAIT);
+		event.start = body;
+		event.values = new double[] {time};
+		offer(event);
+	}
+
+	/**
+	 * Add a transfer between two stages of the journey
+	 * @param startStage stage the transfer starts from
+	 * @param endStage stage the transfer ends at
+	 * @param transfer result of the transfer
+	 */
+	public void addTransfer(RouteStage startStage, RouteStage endStage, TransferResult transfer) {
+		Event event = new Event(TRANSFER);
+		event.start = startStage.getBody();
+		event.end = endStage.getBody();
+		event.type = transfer.getType();
+		event.values = new double[] {startStage.getApoapsis(), startStage.getPeriapsis(), endStage.getApoapsis(),
+				endStage.getPeriapsis(), transfer.getExitDeltaV(), transfer.getEntryDeltaV(), transfer.getTime()};
+		offer(event);
+	}
+
+	/**
+	 * Add the end of the journey
+	 * @param totalTime total time of the journey in seconds
+	 */
+	public void finish(double totalTime) {
+		Event event = new Event(FINISH);
+		event.values = new double[] {totalTime};
+		offer(event);
+	}
+
+	/**
+	 * Copy the journey summary to another file, once every event added so far has been written. The copy is made
+	 * on the writer thread, so this does not wait for it. A copy which fails does not stop the log being written.
+	 * @param target file to copy the summary to
+	 * @return completed once the copy is made, or exceptionally with the error if it could not be made
+	 */
+	public CompletableFuture<Void> saveTextTo(Path target) {
+		Event event = new Event(SAVE);
+		event.target = target;
+		event.saved = new CompletableFuture<>();
+		if (!offer(event)) {
+			event.saved.completeExceptionally(new IOException("Journey log " + textFile + " is closed"));
+		}
+		return event.saved;
+	}
+
+	/**
+	 * Get the file the journey summary is written to
+	 * @return text file
+	 */
+	public Path getTextFile() {
+		return textFile;
+	}
+
+	/**
+	 * Get the file the binary records are written to
+	 * @return binary file
+	 */
+	public Path getBinaryFile() {
+		return binaryFile;
+	}
+
+	/**
+	 * Stop adding events, and close the files once everything waiting has been written. Does not wait for the
+	 * writer to finish.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		enqueue(new Event(CLOSE));
+	}
+
+	/**
+	 * Close the log and wait for the writer to finish
+	 */
+	public void closeAndWait() {
+		close();
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Read the binary records of a log, and add each event to a journey report
+	 * @param binaryFile file holding the binary records
+	 * @param report report to add the events to
+	 * @throws IOException if the file cannot be read, or is not a journey log
+	 */
+	public static void replay(Path binaryFile, JourneyReport report) throws IOException {
+		ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(binaryFile));
+		if (data.remaining() < 14 || data.getInt() != MAGIC || data.getShort() != VERSION) {
+			throw new IOException(binaryFile + " is not a journey log of version " + VERSION);
+		}
+		data.getLong();
+
+		List<String> table = new ArrayList<>();
+		try {
+			while (data.hasRemaining()) {
+				byte type = data.get();
+				switch (type) {
+					case NAME:
+						short id = data.getShort();
+						byte[] bytes = new byte[data.getShort()];
+						data.get(bytes);
+						while (table.size() <= id) {
+							table.add(null);
+						}
+						table.set(id, new String(bytes, StandardCharsets.UTF_8));
+						break;
+					case WAIT:
+						report.addWait(table.get(data.getShort()), data.getDouble());
+						break;
+					case TRANSFER:
+						RouteStage start = new RouteStage(table.get(data.getShort()), data.getDouble(),
+								data.getDouble());
+						RouteStage end = new RouteStage(table.get(data.getShort()), data.getDouble(),
+								data.getDouble());
+						String transferType = table.get(data.getShort());
+						double exit = data.getDouble();
+						double entry = data.getDouble();
+						double time = data.getDouble();
+						report.addTransfer(start, end, new TransferResult(exit, entry, time, 0, 0, transferType));
+						break;
+					case FINISH:
+						data.getDouble();
+						report.finish();
+						break;
+					default:
+						throw new IOException("Unknown record type " + type + " in " + binaryFile);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			// The last record was cut short, for example by the machine stopping part way through a write
+			throw new EOFException("Journey log " + binaryFile + " ends part way through a record");
+		}
+	}
+
+	/**
+	 * Internal method to queue an event for the writer, waiting for room if the writer has fallen behind
+	 * @return false if the log is closed, or the writer has stopped, so the event will not be written
+	 */
+	private boolean offer(Event event) {
+		if (closed) {
+			LOGGER.warning("Journey log is closed, event not written");
+			return false;
+		}
+		if (queue.offer(event)) {
+			return true;
+		}
+		if (!waited) {
+			waited = true;
+			LOGGER.warning("Journey log is falling behind, waiting for the disk");
+		}
+		return enqueue(event);
+	}
+
+	/**
+	 * Internal method to wait for room in the queue for an event, as long as the writer is still running to make
+	 * room. The event is kept even if interrupted, so the log still matches the summary, and the interrupt is left
+	 * set.
+	 * @return false if the writer stopped before there was room
+	 */
+	private boolean enqueue(Event event) {
+		boolean interrupted = false;
+		boolean queued = false;
+		while (!queued && writer.isAlive()) {
+			try {
+				queued = queue.offer(event, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return queued;
+	}
+
+	/**
+	 * Internal method run by the writer thread. Writes each batch of waiting events and then flushes the buffers,
+	 * until the log is closed.
+	 */
+	private void writeEvents() {
+		try {
+			boolean running = true;
+			while (running) {
+				Event event = queue.take();
+				do {
+					if (event.kind == CLOSE) {
+						running = false;
+						break;
+					}
+					write(event);
+				} while ((event = queue.poll()) != null);
+
+				flush();
+				if (sync == Sync.EVENT || (!running && sync == Sync.CLOSE)) {
+					textChannel.force(false);
+					binaryChannel.force(false);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.severe("Could not write journey log " + textFile + ": " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			/* Nothing reads the queue from here on, so stop events being added and empty it, letting anyone waiting
+			 * for room carry on. Copies still waiting are failed, so nobody waits for them. */
+			closed = true;
+			Event event;
+			while ((event = queue.poll()) != null) {
+				if (event.saved != null) {
+					event.saved.completeExceptionally(new IOException("Journey log " + textFile + " is closed"));
+				}
+			}
+			try {
+				textChannel.close();
+				binaryChannel.close();
+			} catch (IOException e) {
+				LOGGER.warning("Could not close journey log " + textFile + ": " + e.getMessage());
+			}
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// Already shutting down, so the hook is running and waiting for this thread
+			}
+		}
+	}
+
+	/**
+	 * Internal method to write a single event to both files
+	 */
+	private void write(Event event) throws IOException {
+		switch (event.kind) {
+			case WAIT:
+				short body = nameId(event.start);
+				reserve(11);
+				binaryBuffer.put(WAIT).putShort(body).putDouble(event.values[0]);
+				formatter.addWait(event.start, event.values[0]);
+				break;
+			case TRANSFER:
+				short start = nameId(event.start);
+				short end = nameId(event.end);
+				short type = nameId(event.type);
+				reserve(63);
+				binaryBuffer.put(TRANSFER).putShort(start).putDouble(event.values[0]).putDouble(event.values[1])
+						.putShort(end).putDouble(event.values[2]).putDouble(event.values[3]).putShort(type)
+						.putDouble(event.values[4]).putDouble(event.values[5]).putDouble(event.values[6]);
+				formatter.addTransfer(new RouteStage(event.start, event.values[0], event.values[1]),
+						new RouteStage(event.end, event.values[2], event.values[3]),
+						new TransferResult(event.values[4], event.values[5], event.values[6], 0, 0, event.type));
+				break;
+			case FINISH:
+				reserve(9);
+				binaryBuffer.put(FINISH).putDouble(event.values[0]);
+				formatter.finish();
+				break;
+			case SAVE:
+				try {
+					flush();
+				} catch (IOException e) {
+					event.saved.completeExceptionally(e);
+					throw e;
+				}
+
+				// A copy which cannot be made, such as into a folder which cannot be written, only fails itself
+				try {
+					Files.copy(textFile, event.target, StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					LOGGER.warning("Could not save journey to " + event.target + ": " + e.getMessage());
+					event.saved.completeExceptionally(e);
+					break;
+				}
+				LOGGER.info("Journey saved to " + event.target);
+				event.saved.complete(null);
+				break;
+			default:
+				break;
+		}
+		writeText();
+	}
+
+	/**
+	 * Internal method to write the text added to the formatter since the last event. The formatter only keeps the
+	 * text which has not been written yet.
+	 */
+	private void writeText() throws IOException {
+		String text = formatter.takeText();
+		if (text.isEmpty()) {
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!textBuffer.hasRemaining()) {
+				drain(textBuffer, textChannel);
+			}
+			int length = Math.min(textBuffer.remaining(), bytes.length - offset);
+			textBuffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Internal method to get the id of a name in the binary file, writing a record for it the first time it is used
+	 */
+	private short nameId(String name) throws IOException {
+		Short id = names.get(name);
+		if (id == null) {
+			id = (short) names.size();
+			names.put(name, id);
+
+			byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			reserve(5 + bytes.length);
+			binaryBuffer.put(NAME).putShort(id).putShort((short) bytes.length).put(bytes);
+		}
+		return id;
+	}
+
+	/**
+	 * Internal method to make room in the binary buffer for a record of the given size
+	 */
+	private void reserve(int size) throws IOException {
+		if (binaryBuffer.remaining() < size) {
+			drain(binaryBuffer, binaryChannel);
+		}
+	}
+
+	/**
+	 * Internal method to write everything in both buffers to the files
+	 */
+	private void flush() throws IOException {
+		drain(textBuffer, textChannel);
+		drain(binaryBuffer, binaryChannel);
+	}
+
+	/**
+	 * Internal method to write the contents of a buffer to a file and empty the buffer
+	 */
+	private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Object class for an event waiting to be written
+	 */
+	private static final class Event {
+
+		final byte kind;
+		String start;
+		String end;
+		String type;
+		double[] values;
+		Path target;
+		CompletableFuture<Void> saved;
+
+		Event(byte kind) {
+			this.kind = kind;
+		}
+	}
+}
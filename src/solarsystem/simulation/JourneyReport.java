@@ -0,0 +1,219 @@
+package solarsystem.simulation;
+
+import solarsystem.math.TransferResult;
+import solarsystem.objects.RouteStage;
+
+/**
+ * Object to build the summary of a journey shown in the completion dialog and saved to file. Each transfer and
+ * each wait for a transfer window is added as it is made, and the total time is added once the journey is over.
+ * The animated journey and the headless simulator both write through this object, so their summaries match.
+ * If the report is given a JourneyLog, each event is also written to disk as it is added.
+ *
+ * A report can be marked and later reset to the mark, for when the animated journey is moved back in time. Events
+ * added again after a reset are only written to the log if they go beyond the furthest point the report has reached,
+ * so the log holds each event of the journey once, as it was first made.
+ *
+ * @author Laura McGhie
+ */
+public class JourneyReport {
+
+	private final StringBuilder data = new StringBuilder();
+	private final JourneyLog log;
+	private double totalTime;
+	private boolean finished;
+
+	// Number of events added, and the furthest number that has been written to the log
+	private int events;
+	private int logged;
+
+	/**
+	 * Default constructor to create a report which is only held in memory
+	 */
+	public JourneyReport() {
+		this(null);
+	}
+
+	/**
+	 * Constructor to create a report which also writes each event to a log
+	 * @param log log to write events to, or null to only hold the report in memory
+	 */
+	public JourneyReport(JourneyLog log) {
+		this.log = log;
+	}
+
+	/**
+	 * Add the time spent in orbit around a body waiting for a transfer window to open
+	 * @param body name of the body the spacecraft is waiting at
+	 * @param time time spent waiting in seconds
+	 */
+	public void addWait(String body, double time) {
+		data.append(body).append("\n\t");
+		data.append("Time In Orbit = ").append(timeToString(time));
+
+		totalTime += time;
+		if (isNewEvent() && log != null) {
+			log.addWait(body, time);
+		}
+	}
+
+	/**
+	 * Add a transfer between two stages of the journey
+	 * @param startStage stage the transfer starts from
+	 * @param endStage stage the transfer ends at
+	 * @param transfer result of the transfer
+	 */
+	public void addTransfer(RouteStage startStage, RouteStage endStage, TransferResult transfer) {
+
+		// Add information about the start point of this transition
+		data.append(startStage.getBody()).append(" ");
+		appendStage(startStage);
+
+		// Add information about the end point of this transition
+		data.append(" > ").append(endStage.getBody()).append(" ");
+		appendStage(endStage);
+
+		// Add the transition data, and the transition time to the total journey time
+		data.append("\n\t").append(transfer.getTransferData());
+		totalTime += transfer.getTime();
+		if (isNewEvent() && log != null) {
+			log.addTransfer(startStage, endStage, transfer);
+		}
+	}
+
+	/**
+	 * Add the total journey time to the end of the summary. Has no effect if the journey is already finished.
+	 */
+	public void finish() {
+		if (finished) {
+			return;
+		}
+		data.append("\r\nTotal Journey Time\n\t");
+		data.append(timeToString(totalTime));
+		finished = true;
+		if (isNewEvent() && log != null) {
+			log.finish(totalTime);
+		}
+	}
+
+	/**
+	 * Check if the total journey time has been added
+	 * @return true if the journey is finished
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Get the time taken by the transfers and waits added so far
+	 * @return time in seconds
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Get the log events are written to
+	 * @return log, or null if the report is only held in memory
+	 */
+	public JourneyLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Mark the current point of the report, so it can be reset to this point later
+	 * @return mark
+	 */
+	public Mark mark() {
+		return new Mark(data.length(), events, totalTime, finished);
+	}
+
+	/**
+	 * Drop everything added to the report since the mark was taken
+	 * @param mark mark taken from this report
+	 * @throws IllegalArgumentException if the report is shorter than when the mark was taken
+	 */
+	public void reset(Mark mark) {
+		if (mark.length > data.length() || mark.events > events) {
+			throw new IllegalArgumentException("Report has already been reset to before the mark");
+		}
+		data.setLength(mark.length);
+		events = mark.events;
+		totalTime = mark.totalTime;
+		finished = mark.finished;
+	}
+
+	/**
+	 * Get the summary of the journey so far
+	 * @return summary text
+	 */
+	@Override
+	public String toString() {
+		return data.toString();
+	}
+
+	/**
+	 * Get the text added since this was last called, and drop it from the report. Used by the log, which only
+	 * holds the text until it is written.
+	 * @return new text
+	 */
+	String takeText() {
+		String text = data.toString();
+		data.setLength(0);
+		return text;
+	}
+
+	/**
+	 * Converts a time in seconds into a string which represents the time in days, hours, minutes and seconds
+	 * @param t time in seconds
+	 * @return time string
+	 */
+	public static String timeToString(double t) {
+		double days = Math.floor(t / 86400);
+		double hours = Math.floor((t % 86400) / 3600);
+		double minutes = Math.floor(((t % 86400) % 3600) / 60);
+		double seconds = Math.floor(((t % 86400) % 3600) % 60);
+
+		return String.format("%6.0f days %6.0f hours %6.0f mins %6.0f s\n", days, hours, minutes, seconds);
+	}
+
+	/**
+	 * Internal method to count an event, and check if it is the first time the report has reached it
+	 */
+	private boolean isNewEvent() {
+		events++;
+		if (events > logged) {
+			logged = events;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Internal method to add the orbit of a stage, or the surface if landed
+	 */
+	private void appendStage(RouteStage stage) {
+		if (stage.isLanded()) {
+			data.append("Surface");
+		} else {
+			data.append(String.format("%.0fkm/%.0fkm", stage.getApoapsis(), stage.getPeriapsis()));
+		}
+	}
+
+	/**
+	 * Object to hold a point in a report, which cannot be changed once taken
+	 */
+	public static final class Mark {
+
+		private final int length;
+		private final int events;
+		private final double totalTime;
+		private final boolean finished;
+
+		private Mark(int length, int events, double totalTime, boolean finished) {
+			this.length = length;
+			this.events = events;
+			this.totalTime = totalTime;
+			this.finished = finished;
+		}
+	}
+}
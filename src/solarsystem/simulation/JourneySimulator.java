@@ -0,0 +1,479 @@
+package solarsystem.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.math.TransferResult;
+import solarsystem.math.TransferWindowSolver;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to follow a journey along a route without any display. The journey is made up of the same phases as the
+ * animated journey: arriving in the orbit of each stage, changing the frame the transfer is drawn in, waiting for a
+ * transfer window, and making the transfer. The simulation can be moved on by any number of days, or straight to
+ * the end of the current phase, and builds the same summary as the animated journey.
+ *
+ * The journey runs on an EventScheduler. The end of each phase is an event whose time is worked out when the phase
+ * starts: transfer windows from the phase angles of the bodies, and transfers from the transfer time of the
+ * Calculator. The simulation jumps straight from one event to the next, so a journey costs the same however long
+ * its waits are. Several journeys can share a scheduler to run on one timeline.
+ *
+ * Positions of the bodies are worked out from the simulation time rather than moving the shared bodies, so any
+ * number of simulators can run at once on different threads. Phases which only wait for the display to catch up,
+ * the orbit of each stage and transfers between two orbits of the same body, take no time unless the simulator is
+ * held. A held simulator waits in these phases until it is released, which is how the animated journey follows the
+ * simulation while still playing the focus view through. The times in the summary only count the waits and the
+ * transfers themselves either way.
+ *
+ * @author Laura McGhie
+ */
+public class JourneySimulator {
+
+	/**
+	 * Phases of a journey, in the order they are visited for each stage of the route
+	 */
+	public enum Phase {
+		ORBIT, FRAME_CHANGE, WINDOW_WAIT, TRANSFER, COMPLETE
+	}
+
+	/**
+	 * Events which end each phase of a journey
+	 */
+	public enum Event {
+
+		/** The ship leaves the orbit of a stage, at the end of the orbit phase */
+		DEPARTURE,
+
+		/** The frame the journey is shown in has changed */
+		FRAME_CHANGE,
+
+		/** The phase angle between two siblings has reached the angle needed for a transfer */
+		WINDOW_OPENS,
+
+		/** A transfer has ended in the orbit of the next stage */
+		TRANSFER_ENDS,
+
+		/** A transfer has ended on the surface of the next stage */
+		LANDING,
+
+		/** The last stage has been reached */
+		JOURNEY_ENDS
+	}
+
+	private final List<RouteStage> route;
+	private final BodyInSpace[] bodies;
+	private final TransferResult[] legs;
+	private final JourneyReport report;
+	private final EventScheduler<Event> scheduler;
+	private final EventScheduler.Handler<Event> handler = new EventScheduler.Handler<Event>() {
+		@Override
+		public void handle(Event event, double at) {
+			endPhase(at);
+		}
+	};
+	private EventScheduler.Entry<Event> pending;
+
+	private Phase phase = Phase.ORBIT;
+	private int stage;
+	private double time;
+	private double phaseStart, phaseEnd;
+	private BodyInSpace frame;
+	private boolean held;
+
+	/**
+	 * Constructor to create a simulator for a route through the solar system, starting at time 0
+	 * @param route stages of the journey in order
+	 * @throws IllegalArgumentException if the route is empty, or cannot be travelled
+	 */
+	public JourneySimulator(List<RouteStage> route) {
+		this(route, SpaceObjects.getIndex(), 0);
+	}
+
+	/**
+	 * Constructor to create a simulator for a route through the bodies of an index
+	 * @param route stages of the journey in order
+	 * @param index index of the bodies the route visits
+	 * @param startTime simulation time the journey starts at in days
+	 * @throws IllegalArgumentException if the route is empty, visits a body not in the index, or includes a
+	 * transfer between bodies which are not the same, siblings, or parent and child
+	 */
+	public JourneySimulator(List<RouteStage> route, BodyIndex index, double startTime) {
+		this(route, index, new EventScheduler<Event>(startTime), new JourneyReport());
+	}
+
+	/**
+	 * Constructor to create a simulator for a route through the bodies of an index, which adds the journey to a
+	 * summary it is given, such as one written to a log as the journey goes
+	 * @param route stages of the journey in order
+	 * @param index index of the bodies the route visits
+	 * @param startTime simulation time the journey starts at in days
+	 * @param report summary to add the waits and transfers of the journey to
+	 * @throws IllegalArgumentException if the route is empty, visits a body not in the index, or includes a
+	 * transfer between bodies which are not the same, siblings, or parent and child
+	 */
+	public JourneySimulator(List<RouteStage> route, BodyIndex index, double startTime, JourneyReport report) {
+		this(route, index, new EventScheduler<Event>(startTime), report);
+	}
+
+	/**
+	 * Constructor to create a simulator for a route through the bodies of an index, which runs on a shared
+	 * scheduler and starts at the current time of the scheduler
+	 * @param route stages of the journey in order
+	 * @param index index of the bodies the route visits
+	 * @param scheduler scheduler to run the events of the journey on
+	 * @throws IllegalArgumentException if the route is empty, visits a body not in the index, or includes a
+	 * transfer between bodies which are not the same, siblings, or parent and child
+	 */
+	public JourneySimulator(List<RouteStage> route, BodyIndex index, EventScheduler<Event> scheduler) {
+		this(route, index, scheduler, new JourneyReport());
+	}
+
+	/**
+	 * Constructor to copy a journey part way through, so it can be picked up again from this point later. The copy
+	 * adds to the same summary as the journey it is copied from, but runs on a scheduler of its own.
+	 * @param other simulator to copy
+	 */
+	public JourneySimulator(JourneySimulator other) {
+		route = other.route;
+		bodies = other.bodies;
+		legs = other.legs;
+		report = other.report;
+		phase = other.phase;
+		stage = other.stage;
+		time = other.time;
+		phaseStart = other.phaseStart;
+		phaseEnd = other.phaseEnd;
+		frame = other.frame;
+		held = other.held;
+
+		scheduler = new EventScheduler<>(time);
+		if (other.isScheduled()) {
+			pending = scheduler.schedule(other.pending.getTime(), other.pending.getEvent(), handler);
+		}
+	}
+
+	/**
+	 * Internal constructor to create a simulator on a scheduler, adding the journey to the given summary
+	 */
+	private JourneySimulator(List<RouteStage> route, BodyIndex index, EventScheduler<Event> scheduler,
+							 JourneyReport report) {
+		if (route.isEmpty()) {
+			throw new IllegalArgumentException("Route has no stages");
+		}
+		this.route = new ArrayList<>(route);
+
+		bodies = new BodyInSpace[route.size()];
+		for (int i = 0; i < bodies.length; i++) {
+			bodies[i] = index.getBody(route.get(i).getBody());
+			if (bodies[i] == null) {
+				throw new IllegalArgumentException("Unknown body in route " + route.get(i).getBody());
+			}
+		}
+
+		// Work out every transfer up front, as none of them depend on when they are made
+		legs = new TransferResult[bodies.length - 1];
+		MathEllipse previousOrbit = MathEllipse.forStage(bodies[0], route.get(0));
+		for (int i = 0; i < legs.length; i++) {
+			MathEllipse orbit = MathEllipse.forStage(bodies[i + 1], route.get(i + 1));
+			legs[i] = Calculator.compute(bodies[i], previousOrbit, bodies[i + 1], orbit);
+			previousOrbit = orbit;
+		}
+
+		// The journey starts in the frame its first transfer is drawn in, or around the parent of a lone stage
+		if (bodies.length > 1) {
+			frame = frameFor(bodies[0], bodies[1]);
+		} else {
+			frame = bodies[0].getParent() != null ? bodies[0].getParent() : bodies[0];
+		}
+
+		this.report = report;
+		this.scheduler = scheduler;
+		this.time = scheduler.getTime();
+		begin(Phase.ORBIT, 0);
+	}
+
+	/**
+	 * Move the simulation on by the given number of days, passing through as many phases as end in this time. On
+	 * a shared scheduler, the events of every journey up to this time are run.
+	 * @param days time to move on by in days
+	 * @return true if the journey is still running
+	 */
+	public boolean advance(double days) {
+		double target = time + days;
+		scheduler.runUntil(target);
+		if (phase != Phase.COMPLETE) {
+			time = target;
+		}
+		return phase != Phase.COMPLETE;
+	}
+
+	/**
+	 * Move the simulation straight to the end of the current phase, and start the next one. On a shared scheduler,
+	 * the events of other journeys which come first are run on the way.
+	 * @return the new phase
+	 */
+	public Phase nextEvent() {
+		if (isHolding()) {
+			release();
+		}
+
+		// The handler schedules the event of the next phase, so only run up to the one pending now
+		EventScheduler.Entry<Event> current = pending;
+		while (scheduler.isScheduled(current)) {
+			scheduler.runNext();
+		}
+		return phase;
+	}
+
+	/**
+	 * Get the event which will end the current phase
+	 * @return event, or null once the journey is complete
+	 */
+	public Event getNextEvent() {
+		if (isHolding()) {
+			return eventFor(phase);
+		}
+		return isScheduled() ? pending.getEvent() : null;
+	}
+
+	/**
+	 * Set whether the phases which only wait for the display are held until they are released. These are the orbit
+	 * of each stage and transfers between two orbits of the same body. Holding a simulator which is already in one
+	 * of these phases holds it there, and letting go of a held phase ends it at the current time.
+	 * @param held true to hold the display phases
+	 */
+	public void setHeld(boolean held) {
+		this.held = held;
+		if (held && isDisplayPhase(phase) && isScheduled()) {
+			scheduler.cancel(pending);
+			pending = null;
+			phaseEnd = Double.POSITIVE_INFINITY;
+		} else if (!held) {
+			release();
+		}
+	}
+
+	/**
+	 * Check if the journey is waiting in a held phase to be released
+	 * @return true if the current phase only ends once released
+	 */
+	public boolean isHolding() {
+		return pending == null && phase != Phase.COMPLETE;
+	}
+
+	/**
+	 * End a held phase at the current time. The event which ends it is run the next time the simulation is moved
+	 * on, even by no time at all. Does nothing if the journey is not waiting in a held phase.
+	 */
+	public void release() {
+		if (isHolding()) {
+			phaseEnd = time;
+			pending = scheduler.schedule(phaseEnd, eventFor(phase), handler);
+		}
+	}
+
+	/**
+	 * Internal method to end the current phase at the time of its event, and start the next one
+	 */
+	private void endPhase(double at) {
+		time = at;
+
+		switch (phase) {
+			case ORBIT:
+				// Once the last stage is reached, the journey is over
+				if (stage == legs.length) {
+					report.finish();
+					phase = Phase.COMPLETE;
+					break;
+				}
+
+				// Change the frame first if the transfer is drawn around a different body
+				BodyInSpace next = frameFor(bodies[stage], bodies[stage + 1]);
+				if (next != frame) {
+					frame = next;
+					begin(Phase.FRAME_CHANGE, 0);
+				} else {
+					beginWait();
+				}
+				break;
+			case FRAME_CHANGE:
+				beginWait();
+				break;
+			case WINDOW_WAIT:
+				beginTransfer();
+				break;
+			case TRANSFER:
+				stage++;
+				begin(Phase.ORBIT, 0);
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Run the simulation to the end of the journey
+	 * @return summary of the journey
+	 */
+	public JourneyReport run() {
+		while (phase != Phase.COMPLETE) {
+			nextEvent();
+		}
+		return report;
+	}
+
+	/**
+	 * Get the current phase of the journey
+	 * @return phase
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Get the position in the route of the stage the current phase starts from
+	 * @return stage index
+	 */
+	public int getStage() {
+		return stage;
+	}
+
+	/**
+	 * Get the current simulation time
+	 * @return time in days
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Get the simulation time at which the current phase started
+	 * @return time in days
+	 */
+	public double getPhaseStart() {
+		return phaseStart;
+	}
+
+	/**
+	 * Get the simulation time at which the current phase ends
+	 * @return time in days, or infinity if the transfer window never opens or the phase is held
+	 */
+	public double getPhaseEnd() {
+		return phaseEnd;
+	}
+
+	/**
+	 * Get the body at the centre of the frame the journey is currently shown in
+	 * @return frame body
+	 */
+	public BodyInSpace getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Get the result of the transfer which leaves the current stage
+	 * @return transfer result, or null at the last stage
+	 */
+	public TransferResult getTransfer() {
+		return stage < legs.length ? legs[stage] : null;
+	}
+
+	/**
+	 * Get the summary of the journey so far, in the same form as the animated journey
+	 * @return summary
+	 */
+	public JourneyReport getReport() {
+		return report;
+	}
+
+	/**
+	 * Internal method to wait for a transfer window if one is needed, or start the transfer straight away
+	 */
+	private void beginWait() {
+		BodyInSpace startPlanet = bodies[stage];
+		BodyInSpace endPlanet = bodies[stage + 1];
+
+		// Only transfers between two different siblings have to wait for the phase angle between them
+		if (startPlanet == endPlanet || !startPlanet.isSibling(endPlanet)) {
+			beginTransfer();
+			return;
+		}
+
+		TransferWindowSolver solver = new TransferWindowSolver(startPlanet, endPlanet,
+				legs[stage].getStartPhaseAngle());
+		double waitDays = solver.timeToWindow(startPlanet.angleAt(time), endPlanet.angleAt(time));
+
+		report.addWait(startPlanet.getName(), waitDays * 86400);
+		begin(Phase.WINDOW_WAIT, waitDays);
+	}
+
+	/**
+	 * Internal method to start the transfer to the next stage
+	 */
+	private void beginTransfer() {
+		report.addTransfer(route.get(stage), route.get(stage + 1), legs[stage]);
+		begin(Phase.TRANSFER, legs[stage].getTime() / 86400);
+	}
+
+	/**
+	 * Internal method to start a phase which lasts the given number of days, and schedule the event which ends it
+	 */
+	private void begin(Phase next, double days) {
+		phase = next;
+		phaseStart = time;
+		if (held && isDisplayPhase(next)) {
+			pending = null;
+			phaseEnd = Double.POSITIVE_INFINITY;
+			return;
+		}
+		phaseEnd = time + days;
+		pending = scheduler.schedule(phaseEnd, eventFor(next), handler);
+	}
+
+	/**
+	 * Internal method to check if a phase only waits for the display, so is held if the simulator is
+	 */
+	private boolean isDisplayPhase(Phase next) {
+		return next == Phase.ORBIT || (next == Phase.TRANSFER && bodies[stage] == bodies[stage + 1]);
+	}
+
+	/**
+	 * Internal method to check if the event which ends the current phase is still waiting to be run
+	 */
+	private boolean isScheduled() {
+		return pending != null && scheduler.isScheduled(pending);
+	}
+
+	/**
+	 * Internal method to get the event which ends a phase
+	 */
+	private Event eventFor(Phase next) {
+		switch (next) {
+			case ORBIT:
+				return stage == legs.length ? Event.JOURNEY_ENDS : Event.DEPARTURE;
+			case FRAME_CHANGE:
+				return Event.FRAME_CHANGE;
+			case WINDOW_WAIT:
+				return Event.WINDOW_OPENS;
+			default:
+				return route.get(stage + 1).isLanded() ? Event.LANDING : Event.TRANSFER_ENDS;
+		}
+	}
+
+	/**
+	 * Internal method to get the body at the centre of the frame a transfer is drawn in. Transfers between siblings
+	 * are drawn around their parent, and transfers between a parent and child are drawn around the parent.
+	 */
+	private static BodyInSpace frameFor(BodyInSpace startPlanet, BodyInSpace endPlanet) {
+		if (startPlanet.isSibling(endPlanet)) {
+			return startPlanet.getParent();
+		} else if (startPlanet.isParent(endPlanet)) {
+			return startPlanet;
+		}
+		return endPlanet;
+	}
+}
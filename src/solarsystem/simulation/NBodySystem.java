@@ -0,0 +1,348 @@
+package solarsystem.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to move a set of bodies under their mutual gravity, rather than along fixed circular orbits. Each body
+ * pulls on every other body, and the bodies are moved on with leapfrog (kick-drift-kick) steps, which keep the
+ * energy of the system from drifting however long it runs.
+ *
+ * The state of every body is held in flat arrays of doubles, one array per quantity, so a step only reads and
+ * writes arrays and does not create any new objects. Positions are in metres and velocities in metres per second,
+ * with y increasing downwards to match the display. The accelerations are worked out by a GravitySolver: exactly
+ * with DirectGravity by default, or approximately with BarnesHutGravity for populations too large to visit every
+ * pair, such as an asteroid belt.
+ *
+ * @author Laura McGhie
+ */
+public class NBodySystem {
+
+	// Gravitational constant in m^3 / kg s^2, which matches the periods of the bodies in the catalog
+	public static final double GRAVITATIONAL_C = 6.674e-11;
+
+	// Longest step taken by default, short enough to follow the fastest moons in the catalog
+	public static final double DEFAULT_MAX_STEP = 300;
+
+	// Distance in metres below which the pull between two bodies stops growing, so close passes stay finite
+	static final double SOFTENING = 1000;
+
+	private final int count;
+	private final double[] mass;
+	private final double[] x, y;
+	private final double[] vx, vy;
+	private final double[] ax, ay;
+
+	private final BodyIndex index;
+	private GravitySolver solver;
+	private double maxStep = DEFAULT_MAX_STEP;
+	private double time;
+
+	/**
+	 * Constructor to create a system from the Sun and every planet and moon in the catalog, placed where they
+	 * are on their circular orbits at the given time
+	 * @param time simulation time in days
+	 */
+	public NBodySystem(double time) {
+		this(SpaceObjects.getSun(), SpaceObjects.getIndex(), time);
+	}
+
+	/**
+	 * Constructor to create a system from a root body and the bodies of an index, placed where they are on their
+	 * circular orbits at the given time. Each body moves at the speed of a circular orbit around its parent under
+	 * the gravity of the two bodies, in the direction it travels around its orbit. The whole system is then moved
+	 * so that its centre of mass is still, with the root body at the middle at the start.
+	 * @param root body at the centre of the system, which is given index 0
+	 * @param index bodies orbiting the root, each given its id in the index plus 1
+	 * @param time simulation time in days
+	 */
+	public NBodySystem(BodyInSpace root, BodyIndex index, double time) {
+		this(index.size() + 1, index, ForkJoinPool.commonPool());
+		this.time = time;
+		mass[0] = root.getMass();
+
+		// Parents come before their children in the index, so each parent is placed before its moons
+		for (int id = 0; id < index.size(); id++) {
+			BodyInSpace body = index.getBody(id);
+			int i = id + 1;
+			int parent = indexOf(body.getParent());
+			if (parent < 0) {
+				throw new IllegalArgumentException(body.getName() + " does not orbit a body in the system");
+			}
+
+			double angle = body.angleAt(time);
+			double radius = body.getOrbitInM();
+			double speed = Math.sqrt(GRAVITATIONAL_C * (body.getMass() + mass[parent]) / radius);
+
+			mass[i] = body.getMass();
+			x[i] = x[parent] + radius * Math.sin(angle);
+			y[i] = y[parent] - radius * Math.cos(angle);
+			vx[i] = vx[parent] + speed * Math.cos(angle);
+			vy[i] = vy[parent] + speed * Math.sin(angle);
+		}
+
+		// Take away the motion of the centre of mass, so the system does not drift across the display
+		double totalMass = 0, px = 0, py = 0;
+		for (int i = 0; i < count; i++) {
+			totalMass += mass[i];
+			px += mass[i] * vx[i];
+			py += mass[i] * vy[i];
+		}
+		for (int i = 0; i < count; i++) {
+			vx[i] -= px / totalMass;
+			vy[i] -= py / totalMass;
+		}
+
+		computeAccelerations();
+	}
+
+	/**
+	 * Constructor to create a system from the given masses, positions and velocities. The arrays are copied.
+	 * @param mass mass of each body in kg
+	 * @param x x co-ordinate of each body in m
+	 * @param y y co-ordinate of each body in m
+	 * @param vx velocity of each body along x in m/s
+	 * @param vy velocity of each body along y in m/s
+	 * @param pool pool to work out the accelerations of large systems on, or null to always work in the calling
+	 * thread
+	 * @throws IllegalArgumentException if the arrays are not all the same length
+	 */
+	public NBodySystem(double[] mass, double[] x, double[] y, double[] vx, double[] vy, ForkJoinPool pool) {
+		this(mass.length, null, pool);
+		if (x.length != count || y.length != count || vx.length != count || vy.length != count) {
+			throw new IllegalArgumentException("Every body needs a mass, position and velocity");
+		}
+		System.arraycopy(mass, 0, this.mass, 0, count);
+		System.arraycopy(x, 0, this.x, 0, count);
+		System.arraycopy(y, 0, this.y, 0, count);
+		System.arraycopy(vx, 0, this.vx, 0, count);
+		System.arraycopy(vy, 0, this.vy, 0, count);
+		computeAccelerations();
+	}
+
+	/**
+	 * Internal constructor to allocate the arrays for the given number of bodies
+	 */
+	private NBodySystem(int count, BodyIndex index, ForkJoinPool pool) {
+		this.count = count;
+		this.index = index;
+		this.solver = new DirectGravity(pool);
+		this.mass = new double[count];
+		this.x = new double[count];
+		this.y = new double[count];
+		this.vx = new double[count];
+		this.vy = new double[count];
+		this.ax = new double[count];
+		this.ay = new double[count];
+	}
+
+	/**
+	 * Move the system on by the given number of days, in equal steps no longer than the maximum step
+	 * @param days time to move on by in days
+	 */
+	public void advance(double days) {
+		advance(days, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Move the system on by up to the given number of days, taking no more than the given number of steps. If
+	 * covering the whole time would need longer steps than the maximum, the system only moves on as far as the
+	 * steps allow, so a display can keep to its frame rate without losing accuracy.
+	 * @param days time to move on by in days
+	 * @param maxSteps largest number of steps to take
+	 * @return time actually moved on by in days
+	 */
+	public double advance(double days, int maxSteps) {
+		double seconds = days * 86400;
+		if (seconds <= 0 || maxSteps < 1) {
+			return 0;
+		}
+
+		long needed = (long) Math.ceil(seconds / maxStep);
+		int steps;
+		double dt;
+		if (needed <= maxSteps) {
+			steps = (int) needed;
+			dt = seconds / steps;
+		} else {
+			steps = maxSteps;
+			dt = maxStep;
+		}
+
+		for (int s = 0; s < steps; s++) {
+			step(dt);
+		}
+		return steps * dt / 86400;
+	}
+
+	/**
+	 * Move the system on by a single leapfrog step: a half step kick to the velocities, a full step drift of the
+	 * positions, then a second half step kick with the accelerations at the new positions
+	 * @param dt length of the step in seconds
+	 */
+	public void step(double dt) {
+		double half = dt / 2;
+		for (int i = 0; i < count; i++) {
+			vx[i] += ax[i] * half;
+			vy[i] += ay[i] * half;
+			x[i] += vx[i] * dt;
+			y[i] += vy[i] * dt;
+		}
+
+		computeAccelerations();
+
+		for (int i = 0; i < count; i++) {
+			vx[i] += ax[i] * half;
+			vy[i] += ay[i] * half;
+		}
+		time += dt / 86400;
+	}
+
+	/**
+	 * Set the way the accelerations are worked out, such as a BarnesHutGravity for a large population of bodies.
+	 * The accelerations at the current positions are worked out again with the new solver.
+	 * @param solver solver to use
+	 * @throws IllegalArgumentException if the solver is null
+	 */
+	public void setSolver(GravitySolver solver) {
+		if (solver == null) {
+			throw new IllegalArgumentException("Solver must not be null");
+		}
+		this.solver = solver;
+		computeAccelerations();
+	}
+
+	/**
+	 * Get the way the accelerations are worked out
+	 * @return solver in use
+	 */
+	public GravitySolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Set the longest step taken when moving the system on by a number of days
+	 * @param seconds longest step in seconds
+	 * @throws IllegalArgumentException if the step is not positive
+	 */
+	public void setMaxStep(double seconds) {
+		if (!(seconds > 0)) {
+			throw new IllegalArgumentException("Step must be positive");
+		}
+		this.maxStep = seconds;
+	}
+
+	/**
+	 * Get the current simulation time of the system
+	 * @return time in days
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Get the number of bodies in the system
+	 * @return number of bodies
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Get the position of a catalog body in the arrays of the system
+	 * @param body body to find
+	 * @return index, or -1 if the body is not in the system or the system was not made from a catalog
+	 */
+	public int indexOf(BodyInSpace body) {
+		if (index == null || body == null) {
+			return -1;
+		}
+		if (body.getParent() == null) {
+			return 0;
+		}
+		int id = index.getId(body);
+		return id < 0 ? -1 : id + 1;
+	}
+
+	/**
+	 * Get the x co-ordinate of a body
+	 * @param i index of the body
+	 * @return x co-ordinate in km
+	 */
+	public double getX(int i) {
+		return x[i] / 1000;
+	}
+
+	/**
+	 * Get the y co-ordinate of a body
+	 * @param i index of the body
+	 * @return y co-ordinate in km, increasing downwards
+	 */
+	public double getY(int i) {
+		return y[i] / 1000;
+	}
+
+	/**
+	 * Get the speed of a body
+	 * @param i index of the body
+	 * @return speed in m/s
+	 */
+	public double getSpeed(int i) {
+		return Math.hypot(vx[i], vy[i]);
+	}
+
+	/**
+	 * Get the distance between two bodies
+	 * @param i index of the first body
+	 * @param j index of the second body
+	 * @return distance in km
+	 */
+	public double getDistance(int i, int j) {
+		return Math.hypot(x[i] - x[j], y[i] - y[j]) / 1000;
+	}
+
+	/**
+	 * Get the x acceleration of a body at its current position
+	 * @param i index of the body
+	 * @return acceleration in m/s^2
+	 */
+	public double getAccelerationX(int i) {
+		return ax[i];
+	}
+
+	/**
+	 * Get the y acceleration of a body at its current position
+	 * @param i index of the body
+	 * @return acceleration in m/s^2
+	 */
+	public double getAccelerationY(int i) {
+		return ay[i];
+	}
+
+	/**
+	 * Get the total kinetic and potential energy of the system, which leapfrog steps keep close to its starting
+	 * value. Every pair of bodies is visited, so this is slow for large populations whichever solver is in use.
+	 * @return energy in joules
+	 */
+	public double getEnergy() {
+		double energy = 0;
+		for (int i = 0; i < count; i++) {
+			energy += 0.5 * mass[i] * (vx[i] * vx[i] + vy[i] * vy[i]);
+			for (int j = i + 1; j < count; j++) {
+				double dx = x[j] - x[i];
+				double dy = y[j] - y[i];
+				energy -= GRAVITATIONAL_C * mass[i] * mass[j] / Math.sqrt(dx * dx + dy * dy + SOFTENING * SOFTENING);
+			}
+		}
+		return energy;
+	}
+
+	/**
+	 * Internal method to work out the acceleration of every body at the current positions
+	 */
+	private void computeAccelerations() {
+		solver.accelerate(count, mass, x, y, ax, ay);
+	}
+}
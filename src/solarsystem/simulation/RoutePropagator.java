@@ -0,0 +1,301 @@
+package solarsystem.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import solarsystem.math.TransferWindowSolver;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to fly a spacecraft along a whole route with a ShipPropagator, to check that each transfer really reaches
+ * the next stage rather than only arriving at the right angle. Each leg is flown on the same half ellipse the
+ * Calculator uses, starting with the speed the ellipse needs, and ends at the first event the ship meets:
+ * <ul>
+ *     <li>a change of orbit around one body, and a transfer from a moon down to its parent, end at the far side of
+ *     the ellipse</li>
+ *     <li>a transfer to a sibling or to a moon ends on entering the sphere of influence of the destination</li>
+ * </ul>
+ * Transfers between siblings wait for their window, worked out from the time the ship takes on the ellipse under
+ * the gravity used by the propagator. Transfers out to a moon leave from the point on the parking orbit which meets
+ * the moon, so they never wait.
+ *
+ * @author Laura McGhie
+ */
+public class RoutePropagator {
+
+	// Largest relative difference between the distance reached and the target for a leg to count as arriving
+	private static final double ARRIVAL_TOLERANCE = 1e-3;
+
+	private final List<RouteStage> route;
+	private final BodyInSpace[] bodies;
+	private final BodyIndex index;
+	private final double startTime;
+	private double tolerance = ShipPropagator.DEFAULT_TOLERANCE;
+
+	/**
+	 * Constructor to create a propagator for a route through the solar system, starting at time 0
+	 * @param route stages of the journey in order
+	 * @throws IllegalArgumentException if the route is empty, or visits a body not in the catalog
+	 */
+	public RoutePropagator(List<RouteStage> route) {
+		this(route, SpaceObjects.getIndex(), 0);
+	}
+
+	/**
+	 * Constructor to create a propagator for a route through the bodies of an index
+	 * @param route stages of the journey in order
+	 * @param index index of the bodies the route visits
+	 * @param startTime simulation time the journey starts at in days
+	 * @throws IllegalArgumentException if the route is empty, or visits a body not in the index
+	 */
+	public RoutePropagator(List<RouteStage> route, BodyIndex index, double startTime) {
+		if (route.isEmpty()) {
+			throw new IllegalArgumentException("Route has no stages");
+		}
+		this.route = new ArrayList<>(route);
+		this.index = index;
+		this.startTime = startTime;
+
+		bodies = new BodyInSpace[route.size()];
+		for (int i = 0; i < bodies.length; i++) {
+			bodies[i] = index.getBody(route.get(i).getBody());
+			if (bodies[i] == null) {
+				throw new IllegalArgumentException("Unknown body in route " + route.get(i).getBody());
+			}
+		}
+	}
+
+	/**
+	 * Set the relative error allowed in each step of the ship
+	 * @param tolerance relative error
+	 * @throws IllegalArgumentException if the tolerance is not positive
+	 */
+	public void setTolerance(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("Tolerance must be positive");
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Fly the whole route, one leg after another
+	 * @return each leg flown, in order
+	 * @throws IllegalArgumentException if the route includes a transfer between bodies which are not the same,
+	 * siblings, or parent and child, or a transfer between two bodies without an orbit around both
+	 */
+	public List<Leg> run() {
+		List<Leg> legs = new ArrayList<>();
+		double time = startTime;
+		for (int i = 0; i + 1 < bodies.length; i++) {
+			Leg leg = fly(i, time);
+			legs.add(leg);
+			time = leg.getArrival();
+		}
+		return Collections.unmodifiableList(legs);
+	}
+
+	/**
+	 * Internal method to fly the leg from the given stage to the next, starting no earlier than the given time
+	 */
+	private Leg fly(int stage, double time) {
+		BodyInSpace from = bodies[stage];
+		BodyInSpace to = bodies[stage + 1];
+		RouteStage fromStage = route.get(stage);
+		RouteStage toStage = route.get(stage + 1);
+
+		if (from != to && (fromStage.isLanded() || toStage.isLanded())) {
+			throw new IllegalArgumentException("Cannot transfer from " + from.getName() + " to " + to.getName()
+					+ " without being in orbit around both");
+		}
+
+		BodyInSpace frame;
+		double r1, r2, angle;
+		if (from == to) {
+			// Launches start on the surface, landings end on it, and other changes go out from the apoapsis
+			frame = from;
+			r1 = fromStage.isLanded() ? from.getRadius() : toStage.isLanded() ? periapse(from, fromStage)
+					: apoapse(from, fromStage);
+			r2 = toStage.isLanded() ? to.getRadius() : periapse(to, toStage);
+			angle = 0;
+		} else if (from.isSibling(to)) {
+			frame = from.getParent();
+			r1 = from.getOrbitInM();
+			r2 = to.getOrbitInM();
+
+			// The destination must be half a turn ahead of the start by the time the ship arrives
+			double days = halfPeriod(frame, r1, r2) / 86400;
+			double phase = 180 - to.getAngularV() * days;
+			TransferWindowSolver solver = new TransferWindowSolver(from, to, phase);
+			time += solver.timeToWindow(from.angleAt(time), to.angleAt(time));
+			angle = from.angleAt(time);
+		} else if (to.getParent() == from) {
+			frame = from;
+			r1 = apoapse(from, fromStage);
+			r2 = to.getOrbitInM();
+
+			// Leave from the point on the parking orbit opposite where the moon will be on arrival
+			double days = halfPeriod(frame, r1, r2) / 86400;
+			angle = to.angleAt(time + days) - Math.PI;
+		} else if (from.getParent() == to) {
+			frame = to;
+			r1 = from.getOrbitInM();
+			r2 = periapse(to, toStage);
+			angle = from.angleAt(time);
+		} else {
+			throw new IllegalArgumentException("Cannot transfer from " + from.getName() + " to " + to.getName());
+		}
+
+		// Start at the first apsis of the transfer ellipse, travelling the same way round as the bodies
+		double mu = NBodySystem.GRAVITATIONAL_C * frame.getMass();
+		double speed = Math.sqrt(mu * (2 / r1 - 2 / (r1 + r2)));
+		ShipPropagator ship = new ShipPropagator(frame, index, time, r1 * Math.sin(angle), -r1 * Math.cos(angle),
+				speed * Math.cos(angle), speed * Math.sin(angle));
+		ship.setTolerance(tolerance);
+
+		double limit = time + 2 * halfPeriod(frame, r1, r2) / 86400;
+		ShipPropagator.Event event;
+		if (r1 == r2) {
+			// Already on the target, so there is nothing to fly
+			event = ship.propagate(time);
+		} else {
+			event = ship.propagate(limit);
+		}
+
+		boolean reached;
+		switch (event.getType()) {
+			case SOI_ENTRY:
+				reached = event.getBody() == to;
+				break;
+			case PERIAPSIS:
+			case APOAPSIS:
+				reached = (from == to || from.getParent() == to)
+						&& Math.abs(event.getDistance() - r2) <= ARRIVAL_TOLERANCE * r2;
+				break;
+			default:
+				reached = r1 == r2;
+		}
+		return new Leg(from, to, time, event, reached, ship.getSteps(), ship.getRejectedSteps());
+	}
+
+	/**
+	 * Internal method to get the time taken to travel half way round an ellipse between two distances
+	 * @return time in seconds
+	 */
+	private static double halfPeriod(BodyInSpace centre, double r1, double r2) {
+		double a = (r1 + r2) / 2;
+		return Math.PI * Math.sqrt(a * a * a / (NBodySystem.GRAVITATIONAL_C * centre.getMass()));
+	}
+
+	/**
+	 * Internal method to get the furthest distance from a body on the orbit of a stage
+	 * @return distance in m
+	 */
+	private static double apoapse(BodyInSpace body, RouteStage stage) {
+		return body.getRadius() + 1.0e3 * Math.max(stage.getApoapsis(), stage.getPeriapsis());
+	}
+
+	/**
+	 * Internal method to get the closest distance to a body on the orbit of a stage
+	 * @return distance in m
+	 */
+	private static double periapse(BodyInSpace body, RouteStage stage) {
+		return body.getRadius() + 1.0e3 * Math.min(stage.getApoapsis(), stage.getPeriapsis());
+	}
+
+	/**
+	 * Object to hold the result of flying one leg of a route
+	 */
+	public static final class Leg {
+
+		private final BodyInSpace from, to;
+		private final double departure;
+		private final ShipPropagator.Event arrival;
+		private final boolean reached;
+		private final int steps, rejected;
+
+		Leg(BodyInSpace from, BodyInSpace to, double departure, ShipPropagator.Event arrival, boolean reached,
+				int steps, int rejected) {
+			this.from = from;
+			this.to = to;
+			this.departure = departure;
+			this.arrival = arrival;
+			this.reached = reached;
+			this.steps = steps;
+			this.rejected = rejected;
+		}
+
+		/**
+		 * Get the body the leg starts from
+		 * @return start body
+		 */
+		public BodyInSpace getFrom() {
+			return from;
+		}
+
+		/**
+		 * Get the body the leg ends at
+		 * @return destination body
+		 */
+		public BodyInSpace getTo() {
+			return to;
+		}
+
+		/**
+		 * Get the simulation time the ship left, after any wait for a transfer window
+		 * @return time in days
+		 */
+		public double getDeparture() {
+			return departure;
+		}
+
+		/**
+		 * Get the simulation time the leg ended
+		 * @return time in days
+		 */
+		public double getArrival() {
+			return arrival.getTime();
+		}
+
+		/**
+		 * Get the event the leg ended at
+		 * @return event
+		 */
+		public ShipPropagator.Event getEvent() {
+			return arrival;
+		}
+
+		/**
+		 * Check if the ship reached its destination: the sphere of influence of a new body, or the distance it was
+		 * aiming for around the same body
+		 * @return true if the leg arrived
+		 */
+		public boolean isReached() {
+			return reached;
+		}
+
+		/**
+		 * Get the number of steps the ship took on the leg
+		 * @return number of steps accepted
+		 */
+		public int getSteps() {
+			return steps;
+		}
+
+		/**
+		 * Get the number of steps which were taken again with a shorter step
+		 * @return number of steps rejected
+		 */
+		public int getRejectedSteps() {
+			return rejected;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s > %s: left at %.2f days, %s%s, %d steps", from.getName(), to.getName(),
+					departure, arrival, reached ? "" : " (missed)", steps);
+		}
+	}
+}
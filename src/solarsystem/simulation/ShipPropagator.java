@@ -0,0 +1,635 @@
+package solarsystem.simulation;
+
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Object to follow the path of a spacecraft under the gravity of the body it is travelling around, rather than
+ * moving it at a fixed rate around an ellipse. The state of the ship is its position and velocity relative to the
+ * body at the centre of its current frame, and is moved on with adaptive Dormand-Prince steps: a fifth order
+ * Runge-Kutta step with a fourth order step alongside it to estimate the error. Each step is made as long as the
+ * error allows, so steps of days are taken during a cruise between planets, while the steps shrink close to a
+ * body where the path bends sharply.
+ *
+ * Between steps the propagator watches for events, and stops exactly at the first one found:
+ * <ul>
+ *     <li>entering the sphere of influence of a body orbiting the centre, after which the frame moves to that body</li>
+ *     <li>leaving the sphere of influence of the centre, after which the frame moves to its parent</li>
+ *     <li>passing the periapsis or apoapsis of the path around the centre</li>
+ * </ul>
+ * Steps are also kept short enough that the ship cannot pass through a sphere of influence within a single step,
+ * so encounters are never missed however long the cruise steps are. Events are pinned down by root-finding on the
+ * interpolated path within the step, which needs no extra evaluations of the gravity.
+ *
+ * Positions of the bodies are worked out from the time rather than moving the shared bodies, so any number of
+ * propagators can run at once on different threads.
+ *
+ * @author Laura McGhie
+ */
+public class ShipPropagator {
+
+	/**
+	 * Types of event the propagator stops at
+	 */
+	public enum EventType {
+		SOI_ENTRY, SOI_EXIT, PERIAPSIS, APOAPSIS, TIME_LIMIT
+	}
+
+	// Relative error allowed in each step by default, and the smallest errors in position and velocity worth keeping
+	public static final double DEFAULT_TOLERANCE = 1e-10;
+	private static final double POSITION_FLOOR = 1e-3;
+	private static final double VELOCITY_FLOOR = 1e-9;
+
+	// Events are pinned down to within this many seconds
+	private static final double EVENT_ACCURACY = 1e-3;
+
+	// Radial speed as a part of the full speed below which the ship is taken to be at an apsis already
+	private static final double APSIS_NOISE = 1e-9;
+
+	// Largest part of the gap to a sphere of influence the ship can cover in a single step
+	private static final double ENCOUNTER_FRACTION = 0.5;
+
+	// Dormand-Prince coefficients
+	private static final double A21 = 1.0 / 5;
+	private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+	private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+	private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561,
+			A54 = -212.0 / 729;
+	private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176,
+			A65 = -5103.0 / 18656;
+	private static final double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784,
+			A76 = 11.0 / 84;
+	private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+	private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200,
+			E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+	// Coefficients of the fourth order interpolant within a step
+	private static final double D1 = -12715105075.0 / 11282082432.0, D3 = 87487479700.0 / 32700410799.0,
+			D4 = -10690763975.0 / 1880347072.0, D5 = 701980252875.0 / 199316789632.0,
+			D6 = -1453857185.0 / 822651844.0, D7 = 69997945.0 / 29380423.0;
+
+	private final BodyIndex index;
+	private BodyInSpace central;
+	private double mu;
+	private double[] children = new double[0];
+	private BodyInSpace[] childBodies = new BodyInSpace[0];
+
+	private double tolerance = DEFAULT_TOLERANCE;
+	private double time;
+	private double step;
+	private int steps, rejected;
+
+	// Current state, and the stages and interpolant of the latest step
+	private final double[] state = new double[4];
+	private final double[] k1 = new double[4], k2 = new double[4], k3 = new double[4], k4 = new double[4],
+			k5 = new double[4], k6 = new double[4], k7 = new double[4];
+	private final double[] next = new double[4], stage = new double[4];
+	private final double[] r1 = new double[4], r2 = new double[4], r3 = new double[4], r4 = new double[4],
+			r5 = new double[4];
+	private final double[] probe = new double[4], bodyState = new double[4];
+	private boolean derivativeValid;
+
+	/**
+	 * Constructor to create a propagator for a ship travelling around a body in the catalog
+	 * @param central body at the centre of the frame of the ship
+	 * @param time simulation time in days
+	 * @param x x co-ordinate of the ship relative to the body in m
+	 * @param y y co-ordinate of the ship relative to the body in m, increasing downwards
+	 * @param vx velocity of the ship relative to the body along x in m/s
+	 * @param vy velocity of the ship relative to the body along y in m/s
+	 */
+	public ShipPropagator(BodyInSpace central, double time, double x, double y, double vx, double vy) {
+		this(central, SpaceObjects.getIndex(), time, x, y, vx, vy);
+	}
+
+	/**
+	 * Constructor to create a propagator for a ship travelling around a body, watching for the bodies of an index
+	 * @param central body at the centre of the frame of the ship
+	 * @param index bodies whose spheres of influence the ship can enter
+	 * @param time simulation time in days
+	 * @param x x co-ordinate of the ship relative to the body in m
+	 * @param y y co-ordinate of the ship relative to the body in m, increasing downwards
+	 * @param vx velocity of the ship relative to the body along x in m/s
+	 * @param vy velocity of the ship relative to the body along y in m/s
+	 * @throws IllegalArgumentException if the ship starts at the centre of the body
+	 */
+	public ShipPropagator(BodyInSpace central, BodyIndex index, double time, double x, double y, double vx,
+			double vy) {
+		if (x == 0 && y == 0) {
+			throw new IllegalArgumentException("Ship cannot start at the centre of " + central.getName());
+		}
+		this.index = index;
+		this.time = time * 86400;
+		state[0] = x;
+		state[1] = y;
+		state[2] = vx;
+		state[3] = vy;
+		setCentral(central);
+	}
+
+	/**
+	 * Set the relative error allowed in each step. Smaller tolerances take more, shorter steps.
+	 * @param tolerance relative error
+	 * @throws IllegalArgumentException if the tolerance is not positive
+	 */
+	public void setTolerance(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("Tolerance must be positive");
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Move the ship on until the next event, or until the given time if no event comes first. Events which move
+	 * the ship into a new frame have already done so when this returns.
+	 * @param until simulation time to stop at in days
+	 * @return event the ship stopped at
+	 */
+	public Event propagate(double until) {
+		double end = until * 86400;
+		if (step == 0) {
+			step = initialStep();
+		}
+
+		while (time < end) {
+			if (!derivativeValid) {
+				derivative(time, state, k1);
+				derivativeValid = true;
+			}
+
+			// Never step past the end, or far enough to pass through a sphere of influence unseen
+			double h = Math.min(step, Math.min(end - time, encounterLimit()));
+			if (!attempt(h)) {
+				continue;
+			}
+
+			Event event = findEvent(h);
+			if (event != null) {
+				return event;
+			}
+
+			time += h;
+			System.arraycopy(next, 0, state, 0, 4);
+			System.arraycopy(k7, 0, k1, 0, 4);
+		}
+		time = end;
+		return new Event(EventType.TIME_LIMIT, null, central, getTime(), state);
+	}
+
+	/**
+	 * Get the current simulation time of the ship
+	 * @return time in days
+	 */
+	public double getTime() {
+		return time / 86400;
+	}
+
+	/**
+	 * Get the body at the centre of the current frame of the ship
+	 * @return central body
+	 */
+	public BodyInSpace getCentral() {
+		return central;
+	}
+
+	/**
+	 * Get the x co-ordinate of the ship relative to the central body
+	 * @return x co-ordinate in m
+	 */
+	public double getX() {
+		return state[0];
+	}
+
+	/**
+	 * Get the y co-ordinate of the ship relative to the central body
+	 * @return y co-ordinate in m, increasing downwards
+	 */
+	public double getY() {
+		return state[1];
+	}
+
+	/**
+	 * Get the velocity of the ship relative to the central body along x
+	 * @return velocity in m/s
+	 */
+	public double getVelocityX() {
+		return state[2];
+	}
+
+	/**
+	 * Get the velocity of the ship relative to the central body along y
+	 * @return velocity in m/s
+	 */
+	public double getVelocityY() {
+		return state[3];
+	}
+
+	/**
+	 * Get the distance of the ship from the central body
+	 * @return distance in m
+	 */
+	public double getDistance() {
+		return Math.hypot(state[0], state[1]);
+	}
+
+	/**
+	 * Get the number of steps taken so far
+	 * @return number of steps accepted
+	 */
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Get the number of steps which were tried and taken again with a shorter step, as the error was too large
+	 * @return number of steps rejected
+	 */
+	public int getRejectedSteps() {
+		return rejected;
+	}
+
+	/**
+	 * Get the radius of the sphere of influence of a body, inside which its gravity is taken to be the only pull
+	 * on the ship
+	 * @param body body to find the sphere of
+	 * @return radius in m, or infinity for a body with no parent
+	 */
+	public static double getSphereOfInfluence(BodyInSpace body) {
+		if (body.getParent() == null) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return body.getOrbitInM() * Math.pow(body.getMass() / body.getParent().getMass(), 0.4);
+	}
+
+	/**
+	 * Get the position and velocity of a body relative to its parent, at the given time
+	 * @param body body to find
+	 * @param days simulation time in days
+	 * @param result array to fill with the x and y co-ordinates in m and the velocities in m/s
+	 */
+	public static void stateOf(BodyInSpace body, double days, double[] result) {
+		if (body.getParent() == null) {
+			result[0] = result[1] = result[2] = result[3] = 0;
+			return;
+		}
+		double angle = body.angleAt(days);
+		double radius = body.getOrbitInM();
+		double speed = radius * 2 * Math.PI / body.getPeriodAsSeconds();
+		result[0] = radius * Math.sin(angle);
+		result[1] = -radius * Math.cos(angle);
+		result[2] = speed * Math.cos(angle);
+		result[3] = speed * Math.sin(angle);
+	}
+
+	/**
+	 * Internal method to move the frame of the ship to a new central body, and find the bodies orbiting it
+	 */
+	private void setCentral(BodyInSpace body) {
+		central = body;
+		mu = NBodySystem.GRAVITATIONAL_C * body.getMass();
+		derivativeValid = false;
+
+		// Steps suited to the old frame say nothing about the new one
+		step = 0;
+
+		int count;
+		int id = index.getId(body);
+		if (body.getParent() == null) {
+			count = index.getRootCount();
+		} else {
+			count = id < 0 ? 0 : index.getChildCount(id);
+		}
+		childBodies = new BodyInSpace[count];
+		children = new double[count];
+		for (int n = 0; n < count; n++) {
+			childBodies[n] = index.getBody(body.getParent() == null ? index.getRootId(n) : index.getChildId(id, n));
+			children[n] = getSphereOfInfluence(childBodies[n]);
+		}
+	}
+
+	/**
+	 * Internal method to work out the rate of change of a state: the velocity, and the pull of the central body
+	 */
+	private void derivative(double t, double[] y, double[] result) {
+		double r2 = y[0] * y[0] + y[1] * y[1];
+		double inv = -mu / (r2 * Math.sqrt(r2));
+		result[0] = y[2];
+		result[1] = y[3];
+		result[2] = inv * y[0];
+		result[3] = inv * y[1];
+	}
+
+	/**
+	 * Internal method to guess a first step from the time the ship takes to cover its distance from the centre
+	 */
+	private double initialStep() {
+		double r = getDistance();
+		double v = Math.hypot(state[2], state[3]);
+		double freeFall = Math.sqrt(r * r * r / mu);
+		return 0.01 * Math.min(freeFall, v > 0 ? r / v : freeFall);
+	}
+
+	/**
+	 * Internal method to get the longest step the ship can take without covering more than part of the gap to
+	 * the sphere of influence of any body orbiting the centre
+	 */
+	private double encounterLimit() {
+		double limit = Double.POSITIVE_INFINITY;
+		double days = time / 86400;
+		for (int n = 0; n < childBodies.length; n++) {
+			stateOf(childBodies[n], days, bodyState);
+			double dx = state[0] - bodyState[0], dy = state[1] - bodyState[1];
+			double speed = Math.hypot(state[2] - bodyState[2], state[3] - bodyState[3]);
+			double gap = Math.max(Math.hypot(dx, dy) - children[n], 0.1 * children[n]);
+			if (speed > 0) {
+				limit = Math.min(limit, ENCOUNTER_FRACTION * gap / speed);
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * Internal method to try a step of the given length. If the error is small enough the new state is left in
+	 * next and the interpolant is set up, otherwise the step is shortened and false is returned.
+	 */
+	private boolean attempt(double h) {
+		double t = time;
+		double[] y = state;
+		for (int i = 0; i < 4; i++) {
+			stage[i] = y[i] + h * A21 * k1[i];
+		}
+		derivative(t + C2 * h, stage, k2);
+		for (int i = 0; i < 4; i++) {
+			stage[i] = y[i] + h * (A31 * k1[i] + A32 * k2[i]);
+		}
+		derivative(t + C3 * h, stage, k3);
+		for (int i = 0; i < 4; i++) {
+			stage[i] = y[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+		}
+		derivative(t + C4 * h, stage, k4);
+		for (int i = 0; i < 4; i++) {
+			stage[i] = y[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+		}
+		derivative(t + C5 * h, stage, k5);
+		for (int i = 0; i < 4; i++) {
+			stage[i] = y[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+		}
+		derivative(t + h, stage, k6);
+		for (int i = 0; i < 4; i++) {
+			next[i] = y[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+		}
+		derivative(t + h, next, k7);
+
+		// Scale the error in each part of the state by the size of that part, so position and velocity are fair
+		double scalePosition = Math.max(Math.hypot(y[0], y[1]), Math.hypot(next[0], next[1]));
+		double scaleVelocity = Math.max(Math.hypot(y[2], y[3]), Math.hypot(next[2], next[3]));
+		double error = 0;
+		for (int i = 0; i < 4; i++) {
+			double e = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+			double scale = i < 2 ? POSITION_FLOOR + tolerance * scalePosition
+					: VELOCITY_FLOOR + tolerance * scaleVelocity;
+			error = Math.max(error, Math.abs(e) / scale);
+		}
+
+		// Aim the next step at the largest error allowed, without changing it too sharply
+		double factor = error == 0 ? 5 : Math.min(5, Math.max(0.2, 0.9 * Math.pow(error, -0.2)));
+		if (error > 1) {
+			step = h * Math.min(1, factor);
+			rejected++;
+			return false;
+		}
+		if (h == step) {
+			step = h * factor;
+		} else {
+			// A step cut short for an encounter or the end says nothing about how long the next can be
+			step = Math.max(step, h * factor);
+		}
+		steps++;
+
+		for (int i = 0; i < 4; i++) {
+			double difference = next[i] - y[i];
+			double slope = h * k1[i] - difference;
+			r1[i] = y[i];
+			r2[i] = difference;
+			r3[i] = slope;
+			r4[i] = difference - h * k7[i] - slope;
+			r5[i] = h * (D1 * k1[i] + D3 * k3[i] + D4 * k4[i] + D5 * k5[i] + D6 * k6[i] + D7 * k7[i]);
+		}
+		return true;
+	}
+
+	/**
+	 * Internal method to fill the probe with the interpolated state at the given fraction of the latest step
+	 */
+	private void interpolate(double theta) {
+		double rest = 1 - theta;
+		for (int i = 0; i < 4; i++) {
+			probe[i] = r1[i] + theta * (r2[i] + rest * (r3[i] + theta * (r4[i] + rest * r5[i])));
+		}
+	}
+
+	/**
+	 * Internal method to work out the value of an event function on the interpolated path. The event happens
+	 * when the value crosses zero in the direction given for it.
+	 */
+	private double eventValue(int event, double theta, double h) {
+		interpolate(theta);
+		return eventValue(event, probe, (time + theta * h) / 86400);
+	}
+
+	/**
+	 * Internal method to work out the value of an event function for a state. Event 0 is the radial speed, which
+	 * crosses zero at each apsis, event 1 is the distance beyond the sphere of influence of the centre, and each
+	 * event after that is the distance beyond the sphere of influence of a body orbiting the centre.
+	 */
+	private double eventValue(int event, double[] y, double days) {
+		if (event == 0) {
+			return y[0] * y[2] + y[1] * y[3];
+		}
+		if (event == 1) {
+			return Math.hypot(y[0], y[1]) - getSphereOfInfluence(central);
+		}
+		int n = event - 2;
+		stateOf(childBodies[n], days, bodyState);
+		return Math.hypot(y[0] - bodyState[0], y[1] - bodyState[1]) - children[n];
+	}
+
+	/**
+	 * Internal method to look for the first event within the latest step. If one is found the ship is moved to
+	 * just after it, changing frame if needed, and the event is returned.
+	 */
+	private Event findEvent(double h) {
+		double found = Double.POSITIVE_INFINITY;
+		int which = -1;
+		int count = 2 + childBodies.length;
+
+		for (int event = 0; event < count; event++) {
+			double before = eventValue(event, state, time / 86400);
+			double after = eventValue(event, next, (time + h) / 86400);
+
+			// Apsides are found both ways, the centre is only left, and other bodies are only entered
+			boolean crossed;
+			if (event == 0) {
+				// A ship starting at an apsis, or just past one, has a radial speed of almost nothing to begin with
+				double noise = APSIS_NOISE * Math.hypot(state[0], state[1]) * Math.hypot(state[2], state[3]);
+				crossed = Math.abs(before) > noise && Math.signum(before) != Math.signum(after);
+			} else if (event == 1) {
+				crossed = before < 0 && after >= 0;
+			} else {
+				crossed = before > 0 && after <= 0;
+			}
+			if (!crossed) {
+				continue;
+			}
+
+			double theta = findRoot(event, h, before, after);
+			if (theta < found) {
+				found = theta;
+				which = event;
+			}
+		}
+		if (which < 0) {
+			return null;
+		}
+
+		// Move to the end of the bracket, where the event has just happened
+		interpolate(found);
+		System.arraycopy(probe, 0, state, 0, 4);
+		time += found * h;
+		derivativeValid = false;
+
+		EventType type;
+		BodyInSpace body = central;
+		if (which == 0) {
+			type = eventValue(0, state, time / 86400) > 0 ? EventType.PERIAPSIS : EventType.APOAPSIS;
+		} else if (which == 1) {
+			type = EventType.SOI_EXIT;
+			stateOf(central, time / 86400, bodyState);
+			for (int i = 0; i < 4; i++) {
+				state[i] += bodyState[i];
+			}
+			setCentral(central.getParent());
+		} else {
+			type = EventType.SOI_ENTRY;
+			body = childBodies[which - 2];
+			stateOf(body, time / 86400, bodyState);
+			for (int i = 0; i < 4; i++) {
+				state[i] -= bodyState[i];
+			}
+			setCentral(body);
+		}
+		return new Event(type, body, central, getTime(), state);
+	}
+
+	/**
+	 * Internal method to find the fraction of the latest step at which an event function crosses zero, with the
+	 * Illinois form of the false position method. The fraction returned is always just after the crossing.
+	 */
+	private double findRoot(int event, double h, double before, double after) {
+		double low = 0, high = 1;
+		double valueLow = before, valueHigh = after;
+		double accuracy = EVENT_ACCURACY / h;
+		int side = 0;
+
+		while (high - low > accuracy) {
+			double theta = (low * valueHigh - high * valueLow) / (valueHigh - valueLow);
+			if (!(theta > low && theta < high)) {
+				theta = (low + high) / 2;
+			}
+			double value = eventValue(event, theta, h);
+			if (value == 0 || Math.signum(value) == Math.signum(valueHigh)) {
+				high = theta;
+				valueHigh = value;
+				if (side == 1) {
+					valueLow /= 2;
+				}
+				side = 1;
+			} else {
+				low = theta;
+				valueLow = value;
+				if (side == -1) {
+					valueHigh /= 2;
+				}
+				side = -1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Object to hold an event the ship stopped at, along with the state of the ship just after it
+	 */
+	public static final class Event {
+
+		private final EventType type;
+		private final BodyInSpace body;
+		private final BodyInSpace frame;
+		private final double eventTime, x, y, vx, vy;
+
+		Event(EventType type, BodyInSpace body, BodyInSpace frame, double time, double[] state) {
+			this.type = type;
+			this.body = body;
+			this.frame = frame;
+			this.eventTime = time;
+			this.x = state[0];
+			this.y = state[1];
+			this.vx = state[2];
+			this.vy = state[3];
+		}
+
+		/**
+		 * Get the type of the event
+		 * @return event type
+		 */
+		public EventType getType() {
+			return type;
+		}
+
+		/**
+		 * Get the body the event is about: the body entered or left, or the centre for an apsis
+		 * @return body, or null at the time limit
+		 */
+		public BodyInSpace getBody() {
+			return body;
+		}
+
+		/**
+		 * Get the body at the centre of the frame of the ship after the event
+		 * @return central body
+		 */
+		public BodyInSpace getFrame() {
+			return frame;
+		}
+
+		/**
+		 * Get the simulation time of the event
+		 * @return time in days
+		 */
+		public double getTime() {
+			return eventTime;
+		}
+
+		/**
+		 * Get the distance of the ship from the centre of its frame after the event
+		 * @return distance in m
+		 */
+		public double getDistance() {
+			return Math.hypot(x, y);
+		}
+
+		/**
+		 * Get the speed of the ship relative to the centre of its frame after the event
+		 * @return speed in m/s
+		 */
+		public double getSpeed() {
+			return Math.hypot(vx, vy);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s at %.4f days, %.0f km from %s", type, body == null ? "" : body.getName(),
+					eventTime, getDistance() / 1000, frame.getName());
+		}
+	}
+}
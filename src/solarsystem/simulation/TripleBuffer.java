@@ -0,0 +1,90 @@
+package solarsystem.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Object to hand the latest state of a simulation from the thread which works it out to the thread which draws it,
+ * without either thread ever waiting for the other. There are three slots: the writer fills its back slot and then
+ * publishes it by swapping it with the shared slot, and the reader takes the shared slot in exchange for its front
+ * slot whenever a newer one has been published. Each swap is a single atomic exchange of the shared index, which
+ * also makes everything the writer put into a slot visible to the reader that takes it.
+ *
+ * A slot is only written by the writer while it is the back slot, so once published it does not change until the
+ * reader has handed it back, and the reader can use it for as long as it likes without locking. If the writer
+ * publishes faster than the reader takes the slots, the older states are dropped and the reader only sees the
+ * latest. There must be only one writing thread and one reading thread.
+ *
+ * @param <T> type of the state held in each slot, such as a BodySnapshot
+ * @author Laura McGhie
+ */
+public class TripleBuffer<T> {
+
+	// Bit set in the shared index when the shared slot holds a state the reader has not taken yet
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+
+	private final Object[] slots;
+	private final AtomicInteger shared = new AtomicInteger(1);
+
+	// Slot owned by the writer, only used on the writing thread
+	private int back = 0;
+
+	// Slot owned by the reader, only used on the reading thread
+	private int front = 2;
+
+	/**
+	 * Constructor to create a buffer from three separate slots, which are reused rather than replaced. The third
+	 * slot is the first one the reader sees, until the writer publishes.
+	 * @param first first slot
+	 * @param second second slot
+	 * @param third third slot
+	 * @throws IllegalArgumentException if a slot is null, or the same object is given twice
+	 */
+	public TripleBuffer(T first, T second, T third) {
+		if (first == null || second == null || third == null) {
+			throw new IllegalArgumentException("Slots must not be null");
+		}
+		if (first == second || second == third || first == third) {
+			throw new IllegalArgumentException("Slots must be separate objects");
+		}
+		this.slots = new Object[] {first, second, third};
+	}
+
+	/**
+	 * Get the slot for the writer to fill with the next state. Only call this from the writing thread.
+	 * @return back slot
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack() {
+		return (T) slots[back];
+	}
+
+	/**
+	 * Publish the back slot as the latest state, and take a new back slot to fill next. Only call this from the
+	 * writing thread.
+	 */
+	public void publish() {
+		back = shared.getAndSet(back | FRESH) & INDEX;
+	}
+
+	/**
+	 * Get the latest state published, taking it from the writer if it is newer than the one the reader already
+	 * has. Only call this from the reading thread.
+	 * @return front slot, which stays the same until a newer state is published and taken
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		if ((shared.get() & FRESH) != 0) {
+			front = shared.getAndSet(front) & INDEX;
+		}
+		return (T) slots[front];
+	}
+
+	/**
+	 * Check if a state has been published which the reader has not taken yet
+	 * @return true if the next acquire will return a newer state
+	 */
+	public boolean isFresh() {
+		return (shared.get() & FRESH) != 0;
+	}
+}
@@ -0,0 +1,204 @@
+package solarsystem.telemetry;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Read only view over a telemetry file written by a TelemetryRecorder. Records are identified by the order they
+ * were written in, starting from 0, and only the newest records up to the capacity of the file are still held.
+ * The file is memory mapped, so it can be read while a journey is still being recorded into it.
+ *
+ * Run as a program with the path to a telemetry file to export it as comma separated values, either to a second
+ * path or to standard output.
+ *
+ * @author Laura McGhie
+ */
+public final class TelemetryReader {
+
+	private final ByteBuffer data;
+	private final String[] names;
+	private final TelemetryRecorder.Unit[] units;
+	private final int recordSize;
+	private final long capacity;
+	private final int dataStart;
+
+	/**
+	 * Constructor to open a telemetry file for reading
+	 * @param file telemetry file
+	 * @throws IOException if the file cannot be read, or is not a telemetry file
+	 */
+	public TelemetryReader(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// The mapping stays valid once the channel is closed
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		TelemetryRecorder.checkHeader(data);
+
+		int channels = data.getInt(8);
+		recordSize = data.getInt(12);
+		capacity = data.getLong(16);
+		dataStart = data.getInt(TelemetryRecorder.DATA_OFFSET);
+
+		names = new String[channels];
+		units = new TelemetryRecorder.Unit[channels];
+		int offset = TelemetryRecorder.HEADER;
+		for (int i = 0; i < channels; i++) {
+			units[i] = TelemetryRecorder.Unit.values()[data.get(offset)];
+			byte[] bytes = new byte[data.getShort(offset + 1)];
+			for (int b = 0; b < bytes.length; b++) {
+				bytes[b] = data.get(offset + 3 + b);
+			}
+			names[i] = new String(bytes, StandardCharsets.UTF_8);
+			offset += 3 + bytes.length;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: TelemetryReader telemetry-file [csv-file]");
+			System.exit(2);
+		}
+
+		TelemetryReader reader = new TelemetryReader(Paths.get(args[0]));
+		try (Writer out = args.length > 1
+				? Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)
+				: new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+			reader.exportCsv(out);
+		}
+	}
+
+	/**
+	 * Get the number of channels in each record
+	 * @return number of channels
+	 */
+	public int getChannelCount() {
+		return names.length;
+	}
+
+	/**
+	 * Get the name of a channel
+	 * @param channel channel number
+	 * @return name
+	 */
+	public String getChannelName(int channel) {
+		return names[channel];
+	}
+
+	/**
+	 * Get the unit of the positions of a channel
+	 * @param channel channel number
+	 * @return unit
+	 */
+	public TelemetryRecorder.Unit getUnit(int channel) {
+		return units[channel];
+	}
+
+	/**
+	 * Get the number of records written, including any which have since been replaced
+	 * @return number of records
+	 */
+	public long getCount() {
+		return data.getLong(TelemetryRecorder.COUNT_OFFSET);
+	}
+
+	/**
+	 * Get the number of the oldest record still held in the file
+	 * @return record number
+	 */
+	public long getFirst() {
+		return Math.max(0, getCount() - capacity);
+	}
+
+	/**
+	 * Get the animation step of a record
+	 * @param record record number
+	 * @return step
+	 */
+	public long getStep(long record) {
+		return data.getLong(position(record));
+	}
+
+	/**
+	 * Get the simulation time of a record
+	 * @param record record number
+	 * @return time in days
+	 */
+	public double getTime(long record) {
+		return data.getDouble(position(record) + 8);
+	}
+
+	/**
+	 * Get the journey stage of a record
+	 * @param record record number
+	 * @return stage
+	 */
+	public int getStage(long record) {
+		return data.getInt(position(record) + 16);
+	}
+
+	/**
+	 * Get the x co-ordinate of a channel in a record
+	 * @param record record number
+	 * @param channel channel number
+	 * @return x co-ordinate, or NaN if the channel was not recorded
+	 */
+	public double getX(long record, int channel) {
+		return data.getDouble(position(record) + TelemetryRecorder.RECORD_HEADER + channel * 16);
+	}
+
+	/**
+	 * Get the y co-ordinate of a channel in a record
+	 * @param record record number
+	 * @param channel channel number
+	 * @return y co-ordinate, or NaN if the channel was not recorded
+	 */
+	public double getY(long record, int channel) {
+		return data.getDouble(position(record) + TelemetryRecorder.RECORD_HEADER + channel * 16 + 8);
+	}
+
+	/**
+	 * Write every record still held in the file as comma separated values, oldest first
+	 * @param out destination for the values
+	 * @throws IOException if the values cannot be written
+	 */
+	public void exportCsv(Writer out) throws IOException {
+		StringBuilder line = new StringBuilder("step,time,stage");
+		for (int i = 0; i < names.length; i++) {
+			String unit = units[i].name().toLowerCase(Locale.ROOT);
+			line.append(',').append(names[i]).append("_x_").append(unit);
+			line.append(',').append(names[i]).append("_y_").append(unit);
+		}
+		out.write(line.append('\n').toString());
+
+		// Take the count once, so records added while exporting are left out rather than read half written
+		long count = getCount();
+		for (long record = Math.max(0, count - capacity); record < count; record++) {
+			line.setLength(0);
+			line.append(getStep(record)).append(',').append(getTime(record)).append(',').append(getStage(record));
+			for (int i = 0; i < names.length; i++) {
+				line.append(',').append(getX(record, i)).append(',').append(getY(record, i));
+			}
+			out.write(line.append('\n').toString());
+		}
+	}
+
+	/**
+	 * Internal method to get the position of a record in the file
+	 * @throws IllegalArgumentException if the record has not been written, or has been replaced
+	 */
+	private int position(long record) {
+		long count = getCount();
+		if (record < 0 || record >= count || record < count - capacity) {
+			throw new IllegalArgumentException("Record " + record + " is not held, records " + getFirst() + " to "
+					+ (count - 1) + " are available");
+		}
+		return dataStart + (int) (record % capacity) * recordSize;
+	}
+}
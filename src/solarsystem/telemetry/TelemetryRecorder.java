@@ -0,0 +1,197 @@
+package solarsystem.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Object to record where each body and spacecraft is at every step of a journey. Records are written into a memory
+ * mapped file of fixed size, used as a ring, so once the file is full each new record replaces the oldest one. Every
+ * record has the same layout, and writing one only stores numbers into the mapped file, so recording a step does
+ * not create any new objects.
+ *
+ * Layout of the file:
+ * <pre>
+ *   int magic, int version, int channel count, int record size, long capacity, long records written,
+ *   int data start, int reserved
+ *   for each channel: byte unit, short name length, UTF-8 name
+ *   records from the data start, each: long step, double time in days, int stage, int reserved,
+ *   then double x and double y for each channel
+ * </pre>
+ * The count of records written is only updated once a record is complete, so a reader never sees a half written
+ * record as the newest.
+ *
+ * @author Laura McGhie
+ */
+public final class TelemetryRecorder implements Closeable {
+
+	/**
+	 * Units the positions of a channel are recorded in
+	 */
+	public enum Unit {
+		KM, PIXELS
+	}
+
+	static final int MAGIC = 0x53544C4D;
+	static final int VERSION = 1;
+	static final int HEADER = 40;
+	static final int RECORD_HEADER = 24;
+
+	// Positions of values in the header
+	static final int COUNT_OFFSET = 24;
+	static final int DATA_OFFSET = 32;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer data;
+	private final int channels;
+	private final int recordSize;
+	private final long capacity;
+	private final int dataStart;
+
+	private long count;
+	private int position = -1;
+
+	/**
+	 * Constructor to create a recorder writing to the given file, replacing it if it exists
+	 * @param file file to record into
+	 * @param names name of each channel, such as the name of a body
+	 * @param units unit of the positions recorded for each channel
+	 * @param capacity number of records kept before the oldest are replaced
+	 * @throws IOException if the file cannot be created
+	 * @throws IllegalArgumentException if the names and units do not match, or the file would be too large to map
+	 */
+	public TelemetryRecorder(Path file, String[] names, Unit[] units, int capacity) throws IOException {
+		if (names.length != units.length) {
+			throw new IllegalArgumentException("Every channel needs a unit");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		}
+
+		byte[][] encoded = new byte[names.length][];
+		for (int i = 0; i < names.length; i++) {
+			encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+		}
+		this.channels = names.length;
+		this.recordSize = RECORD_HEADER + channels * 16;
+		this.capacity = capacity;
+		this.dataStart = dataStart(names);
+
+		long size = dataStart + (long) recordSize * capacity;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Telemetry file of " + size + " bytes is too large to map");
+		}
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+		data.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, channels).putInt(12, recordSize);
+		data.putLong(16, capacity).putLong(COUNT_OFFSET, 0).putInt(DATA_OFFSET, dataStart);
+		int offset = HEADER;
+		for (int i = 0; i < channels; i++) {
+			data.put(offset, (byte) units[i].ordinal());
+			data.putShort(offset + 1, (short) encoded[i].length);
+			for (int b = 0; b < encoded[i].length; b++) {
+				data.put(offset + 3 + b, encoded[i][b]);
+			}
+			offset += 3 + encoded[i].length;
+		}
+	}
+
+	/**
+	 * Get the largest number of records a file with the given channels can hold, while still being small enough
+	 * to map
+	 * @param names name of each channel
+	 * @return largest capacity
+	 */
+	public static int maxCapacity(String[] names) {
+		return (Integer.MAX_VALUE - dataStart(names)) / (RECORD_HEADER + names.length * 16);
+	}
+
+	/**
+	 * Internal method to work out where the records start after the channel table, on an 8 byte boundary
+	 */
+	private static int dataStart(String[] names) {
+		int table = 0;
+		for (String name : names) {
+			table += 3 + name.getBytes(StandardCharsets.UTF_8).length;
+		}
+		return (HEADER + table + 7) & ~7;
+	}
+
+	/**
+	 * Start a new record. Channels which are not given a position before the record is committed are recorded
+	 * as NaN.
+	 * @param step number of the animation step
+	 * @param time simulation time in days
+	 * @param stage stage of the journey
+	 */
+	public void begin(long step, double time, int stage) {
+		position = dataStart + (int) (count % capacity) * recordSize;
+		data.putLong(position, step);
+		data.putDouble(position + 8, time);
+		data.putInt(position + 16, stage);
+		data.putInt(position + 20, 0);
+		for (int i = 0; i < channels; i++) {
+			data.putDouble(position + RECORD_HEADER + i * 16, Double.NaN);
+			data.putDouble(position + RECORD_HEADER + i * 16 + 8, Double.NaN);
+		}
+	}
+
+	/**
+	 * Set the position of a channel in the current record
+	 * @param index channel to set
+	 * @param x x co-ordinate
+	 * @param y y co-ordinate
+	 */
+	public void put(int index, double x, double y) {
+		data.putDouble(position + RECORD_HEADER + index * 16, x);
+		data.putDouble(position + RECORD_HEADER + index * 16 + 8, y);
+	}
+
+	/**
+	 * Finish the current record, so it can be seen by readers
+	 */
+	public void commit() {
+		if (position < 0) {
+			throw new IllegalStateException("No record has been started");
+		}
+		count++;
+		data.putLong(COUNT_OFFSET, count);
+		position = -1;
+	}
+
+	/**
+	 * Get the number of records written so far, including any which have since been replaced
+	 * @return number of records
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Write the records to disk and close the file
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		data.force();
+		channel.close();
+	}
+
+	/**
+	 * Internal method used by the reader to check the header of a mapped file
+	 * @throws IOException if the buffer does not hold telemetry of this version
+	 */
+	static void checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a telemetry file of version " + VERSION);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package solarsystem.test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.simulation.BarnesHutGravity;
+import solarsystem.simulation.DirectGravity;
+
+/**
+ * Test class for the BarnesHutGravity object
+ * @author Laura McGhie
+ */
+public class BarnesHutGravityTest {
+
+    private double[] mass, x, y;
+
+    /**
+     * Internal method to make a belt of asteroids between 2 and 3.5 AU, around the Sun at index 0
+     */
+    private void makeBelt(int count) {
+        Random random = new Random(42);
+        mass = new double[count];
+        x = new double[count];
+        y = new double[count];
+        mass[0] = 1.989e30;
+        for (int i = 1; i < count; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = 3.0e11 + random.nextDouble() * 2.2e11;
+            mass[i] = 1e15 + random.nextDouble() * 1e18;
+            x[i] = radius * Math.sin(angle);
+            y[i] = -radius * Math.cos(angle);
+        }
+    }
+
+    /**
+     * Internal method to get the largest error in the accelerations of a solver against the direct sum. The pulls
+     * on the Sun from all sides of the belt nearly cancel, so it is left out.
+     */
+    private double getError(BarnesHutGravity solver) {
+        int count = mass.length;
+        double[] ax = new double[count], ay = new double[count];
+        double[] bx = new double[count], by = new double[count];
+        new DirectGravity(null).accelerate(count, mass, x, y, ax, ay);
+        solver.accelerate(count, mass, x, y, bx, by);
+
+        double error = 0;
+        for (int i = 1; i < count; i++) {
+            error = Math.max(error, Math.hypot(bx[i] - ax[i], by[i] - ay[i]) / Math.hypot(ax[i], ay[i]));
+        }
+        return error;
+    }
+
+    @Test
+    public void testZeroAngleIsExact() {
+        makeBelt(1000);
+        Assert.assertEquals(0, getError(new BarnesHutGravity(0, null)), 1e-12);
+    }
+
+    @Test
+    public void testBeltAccuracy() {
+        makeBelt(2000);
+        Assert.assertEquals(0, getError(new BarnesHutGravity(null)), 1e-3);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        makeBelt(10000);
+        double[] ax = new double[x.length], ay = new double[x.length];
+        double[] bx = new double[x.length], by = new double[x.length];
+        new BarnesHutGravity(null).accelerate(x.length, mass, x, y, ax, ay);
+        new BarnesHutGravity(new ForkJoinPool(4)).accelerate(x.length, mass, x, y, bx, by);
+
+        Assert.assertArrayEquals(ax, bx, 0);
+        Assert.assertArrayEquals(ay, by, 0);
+    }
+
+    @Test
+    public void testCoincidentBodies() {
+        // Bodies at the same point cannot be split into cells, so they share the smallest cell
+        mass = new double[] {1e20, 1e20, 1e20, 1e20, 1e20, 1e20, 1e20, 1e20, 1e20, 1e20, 1e20};
+        x = new double[mass.length];
+        y = new double[mass.length];
+        x[10] = 1e9;
+        Assert.assertEquals(0, getError(new BarnesHutGravity(null)), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeAngle() {
+        new BarnesHutGravity(-0.1, null);
+    }
+}
@@ -0,0 +1,168 @@
+package solarsystem.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Test class for the Calculator object
+ * @author Laura McGhie
+ */
+public class CalculatorTest {
+
+    @Test
+    public void testPhaseAngleOutward() throws Exception {
+        checkPhaseAngle(SpaceObjects.getBody("Earth"), SpaceObjects.getBody("Mars"));
+    }
+
+    @Test
+    public void testPhaseAngleInward() throws Exception {
+        checkPhaseAngle(SpaceObjects.getBody("Earth"), SpaceObjects.getBody("Venus"));
+    }
+
+    @Test
+    public void testSiblingMatchesObject() throws Exception {
+        checkMatchesObject(SpaceObjects.getBody("Earth"), orbit(SpaceObjects.getBody("Earth"), 200),
+                SpaceObjects.getBody("Mars"), orbit(SpaceObjects.getBody("Mars"), 300));
+    }
+
+    @Test
+    public void testParentToChildMatchesObject() throws Exception {
+        checkMatchesObject(SpaceObjects.getBody("Earth"), orbit(SpaceObjects.getBody("Earth"), 200),
+                SpaceObjects.getBody("Moon"), orbit(SpaceObjects.getBody("Moon"), 100));
+    }
+
+    @Test
+    public void testChildToParentMatchesObject() throws Exception {
+        checkMatchesObject(SpaceObjects.getBody("Moon"), orbit(SpaceObjects.getBody("Moon"), 100),
+                SpaceObjects.getBody("Earth"), orbit(SpaceObjects.getBody("Earth"), 200));
+    }
+
+    @Test
+    public void testSameBodyMatchesObject() throws Exception {
+        BodyInSpace earth = SpaceObjects.getBody("Earth");
+
+        // Launching, changing orbit, and landing
+        checkMatchesObject(earth, null, earth, orbit(earth, 200));
+        checkMatchesObject(earth, orbit(earth, 200), earth, orbit(earth, 35786));
+        checkMatchesObject(earth, orbit(earth, 200), earth, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnrelatedBodies() throws Exception {
+        BodyInSpace moon = SpaceObjects.getBody("Moon");
+        BodyInSpace mars = SpaceObjects.getBody("Mars");
+        Calculator.compute(moon, orbit(moon, 100), mars, orbit(mars, 300));
+    }
+
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        final BodyInSpace[] from = {SpaceObjects.getBody("Earth"), SpaceObjects.getBody("Earth"),
+                SpaceObjects.getBody("Moon"), SpaceObjects.getBody("Venus")};
+        final BodyInSpace[] to = {SpaceObjects.getBody("Mars"), SpaceObjects.getBody("Moon"),
+                SpaceObjects.getBody("Earth"), SpaceObjects.getBody("Jupiter")};
+
+        // Work out each transfer once on this thread
+        final double[][] expected = new double[from.length][];
+        for (int i = 0; i < from.length; i++) {
+            expected[i] = values(Calculator.compute(from[i], orbit(from[i], 200), to[i], orbit(to[i], 300)));
+        }
+
+        // Then many times over on a pool of threads, interleaved with each other
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 64; task++) {
+                final int offset = task;
+                results.add(pool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int n = 0; n < 2000; n++) {
+                            int i = (n + offset) % from.length;
+                            double[] actual = values(Calculator.compute(from[i], orbit(from[i], 200), to[i],
+                                    orbit(to[i], 300)));
+                            if (!Arrays.equals(expected[i], actual)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Internal method to check the static transfer against the same transfer made by a Calculator object
+     */
+    private static void checkMatchesObject(BodyInSpace from, MathEllipse fromOrbit, BodyInSpace to,
+                                           MathEllipse toOrbit) {
+        TransferResult r = Calculator.compute(from, fromOrbit, to, toOrbit);
+        Calculator calculator = new Calculator(from, fromOrbit);
+        calculator.transfer_slow(to, toOrbit);
+
+        Assert.assertArrayEquals(values(r), values(calculator.getResult()), 0);
+        Assert.assertEquals(r.getExitDeltaV(), calculator.getExitDeltaV(), 0);
+        Assert.assertEquals(r.getEntryDeltaV(), calculator.getEntryDeltaV(), 0);
+        Assert.assertEquals(r.getTime(), calculator.getTime(), 0);
+        Assert.assertEquals(r.getTransferData(), calculator.getTransferData());
+        Assert.assertTrue(r.getTime() > 0);
+    }
+
+    /**
+     * Internal method to get every number held in a result
+     */
+    private static double[] values(TransferResult r) {
+        return new double[] {r.getExitDeltaV(), r.getEntryDeltaV(), r.getTime(), r.getStartPhaseAngle(),
+                r.getEndPhaseAngle()};
+    }
+
+    /**
+     * Internal method to check the phase angles of a sibling transfer against the time the transfer takes: the
+     * destination must be half a turn ahead of the start on arrival
+     */
+    private static void checkPhaseAngle(BodyInSpace from, BodyInSpace to) {
+        TransferResult r = Calculator.compute(from, orbit(from, 200), to, orbit(to, 300));
+        double days = r.getTime() / 86400;
+
+        Assert.assertEquals(mod360(180 - to.getAngularV() * days), r.getStartPhaseAngle(), 1e-9);
+        Assert.assertEquals(mod360(180 - from.getAngularV() * days), r.getEndPhaseAngle(), 1e-9);
+
+        // The transfer object gives the same angle as the static method
+        Calculator calculator = new Calculator(from, orbit(from, 200));
+        calculator.transfer_slow(to, orbit(to, 300));
+        Assert.assertEquals(r.getStartPhaseAngle(), calculator.getStartPhaseAngle(), 0);
+    }
+
+    /**
+     * Internal method to get a circular orbit at a height above a body in km
+     */
+    private static MathEllipse orbit(BodyInSpace body, double height) {
+        double r = body.getRadius() + height * 1e3;
+        return new MathEllipse(body.getMass(), r, r);
+    }
+
+    /**
+     * Internal method to bring an angle in degrees into the range 0 to 360
+     */
+    private static double mod360(double angle) {
+        double a = angle % 360;
+        return a < 0 ? a + 360 : a;
+    }
+}
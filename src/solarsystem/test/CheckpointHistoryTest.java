@@ -0,0 +1,90 @@
+package solarsystem.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.controller.CheckpointHistory;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.RouteStage;
+import solarsystem.simulation.JourneyReport;
+
+/**
+ * Test class for the CheckpointHistory object, and for resetting a JourneyReport to a checkpoint
+ * @author Laura McGhie
+ */
+public class CheckpointHistoryTest {
+
+    @Test
+    public void testFloor() {
+        CheckpointHistory<String> history = new CheckpointHistory<>(10, 8);
+        for (long step = 0; step < 50; step++) {
+            if (history.isDue(step)) {
+                history.put(step, "step " + step);
+            }
+        }
+
+        Assert.assertEquals(5, history.size());
+        Assert.assertEquals(Long.valueOf(20), history.floor(29).getKey());
+        Assert.assertEquals("step 40", history.floor(1000).getValue());
+        Assert.assertNull(history.floor(-1));
+    }
+
+    @Test
+    public void testThinning() {
+        CheckpointHistory<Long> history = new CheckpointHistory<>(4, 8);
+        for (long step = 0; step < 10000; step++) {
+            if (history.isDue(step)) {
+                history.put(step, step);
+            }
+        }
+
+        // However long the history runs, it stays within its capacity and every step has a copy within the gap
+        Assert.assertTrue(history.size() <= 8);
+        Assert.assertEquals(0, history.floor(0).getKey().longValue());
+        for (long step = 0; step < 10000; step += 7) {
+            Assert.assertTrue(step - history.floor(step).getKey() < history.getInterval());
+        }
+    }
+
+    @Test
+    public void testDropAfter() {
+        CheckpointHistory<String> history = new CheckpointHistory<>(10, 8);
+        for (long step = 0; step < 50; step++) {
+            if (history.isDue(step)) {
+                history.put(step, "old " + step);
+            }
+        }
+
+        // Going back to step 25 and changing the path leaves only the copies up to there
+        history.dropAfter(25);
+        history.put(25, "new 25");
+        Assert.assertEquals(4, history.size());
+        Assert.assertEquals("new 25", history.floor(40).getValue());
+        Assert.assertEquals("old 20", history.floor(24).getValue());
+
+        // A copy on the step itself is kept
+        history.dropAfter(20);
+        Assert.assertEquals("old 20", history.floor(1000).getValue());
+        Assert.assertEquals(10, history.getInterval());
+    }
+
+    @Test
+    public void testReportReset() {
+        JourneyReport report = new JourneyReport();
+        RouteStage earth = new RouteStage("Earth", 200, 200);
+        RouteStage mars = new RouteStage("Mars", 300, 300);
+        TransferResult transfer = new TransferResult(1000, 2000, 86400, 40, 0, "Hohmann");
+
+        report.addWait("Earth", 3600);
+        JourneyReport.Mark mark = report.mark();
+        String text = report.toString();
+
+        report.addTransfer(earth, mars, transfer);
+        report.finish();
+        Assert.assertTrue(report.isFinished());
+
+        report.reset(mark);
+        Assert.assertFalse(report.isFinished());
+        Assert.assertEquals(text, report.toString());
+        Assert.assertEquals(3600, report.getTotalTime(), 0);
+    }
+}
@@ -0,0 +1,83 @@
+package solarsystem.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+import solarsystem.simulation.Fleet;
+import solarsystem.simulation.JourneySimulator;
+
+/**
+ * Test class for the Fleet object
+ * @author Laura McGhie
+ */
+public class FleetTest {
+
+    BodyIndex index = SpaceObjects.getIndex();
+
+    @Test
+    public void testShipsMeetDestination() throws Exception {
+        String[][] pairs = {{"Earth", "Mars"}, {"Mars", "Earth"}, {"Earth", "Moon"}, {"Moon", "Earth"},
+                {"Earth", "Jupiter"}};
+        List<List<RouteStage>> routes = new ArrayList<>();
+        double[] departures = new double[pairs.length];
+        for (int s = 0; s < pairs.length; s++) {
+            routes.add(Arrays.asList(new RouteStage(pairs[s][0], 200, 200), new RouteStage(pairs[s][1], 200, 200)));
+            departures[s] = 40 * s;
+        }
+        Fleet fleet = new Fleet(routes, departures, index, null);
+
+        for (int s = 0; s < pairs.length; s++) {
+            BodyInSpace from = index.getBody(pairs[s][0]);
+            BodyInSpace to = index.getBody(pairs[s][1]);
+
+            // Each ship starts at its first body, or on its parking orbit, and has the same totals as the journey
+            fleet.moveTo(departures[s]);
+            Assert.assertEquals(from.xAt(departures[s]), fleet.getX(s), 1e4);
+            Assert.assertEquals(from.yAt(departures[s]), fleet.getY(s), 1e4);
+            JourneySimulator journey = new JourneySimulator(routes.get(s), index, departures[s]);
+            Assert.assertEquals(journey.run().getTotalTime(), fleet.getJourneyTime(s), 1e-6);
+            Assert.assertTrue(fleet.getDeltaV(s) > 0);
+
+            // Just before the end of the transfer, the ship is about to meet its destination
+            double arrival = fleet.getArrival(s);
+            fleet.moveTo(arrival - 1e-6);
+            double gap = Math.hypot(fleet.getX(s) - to.xAt(arrival), fleet.getY(s) - to.yAt(arrival));
+            Assert.assertTrue(pairs[s][0] + " > " + pairs[s][1] + " missed by " + gap + " km", gap < 1e4);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        List<List<RouteStage>> routes = Collections.nCopies(5000,
+                Arrays.asList(new RouteStage("Earth", 200, 200), new RouteStage("Venus", 300, 300)));
+        double[] departures = new double[routes.size()];
+        for (int s = 0; s < departures.length; s++) {
+            departures[s] = s * 0.25;
+        }
+        Fleet sequential = new Fleet(routes, departures, index, null);
+        Fleet parallel = new Fleet(routes, departures, index, ForkJoinPool.commonPool());
+
+        // Move forwards and then back, so the ships have to walk their legs both ways
+        for (double time : new double[] {100, 900, 1500, 300}) {
+            sequential.moveTo(time);
+            parallel.moveTo(time);
+            Assert.assertArrayEquals(sequential.getX(), parallel.getX(), 0);
+            Assert.assertArrayEquals(sequential.getY(), parallel.getY(), 0);
+            Assert.assertEquals(sequential.getArrivedCount(), parallel.getArrivedCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingDeparture() throws Exception {
+        new Fleet(Collections.singletonList(Arrays.asList(new RouteStage("Earth", 200, 200))), new double[2],
+                index, null);
+    }
+}
@@ -0,0 +1,58 @@
+package solarsystem.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.metrics.Histogram;
+
+/**
+ * Test class for the Histogram object
+ * @author Laura McGhie
+ */
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesExact() {
+        Histogram histogram = new Histogram(1000);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(100, histogram.getMax());
+        Assert.assertEquals(50.5, histogram.getMean(), 1e-9);
+        Assert.assertEquals(50, histogram.getPercentile(50));
+        Assert.assertEquals(99, histogram.getPercentile(99));
+        Assert.assertEquals(100, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testLargeValuesWithinPrecision() {
+        Histogram histogram = new Histogram(60_000_000_000L);
+        for (long value = 1000; value <= 1_000_000_000L; value *= 3) {
+            histogram.record(value);
+            long reported = histogram.getPercentile(100);
+            Assert.assertTrue(reported >= value);
+            histogram.reset();
+        }
+
+        // Values in the same bucket are reported as the top of the bucket, within 1/64 of the value
+        histogram.record(123_456_789L);
+        histogram.record(987_654_321L);
+        long median = histogram.getPercentile(50);
+        Assert.assertTrue(median >= 123_456_789L && median <= 123_456_789L * 65 / 64);
+    }
+
+    @Test
+    public void testClampedAndReset() {
+        Histogram histogram = new Histogram(500);
+        histogram.record(-5);
+        histogram.record(10_000);
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(500, histogram.getMax());
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+}
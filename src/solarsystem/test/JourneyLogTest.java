@@ -0,0 +1,112 @@
+package solarsystem.test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.RouteStage;
+import solarsystem.simulation.JourneyLog;
+import solarsystem.simulation.JourneyReport;
+
+/**
+ * Test class for the JourneyLog object
+ * @author Laura McGhie
+ */
+public class JourneyLogTest {
+
+    Path text, binary, saved;
+    JourneyLog log;
+
+    @Before
+    public void setUp() throws Exception {
+        text = Files.createTempFile("journey", ".txt");
+        binary = Files.createTempFile("journey", ".bin");
+        saved = Files.createTempFile("journey", ".saved");
+        log = new JourneyLog(text, binary, JourneyLog.Sync.NONE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        log.closeAndWait();
+        Files.deleteIfExists(text);
+        Files.deleteIfExists(binary);
+        Files.deleteIfExists(saved);
+    }
+
+    /**
+     * Internal method to add a journey of the given number of legs to a report
+     */
+    private static void addJourney(JourneyReport report, int legs) {
+        String[] bodies = {"Earth", "Moon", "Mars", "Phobos"};
+        for (int i = 0; i < legs; i++) {
+            RouteStage start = new RouteStage(bodies[i % 4], 200 + i, 200);
+            RouteStage end = new RouteStage(bodies[(i + 1) % 4], 300, 300 - i % 7);
+            report.addWait(start.getBody(), 3600.5 * i);
+            report.addTransfer(start, end, new TransferResult(1000 + i, 2000 - i, 86400.25 * i, 0, 0,
+                    i % 2 == 0 ? "Hohmann" : "Escape"));
+        }
+        report.finish();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // Far more events than the queue holds, all added at once, so the writer falls behind
+        JourneyReport report = new JourneyReport(log);
+        addJourney(report, 1000);
+        log.saveTextTo(saved);
+        log.closeAndWait();
+
+        String expected = report.toString();
+        Assert.assertEquals(expected, new String(Files.readAllBytes(text), StandardCharsets.UTF_8));
+        Assert.assertEquals(expected, new String(Files.readAllBytes(saved), StandardCharsets.UTF_8));
+
+        JourneyReport replayed = new JourneyReport();
+        JourneyLog.replay(binary, replayed);
+        Assert.assertEquals(expected, replayed.toString());
+        Assert.assertTrue(replayed.isFinished());
+        Assert.assertEquals(report.getTotalTime(), replayed.getTotalTime(), 1e-6);
+    }
+
+    @Test
+    public void testFailedSave() throws Exception {
+        // A copy into a folder which does not exist fails on its own, and the log carries on being written
+        JourneyReport report = new JourneyReport(log);
+        report.addWait("Earth", 60);
+        CompletableFuture<Void> failed = log.saveTextTo(saved.resolveSibling("missing").resolve("journey.txt"));
+        try {
+            failed.get(10, TimeUnit.SECONDS);
+            Assert.fail("Save into a missing folder should fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+
+        addJourney(report, 2);
+        log.saveTextTo(saved).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.toString(), new String(Files.readAllBytes(saved), StandardCharsets.UTF_8));
+
+        // Once the log is closed, a copy fails straight away rather than waiting for a writer which has gone
+        log.closeAndWait();
+        Assert.assertTrue(log.saveTextTo(saved).isCompletedExceptionally());
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncated() throws Exception {
+        addJourney(new JourneyReport(log), 3);
+        log.closeAndWait();
+
+        // Cut the last record short, as if the machine stopped part way through writing it
+        byte[] bytes = Files.readAllBytes(binary);
+        Files.write(binary, Arrays.copyOf(bytes, bytes.length - 3));
+        JourneyLog.replay(binary, new JourneyReport());
+    }
+}
@@ -0,0 +1,169 @@
+package solarsystem.test;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.simulation.EventScheduler;
+import solarsystem.simulation.JourneySimulator;
+
+/**
+ * Test class for the JourneySimulator object
+ * @author Laura McGhie
+ */
+public class JourneySimulatorTest {
+
+    BodyIndex index;
+    List<RouteStage> route;
+
+    @Before
+    public void setUp() throws Exception {
+        // Small system of a star with two planets, starting at random angles
+        BodyInSpace star = new BodyInSpace("Star", 1391684, 1.989e30, 0, 0, 0, null);
+        BodyInSpace inner = new BodyInSpace("Inner", 12742, 5.972e24, 149.6e6, 365.25,
+                Math.random() * 2 * Math.PI, star);
+        BodyInSpace outer = new BodyInSpace("Outer", 6779, 6.417e23, 227.9e6, 687,
+                Math.random() * 2 * Math.PI, star);
+        index = new BodyIndex(Arrays.asList(inner, outer));
+
+        route = Arrays.asList(new RouteStage("Inner", 0, 0), new RouteStage("Inner", 200, 200),
+                new RouteStage("Outer", 300, 300));
+    }
+
+    @Test
+    public void testRunToCompletion() throws Exception {
+        JourneySimulator simulator = new JourneySimulator(route, index, 0);
+
+        // Each event only moves on by one phase
+        Assert.assertTrue(simulator.nextEvent() != JourneySimulator.Phase.COMPLETE);
+        Assert.assertEquals(0, simulator.getStage());
+        double total = simulator.run().getTotalTime();
+
+        // The journey takes as long as the waits and transfers in the summary
+        Assert.assertEquals(JourneySimulator.Phase.COMPLETE, simulator.getPhase());
+        Assert.assertEquals(total / 86400, simulator.getTime(), 1e-9);
+        Assert.assertTrue(simulator.getReport().toString().contains("Total Journey Time"));
+    }
+
+    @Test
+    public void testAdvanceMatchesRun() throws Exception {
+        JourneySimulator events = new JourneySimulator(route, index, 10);
+        events.run();
+
+        // Moving on in small steps should pass through the same phases and finish at the same time
+        JourneySimulator steps = new JourneySimulator(route, index, 10);
+        while (steps.advance(0.5)) {
+            Assert.assertTrue(steps.getTime() <= steps.getPhaseEnd());
+        }
+        Assert.assertEquals(events.getTime(), steps.getTime(), 1e-9);
+        Assert.assertEquals(events.getReport().toString(), steps.getReport().toString());
+    }
+
+    @Test
+    public void testSharedScheduler() throws Exception {
+        JourneySimulator alone = new JourneySimulator(route, index, 5);
+        alone.run();
+
+        // Two journeys on one timeline each finish as if they had run alone
+        EventScheduler<JourneySimulator.Event> scheduler = new EventScheduler<>(5);
+        JourneySimulator first = new JourneySimulator(route, index, scheduler);
+        JourneySimulator second = new JourneySimulator(route, index, scheduler);
+        Assert.assertEquals(JourneySimulator.Event.DEPARTURE, first.getNextEvent());
+        while (scheduler.runNext()) {
+            Assert.assertTrue(scheduler.getTime() <= alone.getTime());
+        }
+        Assert.assertEquals(alone.getTime(), first.getTime(), 1e-9);
+        Assert.assertEquals(alone.getTime(), second.getTime(), 1e-9);
+        Assert.assertNull(first.getNextEvent());
+    }
+
+    @Test
+    public void testHeld() throws Exception {
+        JourneySimulator simulator = new JourneySimulator(route, index, 0);
+        simulator.setHeld(true);
+
+        // The orbit of the first stage waits to be released, however far the simulation moves on
+        Assert.assertTrue(simulator.isHolding());
+        Assert.assertTrue(Double.isInfinite(simulator.getPhaseEnd()));
+        Assert.assertEquals(JourneySimulator.Event.DEPARTURE, simulator.getNextEvent());
+        Assert.assertTrue(simulator.advance(100));
+        Assert.assertEquals(JourneySimulator.Phase.ORBIT, simulator.getPhase());
+
+        // Once released, the phase ends at that time, and the move into orbit of the same body is held in turn
+        simulator.release();
+        Assert.assertEquals(100, simulator.getPhaseEnd(), 0);
+        simulator.advance(0);
+        Assert.assertEquals(JourneySimulator.Phase.TRANSFER, simulator.getPhase());
+        Assert.assertEquals(100, simulator.getPhaseStart(), 0);
+        Assert.assertTrue(simulator.isHolding());
+
+        // A copy carries on by itself, leaving the journey it was copied from where it was
+        simulator.advance(20);
+        JourneySimulator copy = new JourneySimulator(simulator);
+        Assert.assertEquals(JourneySimulator.Phase.COMPLETE, runHeld(copy));
+        Assert.assertEquals(JourneySimulator.Phase.TRANSFER, simulator.getPhase());
+        Assert.assertEquals(0, simulator.getStage());
+        Assert.assertEquals(120, simulator.getTime(), 0);
+
+        // Letting go of the simulator ends the held phase, and the journey then runs as the copy did
+        simulator.setHeld(false);
+        simulator.run();
+        Assert.assertEquals(copy.getTime(), simulator.getTime(), 1e-9);
+    }
+
+    /**
+     * Internal method to run a held journey to its end, releasing each held phase straight away
+     */
+    private static JourneySimulator.Phase runHeld(JourneySimulator simulator) {
+        while (simulator.getPhase() != JourneySimulator.Phase.COMPLETE) {
+            if (simulator.isHolding()) {
+                simulator.release();
+            }
+            Assert.assertTrue(simulator.getPhaseEnd() >= simulator.getTime());
+            simulator.advance(simulator.getPhaseEnd() - simulator.getTime());
+        }
+        return simulator.getPhase();
+    }
+
+    @Test
+    public void testSchedulerOrder() throws Exception {
+        final StringBuilder order = new StringBuilder();
+        EventScheduler.Handler<String> handler = new EventScheduler.Handler<String>() {
+            @Override
+            public void handle(String event, double time) {
+                order.append(event);
+            }
+        };
+
+        // Events run in time order, with ties in the order they were scheduled, and cancelled events never run
+        EventScheduler<String> scheduler = new EventScheduler<>(0);
+        scheduler.schedule(2, "c", handler);
+        scheduler.schedule(1, "a", handler);
+        scheduler.schedule(1, "b", handler);
+        EventScheduler.Entry<String> cancelled = scheduler.schedule(1.5, "x", handler);
+        Assert.assertTrue(scheduler.cancel(cancelled));
+        Assert.assertFalse(scheduler.isScheduled(cancelled));
+
+        Assert.assertEquals(2, scheduler.runUntil(1.5));
+        Assert.assertEquals(1.5, scheduler.getTime(), 0);
+        Assert.assertEquals(2, scheduler.getNextTime(), 0);
+        scheduler.runUntil(10);
+        Assert.assertEquals("abc", order.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScheduleInPast() throws Exception {
+        EventScheduler<String> scheduler = new EventScheduler<>(3);
+        scheduler.schedule(2, "late", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBody() throws Exception {
+        new JourneySimulator(Arrays.asList(new RouteStage("Inner", 0, 0), new RouteStage("Pluto", 0, 0)),
+                index, 0);
+    }
+}
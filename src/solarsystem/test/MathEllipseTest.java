@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import solarsystem.math.MathEllipse;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.RouteStage;
 
 /**
  * Test class for the MathEllipse object
@@ -106,4 +108,14 @@ public class MathEllipseTest {
 
         Assert.assertTrue(Math.abs(ellipse.speed_a() - res) < (res/5));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testForStage() throws Exception {
+        // Heights of the stage in km are measured from the surface, and the ellipse from the centre in m
+        BodyInSpace planet = new BodyInSpace("Planet", 12000, 6e24, 1e8, 365, 0, null);
+        MathEllipse orbit = MathEllipse.forStage(planet, new RouteStage("Planet", 500, 200));
+        Assert.assertEquals(6000e3 + 500e3, orbit.apoapse(), 1e-3);
+        Assert.assertEquals(6000e3 + 200e3, orbit.periapse(), 1e-3);
+        Assert.assertNull(MathEllipse.forStage(planet, new RouteStage("Planet", 0, 0)));
+    }
+}
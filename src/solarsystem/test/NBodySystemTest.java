@@ -0,0 +1,81 @@
+package solarsystem.test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.objects.SpaceObjects;
+import solarsystem.simulation.NBodySystem;
+
+/**
+ * Test class for the NBodySystem object
+ * @author Laura McGhie
+ */
+public class NBodySystemTest {
+
+    @Test
+    public void testCircularOrbitReturns() {
+        // A light body on a circular orbit of 1e10 m around a heavy one
+        double heavy = 1e30;
+        double radius = 1e10;
+        double speed = Math.sqrt(NBodySystem.GRAVITATIONAL_C * heavy / radius);
+        double period = 2 * Math.PI * radius / speed / 86400;
+
+        NBodySystem system = new NBodySystem(new double[] {heavy, 1}, new double[] {0, 0},
+                new double[] {0, -radius}, new double[] {0, speed}, new double[] {0, 0}, null);
+        system.advance(period);
+
+        Assert.assertEquals(period, system.getTime(), 1e-9);
+        Assert.assertEquals(0, system.getX(1), radius / 1000 * 1e-3);
+        Assert.assertEquals(-radius / 1000, system.getY(1), radius / 1000 * 1e-3);
+    }
+
+    @Test
+    public void testCatalogKeepsOrbits() {
+        NBodySystem system = new NBodySystem(0);
+        int earth = system.indexOf(SpaceObjects.getBody("Earth"));
+        int moon = system.indexOf(SpaceObjects.getBody("Moon"));
+        Assert.assertEquals(SpaceObjects.getIndex().size() + 1, system.size());
+
+        double energy = system.getEnergy();
+        system.advance(30);
+
+        // Energy is kept by the leapfrog steps, and the bodies stay close to their catalog orbits
+        Assert.assertEquals(1, system.getEnergy() / energy, 1e-9);
+        Assert.assertEquals(1.496e8, system.getDistance(earth, 0), 1.496e8 * 0.01);
+        Assert.assertEquals(3.84e5, system.getDistance(moon, earth), 3.84e5 * 0.05);
+    }
+
+    @Test
+    public void testStepLimit() {
+        NBodySystem system = new NBodySystem(0);
+        system.setMaxStep(100);
+
+        // A day needs 864 steps of 100 s, so 10 steps only cover 1000 s
+        double covered = system.advance(1, 10);
+        Assert.assertEquals(1000.0 / 86400, covered, 1e-12);
+        Assert.assertEquals(covered, system.getTime(), 1e-12);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        // Enough bodies for the accelerations to be worked out in parallel
+        int count = 1000;
+        Random random = new Random(7);
+        double[] mass = new double[count], x = new double[count], y = new double[count];
+        double[] vx = new double[count], vy = new double[count];
+        for (int i = 0; i < count; i++) {
+            mass[i] = 1e20 * (1 + random.nextDouble());
+            x[i] = 1e10 * random.nextGaussian();
+            y[i] = 1e10 * random.nextGaussian();
+        }
+
+        NBodySystem sequential = new NBodySystem(mass, x, y, vx, vy, null);
+        NBodySystem parallel = new NBodySystem(mass, x, y, vx, vy, ForkJoinPool.commonPool());
+        for (int i = 0; i < count; i++) {
+            double scale = Math.abs(sequential.getAccelerationX(i)) + Math.abs(sequential.getAccelerationY(i));
+            Assert.assertEquals(sequential.getAccelerationX(i), parallel.getAccelerationX(i), scale * 1e-9);
+            Assert.assertEquals(sequential.getAccelerationY(i), parallel.getAccelerationY(i), scale * 1e-9);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package solarsystem.test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.math.PorkchopPlot;
+import solarsystem.math.TransferResult;
+import solarsystem.math.TransferWindowSolver;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Test class for the PorkchopPlot object
+ * @author Laura McGhie
+ */
+public class PorkchopPlotTest {
+
+    BodyInSpace earth;
+    MathEllipse parking;
+    PorkchopPlot plot;
+
+    @Before
+    public void setUp() throws Exception {
+        earth = SpaceObjects.getBody("Earth");
+        double r = earth.getRadius() + 200e3;
+        parking = new MathEllipse(earth.getMass(), r, r);
+
+        // Every neighbour of the Earth, with a departure every 37 days
+        plot = new PorkchopPlot(earth, parking, 300, 300, 10, 37, 6);
+    }
+
+    @Test
+    public void testMatchesSerial() throws Exception {
+        double[] results = plot.compute(new ForkJoinPool(2));
+        List<BodyInSpace> destinations = plot.getDestinations();
+        Assert.assertFalse(destinations.isEmpty());
+        Assert.assertEquals(destinations.size() * 6 * PorkchopPlot.FIELDS, results.length);
+
+        boolean waited = false;
+        for (int d = 0; d < destinations.size(); d++) {
+            BodyInSpace to = destinations.get(d);
+            double r = to.getRadius() + 300e3;
+            TransferResult transfer = Calculator.compute(earth, parking, to, new MathEllipse(to.getMass(), r, r));
+
+            for (int t = 0; t < 6; t++) {
+                int i = plot.getIndex(d, t);
+                Assert.assertEquals(transfer.getExitDeltaV(), results[i + PorkchopPlot.DV_EXIT], 0);
+                Assert.assertEquals(transfer.getEntryDeltaV(), results[i + PorkchopPlot.DV_ENTRY], 0);
+                Assert.assertEquals(transfer.getTime(), results[i + PorkchopPlot.TRANSFER_TIME], 0);
+
+                // Only transfers to siblings wait for a window
+                double wait = 0;
+                if (earth.isSibling(to)) {
+                    double time = 10 + 37 * t;
+                    TransferWindowSolver solver = new TransferWindowSolver(earth, to,
+                            transfer.getStartPhaseAngle());
+                    wait = solver.timeToWindow(earth.angleAt(time), to.angleAt(time)) * 86400;
+                    waited |= wait > 0;
+                }
+                Assert.assertEquals(wait, results[i + PorkchopPlot.WAIT_TIME], 1e-6);
+            }
+        }
+        Assert.assertTrue(waited);
+    }
+
+    @Test
+    public void testWriteCsv() throws Exception {
+        double[] results = plot.compute();
+        StringWriter writer = new StringWriter();
+        plot.writeCsv(writer);
+
+        String[] lines = writer.toString().split("\n");
+        Assert.assertEquals("destination,departure,dv_exit,dv_entry,transfer_time,wait_time", lines[0]);
+        Assert.assertEquals(plot.getDestinations().size() * 6 + 1, lines.length);
+
+        // Cells are written destination by destination, in departure order
+        String[] cell = lines[2].split(",");
+        Assert.assertEquals(plot.getDestinations().get(0).getName(), cell[0]);
+        Assert.assertEquals(47, Double.parseDouble(cell[1]), 1e-9);
+        int i = plot.getIndex(0, 1);
+        Assert.assertEquals(results[i + PorkchopPlot.DV_EXIT], Double.parseDouble(cell[2]), 0.05);
+        Assert.assertEquals(results[i + PorkchopPlot.WAIT_TIME], Double.parseDouble(cell[5]), 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLandedStart() throws Exception {
+        new PorkchopPlot(earth, null, 300, 300, 0, 1, 1);
+    }
+}
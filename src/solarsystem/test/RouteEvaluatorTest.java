@@ -0,0 +1,110 @@
+package solarsystem.test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import solarsystem.cli.RouteEvaluator;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Test class for the RouteEvaluator command line tool
+ * @author Laura McGhie
+ */
+public class RouteEvaluatorTest {
+
+    // Routes which can be costed, and lines which cannot be read as routes
+    static final String[] ROUTES = {"Earth > Earth 200 200 > Mars 300 300 > Mars", "Moon 100 100 > Earth 400 400",
+            "Jupiter 5000 5000 > Io 200 200 > Europa 200 200"};
+    static final String[] INVALID = {"Earth", "Earth 200 > Mars 300 300", "Earth x y > Mars 300 300",
+            "Earth 200 200 > > Mars 300 300", "Earth 200 200 > Vulcan 300 300", "Earth 200 200 > Io 300 300"};
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // The failures are expected, so the warnings they log are not needed
+        Logger.getLogger(RouteEvaluator.class.getName()).setLevel(Level.OFF);
+    }
+
+    /**
+     * Internal method to evaluate the given lines and return the output, checking the number of failed routes
+     */
+    private static String evaluate(RouteEvaluator evaluator, String input, int failed) throws Exception {
+        StringWriter out = new StringWriter();
+        Assert.assertEquals(failed, evaluator.evaluate(new StringReader(input), out));
+        return out.toString();
+    }
+
+    @Test
+    public void testParseErrors() throws Exception {
+        // Each bad line gives a single error line for its route, between the routes either side
+        StringBuilder input = new StringBuilder("# comment\n\n");
+        for (String line : INVALID) {
+            input.append(ROUTES[0]).append('\n').append(line).append('\n');
+        }
+        RouteEvaluator evaluator = new RouteEvaluator(SpaceObjects.getIndex(), RouteEvaluator.Format.JSONL, 3);
+        String[] lines = evaluate(evaluator, input.toString(), INVALID.length).split("\n");
+
+        Assert.assertEquals(2 * INVALID.length, lines.length);
+        for (int i = 0; i < INVALID.length; i++) {
+            Assert.assertTrue(lines[2 * i].startsWith("{\"route\":" + (2 * i + 3) + ",\"legs\":["));
+            Assert.assertTrue(lines[2 * i + 1].startsWith("{\"route\":" + (2 * i + 4) + ",\"error\":"));
+        }
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        // Many more routes than can be waiting at once, costed over several threads, must come out in input order
+        int count = 2000;
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            input.append(i % 10 == 9 ? INVALID[i % INVALID.length] : ROUTES[i % ROUTES.length]).append('\n');
+        }
+        int failed = count / 10;
+
+        RouteEvaluator single = new RouteEvaluator(SpaceObjects.getIndex(), RouteEvaluator.Format.CSV, 1);
+        RouteEvaluator threaded = new RouteEvaluator(SpaceObjects.getIndex(), RouteEvaluator.Format.CSV, 4);
+        String expected = evaluate(single, input.toString(), failed);
+        Assert.assertEquals(expected, evaluate(threaded, input.toString(), failed));
+
+        // The first field of each line after the header is the route, which is its line in the input
+        String[] lines = expected.split("\n");
+        Assert.assertEquals("route,leg,from,to,type,exit_dv,entry_dv,total_dv,time_s,error", lines[0]);
+        int last = 0;
+        for (int i = 1; i < lines.length; i++) {
+            int route = Integer.parseInt(lines[i].substring(0, lines[i].indexOf(',')));
+            Assert.assertTrue(route >= last);
+            last = route;
+        }
+        Assert.assertEquals(count, last);
+
+        RouteEvaluator json = new RouteEvaluator(SpaceObjects.getIndex(), RouteEvaluator.Format.JSONL, 4);
+        lines = evaluate(json, input.toString(), failed).split("\n");
+        Assert.assertEquals(count, lines.length);
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(lines[i].startsWith("{\"route\":" + (i + 1) + ","));
+        }
+    }
+
+    @Test
+    public void testUnexpectedFailure() throws Exception {
+        // Two bodies without a parent cannot be compared by the calculator, which fails with more than a bad argument
+        BodyInSpace star = new BodyInSpace("Star", 1000, 1e30, 0, 0, 0, null);
+        BodyInSpace rogue = new BodyInSpace("Rogue", 1000, 1e24, 0, 0, 0, null);
+        BodyInSpace planet = new BodyInSpace("Planet", 1000, 1e24, 1e8, 365, 0, star);
+        BodyIndex index = new BodyIndex(Arrays.asList(star, rogue, planet));
+
+        RouteEvaluator evaluator = new RouteEvaluator(index, RouteEvaluator.Format.CSV, 2);
+        String input = "Star 100 100 > Rogue 100 100\nPlanet 100 100 > Star 100 100\n";
+        String[] lines = evaluate(evaluator, input, 1).split("\n");
+        Assert.assertEquals(4, lines.length);
+        Assert.assertTrue(lines[1].startsWith("1,,,,,,,,,\"java.lang.NullPointerException"));
+        Assert.assertTrue(lines[2].startsWith("2,1,Planet,Star,"));
+        Assert.assertTrue(lines[3].startsWith("2,total,Planet,Star,"));
+    }
+}
@@ -0,0 +1,189 @@
+package solarsystem.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import solarsystem.math.Calculator;
+import solarsystem.math.MathEllipse;
+import solarsystem.math.RoutePlanner;
+import solarsystem.math.TransferResult;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Test class for the RoutePlanner object
+ * @author Laura McGhie
+ */
+public class RoutePlannerTest {
+
+    private static final double PARKING = 200;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Logger.getLogger(Calculator.class.getName()).setLevel(Level.OFF);
+    }
+
+    @Test
+    public void testMatchesFullSearch() throws Exception {
+        // Every system in the catalog is small enough to be searched in full, so the routes must be the cheapest
+        BodyIndex index = SpaceObjects.getIndex();
+        RoutePlanner planner = new RoutePlanner(index, PARKING);
+        String[] bodies = {"Earth", "Moon", "Mars", "Io", "Titan", "Proteus", "Pluto", "Mercury"};
+        for (RoutePlanner.Cost cost : RoutePlanner.Cost.values()) {
+            for (String from : bodies) {
+                for (String to : bodies) {
+                    if (from.equals(to)) {
+                        // Staying at the same body is only a change of orbit, which is checked on its own
+                        continue;
+                    }
+                    RoutePlanner.PlannedRoute route = planner.plan(new RouteStage(from, 300, 300),
+                            new RouteStage(to, 400, 400), cost);
+                    double expected = fullSearch(index, index.getId(from), index.getId(to), 300, 400, cost);
+                    double actual = cost == RoutePlanner.Cost.TIME ? route.getTotalTime() : route.getTotalDeltaV();
+                    Assert.assertEquals(from + " > " + to, expected, actual, 1e-6 * Math.max(1, expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRouteStages() throws Exception {
+        RoutePlanner planner = new RoutePlanner(PARKING);
+        RoutePlanner.PlannedRoute route = planner.plan(new RouteStage("Earth", 0, 0), new RouteStage("Io", 0, 0));
+
+        // Launch, leave for Jupiter, drop to Io, and land
+        List<RouteStage> stages = route.getStages();
+        Assert.assertEquals("Earth", stages.get(0).getBody());
+        Assert.assertTrue(stages.get(0).isLanded());
+        Assert.assertEquals("Io", stages.get(stages.size() - 1).getBody());
+        Assert.assertTrue(stages.get(stages.size() - 1).isLanded());
+        Assert.assertEquals(stages.size() - 1, route.getLegs().size());
+        boolean jupiter = false;
+        for (RouteStage stage : stages) {
+            jupiter |= stage.getBody().equals("Jupiter");
+        }
+        Assert.assertTrue(jupiter);
+    }
+
+    @Test
+    public void testSameBody() throws Exception {
+        RoutePlanner planner = new RoutePlanner(PARKING);
+        RoutePlanner.PlannedRoute route = planner.plan(new RouteStage("Mars", 300, 300),
+                new RouteStage("Mars", 0, 0));
+        Assert.assertEquals(2, route.getStages().size());
+        Assert.assertEquals(1, route.getLegs().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBody() throws Exception {
+        new RoutePlanner(PARKING).plan(new RouteStage("Earth", 0, 0), new RouteStage("Vulcan", 0, 0));
+    }
+
+    @Test
+    public void testLargeCatalog() throws Exception {
+        // The catalog with 20000 asteroids around the Sun
+        BodyIndex index = withAsteroids(20000);
+        RoutePlanner planner = new RoutePlanner(index, PARKING);
+        RouteStage start = new RouteStage("Earth", 300, 300);
+        RouteStage end = new RouteStage("Io", 400, 400);
+
+        // Warm up, then time a number of searches
+        RoutePlanner.PlannedRoute route = null;
+        for (int i = 0; i < 20; i++) {
+            route = planner.plan(start, end);
+        }
+        int runs = 50;
+        long begin = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            route = planner.plan(start, end);
+        }
+        double millis = (System.nanoTime() - begin) / 1e6 / runs;
+        Assert.assertTrue("Search took " + millis + " ms", millis < 10);
+
+        // The route is no dearer than going straight to Jupiter and down to Io
+        Assert.assertEquals("Io", route.getStages().get(route.getStages().size() - 1).getBody());
+        double direct = fullSearch(SpaceObjects.getIndex(), SpaceObjects.getIndex().getId("Earth"),
+                SpaceObjects.getIndex().getId("Io"), 300, 400, RoutePlanner.Cost.DELTA_V);
+        Assert.assertTrue(route.getTotalDeltaV() <= direct * (1 + 1e-9));
+
+        // Planning by time works over the same catalog
+        route = planner.plan(start, end, RoutePlanner.Cost.TIME);
+        Assert.assertEquals("Io", route.getStages().get(route.getStages().size() - 1).getBody());
+    }
+
+    /**
+     * Internal method to add asteroids on circular orbits around the Sun to the catalog
+     */
+    static BodyIndex withAsteroids(int count) {
+        BodyIndex real = SpaceObjects.getIndex();
+        List<BodyInSpace> bodies = new ArrayList<>();
+        for (int i = 0; i < real.size(); i++) {
+            bodies.add(real.getBody(i));
+        }
+        Random random = new Random(3);
+        BodyInSpace sun = SpaceObjects.getSun();
+        for (int i = 0; i < count; i++) {
+            double orbit = (0.3 + random.nextDouble() * 40) * 149.6e6;
+            bodies.add(new BodyInSpace("Asteroid" + i, 1 + random.nextDouble() * 500, 1e15 + random.nextDouble() * 1e20,
+                    orbit, 365.25 * Math.pow(orbit / 149.6e6, 1.5), random.nextDouble() * 2 * Math.PI, sun));
+        }
+        return new BodyIndex(bodies);
+    }
+
+    /**
+     * Internal method to find the cost of the cheapest route with a plain search over every leg
+     */
+    private static double fullSearch(BodyIndex index, int source, int target, double startHeight, double endHeight,
+                                     RoutePlanner.Cost cost) {
+        int n = index.size();
+        double[] distance = new double[n];
+        boolean[] done = new boolean[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0;
+
+        while (true) {
+            int current = -1;
+            for (int i = 0; i < n; i++) {
+                if (!done[i] && (current == -1 || distance[i] < distance[current])) {
+                    current = i;
+                }
+            }
+            if (current == -1 || current == target || distance[current] == Double.POSITIVE_INFINITY) {
+                break;
+            }
+            done[current] = true;
+
+            BodyInSpace from = index.getBody(current);
+            MathEllipse fromOrbit = orbit(from, current == source ? startHeight : PARKING);
+            for (int next = 0; next < n; next++) {
+                BodyInSpace to = index.getBody(next);
+                boolean joined = next != current && (index.getParentId(next) == index.getParentId(current)
+                        || index.getParentId(next) == current || index.getParentId(current) == next);
+                if (!joined || done[next]) {
+                    continue;
+                }
+                TransferResult leg = Calculator.compute(from, fromOrbit, to,
+                        orbit(to, next == target ? endHeight : PARKING));
+                double total = distance[current]
+                        + (cost == RoutePlanner.Cost.TIME ? leg.getTime() : leg.getTotalDeltaV());
+                distance[next] = Math.min(distance[next], total);
+            }
+        }
+        return distance[target];
+    }
+
+    /**
+     * Internal method to get a circular orbit at a height above a body in km
+     */
+    private static MathEllipse orbit(BodyInSpace body, double height) {
+        return new MathEllipse(body.getMass(), body.getRadius() + height * 1e3);
+    }
+}
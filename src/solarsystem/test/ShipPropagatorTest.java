@@ -0,0 +1,90 @@
+package solarsystem.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.RouteStage;
+import solarsystem.objects.SpaceObjects;
+import solarsystem.simulation.NBodySystem;
+import solarsystem.simulation.RoutePropagator;
+import solarsystem.simulation.ShipPropagator;
+
+/**
+ * Test class for the ShipPropagator and RoutePropagator objects
+ * @author Laura McGhie
+ */
+public class ShipPropagatorTest {
+
+    private final BodyInSpace sun = SpaceObjects.getSun();
+    private final double mu = NBodySystem.GRAVITATIONAL_C * sun.getMass();
+    private final BodyIndex empty = new BodyIndex(Collections.<BodyInSpace>emptyList());
+
+    @Test
+    public void testCircularOrbitReturns() {
+        double radius = 1.496e11;
+        double period = 2 * Math.PI * Math.sqrt(radius * radius * radius / mu) / 86400;
+        ShipPropagator ship = new ShipPropagator(sun, empty, 0, 0, -radius, Math.sqrt(mu / radius), 0);
+
+        ShipPropagator.Event event = ship.propagate(period);
+        Assert.assertEquals(ShipPropagator.EventType.TIME_LIMIT, event.getType());
+        Assert.assertEquals(0, ship.getX(), 1e3);
+        Assert.assertEquals(-radius, ship.getY(), 1e3);
+
+        // Cruise steps are long, so a whole year takes only a few hundred
+        Assert.assertTrue(ship.getSteps() < 500);
+    }
+
+    @Test
+    public void testApsisEvents() {
+        double periapse = 1.496e11, apoapse = 2.28e11;
+        double a = (periapse + apoapse) / 2;
+        double half = Math.PI * Math.sqrt(a * a * a / mu) / 86400;
+        ShipPropagator ship = new ShipPropagator(sun, empty, 0, 0, -periapse,
+                Math.sqrt(mu * (2 / periapse - 1 / a)), 0);
+
+        ShipPropagator.Event event = ship.propagate(1000);
+        Assert.assertEquals(ShipPropagator.EventType.APOAPSIS, event.getType());
+        Assert.assertEquals(half, event.getTime(), 1e-6);
+        Assert.assertEquals(apoapse, event.getDistance(), 1e3);
+
+        event = ship.propagate(1000);
+        Assert.assertEquals(ShipPropagator.EventType.PERIAPSIS, event.getType());
+        Assert.assertEquals(2 * half, event.getTime(), 1e-6);
+    }
+
+    @Test
+    public void testEscapeLeavesSphereOfInfluence() {
+        BodyInSpace earth = SpaceObjects.getBody("Earth");
+        double radius = earth.getRadius() + 2e5;
+        double escape = Math.sqrt(2 * NBodySystem.GRAVITATIONAL_C * earth.getMass() / radius);
+        ShipPropagator ship = new ShipPropagator(earth, 0, 0, -radius, 1.1 * escape, 0);
+
+        ShipPropagator.Event event = ship.propagate(100);
+        Assert.assertEquals(ShipPropagator.EventType.SOI_EXIT, event.getType());
+        Assert.assertSame(earth, event.getBody());
+        Assert.assertSame(sun, event.getFrame());
+
+        // Back in the frame of the Sun, the ship is about as far from it as the Earth is
+        Assert.assertEquals(earth.getOrbitInM(), event.getDistance(), 1e-2 * earth.getOrbitInM());
+    }
+
+    @Test
+    public void testRouteReachesEveryStage() {
+        List<RouteStage> route = Arrays.asList(new RouteStage("Earth", 0, 0), new RouteStage("Earth", 200, 200),
+                new RouteStage("Moon", 100, 100), new RouteStage("Earth", 300, 300),
+                new RouteStage("Mars", 300, 300), new RouteStage("Mars", 0, 0));
+
+        List<RoutePropagator.Leg> legs = new RoutePropagator(route).run();
+        Assert.assertEquals(route.size() - 1, legs.size());
+        for (RoutePropagator.Leg leg : legs) {
+            Assert.assertTrue(leg.toString(), leg.isReached());
+            Assert.assertTrue(leg.toString(), leg.getSteps() < 1000);
+        }
+        Assert.assertEquals(ShipPropagator.EventType.SOI_ENTRY, legs.get(3).getEvent().getType());
+        Assert.assertSame(SpaceObjects.getBody("Mars"), legs.get(3).getEvent().getFrame());
+    }
+}
@@ -0,0 +1,94 @@
+package solarsystem.test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.objects.BodyCatalog;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.BodyIndex;
+import solarsystem.objects.CatalogLoader;
+import solarsystem.objects.SpaceObjects;
+
+/**
+ * Test class for the SpaceObjects and the catalog they are loaded from
+ * @author Laura McGhie
+ */
+public class SpaceObjectsTest {
+
+    @Test
+    public void testPlanets() throws Exception {
+        // Only the bodies marked as planets are listed
+        Map<String, BodyInSpace> planets = SpaceObjects.getPlanets();
+        Assert.assertEquals(9, planets.size());
+        for (BodyInSpace planet : planets.values()) {
+            Assert.assertSame(SpaceObjects.getSun(), planet.getParent());
+        }
+        Assert.assertSame(planets.get("Earth"), SpaceObjects.getBody("Earth"));
+        Assert.assertTrue(SpaceObjects.getChildren("Sun").isEmpty());
+    }
+
+    @Test
+    public void testBodies() throws Exception {
+        // Bodies created by name, through the children of a planet and through the index are the same objects
+        BodyInSpace moon = SpaceObjects.getBody("Moon");
+        Assert.assertSame(SpaceObjects.getBody("Earth"), moon.getParent());
+        Assert.assertSame(moon, SpaceObjects.getChildren("Earth").get("Moon"));
+        Assert.assertEquals(12, SpaceObjects.getChildren("Jupiter").size());
+        Assert.assertNull(SpaceObjects.getBody("Vulcan"));
+        Assert.assertNull(SpaceObjects.getBody("Sun"));
+
+        BodyIndex index = SpaceObjects.getIndex();
+        Assert.assertSame(moon, index.getBody(index.getId("Moon")));
+        Assert.assertSame(SpaceObjects.getBody("Charon"), index.getBody(index.getId("Charon")));
+        Assert.assertEquals(-1, index.getId("Sun"));
+
+        // Neighbours are the siblings, children and parent, but never the Sun
+        Assert.assertTrue(SpaceObjects.getNeighbours("Moon").contains(SpaceObjects.getBody("Earth")));
+        Assert.assertEquals(1, SpaceObjects.getNeighbours("Moon").size());
+        Assert.assertEquals(8 + 1, SpaceObjects.getNeighbours("Earth").size());
+    }
+
+    @Test
+    public void testScale() throws Exception {
+        Assert.assertEquals(Arrays.asList(0.045, 1.25), SpaceObjects.getScale("Sun"));
+        Assert.assertEquals(Arrays.asList(450.0, 450.0), SpaceObjects.getScale("Earth"));
+        Assert.assertNull(SpaceObjects.getScale("Mercury"));
+        Assert.assertNull(SpaceObjects.getScale("Vulcan"));
+    }
+
+    @Test
+    public void testCatalog() throws Exception {
+        // A catalog with a minor body around the star, which is not a planet, and one without a type at all
+        Path csv = Files.createTempFile("catalog", ".csv");
+        Path cache = Files.createTempFile("catalog", ".bin");
+        Files.delete(cache);
+        try {
+            Files.write(csv, ("name,diameter,mass,orbit,period,angle,parent,min_scale,max_scale,type\n"
+                    + "Star,1000,1e30,0,0,0,,1,2,star\n"
+                    + "Planet,10,1e24,1e8,365,0,Star,,,planet\n"
+                    + "Rock,1,1e15,2e8,800,1,Star,,,asteroid\n"
+                    + "Moonlet,1,1e12,1e4,2,0,Planet,,\n").getBytes(StandardCharsets.UTF_8));
+
+            // Load twice, so the second load maps the cache written by the first
+            for (int load = 0; load < 2; load++) {
+                BodyCatalog catalog = CatalogLoader.load(csv, cache);
+                Assert.assertEquals(4, catalog.size());
+                Assert.assertEquals(2, catalog.find("Rock"));
+                Assert.assertEquals(-1, catalog.find("Rocks"));
+                Assert.assertEquals("Moonlet", catalog.getName(catalog.find("Moonlet")));
+                Assert.assertTrue(catalog.isMajor(catalog.find("Planet")));
+                Assert.assertFalse(catalog.isMajor(catalog.find("Rock")));
+                Assert.assertFalse(catalog.isMajor(catalog.find("Moonlet")));
+                Assert.assertEquals(1, catalog.getParent(catalog.find("Moonlet")));
+                Assert.assertTrue(Files.exists(cache));
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(cache);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package solarsystem.test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.telemetry.TelemetryReader;
+import solarsystem.telemetry.TelemetryRecorder;
+
+/**
+ * Test class for the TelemetryRecorder and TelemetryReader objects
+ * @author Laura McGhie
+ */
+public class TelemetryTest {
+
+    File file;
+    TelemetryRecorder recorder;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("telemetry", ".bin");
+        recorder = new TelemetryRecorder(file.toPath(), new String[] {"Earth", "ship"},
+                new TelemetryRecorder.Unit[] {TelemetryRecorder.Unit.KM, TelemetryRecorder.Unit.PIXELS}, 8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        recorder.close();
+        file.delete();
+    }
+
+    @Test
+    public void testReadBack() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            recorder.begin(i, i * 0.5, i / 2);
+            recorder.put(0, i * 10, -i * 10);
+            recorder.put(1, i, i + 1);
+            recorder.commit();
+        }
+
+        TelemetryReader reader = new TelemetryReader(file.toPath());
+        Assert.assertEquals(2, reader.getChannelCount());
+        Assert.assertEquals("ship", reader.getChannelName(1));
+        Assert.assertEquals(5, reader.getCount());
+        Assert.assertEquals(1.5, reader.getTime(3), 0);
+        Assert.assertEquals(1, reader.getStage(3));
+        Assert.assertEquals(-40, reader.getY(4, 0), 0);
+        Assert.assertEquals(5, reader.getY(4, 1), 0);
+    }
+
+    @Test
+    public void testRingReplacesOldest() throws Exception {
+        // Write more records than the file holds, leaving the second channel out of every record
+        for (int i = 0; i < 20; i++) {
+            recorder.begin(i, i, 0);
+            recorder.put(0, i, i);
+            recorder.commit();
+        }
+
+        TelemetryReader reader = new TelemetryReader(file.toPath());
+        Assert.assertEquals(12, reader.getFirst());
+        Assert.assertEquals(12, reader.getStep(12));
+        Assert.assertEquals(19, reader.getX(19, 0), 0);
+        Assert.assertTrue(Double.isNaN(reader.getX(19, 1)));
+
+        // Only the records still held are exported, after the header line
+        StringWriter csv = new StringWriter();
+        reader.exportCsv(csv);
+        Assert.assertEquals(9, csv.toString().split("\n").length);
+    }
+
+    @Test
+    public void testMaxCapacity() throws Exception {
+        // Two hours at a step every 2 ms fits in a single file for a route of a few bodies
+        String[] names = {"Earth", "Moon", "Mars", "Phobos", "enterprise", "falcon"};
+        int max = TelemetryRecorder.maxCapacity(names);
+        Assert.assertTrue(max >= 2 * 3600 * 500);
+
+        // One record more would make the file too large to map
+        TelemetryRecorder.Unit[] units = new TelemetryRecorder.Unit[names.length];
+        Arrays.fill(units, TelemetryRecorder.Unit.KM);
+        try {
+            new TelemetryRecorder(file.toPath(), names, units, max + 1);
+            Assert.fail("File too large to map was created");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("too large"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplacedRecord() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            recorder.begin(i, i, 0);
+            recorder.commit();
+        }
+        new TelemetryReader(file.toPath()).getStep(3);
+    }
+}
@@ -0,0 +1,73 @@
+package solarsystem.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.objects.SimulationClock;
+import solarsystem.objects.TimeWarp;
+
+/**
+ * Test class for the TimeWarp object
+ * @author Laura McGhie
+ */
+public class TimeWarpTest {
+
+    @Test
+    public void testSpeedRange() throws Exception {
+        double factor = 1;
+        while (!TimeWarp.isFastest(factor)) {
+            factor = TimeWarp.faster(factor);
+        }
+        Assert.assertEquals(TimeWarp.MAX_FACTOR, factor, 0);
+        Assert.assertTrue(factor >= 1e6);
+        Assert.assertEquals(TimeWarp.MAX_FACTOR, TimeWarp.faster(factor), 0);
+
+        while (!TimeWarp.isSlowest(factor)) {
+            factor = TimeWarp.slower(factor);
+        }
+        Assert.assertEquals(TimeWarp.MIN_FACTOR, factor, 0);
+    }
+
+    @Test
+    public void testArrivalNeverSkipped() throws Exception {
+        // A transfer of about 30 years, played at every speed in both directions around the path
+        double period = 22000;
+        for (double factor = 1; factor <= TimeWarp.MAX_FACTOR; factor *= 8) {
+            for (int direction = 0; direction < 2; direction++) {
+                double angle = direction * Math.PI;
+                double target = Math.PI - angle;
+                int steps = 0;
+
+                // Move the angle on as Spaceship.incrementAngle does, until it is within 1 degree of the target
+                while (Math.toDegrees(TimeWarp.angleBetween(angle, target)) >= 1) {
+                    double step = TimeWarp.clampToAngle(factor, period, angle, target);
+                    Assert.assertTrue(step > 0 && step <= factor);
+                    angle += step * Math.toRadians(2 * Math.PI / period);
+                    if (angle >= 2 * Math.PI) {
+                        angle -= 2 * Math.PI;
+                    }
+                    Assert.assertTrue(++steps < 1000000);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSingleStepAtFullWarp() throws Exception {
+        // The whole transfer fits in one step, which ends exactly on the target
+        double step = TimeWarp.clampToAngle(TimeWarp.MAX_FACTOR, 22000, 0, Math.PI);
+        Assert.assertEquals(Math.PI, step * Math.toRadians(2 * Math.PI / 22000), 1e-12);
+    }
+
+    @Test
+    public void testStepEndsOnEvent() throws Exception {
+        // Far from the event the whole factor is used, close to it the step only reaches the event
+        Assert.assertEquals(64, TimeWarp.clampToTime(64, 0, 1000), 0);
+        Assert.assertEquals(64, TimeWarp.clampToTime(64, 0, Double.POSITIVE_INFINITY), 0);
+        double step = TimeWarp.clampToTime(TimeWarp.MAX_FACTOR, 10, 12.5);
+        Assert.assertEquals(2.5, step * SimulationClock.DAYS_PER_STEP, 1e-12);
+
+        // An event which has been reached, or passed, stops the clock
+        Assert.assertEquals(0, TimeWarp.clampToTime(8, 3, 3), 0);
+        Assert.assertEquals(0, TimeWarp.clampToTime(8, 3, 2), 0);
+    }
+}
@@ -0,0 +1,70 @@
+package solarsystem.test;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.math.TransferWindowSolver;
+
+/**
+ * Test class for the TransferWindowSolver object
+ * @author Laura McGhie
+ */
+public class TransferWindowSolverTest {
+
+    double startV, endV, target, startAngle, endAngle;
+
+    @Before
+    public void setUp() throws Exception {
+        // Use random numbers to test on variety of cases
+        startV = Math.random() * 10 + 0.01;
+        endV = Math.random() * 10 + 0.01;
+        target = Math.random() * 360;
+        startAngle = Math.random() * 2 * Math.PI;
+        endAngle = Math.random() * 2 * Math.PI;
+    }
+
+    @Test
+    public void testPhaseAtWindow() throws Exception {
+        TransferWindowSolver solver = new TransferWindowSolver(startV, endV, target);
+        double wait = solver.timeToWindow(startAngle, endAngle);
+
+        // Move both bodies on by the wait time and check the phase angle has reached the target
+        double newStart = startAngle + Math.toRadians(startV * wait);
+        double newEnd = endAngle + Math.toRadians(endV * wait);
+        double phase = TransferWindowSolver.phaseAngle(newStart, newEnd);
+
+        double difference = Math.abs(phase - target);
+        Assert.assertTrue(difference < 1e-6 || Math.abs(difference - 360) < 1e-6);
+    }
+
+    @Test
+    public void testWindowInFuture() throws Exception {
+        TransferWindowSolver solver = new TransferWindowSolver(startV, endV, target);
+        double wait = solver.timeToWindow(startAngle, endAngle);
+
+        Assert.assertTrue(wait >= 0 && wait < solver.getSynodicPeriod());
+    }
+
+    @Test
+    public void testWindowOpen() throws Exception {
+        TransferWindowSolver solver = new TransferWindowSolver(startV, endV, 90);
+        Assert.assertTrue(solver.timeToWindow(0, Math.PI / 2) < 1e-9);
+    }
+
+    @Test
+    public void testNextWindows() throws Exception {
+        TransferWindowSolver solver = new TransferWindowSolver(startV, endV, target);
+        double[] windows = solver.nextWindows(startAngle, endAngle, 5);
+
+        Assert.assertTrue(windows[0] == solver.timeToWindow(startAngle, endAngle));
+        for (int i = 1; i < windows.length; i++) {
+            Assert.assertTrue(Math.abs(windows[i] - windows[i - 1] - solver.getSynodicPeriod()) < 1e-6);
+        }
+    }
+
+    @Test
+    public void testSamePeriod() throws Exception {
+        TransferWindowSolver solver = new TransferWindowSolver(startV, startV, 90);
+        Assert.assertTrue(Double.isInfinite(solver.timeToWindow(0, 0)));
+    }
+}
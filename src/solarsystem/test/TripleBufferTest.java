@@ -0,0 +1,79 @@
+package solarsystem.test;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import solarsystem.simulation.BodySnapshot;
+import solarsystem.simulation.TripleBuffer;
+
+/**
+ * Test class for the TripleBuffer object
+ * @author Laura McGhie
+ */
+public class TripleBufferTest {
+
+    private static final int BODIES = 64;
+    private static final int STEPS = 200000;
+
+    @Test
+    public void testLatestState() throws Exception {
+        TripleBuffer<BodySnapshot> buffer = new TripleBuffer<>(new BodySnapshot(1), new BodySnapshot(1),
+                new BodySnapshot(1));
+        Assert.assertFalse(buffer.isFresh());
+        Assert.assertEquals(0, buffer.acquire().getStep());
+
+        // Only the latest of several states published is seen, and it stays until a newer one is published
+        double[] position = new double[1];
+        for (int step = 1; step <= 3; step++) {
+            position[0] = step;
+            buffer.getBack().set(step, step, position, position, position, position);
+            buffer.publish();
+        }
+        Assert.assertTrue(buffer.isFresh());
+        BodySnapshot latest = buffer.acquire();
+        Assert.assertEquals(3, latest.getStep());
+        Assert.assertFalse(buffer.isFresh());
+        Assert.assertSame(latest, buffer.acquire());
+    }
+
+    @Test
+    public void testConcurrentHandoff() throws Exception {
+        final TripleBuffer<BodySnapshot> buffer = new TripleBuffer<>(new BodySnapshot(BODIES),
+                new BodySnapshot(BODIES), new BodySnapshot(BODIES));
+
+        // Every body in a step is at the same position as the step number, so a torn snapshot would show
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                double[] previous = new double[BODIES];
+                double[] current = new double[BODIES];
+                for (int step = 1; step <= STEPS; step++) {
+                    Arrays.fill(previous, step - 1);
+                    Arrays.fill(current, step);
+                    buffer.getBack().set(step, step, previous, previous, current, current);
+                    buffer.publish();
+                }
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        while (last < STEPS) {
+            BodySnapshot snapshot = buffer.acquire();
+            long step = snapshot.getStep();
+            Assert.assertTrue(step >= last);
+            for (int i = 0; i < BODIES; i++) {
+                Assert.assertEquals(step, snapshot.getX(i, 1), 0);
+                Assert.assertEquals(Math.max(step - 1, 0), snapshot.getY(i, 0), 0);
+            }
+            last = step;
+        }
+        writer.join();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSharedSlot() throws Exception {
+        BodySnapshot slot = new BodySnapshot(1);
+        new TripleBuffer<>(slot, slot, new BodySnapshot(1));
+    }
+}
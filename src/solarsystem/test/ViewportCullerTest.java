@@ -0,0 +1,132 @@
+package solarsystem.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.view.ViewportCuller;
+
+/**
+ * Test class for the ViewportCuller object
+ * @author Laura McGhie
+ */
+public class ViewportCullerTest {
+
+    BodyInSpace star;
+    BodyInSpace[] planets;
+
+    @Before
+    public void setUp() throws Exception {
+        // Planets at the distances of the real ones in km, given out of order
+        double[] orbits = {778.5e6, 57.92e6, 4495e6, 149.6e6, 227.9e6, 108.2e6, 2872e6, 1433e6};
+        star = new BodyInSpace("Star", 1391684, 1.989e30, 0, 0, 0, null);
+        planets = new BodyInSpace[orbits.length];
+        for (int i = 0; i < orbits.length; i++) {
+            planets[i] = new BodyInSpace("Planet" + i, 10000, 1e24, orbits[i], 365, 0, star);
+        }
+    }
+
+    @Test
+    public void testZoomedIn() throws Exception {
+        // At the largest scale only the four inner planets reach a 600 pixel display centred on the star
+        ViewportCuller culler = new ViewportCuller(planets);
+        culler.setViewport(0, 0, 600, 600);
+        Assert.assertTrue(culler.cull(300, 300, 1.25));
+        Assert.assertEquals(0, culler.getCollapsed());
+        Assert.assertEquals(4, culler.getVisible().size());
+        Assert.assertEquals(227.9, culler.getVisible().get(3).getOrbit(), 1e-9);
+
+        // Culling again at the same scale changes nothing
+        Assert.assertFalse(culler.cull(300, 300, 1.25));
+    }
+
+    @Test
+    public void testZoomedOut() throws Exception {
+        // At the smallest scale the innermost planet is too close to the star to pick out, and the rest are drawn
+        ViewportCuller culler = new ViewportCuller(planets);
+        culler.setViewport(0, 0, 600, 600);
+        culler.cull(300, 300, 0.045);
+        Assert.assertEquals(1, culler.getCollapsed());
+        Assert.assertEquals(1, culler.getFirst());
+        Assert.assertEquals(planets.length, culler.getEnd());
+        Assert.assertFalse(culler.getVisible().contains(planets[1]));
+        Assert.assertTrue(culler.getVisible().contains(planets[5]));
+        Assert.assertTrue(culler.getVisible().contains(planets[2]));
+    }
+
+    @Test
+    public void testPanned() throws Exception {
+        // Panned far from the star, only the orbits which pass through the viewport are kept
+        ViewportCuller culler = new ViewportCuller(planets);
+        culler.setViewport(2000, -100, 2600, 500);
+        culler.cull(300, 300, 1.25);
+        for (BodyInSpace body : culler.getVisible()) {
+            Assert.assertTrue(body.getOrbit() * 1.25 >= 1700 - 4);
+        }
+        Assert.assertEquals(1, culler.getVisible().size());
+        Assert.assertSame(planets[7], culler.getVisible().get(0));
+        Assert.assertEquals(7, culler.getIndex(culler.getFirst()));
+
+        // The last bodies drawn are kept, to be hidden once they leave the viewport
+        culler.setViewport(0, 0, 600, 600);
+        Assert.assertTrue(culler.cull(300, 300, 1.25));
+        Assert.assertEquals(5, culler.getLastFirst());
+        Assert.assertEquals(6, culler.getLastEnd());
+        Assert.assertFalse(culler.isVisible(culler.getLastFirst()));
+    }
+
+    @Test
+    public void testMatchesEveryOrbit() throws Exception {
+        // Compare the run found by searching with a scan of every orbit
+        Random random = new Random(7);
+        List<BodyInSpace> bodies = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            bodies.add(new BodyInSpace("Body" + i, 100, 1e20, random.nextDouble() * 5e9, 365, 0, star));
+        }
+        ViewportCuller culler = new ViewportCuller(bodies);
+        culler.setViewport(0, 0, 600, 600);
+
+        for (int trial = 0; trial < 200; trial++) {
+            double scale = Math.pow(10, random.nextDouble() * 4 - 2);
+            double cx = random.nextDouble() * 4000 - 2000;
+            double cy = random.nextDouble() * 4000 - 2000;
+            culler.cull(cx, cy, scale);
+
+            int expected = 0;
+            for (BodyInSpace body : bodies) {
+                double radius = body.getOrbit() * scale;
+                if (radius >= ViewportCuller.COLLAPSE_RADIUS && crossesViewport(cx, cy, radius, 600, 600, 4)) {
+                    expected++;
+                }
+            }
+            Assert.assertEquals(expected, culler.getVisible().size());
+
+            // Any body which can be placed at a point in the viewport must be drawn
+            double x = random.nextDouble() * 600;
+            double y = random.nextDouble() * 600;
+            double radius = Math.hypot(x - cx, y - cy);
+            if (radius >= ViewportCuller.COLLAPSE_RADIUS) {
+                BodyInSpace body = new BodyInSpace("Point", 100, 1e20, radius / scale * 1e6, 365, 0, star);
+                ViewportCuller single = new ViewportCuller(new BodyInSpace[] {body});
+                single.setViewport(0, 0, 600, 600);
+                single.cull(cx, cy, scale);
+                Assert.assertEquals(1, single.getVisible().size());
+            }
+        }
+    }
+
+    /**
+     * Internal method to check if a circle passes within a margin of a viewport at the origin
+     */
+    private static boolean crossesViewport(double cx, double cy, double r, double w, double h, double margin) {
+        // The circle must lie between the nearest and furthest points of the viewport from its centre
+        double dx = Math.max(Math.max(-cx, cx - w), 0);
+        double dy = Math.max(Math.max(-cy, cy - h), 0);
+        double fx = Math.max(cx, w - cx);
+        double fy = Math.max(cy, h - cy);
+        return r >= Math.hypot(dx, dy) - margin && r <= Math.hypot(fx, fy) + margin;
+    }
+}
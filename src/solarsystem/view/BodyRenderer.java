@@ -0,0 +1,65 @@
+package solarsystem.view;
+
+import java.util.HashMap;
+import java.util.Map;
+import solarsystem.objects.BodyInSpace;
+
+/**
+ * Object to hold the views of the bodies currently shown on a display. A view is only created for a body
+ * when it is first shown, and the views are dropped when the display changes to a new frame, so bodies
+ * which are never shown never carry any GUI objects.
+ *
+ * @author Laura McGhie
+ */
+public class BodyRenderer {
+
+	private final Map<BodyInSpace, BodyView> views = new HashMap<>();
+
+	/**
+	 * Get the view of the given body, creating it if the body is not shown yet
+	 * @param body body to get the view of
+	 * @return view of the body
+	 */
+	public BodyView view(BodyInSpace body) {
+		BodyView view = views.get(body);
+		if (view == null) {
+			view = new BodyView(body);
+			views.put(body, view);
+		}
+		return view;
+	}
+
+	/**
+	 * Check if the given body currently has a view
+	 * @param body body to check
+	 * @return true if the body is shown
+	 */
+	public boolean isShown(BodyInSpace body) {
+		return views.containsKey(body);
+	}
+
+	/**
+	 * Reposition the orbit of the given body with the given radius, centred on the position of its parent
+	 * @param body body whose orbit is redrawn
+	 * @param radius orbital distance from parent body on screen
+	 */
+	public void adjustGUIOrbit(BodyInSpace body, double radius) {
+		BodyView parent = view(body.getParent());
+		view(body).adjustGUIOrbit(radius, parent.getX(), parent.getY());
+	}
+
+	/**
+	 * Get the number of bodies currently shown
+	 * @return number of views
+	 */
+	public int size() {
+		return views.size();
+	}
+
+	/**
+	 * Drop the views of all bodies, ready for a new frame to be drawn
+	 */
+	public void clear() {
+		views.clear();
+	}
+}
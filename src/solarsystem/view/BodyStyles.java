@@ -0,0 +1,107 @@
+package solarsystem.view;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javafx.scene.paint.Color;
+
+/**
+ * Static class to read the fill and stroke colours of each style class from the body style sheet, so that bodies
+ * drawn on a canvas use the same colours as the GUI objects styled by the sheet.
+ *
+ * @author Laura McGhie
+ */
+class BodyStyles {
+
+	private static final String STYLESHEET = "/solarsystem/resources/css/spacebodies.css";
+
+	// Colour used for bodies which have no style in the sheet
+	static final Color DEFAULT_FILL = Color.web("#D3D3D3");
+
+	private static final Map<String, Color> fills = new HashMap<>();
+	private static final Map<String, Color> strokes = new HashMap<>();
+
+	private final static Logger LOGGER = Logger.getLogger(BodyStyles.class.getName());
+
+	static {
+		try {
+			parse(read());
+		} catch (IOException e) {
+			LOGGER.warning("Could not read body styles: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Get the fill colour of a style class
+	 * @param styleClass name of the class, without the leading dot
+	 * @param fallback colour to use if the class has no fill
+	 * @return fill colour
+	 */
+	static Color fill(String styleClass, Color fallback) {
+		Color colour = fills.get(styleClass);
+		return colour != null ? colour : fallback;
+	}
+
+	/**
+	 * Get the stroke colour of a style class
+	 * @param styleClass name of the class, without the leading dot
+	 * @param fallback colour to use if the class has no stroke
+	 * @return stroke colour
+	 */
+	static Color stroke(String styleClass, Color fallback) {
+		Color colour = strokes.get(styleClass);
+		return colour != null ? colour : fallback;
+	}
+
+	/**
+	 * Internal method to read the fill and stroke of every rule in the sheet
+	 */
+	private static void parse(String css) {
+		Matcher rule = Pattern.compile("([^{}]+)\\{([^}]*)\\}").matcher(css);
+		Pattern property = Pattern.compile("-fx-(fill|stroke)\\s*:\\s*([^;]+);");
+
+		while (rule.find()) {
+			Matcher declaration = property.matcher(rule.group(2));
+			while (declaration.find()) {
+				Color colour;
+				try {
+					colour = Color.web(declaration.group(2).trim());
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+
+				Map<String, Color> target = declaration.group(1).equals("fill") ? fills : strokes;
+				for (String selector : rule.group(1).split(",")) {
+					selector = selector.trim();
+					if (selector.startsWith(".")) {
+						target.put(selector.substring(1), colour);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Internal method to read the style sheet
+	 */
+	private static String read() throws IOException {
+		try (InputStream in = BodyStyles.class.getResourceAsStream(STYLESHEET)) {
+			if (in == null) {
+				throw new IOException("Missing " + STYLESHEET);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toString(StandardCharsets.UTF_8.name());
+		}
+	}
+}
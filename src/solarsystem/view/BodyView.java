@@ -0,0 +1,184 @@
+package solarsystem.view;
+
+import javafx.scene.shape.Circle;
+import solarsystem.objects.BodyInSpace;
+
+/**
+ * BodyView class used to hold the on screen state of a single body - its position on the display, and the GUI
+ * objects for the body and its orbital path. The GUI objects are only created the first time they are asked for,
+ * so a view can be used to track the position of a body without ever drawing it.
+ *
+ * @author Laura McGhie
+ */
+public class BodyView {
+
+	// Radius of a body on screen, in pixels
+	public static final double RADIUS = 4;
+
+	private final BodyInSpace body;
+	private Circle gui_object;
+	private Circle gui_orbit;
+	private double pos_x;
+	private double pos_y;
+
+	// Position at the step before the current one, used to blend between steps when drawing
+	private double prev_x;
+	private double prev_y;
+	private boolean placed;
+
+	/**
+	 * Constructor to create a view of the given body
+	 * @param body body shown by this view
+	 */
+	BodyView(BodyInSpace body) {
+		this.body = body;
+	}
+
+	/**
+	 * Get the body shown by this view
+	 * @return body
+	 */
+	public BodyInSpace getBody() {
+		return this.body;
+	}
+
+	/**
+	 * Get GUI object which represents the body, creating it at the origin point of the canvas (top left)
+	 * if it does not exist yet
+	 * @return GUI object to represent planet
+	 */
+	public Circle getGUIObject() {
+		if (this.gui_object == null) {
+			reset();
+		}
+		return this.gui_object;
+	}
+
+	/**
+	 * Get GUI object which represents orbital path of body, creating it centred in the middle of the window
+	 * if it does not exist yet
+	 * @return gui object to display orbital path
+	 */
+	public Circle getGUIOrbit() {
+		if (this.gui_orbit == null) {
+			// Add style class so only border of the object is displayed on screen
+			this.gui_orbit = new Circle(295, 295, body.getOrbit());
+			this.gui_orbit.getStyleClass().add("planet-orbit-path");
+		}
+		return this.gui_orbit;
+	}
+
+	/**
+	 * Check if the GUI object for the body has been created
+	 * @return true if the body has a GUI object
+	 */
+	public boolean hasGUIObject() {
+		return this.gui_object != null;
+	}
+
+	/**
+	 * Resets the body object by replacing it with a new object
+	 * centred at the origin, and adding styles. Necessary when
+	 * moving to new scene due to displacement of existing objects.
+	 */
+	public void reset() {
+		this.gui_object = new Circle(0, 0, RADIUS);
+		this.gui_object.getStyleClass().add("body-" + body.getName());
+	}
+
+	/**
+	 * Set current position of body on the display, keeping the previous position so the body can be
+	 * drawn part way between the two.
+	 * @param x co-ordinate of the body
+	 * @param y co-ordinate of the body
+	 */
+	public void setPosition(double x, double y) {
+		// The first position has nothing to blend from, so start from the same point
+		this.prev_x = placed ? this.pos_x : x;
+		this.prev_y = placed ? this.pos_y : y;
+		this.pos_x = x;
+		this.pos_y = y;
+		this.placed = true;
+	}
+
+	/**
+	 * Set both the previous and the current position of the body on the display, for positions worked out
+	 * elsewhere along with the step before
+	 * @param prevX x co-ordinate of the body at the previous step
+	 * @param prevY y co-ordinate of the body at the previous step
+	 * @param x co-ordinate of the body
+	 * @param y co-ordinate of the body
+	 */
+	public void setPosition(double prevX, double prevY, double x, double y) {
+		this.prev_x = prevX;
+		this.prev_y = prevY;
+		this.pos_x = x;
+		this.pos_y = y;
+		this.placed = true;
+	}
+
+	/**
+	 * Readjusts planet for a new center point, by relocating GUI
+	 * object and updating the position x & y attributes of the view.
+	 *
+	 * @param point_x new x co-ordinate of planet
+	 * @param point_y new y co-ordinate of planet
+	 */
+	public void moveGUIObject(double point_x, double point_y) {
+		getGUIObject().setCenterX(point_x);
+		getGUIObject().setCenterY(point_y);
+
+		this.pos_x = point_x;
+		this.pos_y = point_y;
+		this.prev_x = point_x;
+		this.prev_y = point_y;
+		this.placed = true;
+	}
+
+	/**
+	 * Reposition the GUI orbit object with the given radius, and
+	 * re-centre it on the given position of the parent body.
+	 * @param radius orbital distance from parent body on screen
+	 * @param center_x x co-ordinate of the parent body
+	 * @param center_y y co-ordinate of the parent body
+	 */
+	void adjustGUIOrbit(double radius, double center_x, double center_y) {
+		getGUIOrbit().setRadius(radius);
+		getGUIOrbit().setCenterX(center_x);
+		getGUIOrbit().setCenterY(center_y);
+	}
+
+	/**
+	 * Get x co-ordinate of body's current position on the display
+	 * @return x co-ordinate
+	 */
+	public double getX() {
+		return this.pos_x;
+	}
+
+	/**
+	 * Get y co-ordinate of body's current position on the display
+	 * @return y co-ordinate
+	 */
+	public double getY() {
+		return this.pos_y;
+	}
+
+	/**
+	 * Get x co-ordinate of the body part way between its previous and current position
+	 * @param alpha fraction of the way from the previous position, from 0 up to 1
+	 * @return x co-ordinate
+	 */
+	public double getX(double alpha) {
+		return this.prev_x + (this.pos_x - this.prev_x) * alpha;
+	}
+
+	/**
+	 * Get y co-ordinate of the body part way between its previous and current position
+	 * @param alpha fraction of the way from the previous position, from 0 up to 1
+	 * @return y co-ordinate
+	 */
+	public double getY(double alpha) {
+		return this.prev_y + (this.pos_y - this.prev_y) * alpha;
+	}
+}
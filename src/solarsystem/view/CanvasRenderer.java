@@ -0,0 +1,115 @@
+package solarsystem.view;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import solarsystem.objects.BodyInSpace;
+import solarsystem.objects.Spaceship;
+
+/**
+ * Object to draw a frame of the solar system onto a single canvas. Every orbit, body and spacecraft is drawn in one
+ * pass, so no GUI objects or transitions are created while the animation runs. Positions are read from the views
+ * held by a BodyRenderer, and colours are taken from the body style sheet.
+ *
+ * @author Laura McGhie
+ */
+public class CanvasRenderer {
+
+	// Radius of a body on screen, matching the GUI objects used when drawing with nodes
+	private static final double BODY_RADIUS = BodyView.RADIUS;
+
+	private final Canvas canvas;
+	private final GraphicsContext gc;
+	private final Color orbitColour;
+	private final Color trailColour;
+	private final Color shipColour;
+
+	// Colour of each body drawn so far, so the style sheet is only searched once per body
+	private final Map<BodyInSpace, Color> colours = new HashMap<>();
+
+	/**
+	 * Constructor to create a canvas of the given size
+	 * @param width width of the canvas
+	 * @param height height of the canvas
+	 */
+	public CanvasRenderer(double width, double height) {
+		this.canvas = new Canvas(width, height);
+		this.gc = canvas.getGraphicsContext2D();
+		this.orbitColour = BodyStyles.stroke("planet-orbit-path", Color.DARKGREY);
+		this.trailColour = BodyStyles.stroke("spacecraft-path", Color.ORANGE);
+		this.shipColour = BodyStyles.fill("spacecraft", Color.YELLOW);
+	}
+
+	/**
+	 * Get the canvas to add to the display
+	 * @return canvas
+	 */
+	public Canvas getCanvas() {
+		return this.canvas;
+	}
+
+	/**
+	 * Draw a frame with the parent body, its children and their orbits, and any spacecraft
+	 * @param views views holding the position of each body on the display
+	 * @param parent body at the centre of the frame
+	 * @param bodies children of the parent shown in the frame
+	 * @param scale current screen scale
+	 * @param alpha fraction of the way from the previous step to the current one to draw positions at
+	 * @param ships spacecraft to draw along with their paths
+	 */
+	public void draw(BodyRenderer views, BodyInSpace parent, Collection<BodyInSpace> bodies, double scale,
+					 double alpha, Spaceship... ships) {
+		gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+		// Draw the orbits first, so they are underneath the bodies
+		BodyView centre = views.view(parent);
+		gc.setStroke(orbitColour);
+		gc.setLineWidth(1);
+		for (BodyInSpace body : bodies) {
+			double radius = body.getOrbit() * scale;
+			gc.strokeOval(centre.getX() - radius, centre.getY() - radius, radius * 2, radius * 2);
+		}
+
+		// Draw the path of each spacecraft, rotated to match the angle of the path
+		gc.setStroke(trailColour);
+		for (Spaceship ship : ships) {
+			if (ship.getRadiusX() > 0 || ship.getRadiusY() > 0) {
+				gc.save();
+				gc.translate(ship.getCenterX(), ship.getCenterY());
+				gc.rotate(Math.toDegrees(ship.getPathRotation()));
+				gc.strokeOval(-ship.getRadiusX(), -ship.getRadiusY(), ship.getRadiusX() * 2, ship.getRadiusY() * 2);
+				gc.restore();
+			}
+		}
+
+		// Draw the parent and then each of its children
+		drawBody(parent, centre, alpha);
+		for (BodyInSpace body : bodies) {
+			drawBody(body, views.view(body), alpha);
+		}
+
+		// Draw the spacecraft on top of everything else
+		gc.setFill(shipColour);
+		for (Spaceship ship : ships) {
+			gc.fillOval(ship.getX(alpha) - BODY_RADIUS, ship.getY(alpha) - BODY_RADIUS, BODY_RADIUS * 2,
+					BODY_RADIUS * 2);
+		}
+	}
+
+	/**
+	 * Internal method to draw a single body at the position held by its view
+	 */
+	private void drawBody(BodyInSpace body, BodyView view, double alpha) {
+		Color colour = colours.get(body);
+		if (colour == null) {
+			colour = BodyStyles.fill("body-" + body.getName(), BodyStyles.DEFAULT_FILL);
+			colours.put(body, colour);
+		}
+		gc.setFill(colour);
+		gc.fillOval(view.getX(alpha) - BODY_RADIUS, view.getY(alpha) - BODY_RADIUS, BODY_RADIUS * 2,
+				BODY_RADIUS * 2);
+	}
+}
@@ -0,0 +1,66 @@
+package solarsystem.view;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import solarsystem.simulation.BodySnapshot;
+
+/**
+ * Object to draw a whole fleet of spacecraft onto a canvas of its own, laid over the rest of the display. Every ship
+ * is drawn as a small square in the same colour in a single pass, so thousands of ships cost no more nodes than one
+ * and the fill colour is only set once per frame. Ships outside the canvas are skipped.
+ *
+ * @author Laura McGhie
+ */
+public class FleetRenderer {
+
+	// Width of a ship on screen
+	private static final double SHIP_SIZE = 2;
+
+	private final Canvas canvas;
+	private final GraphicsContext gc;
+	private final Color shipColour;
+
+	/**
+	 * Constructor to create a canvas of the given size, which lets mouse events through to the display beneath
+	 * @param width width of the canvas
+	 * @param height height of the canvas
+	 */
+	public FleetRenderer(double width, double height) {
+		this.canvas = new Canvas(width, height);
+		this.canvas.setMouseTransparent(true);
+		this.gc = canvas.getGraphicsContext2D();
+		this.shipColour = BodyStyles.fill("spacecraft", Color.YELLOW);
+	}
+
+	/**
+	 * Get the canvas to add to the display
+	 * @return canvas
+	 */
+	public Canvas getCanvas() {
+		return this.canvas;
+	}
+
+	/**
+	 * Draw every ship in a snapshot of the fleet
+	 * @param ships position of each ship from the root body in millions of km
+	 * @param centreX x co-ordinate of the root body on the display
+	 * @param centreY y co-ordinate of the root body on the display
+	 * @param scale current screen scale
+	 */
+	public void draw(BodySnapshot ships, double centreX, double centreY, double scale) {
+		double width = canvas.getWidth();
+		double height = canvas.getHeight();
+		gc.clearRect(0, 0, width, height);
+
+		gc.setFill(shipColour);
+		double half = SHIP_SIZE / 2;
+		for (int i = 0; i < ships.size(); i++) {
+			double x = centreX + ships.getX(i, 1) * scale;
+			double y = centreY + ships.getY(i, 1) * scale;
+			if (x >= 0 && y >= 0 && x < width && y < height) {
+				gc.fillRect(x - half, y - half, SHIP_SIZE, SHIP_SIZE);
+			}
+		}
+	}
+}
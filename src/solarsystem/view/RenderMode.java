@@ -0,0 +1,33 @@
+package solarsystem.view;
+
+import java.util.logging.Logger;
+
+/**
+ * Options for how the animated views draw the solar system. NODES adds a GUI object to the display for each body,
+ * orbit and spacecraft, and moves them with transitions. CANVAS draws everything onto a single canvas once per
+ * frame, which copes with far more bodies.
+ *
+ * @author Laura McGhie
+ */
+public enum RenderMode {
+	NODES, CANVAS;
+
+	private final static Logger LOGGER = Logger.getLogger(RenderMode.class.getName());
+
+	/**
+	 * Get the render mode with the given name, ignoring case
+	 * @param name name of the mode, or null for the default
+	 * @return matching mode, or NODES if the name is not recognised
+	 */
+	public static RenderMode parse(String name) {
+		if (name == null) {
+			return NODES;
+		}
+		try {
+			return valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			LOGGER.warning("Unknown render mode " + name + ", drawing with nodes");
+			return NODES;
+		}
+	}
+}
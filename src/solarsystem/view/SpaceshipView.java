@@ -0,0 +1,67 @@
+package solarsystem.view;
+
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Ellipse;
+import solarsystem.objects.Spaceship;
+
+/**
+ * Object to hold the GUI objects which draw a spacecraft and its path, when drawing with nodes. The spacecraft
+ * itself is only a model, so it can be moved on the simulation thread, and the GUI objects are moved to match it on
+ * the JavaFX thread.
+ *
+ * @author Laura McGhie
+ */
+public class SpaceshipView {
+
+	private final Circle gui_object;
+	private final Ellipse gui_trail;
+
+	/**
+	 * Default constructor to create the GUI objects for a spacecraft
+	 */
+	public SpaceshipView() {
+
+		/* Create an object to represent the spacecraft itself, add at origin point of
+		 * canvas (top left) for calculation purposes and use the spacecraft css style to colour this. */
+		this.gui_object = new Circle(0, 0, BodyView.RADIUS);
+		this.gui_object.getStyleClass().add("spacecraft");
+
+		/* Establish GUI object for the orbit path of the spacecraft, centred at the
+		 * origin point of the canvas (top left) for calculation purposes. Add style
+		 * class so only border of the object is displayed on screen. */
+		this.gui_trail = new Ellipse(0, 0);
+		this.gui_trail.getStyleClass().add("spacecraft-path");
+	}
+
+	/**
+	 * Get the GUI object which represents the orbit path of the spacecraft
+	 * @return Ellipse for spacecraft orbit
+	 */
+	public Ellipse getGUITrail() {
+		return this.gui_trail;
+	}
+
+	/**
+	 * Get the GUI object which represents the spacecraft itself
+	 * @return Circle representing spacecraft
+	 */
+	public Circle getGUIShip() {
+		return this.gui_object;
+	}
+
+	/**
+	 * Move the GUI objects to match a spacecraft: the path to its current path, and the spacecraft part way between
+	 * its last two positions
+	 * @param ship spacecraft to draw
+	 * @param alpha fraction of the way from the previous position, from 0 up to 1
+	 */
+	public void update(Spaceship ship, double alpha) {
+		gui_trail.setRadiusX(ship.getRadiusX());
+		gui_trail.setRadiusY(ship.getRadiusY());
+		gui_trail.setCenterX(ship.getCenterX());
+		gui_trail.setCenterY(ship.getCenterY());
+		gui_trail.setRotate(Math.toDegrees(ship.getPathRotation()));
+		gui_object.setTranslateX(ship.getX(alpha));
+		gui_object.setTranslateY(ship.getY(alpha));
+	}
+}
@@ -0,0 +1,41 @@
+package solarsystem.view;
+
+import javafx.scene.control.Label;
+import solarsystem.metrics.FrameStats;
+
+/**
+ * Object to show the frame statistics as text over the top left corner of a display pane. The overlay ignores the
+ * mouse, so it never gets in the way of the controls beneath it.
+ *
+ * @author Laura McGhie
+ */
+public class StatsOverlay {
+
+	private final Label label = new Label();
+	private final FrameStats stats;
+
+	/**
+	 * Constructor to create an overlay for the given statistics
+	 * @param stats statistics to show
+	 */
+	public StatsOverlay(FrameStats stats) {
+		this.stats = stats;
+		label.getStyleClass().add("statsOverlay");
+		label.setMouseTransparent(true);
+	}
+
+	/**
+	 * Get the GUI object to add to the display
+	 * @return overlay label
+	 */
+	public Label getGUIObject() {
+		return label;
+	}
+
+	/**
+	 * Update the text to the latest statistics
+	 */
+	public void update() {
+		label.setText(stats.getReport());
+	}
+}
@@ -0,0 +1,237 @@
+package solarsystem.view;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import solarsystem.objects.BodyInSpace;
+
+/**
+ * Object to work out which of the children of a body are worth drawing at the current scale, so the work done on
+ * each zoom or frame depends on what can be seen rather than on how many bodies there are. A child is only drawn
+ * if its orbit crosses the viewport, since a body always sits on its orbit, and if its orbit is wider on screen
+ * than a body. The children of a system too small to pick out are left to the glyph of their parent, which stands
+ * for the whole system until the display is zoomed in.
+ *
+ * The children are sorted by the size of their orbit, so both rules pick out a single run of children, which is
+ * found with two binary searches. The last run drawn is kept, so a display only needs to hide the children which
+ * have left the run and show those in it.
+ *
+ * @author Laura McGhie
+ */
+public class ViewportCuller {
+
+	/* Radius on screen which an orbit must be wider than for its body to be drawn apart from its parent, matching
+	 * the radius of a body on screen. Anything closer would be drawn on top of the parent. */
+	public static final double COLLAPSE_RADIUS = 4;
+
+	// Space left around the viewport, so bodies on orbits just off the edge are not cut off
+	private static final double MARGIN = 4;
+
+	private final BodyInSpace[] bodies;
+	private final int[] order;
+	private final double[] orbits;
+	private final List<BodyInSpace> visible;
+	private double minX, minY, maxX, maxY;
+	private int first, end, collapsed;
+	private int lastFirst, lastEnd;
+
+	/**
+	 * Constructor to create a culler for the given bodies, which share a parent
+	 * @param children bodies shown around the centre of the display
+	 */
+	public ViewportCuller(Collection<BodyInSpace> children) {
+		this(children.toArray(new BodyInSpace[0]));
+	}
+
+	/**
+	 * Constructor to create a culler for the given bodies, which share a parent. The index of each body in the
+	 * array is kept, so positions held in arrays in the same order can be looked up.
+	 * @param children bodies shown around the centre of the display
+	 */
+	public ViewportCuller(BodyInSpace[] children) {
+		// Sort the position of each body in the array by the size of its orbit
+		Integer[] sorted = new Integer[children.length];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		final BodyInSpace[] unsorted = children;
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(unsorted[a].getOrbit(), unsorted[b].getOrbit());
+			}
+		});
+
+		bodies = new BodyInSpace[children.length];
+		order = new int[children.length];
+		orbits = new double[children.length];
+		for (int i = 0; i < sorted.length; i++) {
+			order[i] = sorted[i];
+			bodies[i] = children[sorted[i]];
+			orbits[i] = bodies[i].getOrbit();
+		}
+
+		// Live view of the children currently drawn, so nothing is created on each frame
+		visible = new AbstractList<BodyInSpace>() {
+			@Override
+			public BodyInSpace get(int i) {
+				if (i < 0 || i >= end - first) {
+					throw new IndexOutOfBoundsException("Index " + i + " of " + (end - first) + " visible bodies");
+				}
+				return bodies[first + i];
+			}
+
+			@Override
+			public int size() {
+				return end - first;
+			}
+		};
+	}
+
+	/**
+	 * Set the area of the display which can be seen, in the co-ordinates bodies are drawn at
+	 * @param minX left edge of the viewport
+	 * @param minY top edge of the viewport
+	 * @param maxX right edge of the viewport
+	 * @param maxY bottom edge of the viewport
+	 * @throws IllegalArgumentException if the viewport is empty
+	 */
+	public void setViewport(double minX, double minY, double maxX, double maxY) {
+		if (!(maxX > minX && maxY > minY)) {
+			throw new IllegalArgumentException("Viewport must have a positive width and height");
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Work out which children to draw with their parent at the given point and the display at the given scale
+	 * @param centreX x co-ordinate of the parent on the display
+	 * @param centreY y co-ordinate of the parent on the display
+	 * @param scale current screen scale, the size on screen of a million km
+	 * @return true if the children to draw have changed since the last time
+	 */
+	public boolean cull(double centreX, double centreY, double scale) {
+		lastFirst = first;
+		lastEnd = end;
+
+		// Closest and furthest distance from the parent to any point of the viewport
+		double dx = Math.max(Math.max(minX - centreX, centreX - maxX), 0);
+		double dy = Math.max(Math.max(minY - centreY, centreY - maxY), 0);
+		double near = Math.sqrt(dx * dx + dy * dy);
+		double farX = Math.max(centreX - minX, maxX - centreX);
+		double farY = Math.max(centreY - minY, maxY - centreY);
+		double far = Math.sqrt(farX * farX + farY * farY);
+
+		// Orbits narrower than a body are collapsed into the parent, and the rest must reach the viewport
+		collapsed = search(COLLAPSE_RADIUS / scale, false);
+		first = Math.max(collapsed, search((near - MARGIN) / scale, false));
+		end = Math.max(first, search((far + MARGIN) / scale, true));
+		return first != lastFirst || end != lastEnd;
+	}
+
+	/**
+	 * Internal method to find the first child with an orbit larger than the given size, or no smaller if the size
+	 * itself is not included
+	 */
+	private int search(double orbit, boolean included) {
+		int low = 0;
+		int high = orbits.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (orbits[mid] < orbit || (included && orbits[mid] == orbit)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the children to draw, from the smallest orbit outwards. The list changes along with each cull.
+	 * @return bodies to draw
+	 */
+	public List<BodyInSpace> getVisible() {
+		return visible;
+	}
+
+	/**
+	 * Get the number of children, whether drawn or not
+	 * @return number of bodies
+	 */
+	public int size() {
+		return bodies.length;
+	}
+
+	/**
+	 * Get the child at a place in the order of orbit size
+	 * @param i place of the child, from the smallest orbit
+	 * @return body
+	 */
+	public BodyInSpace getBody(int i) {
+		return bodies[i];
+	}
+
+	/**
+	 * Get the index of a child in the array the culler was created from
+	 * @param i place of the child, from the smallest orbit
+	 * @return index in the original array
+	 */
+	public int getIndex(int i) {
+		return order[i];
+	}
+
+	/**
+	 * Get the place of the first child drawn
+	 * @return place from the smallest orbit
+	 */
+	public int getFirst() {
+		return first;
+	}
+
+	/**
+	 * Get the place after the last child drawn
+	 * @return place from the smallest orbit
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Check if the child at a place is drawn after the last cull
+	 * @param i place of the child, from the smallest orbit
+	 * @return true if the child is drawn
+	 */
+	public boolean isVisible(int i) {
+		return i >= first && i < end;
+	}
+
+	/**
+	 * Get the number of children too close to their parent to be drawn apart from it
+	 * @return number of children left to the glyph of the parent
+	 */
+	public int getCollapsed() {
+		return collapsed;
+	}
+
+	/**
+	 * Get the place of the first child drawn before the last cull
+	 * @return place from the smallest orbit
+	 */
+	public int getLastFirst() {
+		return lastFirst;
+	}
+
+	/**
+	 * Get the place after the last child drawn before the last cull
+	 * @return place from the smallest orbit
+	 */
+	public int getLastEnd() {
+		return lastEnd;
+	}
+}